@@ -1055,6 +1055,15 @@ public class CatalogDiffEngine {
                 assert isDRed != null;
                 if (!isDRed) return null;
             }
+            // String dictionary encoding can be switched on and off in place
+            if (field.equals("isDictionaryEncoded")) {
+                return null;
+            }
+        }
+
+        // An index's Bloom filter is built or dropped in place
+        if (suspect instanceof Index && field.equals("bloomFilter")) {
+            return null;
         }
 
         if (suspect instanceof Task && (field.equals("enabled") || field.equals("onError"))) {
@@ -1137,6 +1146,10 @@ public class CatalogDiffEngine {
         }
 
         else if (suspect instanceof MaterializedViewInfo) {
+            // The EE rebuilds its min/max value counts on its own when this changes.
+            if (field.equals("trackMinMax")) {
+                return null;
+            }
             if ( ! m_inStrictMatViewDiffMode) {
                 // Ignore differences to json fields that only reflect other underlying
                 // changes that are presumably checked and accepted/rejected separately.
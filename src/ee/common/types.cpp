@@ -105,6 +105,7 @@ map<PlanNodeType, string> const mapOfPlanNodeType {
    {PlanNodeType::Nestloop, "NESTLOOP"},
    {PlanNodeType::NestloopIndex, "NESTLOOPINDEX"},
    {PlanNodeType::MergeJoin, "MERGEJOIN"},
+   {PlanNodeType::HashJoin, "HASHJOIN"},
    {PlanNodeType::Update, "UPDATE"},
    {PlanNodeType::Insert, "INSERT"},
    {PlanNodeType::Delete, "DELETE"},
@@ -188,6 +188,7 @@ enum class PlanNodeType {
     Nestloop         = 20,
     NestloopIndex    = 21,
     MergeJoin        = 22,
+    HashJoin         = 23,
 
     //
     // Operator Nodes
@@ -368,7 +369,7 @@ enum QuantifierType {
 enum TableIndexType {
     BALANCED_TREE_INDEX     = 1,
     HASH_TABLE_INDEX        = 2,
-    BTREE_INDEX             = 3, // unused
+    BTREE_INDEX             = 3, // B+tree (CompactingBTree) flavor of the tree index
     COVERING_CELL_INDEX     = 4
 };
 
@@ -468,6 +469,7 @@ enum TaskType {
     TASK_TYPE_INIT_DRID_TRACKER = 8,             // not supported in EE
     TASK_TYPE_RESET_DR_APPLIED_TRACKER_SINGLE = 9, // not supported in EE
     TASK_TYPE_ELASTIC_CHANGE = 10,                 // not supported in EE
+    TASK_TYPE_WARM_PLAN_CACHE = 11,
 };
 
 // ------------------------------------------------------------------
@@ -139,6 +139,13 @@ void ExecutorVector::initPlanNode(VoltDBEngine* engine, AbstractPlanNode* node)
     }
     node->setExecutor(executor);
 
+    // Compile before the executor (and those of the inline nodes) pick up
+    // the node's expressions.  The compiled forms live as long as the plan,
+    // so they are cached along with this ExecutorVector.
+    if (engine->compileExpressions()) {
+        node->compileExpressions();
+    }
+
     // If this PlanNode has an internal PlanNode (e.g.,
     // AbstractScanPlanNode can have internal Projections), set
     // that internal node's executor as well.
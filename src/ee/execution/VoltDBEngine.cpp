@@ -76,6 +76,7 @@
 #include "storage/AbstractDRTupleStream.h"
 #include "storage/DRTupleStream.h"
 #include "storage/ExecuteTaskUndoGenerateDREventAction.h"
+#include "storage/LargeTempTable.h"
 #include "storage/MaterializedViewHandler.h"
 #include "storage/MaterializedViewTriggerForWrite.h"
 #include "storage/streamedtable.h"
@@ -174,13 +175,15 @@ VoltDBEngine::initialize(
         int32_t defaultDrBufferSize,
         int64_t tempTableMemoryLimit,
         bool isLowestSite,
-        int32_t compactionThreshold) {
+        int32_t compactionThreshold,
+        bool compileExpressions) {
     m_clusterIndex = clusterIndex;
     m_siteId = siteId;
     m_isLowestSite = isLowestSite;
     m_partitionId = partitionId;
     m_tempTableMemoryLimit = tempTableMemoryLimit;
     m_compactionThreshold = compactionThreshold;
+    m_compileExpressions = compileExpressions;
 
     // Instantiate our catalog - it will be populated later on by load()
     m_catalog.reset(new catalog::Catalog());
@@ -957,7 +960,14 @@ void VoltDBEngine::send(Table* dependency) {
 }
 
 int VoltDBEngine::loadNextDependency(Table* destination) {
-    return m_topend->loadNextDependency(m_currentInputDepId, &m_stringPool, destination);
+    if (dynamic_cast<LargeTempTable*>(destination) == NULL) {
+        return m_topend->loadNextDependency(m_currentInputDepId, &m_stringPool, destination);
+    }
+    // Keep the strings of one dependency at a time, so that loading the
+    // results of many partitions takes no more memory than the largest one.
+    int loadedDeps = m_topend->loadNextDependency(m_currentInputDepId, &m_dependencyPool, destination);
+    m_dependencyPool.purge();
+    return loadedDeps;
 }
 
 // -------------------------------------------------
@@ -1509,6 +1519,7 @@ bool VoltDBEngine::processCatalogAdditions(int64_t timestamp, bool updateReplica
             // the new tuple limit.
             //
             persistentTable->setTupleLimit(catalogTable->tuplelimit());
+            persistentTable->setStringDictionaryEnabled(catalogTable->isDictionaryEncoded());
             //////////////////////////////////////////
             // find all of the indexes to add
             //////////////////////////////////////////
@@ -1531,6 +1542,7 @@ bool VoltDBEngine::processCatalogAdditions(int64_t timestamp, bool updateReplica
                         if (catalogIndexId == currentIndexId) {
                             // rename the index if needed (or even if not)
                             currIndex->rename(indexName);
+                            currIndex->setBloomFilterEnabled(foundIndex->bloomFilter());
                             found = true;
                             break;
                         }
@@ -2153,6 +2165,53 @@ void VoltDBEngine::setExecutorVectorForFragmentId(int64_t fragId) {
     vassert(m_currExecutorVec);
 }
 
+/*
+ * Load the executor vectors for a list of fragment ids ahead of their first
+ * execution, so that the first transactions after startup, rejoin or a
+ * catalog update do not pay for parsing the JSON plans. Fragments already
+ * cached are left alone and loading stops once the cache is full. A plan
+ * that fails to load is skipped here and will surface its error again when
+ * it is actually executed.
+ *
+ * Writes back the number of plans loaded and the time spent in nanoseconds.
+ */
+void VoltDBEngine::warmPlanCache(ReferenceSerializeInputBE& taskInfo) {
+    std::chrono::high_resolution_clock::time_point startTime = std::chrono::high_resolution_clock::now();
+    if (! m_plans) {
+        m_plans.reset(new EnginePlanSet());
+    }
+    PlanSet& plans = *m_plans;
+
+    // The frontend sends every fragment it knows of; load only as many as the cache
+    // has free slots for, so warming never evicts a plan that is already cached.
+    const size_t freeSlots = plans.size() < PLAN_CACHE_SIZE ? PLAN_CACHE_SIZE - plans.size() : 0;
+    int64_t loaded = 0;
+    int32_t count = taskInfo.readInt();
+    for (int32_t i = 0; i < count && static_cast<size_t>(loaded) < freeSlots; ++i) {
+        int64_t fragId = taskInfo.readLong();
+        if (plans.get<1>().find(fragId) != plans.get<1>().end()) {
+            continue;
+        }
+        std::string plan = m_topend->planForFragmentId(fragId);
+        if (plan.empty()) {
+            continue;
+        }
+        try {
+            plans.get<0>().push_back(ExecutorVector::fromJsonPlan(this, plan, fragId));
+            ++loaded;
+        } catch (const SerializableEEException &e) {
+            VOLT_DEBUG("Skipped warming plan for fragment %jd: %s", (intmax_t)fragId, e.message().c_str());
+        }
+    }
+
+    std::chrono::duration<int64_t, std::nano> elapsedNanoseconds =
+            std::chrono::duration_cast<std::chrono::nanoseconds>(
+                    std::chrono::high_resolution_clock::now() - startTime);
+    m_resultOutput.writeInt(static_cast<int32_t>(sizeof(int64_t) * 2));
+    m_resultOutput.writeLong(loaded);
+    m_resultOutput.writeLong(elapsedNanoseconds.count());
+}
+
 // -------------------------------------------------
 // Initialization Functions
 // -------------------------------------------------
@@ -2931,6 +2990,9 @@ void VoltDBEngine::executeTask(TaskType taskType, ReferenceSerializeInputBE &tas
     case TASK_TYPE_GET_DR_TUPLESTREAM_STATE:
         collectDRTupleStreamStateInfo();
         break;
+    case TASK_TYPE_WARM_PLAN_CACHE:
+        warmPlanCache(taskInfo);
+        break;
     case TASK_TYPE_SET_DR_SEQUENCE_NUMBERS: {
         int64_t partitionSequenceNumber = taskInfo.readLong();
         int64_t mpSequenceNumber = taskInfo.readLong();
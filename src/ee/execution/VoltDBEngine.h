@@ -153,7 +153,8 @@ class __attribute__((visibility("default"))) VoltDBEngine {
                         int32_t defaultDrBufferSize,
                         int64_t tempTableMemoryLimit,
                         bool isLowestSiteId,
-                        int32_t compactionThreshold = 95);
+                        int32_t compactionThreshold = 95,
+                        bool compileExpressions = false);
         virtual ~VoltDBEngine();
 
         bool decommission(bool remove, bool promote, int newSitePerHost);
@@ -581,6 +582,9 @@ class __attribute__((visibility("default"))) VoltDBEngine {
 
         int64_t tempTableMemoryLimit() const { return m_tempTableMemoryLimit; }
 
+        /** True if plan expressions are compiled when their plans are loaded */
+        bool compileExpressions() const { return m_compileExpressions; }
+
         int64_t tempTableLogLimit() const {
             return (m_tempTableMemoryLimit * 3) / 4;
         }
@@ -643,6 +647,7 @@ class __attribute__((visibility("default"))) VoltDBEngine {
          * Tasks dispatched by executeTask
          */
         void dispatchValidatePartitioningTask(ReferenceSerializeInputBE& taskInfo);
+        void warmPlanCache(ReferenceSerializeInputBE& taskInfo);
 
         void collectDRTupleStreamStateInfo();
 
@@ -746,6 +751,8 @@ class __attribute__((visibility("default"))) VoltDBEngine {
 
         int64_t m_tempTableMemoryLimit;
 
+        bool m_compileExpressions = false;
+
         /*
          * Catalog delegates hashed by path.
          */
@@ -876,6 +883,13 @@ class __attribute__((visibility("default"))) VoltDBEngine {
          */
         Pool m_stringPool{16777216, 2};
 
+        /*
+         * Pool for the non-inlined values of a dependency being loaded into a
+         * large temp table.  The table copies them into its own blocks, so the
+         * pool is purged after each dependency.
+         */
+        Pool m_dependencyPool;
+
         /*
          * When executing a plan fragment this is set to the number of result dependencies
          * that have been serialized into the m_resultOutput
@@ -44,15 +44,28 @@
  */
 
 #include <tuple>
+#include "common/LargeTempTableBlockCache.h"
 #include "common/SerializableEEException.h"
+#include "execution/ExecutorVector.h"
 #include "executors/aggregateexecutor.h"
 #include "plannodes/aggregatenode.h"
 #include "plannodes/limitnode.h"
+#include "storage/LargeTempTable.h"
+#include "storage/tablefactory.h"
+#include "storage/tableiterator.h"
 #include "storage/temptable.h"
+#include "storage/TempTableLimits.h"
 
 #include "hyperloglog/hyperloglog.hpp" // for APPROX_COUNT_DISTINCT
 
 namespace voltdb {
+
+namespace {
+
+/** Seed for partitioning spilled tuples, distinct from the hash table's own seed */
+const size_t PARTITION_HASH_SEED = 0x9e3779b9;
+
+}
 /**
  * Mix-in class to tweak some Aggs' behavior when the DISTINCT flag was specified,
  * It tracks and de-dupes repeated input values.
@@ -719,7 +732,20 @@ void AggregateExecutorBase::p_execute_finish() {
  * Aggregate Hash Executor
  */
 
-AggregateHashExecutor::~AggregateHashExecutor() {}
+AggregateHashExecutor::~AggregateHashExecutor() {
+    releaseSpillState();
+}
+
+bool AggregateHashExecutor::p_init(AbstractPlanNode* abstractNode, const ExecutorVector& executorVector) {
+    if (! AggregateExecutorBase::p_init(abstractNode, executorVector)) {
+        return false;
+    }
+    m_limits = const_cast<TempTableLimits*>(executorVector.limits());
+    m_isLargeQuery = executorVector.isLargeQuery();
+    m_spillThreshold = (m_isLargeQuery && m_limits != nullptr && m_limits->getMemoryLimit() > 0) ?
+        m_limits->getMemoryLimit() / 2 : -1;
+    return true;
+}
 
 TableTuple AggregateHashExecutor::p_execute_init(
         const NValueArray& params, ProgressMonitorProxy* pmp,
@@ -727,6 +753,8 @@ TableTuple AggregateHashExecutor::p_execute_init(
         CountingPostfilter* parentPostfilter) {
     VOLT_TRACE("hash aggregate executor init..");
     m_hash.clear();
+    // Anything left behind by a failed inline execution
+    releaseSpillState();
     return AggregateExecutorBase::p_execute_init(params, pmp, schema, newTempTable, parentPostfilter);
 }
 
@@ -741,6 +769,8 @@ bool AggregateHashExecutor::p_execute(const NValueArray& params) {
     TableIterator it = input_table->iteratorDeletingAsWeGo();
     ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
 
+    // As a non-inline executor we get no cleanupMemoryPool() call on failure.
+    SpillStateGuard spillStateGuard(this);
     TableTuple nextTuple = p_execute_init(params, &pmp, inputSchema, nullptr);
 
     VOLT_TRACE("looping..");
@@ -763,6 +793,15 @@ void AggregateHashExecutor::p_execute_tuple(const TableTuple& nextTuple) {
 
     // Group not found. Make a new entry in the hash for this new group.
     if (keyIter == m_hash.end()) {
+        if (m_spilling) {
+            // The group is aggregated later along with the rest of its partition.
+            size_t seed = PARTITION_HASH_SEED;
+            TableTuple spilledTuple = nextTuple;
+            m_spillPartitions[nextGroupByKeyTuple.hashCode(seed) % m_spillPartitions.size()]->
+                insertTuple(spilledTuple);
+            return;
+        }
+
         VOLT_TRACE("hash aggregate: new group..");
         aggregateRow = new (m_memoryPool, m_aggTypes.size()) AggregateRow();
         m_hash.insert(HashAggregateMapType::value_type(nextGroupByKeyTuple, aggregateRow));
@@ -774,25 +813,103 @@ void AggregateHashExecutor::p_execute_tuple(const TableTuple& nextTuple) {
         TableTuple passThroughTupleSource = TableTuple(storage, m_inputSchema);
 
         aggregateRow->recordPassThroughTuple(passThroughTupleSource, nextTuple);
+        if (m_isLargeQuery) {
+            persistNewGroup(aggregateRow);
+        }
         // The map is referencing the current key tuple for use by the new group,
         // so force a new tuple allocation to hold the next candidate key.
         nextGroupByKeyTuple.move(nullptr);
 
         if (m_aggTypes.empty()) {
             insertOutputTuple(aggregateRow);
-            return;
         }
     } else {
         // otherwise, the agg row is the second item of the pair...
         aggregateRow = keyIter->second;
     }
     // update the aggregation calculation.
-    advanceAggs(aggregateRow, nextTuple);
+    if (! m_aggTypes.empty()) {
+        advanceAggs(aggregateRow, nextTuple);
+    }
+
+    if (m_isLargeQuery) {
+        updateMemoryCharge();
+        if (m_spillThreshold >= 0 && m_spillPartitions.empty() && groupsSize() > m_spillThreshold) {
+            startSpilling();
+        }
+    }
 }
 
 void AggregateHashExecutor::p_execute_finish() {
     VOLT_TRACE("finalizing..");
+    outputGroups();
+    if (! m_spillPartitions.empty()) {
+        aggregateSpilledPartitions();
+    }
+
+    // Clean up
+    releaseSpillState();
+    AggregateExecutorBase::p_execute_finish();
+}
+
+void AggregateHashExecutor::persistNewGroup(AggregateRow* aggregateRow) {
+    // Large query input may sit in large temp table blocks that are
+    // released or evicted as they are scanned, so the group can't keep
+    // pointing at the input's non-inlined data.
+    TableTuple& passThroughTuple = aggregateRow->m_passThroughTuple;
+    for (uint16_t ii = 0; ii < m_inputSchema->getUninlinedObjectColumnCount(); ++ii) {
+        const uint16_t columnIndex = m_inputSchema->getUninlinedObjectColumnInfoIndex(ii);
+        passThroughTuple.setNValueAllocateForObjectCopies(columnIndex,
+                passThroughTuple.getNValue(columnIndex), &m_memoryPool);
+    }
+    TableTuple& nextGroupByKeyTuple = m_nextGroupByKeyStorage;
+    for (uint16_t ii = 0; ii < m_groupByKeySchema->getUninlinedObjectColumnCount(); ++ii) {
+        const uint16_t columnIndex = m_groupByKeySchema->getUninlinedObjectColumnInfoIndex(ii);
+        nextGroupByKeyTuple.setNValueAllocateForObjectCopies(columnIndex,
+                nextGroupByKeyTuple.getNValue(columnIndex), &m_memoryPool);
+    }
+}
+
+void AggregateHashExecutor::startSpilling() {
+    VOLT_DEBUG("Hash aggregation exceeded %jd bytes, spilling new groups to large temp tables",
+               (intmax_t)m_spillThreshold);
+    // Every partition pins a block in the LTT block cache while it is being
+    // written, and so may the input being read, so stay well under the cache size.
+    int cacheBlocks = ExecutorContext::getExecutorContext()->lttBlockCache().maxCacheSizeInBlocks();
+    int partitionCount = std::max(2, std::min(MAX_SPILL_PARTITIONS, cacheBlocks - 2));
+    std::vector<std::string> columnNames;
+    for (int ii = 0; ii < m_inputSchema->columnCount(); ++ii) {
+        columnNames.push_back("C" + std::to_string(ii));
+    }
+    m_spillPartitions.reserve(partitionCount);
+    for (int ii = 0; ii < partitionCount; ++ii) {
+        LargeTempTable* partition = TableFactory::buildLargeTempTable("hashagg_partition",
+                TupleSchema::createTupleSchema(m_inputSchema), columnNames);
+        partition->incrementRefcount();
+        m_spillPartitions.push_back(partition);
+    }
+    m_spilling = true;
+}
 
+void AggregateHashExecutor::aggregateSpilledPartitions() {
+    for (LargeTempTable* partition : m_spillPartitions) {
+        partition->finishInserts();
+    }
+    // Aggregate each partition in memory.  No spill threshold applies
+    // here: a single partition that is still too large fails the query
+    // with the usual temp table limit error.
+    m_spilling = false;
+    for (LargeTempTable* partition : m_spillPartitions) {
+        TableTuple partitionTuple(partition->schema());
+        TableIterator iterator = partition->iteratorDeletingAsWeGo();
+        while (iterator.next(partitionTuple)) {
+            p_execute_tuple(partitionTuple);
+        }
+        outputGroups();
+    }
+}
+
+void AggregateHashExecutor::outputGroups() {
     // If there is no aggregation, results are already inserted already
     if (! m_aggTypes.empty()) {
         for (auto iter : m_hash) {
@@ -803,10 +920,40 @@ void AggregateHashExecutor::p_execute_finish() {
             delete aggregateRow;
         }
     }
-
-    // Clean up
     m_hash.clear();
-    AggregateExecutorBase::p_execute_finish();
+
+    // The groups are all in the pool, along with the candidate key.
+    TableTuple& nextGroupByKeyTuple = m_nextGroupByKeyStorage;
+    nextGroupByKeyTuple.move(nullptr);
+    m_memoryPool.purge();
+    releaseMemoryCharge();
+}
+
+void AggregateHashExecutor::releaseSpillState() {
+    // When reference counts go to zero the tables (and their blocks) are destroyed.
+    for (LargeTempTable* partition : m_spillPartitions) {
+        partition->decrementRefcount();
+    }
+    m_spillPartitions.clear();
+    m_spilling = false;
+    releaseMemoryCharge();
+}
+
+void AggregateHashExecutor::releaseMemoryCharge() {
+    if (m_limits != nullptr && m_chargedBytes > 0) {
+        m_limits->reduceAllocated(static_cast<int>(m_chargedBytes));
+    }
+    m_chargedBytes = 0;
+}
+
+void AggregateHashExecutor::updateMemoryCharge() {
+    int64_t size = groupsSize();
+    if (size > m_chargedBytes) {
+        int64_t increase = size - m_chargedBytes;
+        // Record the charge first: the limits count it even when they throw
+        m_chargedBytes = size;
+        m_limits->increaseAllocated(static_cast<int>(increase));
+    }
 }
 
 /**
@@ -57,6 +57,9 @@
 
 namespace voltdb {
 
+class LargeTempTable;
+class TempTableLimits;
+
 /*
  * Base class for an individual aggregate that aggregates a specific
  * column for a group
@@ -241,6 +244,12 @@ std::unordered_map<TableTuple, AggregateRow*, TableTupleHasher, TableTupleEquali
 /**
  * The concrete executor class for PlanNodeType::HashAggregate
  * in which the input does not need to be sorted and execution will hash the group by key to aggregate the tuples.
+ *
+ * For large queries the groups are charged to the fragment's temp table
+ * limits.  Once they pass half of the limit no more groups are started in
+ * memory: input tuples belonging to any other group are partitioned on the
+ * group by key into large temp tables, and each partition is aggregated on
+ * its own after the in-memory groups have been output.
  */
 class AggregateHashExecutor : public AggregateExecutorBase {
     HashAggregateMapType m_hash;
@@ -257,6 +266,62 @@ public:
             CountingPostfilter* parentPredicate = nullptr) override;
     void p_execute_tuple(const TableTuple& nextTuple) override;
     void p_execute_finish() override;
+
+    void cleanupMemoryPool() override {
+        releaseSpillState();
+        AggregateExecutorBase::p_execute_finish();
+    }
+
+protected:
+    bool p_init(AbstractPlanNode*, const ExecutorVector& executorVector) override;
+
+private:
+    /** Releases the spill partitions and memory charge however p_execute() is left */
+    class SpillStateGuard {
+        AggregateHashExecutor* m_executor;
+    public:
+        explicit SpillStateGuard(AggregateHashExecutor* executor) : m_executor(executor) {}
+        ~SpillStateGuard() {
+            m_executor->releaseSpillState();
+        }
+    };
+
+    /** Copy a new group's non-inlined key and pass-through data into the memory pool */
+    void persistNewGroup(AggregateRow* aggregateRow);
+
+    /** Create the partitions that take the input of groups not already in memory */
+    void startSpilling();
+
+    /** Aggregate the spilled partitions one at a time */
+    void aggregateSpilledPartitions();
+
+    /** Output the groups in memory and release their memory */
+    void outputGroups();
+
+    void releaseSpillState();
+
+    /** Bring the amount charged to the temp table limits up to date with the groups in memory */
+    void updateMemoryCharge();
+
+    void releaseMemoryCharge();
+
+    int64_t groupsSize() const {
+        return m_memoryPool.getAllocatedMemory() + static_cast<int64_t>(m_hash.size()) * ENTRY_OVERHEAD;
+    }
+
+    /** Rough per-entry cost of the hash table on top of the pooled groups */
+    static const int64_t ENTRY_OVERHEAD = sizeof(HashAggregateMapType::value_type) + 2 * sizeof(void*);
+    /** Upper bound on the number of partitions used when spilling */
+    static const int MAX_SPILL_PARTITIONS = 16;
+
+    TempTableLimits* m_limits = nullptr;
+    int64_t m_chargedBytes = 0;
+    bool m_isLargeQuery = false;
+    /** Size of the groups in memory at which a large query spills, or -1 to never spill */
+    int64_t m_spillThreshold = -1;
+    /** Set while input tuples of new groups go to m_spillPartitions */
+    bool m_spilling = false;
+    std::vector<LargeTempTable*> m_spillPartitions;
 };
 
 /**
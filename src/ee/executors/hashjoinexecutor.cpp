@@ -0,0 +1,514 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This file contains original code and/or modifications of original code.
+ * Any modifications made by VoltDB Inc. are licensed under the following
+ * terms and conditions:
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Copyright (C) 2008 by H-Store Project
+ * Brown University
+ * Massachusetts Institute of Technology
+ * Yale University
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+#include "hashjoinexecutor.h"
+
+#include "common/LargeTempTableBlockCache.h"
+#include "execution/ExecutorVector.h"
+#include "executors/aggregateexecutor.h"
+#include "plannodes/hashjoinnode.h"
+#include "plannodes/limitnode.h"
+#include "storage/LargeTempTable.h"
+#include "storage/tablefactory.h"
+#include "storage/tableiterator.h"
+#include "storage/TempTableLimits.h"
+
+using namespace std;
+using namespace voltdb;
+
+namespace {
+
+/** Seed for partitioning spilled tuples, distinct from the hash table's own seed */
+const size_t PARTITION_HASH_SEED = 0x9e3779b9;
+
+/**
+ * Owns the large temp tables that hold the spilled partitions of
+ * both join inputs.
+ */
+class SpillPartitions {
+    vector<LargeTempTable*> m_innerPartitions;
+    vector<LargeTempTable*> m_outerPartitions;
+
+    static LargeTempTable* newPartition(const char* name, const Table* templateTable) {
+        LargeTempTable* table = TableFactory::buildCopiedLargeTempTable(name, templateTable);
+        table->incrementRefcount();
+        return table;
+    }
+public:
+    SpillPartitions(int count, const Table* innerTable, const Table* outerTable) {
+        m_innerPartitions.reserve(count);
+        m_outerPartitions.reserve(count);
+        for (int i = 0; i < count; ++i) {
+            m_innerPartitions.push_back(newPartition("hashjoin_inner", innerTable));
+            m_outerPartitions.push_back(newPartition("hashjoin_outer", outerTable));
+        }
+    }
+
+    ~SpillPartitions() {
+        // When reference counts go to zero the tables (and their blocks) are destroyed.
+        for (LargeTempTable* table : m_innerPartitions) {
+            table->decrementRefcount();
+        }
+        for (LargeTempTable* table : m_outerPartitions) {
+            table->decrementRefcount();
+        }
+    }
+
+    int count() const {
+        return static_cast<int>(m_innerPartitions.size());
+    }
+
+    LargeTempTable* inner(int partition) {
+        return m_innerPartitions[partition];
+    }
+
+    LargeTempTable* outer(int partition) {
+        return m_outerPartitions[partition];
+    }
+
+    int partitionOf(const TableTuple& keyTuple) const {
+        size_t seed = PARTITION_HASH_SEED;
+        return static_cast<int>(keyTuple.hashCode(seed) % m_innerPartitions.size());
+    }
+};
+
+}
+
+HashJoinExecutor::~HashJoinExecutor() {
+    // NULL safe operation
+    TupleSchema::freeTupleSchema(m_keySchema);
+}
+
+bool HashJoinExecutor::p_init(
+        AbstractPlanNode* abstractNode, const ExecutorVector& executorVector) {
+    VOLT_TRACE("init HashJoin Executor");
+
+    HashJoinPlanNode* node = dynamic_cast<HashJoinPlanNode*>(m_abstractNode);
+    vassert(node);
+
+    // Init parent first
+    if (!AbstractJoinExecutor::p_init(abstractNode, executorVector)) {
+        return false;
+    }
+
+    // NULL tuples for left and full joins
+    p_init_null_tuples(node->getInputTable(), node->getInputTable(1));
+
+    // The key tuple is shared by both sides, so each column needs to be
+    // wide enough for the larger of the two expressions it holds.
+    const vector<AbstractExpression*>& outerKeys = node->getOuterHashExpressions();
+    const vector<AbstractExpression*>& innerKeys = node->getInnerHashExpressions();
+    vassert(outerKeys.size() == innerKeys.size());
+    vector<ValueType> keyColumnTypes;
+    vector<int32_t> keyColumnSizes;
+    vector<bool> keyColumnAllowNull;
+    vector<bool> keyColumnInBytes;
+    for (int i = 0; i < innerKeys.size(); ++i) {
+        keyColumnTypes.push_back(innerKeys[i]->getValueType());
+        keyColumnSizes.push_back(std::max(innerKeys[i]->getValueSize(), outerKeys[i]->getValueSize()));
+        keyColumnAllowNull.push_back(true);
+        keyColumnInBytes.push_back(innerKeys[i]->getInBytes() || outerKeys[i]->getInBytes());
+    }
+    TupleSchema::freeTupleSchema(m_keySchema);
+    m_keySchema = TupleSchema::createTupleSchema(
+            keyColumnTypes, keyColumnSizes, keyColumnAllowNull, keyColumnInBytes);
+    m_buildKeyStorage.init(m_keySchema, &m_memoryPool);
+    m_probeKeyStorage.init(m_keySchema);
+
+    m_limits = const_cast<TempTableLimits*>(executorVector.limits());
+    m_isLargeQuery = executorVector.isLargeQuery();
+    // A large query keeps the build side under half of the temp table
+    // memory limit, leaving the rest for the executors around it.
+    m_spillThreshold = (m_isLargeQuery && m_limits->getMemoryLimit() > 0) ?
+        m_limits->getMemoryLimit() / 2 : -1;
+
+    return true;
+}
+
+bool HashJoinExecutor::p_execute(const NValueArray &params) {
+    VOLT_DEBUG("executing HashJoin...");
+
+    HashJoinPlanNode* node = dynamic_cast<HashJoinPlanNode*>(m_abstractNode);
+    vassert(node);
+    vassert(node->getInputTableCount() == 2);
+
+    // output table must be a temp table
+    vassert(m_tmpOutputTable);
+
+    Table* outer_table = node->getInputTable();
+    vassert(outer_table);
+
+    Table* inner_table = node->getInputTable(1);
+    vassert(inner_table);
+
+    VOLT_TRACE ("input table left:\n %s", outer_table->debug().c_str());
+    VOLT_TRACE ("input table right:\n %s", inner_table->debug().c_str());
+
+    AbstractExpression *preJoinPredicate = node->getPreJoinPredicate();
+    AbstractExpression *joinPredicate = node->getJoinPredicate();
+    AbstractExpression *wherePredicate = node->getWherePredicate();
+
+    LimitPlanNode* limit_node = dynamic_cast<LimitPlanNode*>(node->getInlinePlanNode(PlanNodeType::Limit));
+    int limit = CountingPostfilter::NO_LIMIT;
+    int offset = CountingPostfilter::NO_OFFSET;
+    if (limit_node) {
+        tie(limit, offset) = limit_node->getLimitAndOffset(params);
+    }
+
+    ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
+    // Init the postfilter
+    CountingPostfilter postfilter(m_tmpOutputTable, wherePredicate, limit, offset);
+
+    TableTuple join_tuple;
+    if (m_aggExec != NULL) {
+        VOLT_TRACE("Init inline aggregate...");
+        const TupleSchema * aggInputSchema = node->getTupleSchemaPreAgg();
+        join_tuple = m_aggExec->p_execute_init(params, &pmp, aggInputSchema, m_tmpOutputTable, &postfilter);
+    } else {
+        join_tuple = m_tmpOutputTable->tempTuple();
+    }
+
+    //
+    // Build phase.  Outside of large mode the inner temp table stays put
+    // for the duration of the join, so the hash table can point straight
+    // at its tuples.  Large temp table blocks may be evicted as we go,
+    // so those tuples have to be copied.
+    //
+    // Hand the build side's memory back however we leave this method;
+    // as a non-inline executor we get no cleanupMemoryPool() call on failure.
+    BuildSideGuard buildSideGuard(this);
+    TableTuple inner_tuple(inner_table->schema());
+    TableIterator iterator1 = inner_table->iterator();
+    bool spilled = false;
+    while (iterator1.next(inner_tuple)) {
+        pmp.countdownProgress();
+        if ( ! addBuildTuple(inner_tuple, m_isLargeQuery)) {
+            spilled = true;
+            break;
+        }
+    }
+
+    if (spilled) {
+        VOLT_DEBUG("HashJoin build side exceeded %jd bytes, spilling to large temp tables",
+                   (intmax_t)m_spillThreshold);
+        spillAndJoin(iterator1, inner_tuple, outer_table, preJoinPredicate, joinPredicate,
+                     postfilter, join_tuple, pmp);
+    }
+    else {
+        //
+        // Probe phase
+        //
+        TableTuple outer_tuple(outer_table->schema());
+        TableIterator iterator0 = outer_table->iteratorDeletingAsWeGo();
+        while (postfilter.isUnderLimit() && iterator0.next(outer_tuple)) {
+            pmp.countdownProgress();
+            probe(outer_tuple, preJoinPredicate, joinPredicate, postfilter, join_tuple, pmp);
+        }
+        outputUnmatchedInner(postfilter, join_tuple, pmp);
+    }
+
+    if (m_aggExec != NULL) {
+        m_aggExec->p_execute_finish();
+    }
+
+    return (true);
+}
+
+bool HashJoinExecutor::evalKey(const vector<AbstractExpression*>& keyExpressions,
+        const TableTuple* outerTuple, const TableTuple* innerTuple, TableTuple& keyTuple) {
+    for (int i = 0; i < keyExpressions.size(); ++i) {
+        NValue value = keyExpressions[i]->eval(outerTuple, innerTuple);
+        if (value.isNull()) {
+            return false;
+        }
+        keyTuple.setNValue(i, value);
+    }
+    return true;
+}
+
+bool HashJoinExecutor::addBuildTuple(TableTuple& innerTuple, bool copyTuple) {
+    if (m_spillThreshold >= 0 && buildSideSize() > m_spillThreshold) {
+        return false;
+    }
+
+    const vector<AbstractExpression*>& innerKeys =
+        static_cast<HashJoinPlanNode*>(m_abstractNode)->getInnerHashExpressions();
+    TableTuple keyTuple = m_probeKeyStorage.tuple();
+    bool hasKey = evalKey(innerKeys, NULL, &innerTuple, keyTuple);
+    if ( ! hasKey && m_joinType != JOIN_TYPE_FULL) {
+        // Can't match anything and won't be emitted on its own
+        return true;
+    }
+
+    char* tupleAddress = innerTuple.address();
+    if (copyTuple) {
+        const TupleSchema* schema = innerTuple.getSchema();
+        TableTuple copy(schema);
+        copy.moveAndInitialize(m_memoryPool.allocate(schema->tupleLength() + TUPLE_HEADER_SIZE));
+        copy.copyForPersistentInsert(innerTuple, &m_memoryPool);
+        tupleAddress = copy.address();
+    }
+
+    if (hasKey) {
+        // The key outlives the probe key storage, so give it its own
+        // storage with any non-inlined values copied into the pool.
+        m_buildKeyStorage.allocateActiveTuple();
+        TableTuple& buildKey = m_buildKeyStorage;
+        for (int i = 0; i < m_keySchema->columnCount(); ++i) {
+            buildKey.setNValueAllocateForObjectCopies(i, keyTuple.getNValue(i), &m_memoryPool);
+        }
+        BuildEntry entry = { tupleAddress, false };
+        m_hash.insert(HashJoinMapType::value_type(buildKey, entry));
+    }
+    else {
+        m_nullKeyBuildTuples.push_back(tupleAddress);
+    }
+    updateMemoryCharge();
+    return true;
+}
+
+void HashJoinExecutor::probe(TableTuple& outerTuple, AbstractExpression* preJoinPredicate,
+        AbstractExpression* joinPredicate, CountingPostfilter& postfilter,
+        TableTuple& joinTuple, ProgressMonitorProxy& pmp) {
+    const vector<AbstractExpression*>& outerKeys =
+        static_cast<HashJoinPlanNode*>(m_abstractNode)->getOuterHashExpressions();
+    int outer_cols = outerTuple.getSchema()->columnCount();
+    // populate output table's temp tuple with outer table's values
+    joinTuple.setNValues(0, outerTuple, 0, outer_cols);
+
+    bool outerMatch = false;
+    TableTuple keyTuple = m_probeKeyStorage.tuple();
+    // For outer joins if outer tuple fails pre-join predicate
+    // (join expression based on the outer table only)
+    // it can't match any of inner tuples
+    if ((preJoinPredicate == NULL || preJoinPredicate->eval(&outerTuple, NULL).isTrue()) &&
+            evalKey(outerKeys, &outerTuple, NULL, keyTuple)) {
+        TableTuple innerTuple(m_null_inner_tuple.tuple().getSchema());
+        int inner_cols = innerTuple.getSchema()->columnCount();
+        pair<HashJoinMapType::iterator, HashJoinMapType::iterator> range = m_hash.equal_range(keyTuple);
+        for (HashJoinMapType::iterator it = range.first;
+                it != range.second && postfilter.isUnderLimit(); ++it) {
+            pmp.countdownProgress();
+            innerTuple.move(it->second.m_tupleAddress);
+            // The join predicate still holds the key equalities along with
+            // any other conditions; the hash only narrows the candidates.
+            if (joinPredicate == NULL || joinPredicate->eval(&outerTuple, &innerTuple).isTrue()) {
+                outerMatch = true;
+                it->second.m_matched = true;
+                // Filter the joined tuple
+                if (postfilter.eval(&outerTuple, &innerTuple)) {
+                    // Matched! Complete the joined tuple with the inner column values.
+                    joinTuple.setNValues(outer_cols, innerTuple, 0, inner_cols);
+                    outputTuple(postfilter, joinTuple, pmp);
+                }
+            }
+        }
+    }
+
+    if ( ! outerMatch) {
+        outputUnmatchedOuter(outerTuple, postfilter, joinTuple, pmp);
+    }
+}
+
+void HashJoinExecutor::outputUnmatchedOuter(TableTuple& outerTuple, CountingPostfilter& postfilter,
+        TableTuple& joinTuple, ProgressMonitorProxy& pmp) {
+    if (m_joinType == JOIN_TYPE_INNER || ! postfilter.isUnderLimit()) {
+        return;
+    }
+    const TableTuple& null_inner_tuple = m_null_inner_tuple.tuple();
+    // Still needs to pass the filter
+    if (postfilter.eval(&outerTuple, &null_inner_tuple)) {
+        int outer_cols = outerTuple.getSchema()->columnCount();
+        int inner_cols = null_inner_tuple.getSchema()->columnCount();
+        joinTuple.setNValues(0, outerTuple, 0, outer_cols);
+        joinTuple.setNValues(outer_cols, null_inner_tuple, 0, inner_cols);
+        outputTuple(postfilter, joinTuple, pmp);
+    }
+}
+
+void HashJoinExecutor::outputUnmatchedInner(CountingPostfilter& postfilter, TableTuple& joinTuple,
+        ProgressMonitorProxy& pmp) {
+    if (m_joinType != JOIN_TYPE_FULL || ! postfilter.isUnderLimit()) {
+        return;
+    }
+    // Preset outer columns to null
+    const TableTuple& null_outer_tuple = m_null_outer_tuple.tuple();
+    int outer_cols = null_outer_tuple.getSchema()->columnCount();
+    joinTuple.setNValues(0, null_outer_tuple, 0, outer_cols);
+
+    TableTuple innerTuple(m_null_inner_tuple.tuple().getSchema());
+    int inner_cols = innerTuple.getSchema()->columnCount();
+    auto emit = [&] (char* tupleAddress) {
+        innerTuple.move(tupleAddress);
+        // Still needs to pass the filter
+        if (postfilter.eval(&null_outer_tuple, &innerTuple)) {
+            // Passed! Complete the joined tuple with the inner column values.
+            joinTuple.setNValues(outer_cols, innerTuple, 0, inner_cols);
+            outputTuple(postfilter, joinTuple, pmp);
+        }
+    };
+    for (HashJoinMapType::iterator it = m_hash.begin();
+            it != m_hash.end() && postfilter.isUnderLimit(); ++it) {
+        if ( ! it->second.m_matched) {
+            emit(it->second.m_tupleAddress);
+        }
+    }
+    for (vector<char*>::iterator it = m_nullKeyBuildTuples.begin();
+            it != m_nullKeyBuildTuples.end() && postfilter.isUnderLimit(); ++it) {
+        emit(*it);
+    }
+}
+
+void HashJoinExecutor::spillAndJoin(TableIterator& innerIterator, TableTuple& innerTuple, Table* outerTable,
+        AbstractExpression* preJoinPredicate, AbstractExpression* joinPredicate,
+        CountingPostfilter& postfilter, TableTuple& joinTuple, ProgressMonitorProxy& pmp) {
+    HashJoinPlanNode* node = static_cast<HashJoinPlanNode*>(m_abstractNode);
+    Table* innerTable = node->getInputTable(1);
+
+    // Every partition pins a block in the LTT block cache while it is being
+    // written, and so does the input being read, so stay well under the cache size.
+    int cacheBlocks = ExecutorContext::getExecutorContext()->lttBlockCache().maxCacheSizeInBlocks();
+    int partitionCount = std::max(2, std::min(MAX_SPILL_PARTITIONS, cacheBlocks - 2));
+    SpillPartitions partitions(partitionCount, innerTable, outerTable);
+
+    //
+    // Move what has been built so far into the inner partitions,
+    // then partition the remainder of the inner input.
+    //
+    TableTuple keyTuple = m_probeKeyStorage.tuple();
+    TableTuple builtTuple(innerTable->schema());
+    for (HashJoinMapType::iterator it = m_hash.begin(); it != m_hash.end(); ++it) {
+        builtTuple.move(it->second.m_tupleAddress);
+        partitions.inner(partitions.partitionOf(it->first))->insertTuple(builtTuple);
+    }
+    // Keyless inner tuples only matter to FULL joins, where they
+    // just need to be emitted once; any partition will do.
+    for (char* tupleAddress : m_nullKeyBuildTuples) {
+        builtTuple.move(tupleAddress);
+        partitions.inner(0)->insertTuple(builtTuple);
+    }
+    clearBuildSide();
+
+    const vector<AbstractExpression*>& innerKeys = node->getInnerHashExpressions();
+    do {
+        pmp.countdownProgress();
+        if (evalKey(innerKeys, NULL, &innerTuple, keyTuple)) {
+            partitions.inner(partitions.partitionOf(keyTuple))->insertTuple(innerTuple);
+        }
+        else if (m_joinType == JOIN_TYPE_FULL) {
+            partitions.inner(0)->insertTuple(innerTuple);
+        }
+    } while (innerIterator.next(innerTuple));
+    for (int i = 0; i < partitions.count(); ++i) {
+        partitions.inner(i)->finishInserts();
+    }
+
+    //
+    // Partition the outer input.  Tuples that can't match anything are
+    // dealt with right away rather than written out.
+    //
+    const vector<AbstractExpression*>& outerKeys = node->getOuterHashExpressions();
+    TableTuple outerTuple(outerTable->schema());
+    TableIterator iterator0 = outerTable->iteratorDeletingAsWeGo();
+    while (postfilter.isUnderLimit() && iterator0.next(outerTuple)) {
+        pmp.countdownProgress();
+        if ((preJoinPredicate == NULL || preJoinPredicate->eval(&outerTuple, NULL).isTrue()) &&
+                evalKey(outerKeys, &outerTuple, NULL, keyTuple)) {
+            partitions.outer(partitions.partitionOf(keyTuple))->insertTuple(outerTuple);
+        }
+        else {
+            outputUnmatchedOuter(outerTuple, postfilter, joinTuple, pmp);
+        }
+    }
+    for (int i = 0; i < partitions.count(); ++i) {
+        partitions.outer(i)->finishInserts();
+    }
+
+    //
+    // Join each pair of partitions in memory.  No spill threshold applies
+    // here: a single partition that is still too large fails the query
+    // with the usual temp table limit error.
+    //
+    int64_t spillThreshold = m_spillThreshold;
+    m_spillThreshold = -1;
+    for (int i = 0; i < partitions.count() && postfilter.isUnderLimit(); ++i) {
+        TableIterator innerPartitionIterator = partitions.inner(i)->iteratorDeletingAsWeGo();
+        while (innerPartitionIterator.next(innerTuple)) {
+            pmp.countdownProgress();
+            addBuildTuple(innerTuple, true);
+        }
+
+        TableIterator outerPartitionIterator = partitions.outer(i)->iteratorDeletingAsWeGo();
+        while (postfilter.isUnderLimit() && outerPartitionIterator.next(outerTuple)) {
+            pmp.countdownProgress();
+            probe(outerTuple, preJoinPredicate, joinPredicate, postfilter, joinTuple, pmp);
+        }
+        // Unpin the block being scanned if we stopped early
+        outerPartitionIterator.reset();
+
+        outputUnmatchedInner(postfilter, joinTuple, pmp);
+        clearBuildSide();
+    }
+    m_spillThreshold = spillThreshold;
+}
+
+void HashJoinExecutor::updateMemoryCharge() {
+    int64_t size = buildSideSize();
+    if (size > m_chargedBytes) {
+        int64_t increase = size - m_chargedBytes;
+        // Record the charge first: the limits count it even when they throw
+        m_chargedBytes = size;
+        m_limits->increaseAllocated(static_cast<int>(increase));
+    }
+}
+
+void HashJoinExecutor::clearBuildSide() {
+    m_hash.clear();
+    m_nullKeyBuildTuples.clear();
+    m_memoryPool.purge();
+    if (m_limits != nullptr && m_chargedBytes > 0) {
+        m_limits->reduceAllocated(static_cast<int>(m_chargedBytes));
+    }
+    m_chargedBytes = 0;
+}
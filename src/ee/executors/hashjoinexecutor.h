@@ -0,0 +1,163 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This file contains original code and/or modifications of original code.
+ * Any modifications made by VoltDB Inc. are licensed under the following
+ * terms and conditions:
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Copyright (C) 2008 by H-Store Project
+ * Brown University
+ * Massachusetts Institute of Technology
+ * Yale University
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#pragma once
+
+#include <unordered_map>
+#include <vector>
+
+#include "common/common.h"
+#include "common/Pool.hpp"
+#include "common/tabletuple.h"
+#include "executors/abstractjoinexecutor.h"
+
+namespace voltdb {
+
+class AbstractExpression;
+class TableIterator;
+class TempTableLimits;
+
+/**
+ * Executes an equi-join by building a hash table over the inner table
+ * and probing it with each outer tuple.
+ *
+ * The build side is charged to the fragment's temp table limits.  In
+ * normal mode exceeding the limit fails the query like any other temp
+ * table would.  For large queries the executor instead falls back to a
+ * grace hash join: both inputs are partitioned on the join key into large
+ * temp tables which are then joined one partition pair at a time.
+ */
+class HashJoinExecutor : public AbstractJoinExecutor {
+    /** A build-side tuple and whether it has matched any outer tuple (FULL joins) */
+    struct BuildEntry {
+        char* m_tupleAddress;
+        bool m_matched;
+    };
+    typedef std::unordered_multimap<TableTuple, BuildEntry,
+            TableTupleHasher, TableTupleEqualityChecker> HashJoinMapType;
+
+    /** Clears the build side when it goes out of scope */
+    class BuildSideGuard {
+        HashJoinExecutor* m_executor;
+    public:
+        explicit BuildSideGuard(HashJoinExecutor* executor) : m_executor(executor) {}
+        ~BuildSideGuard() {
+            m_executor->clearBuildSide();
+        }
+    };
+
+    bool p_init(AbstractPlanNode*, const ExecutorVector& executorVector);
+    bool p_execute(const NValueArray &params);
+
+    /**
+     * Evaluate the key expressions into the key tuple.
+     * Return false if any key column is NULL, since such a tuple can never match.
+     */
+    bool evalKey(const std::vector<AbstractExpression*>& keyExpressions,
+            const TableTuple* outerTuple, const TableTuple* innerTuple, TableTuple& keyTuple);
+
+    /**
+     * Add an inner tuple to the build side.  Return false, without adding
+     * the tuple, if the build side has grown past the spill threshold.
+     */
+    bool addBuildTuple(TableTuple& innerTuple, bool copyTuple);
+
+    /** Probe the build side with an outer tuple, emitting matched and outer-padded rows */
+    void probe(TableTuple& outerTuple, AbstractExpression* preJoinPredicate,
+            AbstractExpression* joinPredicate, CountingPostfilter& postfilter,
+            TableTuple& joinTuple, ProgressMonitorProxy& pmp);
+
+    /** Emit an outer tuple padded with NULL inner columns, for LEFT and FULL joins */
+    void outputUnmatchedOuter(TableTuple& outerTuple, CountingPostfilter& postfilter,
+            TableTuple& joinTuple, ProgressMonitorProxy& pmp);
+
+    /** Emit the build tuples that matched nothing padded with NULL outer columns, for FULL joins */
+    void outputUnmatchedInner(CountingPostfilter& postfilter, TableTuple& joinTuple,
+            ProgressMonitorProxy& pmp);
+
+    /** Partition both inputs into large temp tables and join them pair-wise */
+    void spillAndJoin(TableIterator& innerIterator, TableTuple& innerTuple, Table* outerTable,
+            AbstractExpression* preJoinPredicate, AbstractExpression* joinPredicate,
+            CountingPostfilter& postfilter, TableTuple& joinTuple, ProgressMonitorProxy& pmp);
+
+    /** Release all build-side memory and return its charge to the temp table limits */
+    void clearBuildSide();
+
+    /** Bring the amount charged to the temp table limits up to date with the build side */
+    void updateMemoryCharge();
+
+    int64_t buildSideSize() const {
+        return m_memoryPool.getAllocatedMemory() +
+            static_cast<int64_t>(m_hash.size() + m_nullKeyBuildTuples.size()) * ENTRY_OVERHEAD;
+    }
+
+public:
+    HashJoinExecutor(VoltDBEngine *engine, AbstractPlanNode* abstract_node) :
+        AbstractJoinExecutor(engine, abstract_node) {}
+    ~HashJoinExecutor();
+
+private:
+    /** Rough per-entry cost of the hash table on top of the pooled key and tuple data */
+    static const int64_t ENTRY_OVERHEAD = sizeof(HashJoinMapType::value_type) + 2 * sizeof(void*);
+    /** Upper bound on the number of partitions used when spilling */
+    static const int MAX_SPILL_PARTITIONS = 16;
+
+    HashJoinMapType m_hash;
+    /** Inner tuples with a NULL key; they never match but are still emitted by FULL joins */
+    std::vector<char*> m_nullKeyBuildTuples;
+    /** Storage for build keys and, for large queries, copies of the build tuples */
+    Pool m_memoryPool;
+    TupleSchema* m_keySchema = nullptr;
+    PoolBackedTupleStorage m_buildKeyStorage;
+    StandAloneTupleStorage m_probeKeyStorage;
+
+    TempTableLimits* m_limits = nullptr;
+    int64_t m_chargedBytes = 0;
+    bool m_isLargeQuery = false;
+    /** Build side size at which a large query spills, or -1 to never spill */
+    int64_t m_spillThreshold = -1;
+};
+
+}
@@ -140,6 +140,17 @@ bool IndexScanExecutor::p_init(
     m_sortDirection = m_node->getSortDirection();
 
     m_hasOffsetRankOptimization = m_node->hasOffsetRankOptimization();
+
+    // The scanned tuples live in the persistent table and stay put,
+    // so the post-predicate can be applied to batches of them.
+    if (m_node->getPredicate() != nullptr && m_insertExec == nullptr) {
+        m_batchPredicate.reset(BatchExpression::compile(m_node->getPredicate(), targetTable->schema()));
+        if (m_batchPredicate && m_batchPredicate->isPredicate()) {
+            m_batch.reset(new TupleBatch());
+        } else {
+            m_batchPredicate.reset();
+        }
+    }
     VOLT_DEBUG("IndexScan: %s.%s\n", targetTable->name().c_str(), tableIndex->getName().c_str());
     return true;
 }
@@ -186,12 +197,22 @@ bool IndexScanExecutor::p_execute(const NValueArray &params) {
         VOLT_DEBUG("Post Expression:\n%s", post_expression->debug(true).c_str());
     }
 
+    // Without a limit or offset, every tuple passing the post-predicate
+    // is output, so it may be evaluated a batch at a time.
+    TupleBatch* batch = nullptr;
+    if (m_batchPredicate && limit == CountingPostfilter::NO_LIMIT &&
+            offset == CountingPostfilter::NO_OFFSET && m_batchPredicate->bind()) {
+        batch = m_batch.get();
+        batch->clear();
+    }
+
     // Initialize the postfilter
     int postfilterOffset = offset;
     if (m_hasOffsetRankOptimization) {
         postfilterOffset = CountingPostfilter::NO_OFFSET;
     }
-    CountingPostfilter postfilter(m_outputTable, post_expression, limit, postfilterOffset);
+    CountingPostfilter postfilter(m_outputTable, batch == nullptr ? post_expression : nullptr,
+                                  limit, postfilterOffset);
 
     // Progress monitor
     ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
@@ -525,7 +546,13 @@ bool IndexScanExecutor::p_execute(const NValueArray &params) {
         //
         // Then apply our post-predicate and LIMIT/OFFSET to do further filtering
         //
-        if (postfilter.eval(&tuple, nullptr)) {
+        if (batch != nullptr) {
+            batch->add(tuple);
+            if (batch->isFull()) {
+                outputBatch(postfilter, tuple, temp_tuple, pmp);
+            }
+        }
+        else if (postfilter.eval(&tuple, nullptr)) {
             if (m_projector.numSteps() > 0) {
                 m_projector.exec(temp_tuple, tuple);
                 outputTuple(postfilter, temp_tuple);
@@ -536,6 +563,9 @@ bool IndexScanExecutor::p_execute(const NValueArray &params) {
             pmp.countdownProgress();
         }
     }
+    if (batch != nullptr && ! batch->isEmpty() && postfilter.isUnderLimit()) {
+        outputBatch(postfilter, tuple, temp_tuple, pmp);
+    }
 
     if (m_aggExec != nullptr) {
         m_aggExec->p_execute_finish();
@@ -562,6 +592,37 @@ void IndexScanExecutor::outputTuple(CountingPostfilter& postfilter, TableTuple&
     }
 }
 
+void IndexScanExecutor::outputBatch(CountingPostfilter& postfilter, TableTuple& tuple,
+                                    TableTuple& temp_tuple, ProgressMonitorProxy& pmp) {
+    TupleBatch& batch = *m_batch;
+    int selected = m_batchPredicate->select(batch, m_selection);
+    if (selected < 0) {
+        // This batch needs the exact behavior of the scalar predicate.
+        const AbstractExpression* predicate = m_batchPredicate->getExpression();
+        selected = 0;
+        for (int row = 0; row < batch.size(); row++) {
+            tuple.move(batch.addressAt(row));
+            if (predicate->eval(&tuple, nullptr).isTrue()) {
+                m_selection[selected++] = static_cast<uint16_t>(row);
+            }
+        }
+    }
+    for (int i = 0; i < selected && postfilter.isUnderLimit(); i++) {
+        tuple.move(batch.addressAt(m_selection[i]));
+        if (postfilter.eval(&tuple, nullptr)) {
+            if (m_projector.numSteps() > 0) {
+                m_projector.exec(temp_tuple, tuple);
+                outputTuple(postfilter, temp_tuple);
+            }
+            else {
+                outputTuple(postfilter, tuple);
+            }
+            pmp.countdownProgress();
+        }
+    }
+    batch.clear();
+}
+
 IndexScanExecutor::~IndexScanExecutor() {
     delete [] m_searchKeyBackingStore;
 }
@@ -45,9 +45,12 @@
 
 #pragma once
 
+#include <memory>
+
 #include "common/tabletuple.h"
 #include "executors/abstractexecutor.h"
 #include "executors/OptimizedProjector.hpp"
+#include "expressions/batchexpression.h"
 #include "indexes/tableindex.h"
 
 #include "boost/shared_array.hpp"
@@ -64,6 +67,7 @@ class ProjectionPlanNode;
 class AggregateExecutorBase;
 class InsertExecutor;
 class CountingPostfilter;
+class ProgressMonitorProxy;
 
 class IndexScanExecutor : public AbstractExecutor {
     // Data in this class is arranged roughly in the order it is read for
@@ -95,9 +99,17 @@ class IndexScanExecutor : public AbstractExecutor {
     AggregateExecutorBase* m_aggExec = nullptr;
     InsertExecutor *m_insertExec = nullptr;
 
+    // Batch form of the post-predicate, if it has one.  Qualifying
+    // index entries are collected into m_batch and filtered together.
+    std::unique_ptr<BatchExpression> m_batchPredicate;
+    std::unique_ptr<TupleBatch> m_batch;
+    uint16_t m_selection[TupleBatch::CAPACITY];
+
     bool p_init(AbstractPlanNode*, const ExecutorVector& executorVector);
     bool p_execute(const NValueArray &params);
     void outputTuple(CountingPostfilter& postfilter, TableTuple& tuple);
+    void outputBatch(CountingPostfilter& postfilter, TableTuple& tuple,
+                     TableTuple& temp_tuple, ProgressMonitorProxy& pmp);
 public:
     IndexScanExecutor(VoltDBEngine* engine, AbstractPlanNode* abstractNode)
         : AbstractExecutor(engine, abstractNode) {}
@@ -49,6 +49,7 @@
 #include "executors/aggregateexecutor.h"
 #include "storage/temptable.h"
 #include "storage/tablefactory.h"
+#include "storage/LargeTempTable.h"
 #include "storage/tableutil.h"
 #include "plannodes/receivenode.h"
 #include "plannodes/orderbynode.h"
@@ -156,14 +157,14 @@ void MergeReceiveExecutor::merge_sort(const std::vector<TableTuple>& tuples,
 
 MergeReceiveExecutor::MergeReceiveExecutor(VoltDBEngine *engine, AbstractPlanNode* abstract_node)
     : AbstractExecutor(engine, abstract_node), m_orderby_node(NULL), m_limit_node(NULL),
-    m_agg_exec(NULL)
+    m_agg_exec(NULL), m_isLargeQuery(false)
 { }
 
 bool MergeReceiveExecutor::p_init(AbstractPlanNode* abstract_node,
                                   const ExecutorVector& executorVector)
 {
     VOLT_TRACE("init MergeReceive Executor");
-    vassert(!executorVector.isLargeQuery());
+    m_isLargeQuery = executorVector.isLargeQuery();
 
     MergeReceivePlanNode* merge_receive_node = dynamic_cast<MergeReceivePlanNode*>(abstract_node);
     vassert(merge_receive_node != NULL);
@@ -196,10 +197,19 @@ bool MergeReceiveExecutor::p_init(AbstractPlanNode* abstract_node,
         merge_receive_node->allocateTupleSchemaPreAgg() : m_abstractNode->generateTupleSchema();
     std::vector<std::string> column_names(pre_agg_schema->columnCount());
     std::vector<Table*> scratchTable(1);
-    scratchTable[0] = TableFactory::buildTempTable("tempInput",
-                                                 pre_agg_schema,
-                                                 column_names,
-                                                 executorVector.limits());
+    if (m_isLargeQuery) {
+        // In large mode the scratch table receives the merged result,
+        // and is the template for the table holding each partition's result.
+        scratchTable[0] = TableFactory::buildLargeTempTable("tempInput",
+                                                            pre_agg_schema,
+                                                            column_names);
+    }
+    else {
+        scratchTable[0] = TableFactory::buildTempTable("tempInput",
+                                                     pre_agg_schema,
+                                                     column_names,
+                                                     executorVector.limits());
+    }
     // Making the scratch table input to the plan node
     // ensures that it will be cleaned up after executions.
     merge_receive_node->setInputTables(scratchTable);
@@ -211,6 +221,27 @@ bool MergeReceiveExecutor::p_init(AbstractPlanNode* abstract_node,
 }
 
 bool MergeReceiveExecutor::p_execute(const NValueArray &params) {
+    if (m_isLargeQuery) {
+        ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
+        int limit = CountingPostfilter::NO_LIMIT;
+        int offset = CountingPostfilter::NO_OFFSET;
+        if (m_limit_node != NULL) {
+            std::tie(limit, offset) = m_limit_node->getLimitAndOffset(params);
+        }
+        CountingPostfilter postfilter(m_tmpOutputTable, NULL, limit, offset);
+        if (m_agg_exec != NULL) {
+            m_agg_exec->p_execute_init(params, &pmp, getPlanNode()->getInputTable()->schema(),
+                                       m_tmpOutputTable, &postfilter);
+        }
+        AbstractExecutor::TupleComparer comp(m_orderby_node->getSortExpressions(),
+                                             m_orderby_node->getSortDirections());
+        mergeLargeDependencies(pmp, comp, postfilter, limit, offset);
+        if (m_agg_exec != NULL) {
+            m_agg_exec->p_execute_finish();
+        }
+        return true;
+    }
+
     int loadedDeps = 0;
 
     // iterate over dependencies and merge them into the temp table.
@@ -275,4 +306,49 @@ bool MergeReceiveExecutor::p_execute(const NValueArray &params) {
     return true;
 }
 
+void MergeReceiveExecutor::mergeLargeDependencies(ProgressMonitorProxy& pmp,
+                                                  const AbstractExecutor::TupleComparer& comp,
+                                                  CountingPostfilter& postfilter,
+                                                  int limit, int offset) {
+    LargeTempTable* mergedTable = static_cast<LargeTempTable*>(getPlanNode()->getInputTable());
+    vassert(mergedTable->activeTupleCount() == 0);
+
+    // Load each partition's result, which is already sorted, into a
+    // table of its own.  Only the block being written to is pinned, so
+    // the results loaded earlier can be stored to disk when memory is tight.
+    std::vector<std::unique_ptr<LargeTempTable>> sortRuns;
+    int loadedDeps = 0;
+    do {
+        sortRuns.emplace_back(TableFactory::buildCopiedLargeTempTable("mergeReceiveRun", mergedTable));
+        loadedDeps = m_engine->loadNextDependency(sortRuns.back().get());
+        sortRuns.back()->finishInserts();
+    } while (loadedDeps > 0);
+
+    // The merge can stop early at the limit, unless there is an inline
+    // aggregate, which applies the limit to its output rather than its input.
+    int mergeLimit = -1;
+    if (m_agg_exec == NULL && limit != CountingPostfilter::NO_LIMIT) {
+        mergeLimit = limit + std::max(offset, 0);
+    }
+    mergedTable->mergeSortedTables(&pmp, comp, mergeLimit, 0, sortRuns);
+
+    {
+        TableTuple tuple(mergedTable->schema());
+        TableIterator iterator = mergedTable->iteratorDeletingAsWeGo();
+        while (postfilter.isUnderLimit() && iterator.next(tuple)) {
+            pmp.countdownProgress();
+            if (postfilter.eval(&tuple, NULL)) {
+                if (m_agg_exec != NULL) {
+                    m_agg_exec->p_execute_tuple(tuple);
+                }
+                else {
+                    m_tmpOutputTable->insertTempTuple(tuple);
+                }
+            }
+        }
+    }
+    // Drop whatever is left past the limit.
+    mergedTable->deleteAllTuples();
+}
+
 }
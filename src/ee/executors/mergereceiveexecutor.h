@@ -70,6 +70,16 @@ namespace voltdb {
         OrderByPlanNode* m_orderby_node;
         LimitPlanNode* m_limit_node;
         AggregateExecutorBase* m_agg_exec;
+        bool m_isLargeQuery;
+
+        /**
+         * Merge the partition results through large temp tables, whose
+         * blocks can be stored to disk, instead of in memory.
+         */
+        void mergeLargeDependencies(ProgressMonitorProxy& pmp,
+                                    const AbstractExecutor::TupleComparer& comp,
+                                    CountingPostfilter& postfilter,
+                                    int limit, int offset);
     public:
         MergeReceiveExecutor(VoltDBEngine *engine, AbstractPlanNode* abstract_node);
 
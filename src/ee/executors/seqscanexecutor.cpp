@@ -51,6 +51,7 @@
 #include "plannodes/seqscannode.h"
 #include "plannodes/projectionnode.h"
 #include "plannodes/limitnode.h"
+#include "storage/tableiterator.h"
 #include "storage/temptable.h"
 #include "storage/tablefactory.h"
 
@@ -82,6 +83,11 @@ bool SeqScanExecutor::p_init(AbstractPlanNode* abstract_node,
     // confuses things.
     vassert(m_aggExec == NULL || m_insertExec == NULL);
 
+    // A sliced scan of a replicated table skips the rows of other partitions,
+    // so it cannot just hand the target table on as its output.
+    m_sliceColumn = node->getSliceColumnIndex();
+    vassert(m_sliceColumn < 0 || node->isPersistentTableScan());
+
     //
     // OPTIMIZATION: If there is no predicate for this SeqScan,
     // then we want to just set our OutputTable pointer to be the
@@ -90,7 +96,8 @@ bool SeqScanExecutor::p_init(AbstractPlanNode* abstract_node,
     // the tuples. We are guarenteed that no Executor will ever
     // modify an input table, so this operation is safe
     //
-    if (node->getPredicate() != NULL || node->getInlinePlanNodes().size() > 0 || node->isCteScan()) {
+    if (node->getPredicate() != NULL || node->getInlinePlanNodes().size() > 0 ||
+            node->isCteScan() || node->isSlicedScan()) {
         // TODO: can this optimization be performed for CTE scans?
         if (m_insertExec) {
             setDMLCountOutputTable(executorVector.limits());
@@ -112,9 +119,63 @@ bool SeqScanExecutor::p_init(AbstractPlanNode* abstract_node,
                              node->getTargetTable());
     }
 
+    // Tuples of a persistent table do not move while it is being
+    // scanned, so its scans can be filtered and projected in batches.
+    // An inline insert may be writing to the very table being scanned.
+    if (node->isPersistentTableScan() && m_insertExec == NULL) {
+        initBatchExpressions(node);
+    }
+
     return true;
 }
 
+bool SeqScanExecutor::initBatchExpressions(SeqScanPlanNode* node) {
+    const TupleSchema* schema = node->getTargetTable()->schema();
+    bool compiled = false;
+
+    AbstractExpression* predicate = node->getPredicate();
+    if (predicate != NULL) {
+        m_batchPredicate.reset(BatchExpression::compile(predicate, schema));
+        if (m_batchPredicate && ! m_batchPredicate->isPredicate()) {
+            m_batchPredicate.reset();
+        }
+        compiled = (m_batchPredicate != NULL);
+    }
+
+    // Only arithmetic columns are worth batching.  Plain column
+    // references are cheaper to copy one tuple at a time.
+    ProjectionPlanNode* projectionNode =
+        dynamic_cast<ProjectionPlanNode*>(node->getInlinePlanNode(PlanNodeType::Projection));
+    if (projectionNode != NULL) {
+        const std::vector<AbstractExpression*>& columns = projectionNode->getOutputColumnExpressions();
+        std::vector<std::unique_ptr<BatchExpression>> projections(columns.size());
+        bool anyProjection = false;
+        for (size_t ctr = 0; ctr < columns.size(); ctr++) {
+            switch (columns[ctr]->getExpressionType()) {
+                case EXPRESSION_TYPE_OPERATOR_PLUS:
+                case EXPRESSION_TYPE_OPERATOR_MINUS:
+                case EXPRESSION_TYPE_OPERATOR_MULTIPLY:
+                    projections[ctr].reset(BatchExpression::compile(columns[ctr], schema));
+                    anyProjection |= (projections[ctr] != NULL);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (anyProjection) {
+            m_batchProjections.swap(projections);
+            m_boundProjections.resize(m_batchProjections.size());
+            m_batchColumnOk.resize(m_batchProjections.size());
+            compiled = true;
+        }
+    }
+
+    if (compiled) {
+        m_batch.reset(new TupleBatch());
+    }
+    return compiled;
+}
+
 bool SeqScanExecutor::p_execute(const NValueArray &params) {
     SeqScanPlanNode* node = dynamic_cast<SeqScanPlanNode*>(m_abstractNode);
     vassert(node);
@@ -181,7 +242,7 @@ bool SeqScanExecutor::p_execute(const NValueArray &params) {
     //
     if (node->getPredicate() != NULL || projectionNode != NULL ||
         limit_node != NULL || m_aggExec != NULL || m_insertExec != NULL ||
-        node->isCteScan())
+        node->isCteScan() || node->isSlicedScan())
     {
         //
         // Just walk through the table using our iterator and apply
@@ -202,8 +263,29 @@ bool SeqScanExecutor::p_execute(const NValueArray &params) {
         if (limit_node) {
             std::tie(limit, offset) = limit_node->getLimitAndOffset(params);
         }
+
+        // Bind the batch forms of the predicate and projection, if any,
+        // to this execution's parameters.  Anything that does not bind
+        // is evaluated one tuple at a time as usual.
+        BatchExpression* batchPredicate = NULL;
+        bool batched = false;
+        if (m_batch && limit == CountingPostfilter::NO_LIMIT &&
+                offset == CountingPostfilter::NO_OFFSET) {
+            if (m_batchPredicate && m_batchPredicate->bind()) {
+                batchPredicate = m_batchPredicate.get();
+                batched = true;
+            }
+            for (size_t ctr = 0; ctr < m_batchProjections.size(); ctr++) {
+                BatchExpression* projection = m_batchProjections[ctr].get();
+                m_boundProjections[ctr] = (projection != NULL && projection->bind()) ? projection : NULL;
+                batched |= (m_boundProjections[ctr] != NULL);
+            }
+        }
+
         // Initialize the postfilter
-        CountingPostfilter postfilter(m_tmpOutputTable, predicate, limit, offset);
+        CountingPostfilter postfilter(m_tmpOutputTable,
+                                      batchPredicate == NULL ? predicate : NULL,
+                                      limit, offset);
 
         ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
         TableTuple temp_tuple;
@@ -251,45 +333,51 @@ bool SeqScanExecutor::p_execute(const NValueArray &params) {
             temp_tuple = m_tmpOutputTable->tempTuple();
         }
 
-        while (postfilter.isUnderLimit() && iterator.next(tuple))
-        {
+        if (batched) {
+            scanBatched(iterator, tuple, postfilter, batchPredicate,
+                        projectionNode, temp_tuple, pmp);
+        }
+        else {
+            while (postfilter.isUnderLimit() && iterator.next(tuple))
+            {
 #if   defined(VOLT_TRACE_ENABLED)
-            int tuple_ctr = 0;
+                int tuple_ctr = 0;
 #endif
-            VOLT_TRACE("INPUT TUPLE: %s, %d/%d\n",
-                       tuple.debug(input_table->name()).c_str(),
-                       ++tuple_ctr,
-                       (int)input_table->activeTupleCount());
-            pmp.countdownProgress();
-
-            //
-            // For each tuple we need to evaluate it against our predicate and limit/offset
-            //
-            if (postfilter.eval(&tuple, NULL))
-            {
+                VOLT_TRACE("INPUT TUPLE: %s, %d/%d\n",
+                           tuple.debug(input_table->name()).c_str(),
+                           ++tuple_ctr,
+                           (int)input_table->activeTupleCount());
+                pmp.countdownProgress();
+
                 //
-                // Nested Projection
-                // Project (or replace) values from input tuple
+                // For each tuple we need to evaluate it against our predicate and limit/offset
                 //
-                if (projectionNode != NULL)
+                if (isInSlice(tuple) && postfilter.eval(&tuple, NULL))
                 {
-                    VOLT_TRACE("inline projection...");
-                    // Project the scanned table row onto
-                    // the columns of the select list in the
-                    // select statement.
-                    for (int ctr = 0; ctr < num_of_columns; ctr++) {
-                        NValue value = projectionNode->getOutputColumnExpressions()[ctr]->eval(&tuple, NULL);
-                        temp_tuple.setNValue(ctr, value);
+                    //
+                    // Nested Projection
+                    // Project (or replace) values from input tuple
+                    //
+                    if (projectionNode != NULL)
+                    {
+                        VOLT_TRACE("inline projection...");
+                        // Project the scanned table row onto
+                        // the columns of the select list in the
+                        // select statement.
+                        for (int ctr = 0; ctr < num_of_columns; ctr++) {
+                            NValue value = projectionNode->getOutputColumnExpressions()[ctr]->eval(&tuple, NULL);
+                            temp_tuple.setNValue(ctr, value);
+                        }
+                        outputTuple(temp_tuple);
                     }
-                    outputTuple(temp_tuple);
-                }
-                else
-                {
-                    outputTuple(tuple);
+                    else
+                    {
+                        outputTuple(tuple);
+                    }
+                    pmp.countdownProgress();
                 }
-                pmp.countdownProgress();
-            }
-        } // end while we have more tuples to scan
+            } // end while we have more tuples to scan
+        }
 
         if (m_aggExec != NULL) {
             m_aggExec->p_execute_finish();
@@ -307,6 +395,98 @@ bool SeqScanExecutor::p_execute(const NValueArray &params) {
     return true;
 }
 
+void SeqScanExecutor::scanBatched(TableIterator& iterator,
+                                  TableTuple& tuple,
+                                  CountingPostfilter& postfilter,
+                                  BatchExpression* batchPredicate,
+                                  ProjectionPlanNode* projectionNode,
+                                  TableTuple& temp_tuple,
+                                  ProgressMonitorProxy& pmp) {
+    TupleBatch& batch = *m_batch;
+    batch.clear();
+    while (postfilter.isUnderLimit() && iterator.next(tuple)) {
+        pmp.countdownProgress();
+        if ( ! isInSlice(tuple)) {
+            continue;
+        }
+        // Without a batch predicate the postfilter still holds the
+        // scalar one, so only qualifying tuples are batched.
+        if (batchPredicate == NULL && ! postfilter.eval(&tuple, NULL)) {
+            continue;
+        }
+        batch.add(tuple);
+        if (batch.isFull()) {
+            outputBatch(tuple, postfilter, batchPredicate, projectionNode, temp_tuple, pmp);
+            batch.clear();
+        }
+    }
+    if ( ! batch.isEmpty() && postfilter.isUnderLimit()) {
+        outputBatch(tuple, postfilter, batchPredicate, projectionNode, temp_tuple, pmp);
+        batch.clear();
+    }
+}
+
+void SeqScanExecutor::outputBatch(TableTuple& tuple,
+                                  CountingPostfilter& postfilter,
+                                  BatchExpression* batchPredicate,
+                                  ProjectionPlanNode* projectionNode,
+                                  TableTuple& temp_tuple,
+                                  ProgressMonitorProxy& pmp) {
+    TupleBatch& batch = *m_batch;
+    if (batchPredicate != NULL) {
+        int selected = batchPredicate->select(batch, m_selection);
+        if (selected < 0) {
+            // Something in this batch (an overflow, say) needs the exact
+            // behavior of the scalar expression.
+            const AbstractExpression* predicate = batchPredicate->getExpression();
+            selected = 0;
+            for (int row = 0; row < batch.size(); row++) {
+                tuple.move(batch.addressAt(row));
+                if (predicate->eval(&tuple, NULL).isTrue()) {
+                    m_selection[selected++] = static_cast<uint16_t>(row);
+                }
+            }
+        }
+        batch.compact(m_selection, selected);
+    }
+
+    bool batchedColumns = false;
+    for (size_t ctr = 0; ctr < m_boundProjections.size(); ctr++) {
+        BatchExpression* projection = m_boundProjections[ctr];
+        if (projection != NULL && ! batch.isEmpty()) {
+            // A column that cannot be computed exactly for this batch
+            // falls back to the scalar expression.
+            m_batchColumnOk[ctr] = projection->evaluate(batch);
+            batchedColumns |= m_batchColumnOk[ctr];
+        }
+        else {
+            m_batchColumnOk[ctr] = false;
+        }
+    }
+
+    for (int row = 0; row < batch.size() && postfilter.isUnderLimit(); row++) {
+        tuple.move(batch.addressAt(row));
+        if (projectionNode != NULL) {
+            const std::vector<AbstractExpression*>& columns =
+                projectionNode->getOutputColumnExpressions();
+            const int num_of_columns = static_cast<int>(columns.size());
+            for (int ctr = 0; ctr < num_of_columns; ctr++) {
+                if (batchedColumns && m_batchColumnOk[ctr]) {
+                    temp_tuple.setNValue(ctr, m_boundProjections[ctr]->valueAt(row));
+                }
+                else {
+                    temp_tuple.setNValue(ctr, columns[ctr]->eval(&tuple, NULL));
+                }
+            }
+            outputTuple(temp_tuple);
+        }
+        else {
+            outputTuple(tuple);
+        }
+        pmp.countdownProgress();
+    }
+}
+
 /*
  * We may output a tuple to an inline aggregate or
  * inline insert node.  If there is a limit or projection, this will have
@@ -45,14 +45,23 @@
 
 #pragma once
 
+#include <memory>
+#include <vector>
+
 #include "common/common.h"
 #include "common/valuevector.h"
 #include "executors/abstractexecutor.h"
 #include "execution/VoltDBEngine.h"
+#include "expressions/batchexpression.h"
 
 namespace voltdb {
     class AggregateExecutorBase;
+    class CountingPostfilter;
     class InsertExecutor;
+    class ProgressMonitorProxy;
+    class ProjectionPlanNode;
+    class SeqScanPlanNode;
+    class TableIterator;
 
     class SeqScanExecutor : public AbstractExecutor {
         // These are logically local variables to p_execute.
@@ -64,12 +73,57 @@ namespace voltdb {
         AggregateExecutorBase* m_aggExec = nullptr;
         InsertExecutor* m_insertExec = nullptr;
 
+        // Batch forms of the predicate and of the arithmetic inline
+        // projection columns, compiled for persistent table scans.
+        // The projection vector is empty if no column compiled, and
+        // has a NULL entry for each column evaluated by the scalar path.
+        std::unique_ptr<BatchExpression> m_batchPredicate;
+        std::vector<std::unique_ptr<BatchExpression>> m_batchProjections;
+        // Scratch space for batched scans.
+        std::unique_ptr<TupleBatch> m_batch;
+        std::vector<BatchExpression*> m_boundProjections;
+        std::vector<bool> m_batchColumnOk;
+        uint16_t m_selection[TupleBatch::CAPACITY];
+
+        // For a sliced scan of a replicated table, the column whose
+        // hash selects the rows of the local partition, else -1.
+        int m_sliceColumn = -1;
+
+        bool isInSlice(const TableTuple& tuple) const {
+            return m_sliceColumn < 0 || m_engine->isLocalSite(tuple.getNValue(m_sliceColumn));
+        }
+
         /**
          * Output a tuple.  This may send the tuple to an
          * inline insert or aggregate node, or it may send the
          * tuple to the output table.
          */
         void outputTuple(TableTuple& tuple);
+
+        /**
+         * Compile batch forms of the predicate and projection.
+         * Returns true if anything compiled.
+         */
+        bool initBatchExpressions(SeqScanPlanNode* node);
+
+        /**
+         * Scan a persistent table in batches of TupleBatch::CAPACITY
+         * tuples, filtering and projecting each batch column-wise.
+         */
+        void scanBatched(TableIterator& iterator,
+                         TableTuple& tuple,
+                         CountingPostfilter& postfilter,
+                         BatchExpression* batchPredicate,
+                         ProjectionPlanNode* projectionNode,
+                         TableTuple& temp_tuple,
+                         ProgressMonitorProxy& pmp);
+
+        void outputBatch(TableTuple& tuple,
+                         CountingPostfilter& postfilter,
+                         BatchExpression* batchPredicate,
+                         ProjectionPlanNode* projectionNode,
+                         TableTuple& temp_tuple,
+                         ProgressMonitorProxy& pmp);
     public:
         SeqScanExecutor(VoltDBEngine *engine, AbstractPlanNode* abstract_node)
             : AbstractExecutor(engine, abstract_node) {}
@@ -17,30 +17,24 @@
 
 #include "executors/windowfunctionexecutor.h"
 
+#include "common/ValuePeeker.hpp"
 #include "execution/ProgressMonitorProxy.h"
+#include "storage/tablefactory.h"
 #include "storage/tableiterator.h"
 
 namespace voltdb {
 
 /**
- * This class holds all the iterators used when iterating
- * through an input table.  There is one of these each time
- * the executor runs.  Since it contains table iterators
- * which have no default constructor, it really needs to
- * know its input table at construction time.  This is not
- * available when the executor object is constructed, so
- * this needs to be heap allocated.
+ * This class holds what the aggregates can know about the
+ * order by group of the current row.  There is one of these
+ * each time the executor runs.
  */
 struct TableWindow {
-    TableWindow(Table *tbl)
-        : m_middleEdge(tbl->iterator()),
-          m_leadingEdge(tbl->iterator()),
-          m_orderByGroupSize(0) {}
+    TableWindow()
+        : m_orderByGroupSize(0) {}
     std::string debug() {
         std::stringstream stream;
-        stream << "Table Window: [Middle: "
-                << m_middleEdge.getFoundTuples() << ", Leading: "
-                << m_leadingEdge.getFoundTuples() << "], "
+        stream << "Table Window: "
                 << "ssize = " << m_orderByGroupSize
                 << "\n";
         return stream.str();
@@ -49,11 +43,10 @@ struct TableWindow {
     void resetCounts() {
         m_orderByGroupSize = 0;
     }
-    TableIterator m_middleEdge;
-    TableIterator m_leadingEdge;
     /**
-     * This is handy for the aggregators.  It's maintained
-     * in findOrderByEdge();
+     * This is handy for the aggregators.  It's the number of
+     * rows read so far in the current order by group, so it is
+     * the size of the whole group when the group ends.
      */
     size_t m_orderByGroupSize;
 };
@@ -151,6 +144,20 @@ struct WindowAggregate {
         m_value.setNull();
     }
 
+    /**
+     * Give a string or other object value its own copy in the pool.
+     * The value may point into a tuple of the input table or of the
+     * peer group buffer, either of which can free the tuple's memory
+     * before the aggregate is done with the value: iterating a large
+     * temp table deletes each block once its rows have been read.
+     */
+    void copyObjectToPool(NValue &value, Pool &pool) {
+        if (isVariableLengthType(ValuePeeker::peekValueType(value))) {
+            value.allocateObjectFromPool(&pool);
+            m_inlineCopiedToNonInline = true;
+        }
+    }
+
     NValue m_value;
     bool   m_needsLookahead;
 
@@ -318,10 +325,7 @@ public:
         if ( ! argVals[0].isNull()) {
             if (m_isEmpty || argVals[0].op_lessThan(m_value).isTrue()) {
                 m_value = argVals[0];
-                if (m_value.getVolatile()) {
-                    m_value.allocateObjectFromPool(&m_pool);
-                    m_inlineCopiedToNonInline = true;
-                }
+                copyObjectToPool(m_value, m_pool);
                 m_isEmpty = false;
             }
         }
@@ -363,10 +367,7 @@ public:
         if ( ! argVals[0].isNull()) {
             if (m_isEmpty || argVals[0].op_greaterThan(m_value).isTrue()) {
                 m_value = argVals[0];
-                if (m_value.getVolatile()) {
-                    m_value.allocateObjectFromPool(&m_pool);
-                    m_inlineCopiedToNonInline = true;
-                }
+                copyObjectToPool(m_value, m_pool);
                 m_isEmpty = false;
             }
         }
@@ -447,6 +448,9 @@ WindowFunctionExecutor::~WindowFunctionExecutor() {
     // NULL Safe Operation
     TupleSchema::freeTupleSchema(m_partitionByKeySchema);
     TupleSchema::freeTupleSchema(m_orderByKeySchema);
+    if (m_peerGroupBuffer != NULL) {
+        m_peerGroupBuffer->decrementRefcount();
+    }
 }
 
 /**
@@ -477,6 +481,18 @@ bool WindowFunctionExecutor::p_init(AbstractPlanNode *init_node,
     m_partitionByKeySchema = TupleSchema::createTupleSchema(m_partitionByExpressions);
     m_orderByKeySchema = TupleSchema::createTupleSchema(m_orderByExpressions);
 
+    /*
+     * Only buffer order by groups if some window function
+     * needs to see a whole group.  Otherwise rows stream
+     * straight through to the output.
+     */
+    if (node->needsOrderByGroupLookahead()) {
+        m_peerGroupBuffer = TableFactory::buildCopiedTempTable("window_peer_group",
+                                                               node->getInputTable(),
+                                                               executorVector);
+        m_peerGroupBuffer->incrementRefcount();
+    }
+
     /*
      * Initialize all the data for partition by and
      * order by storage once and for all.
@@ -652,7 +668,7 @@ bool WindowFunctionExecutor::p_execute(const NValueArray& params) {
      * Do this after setting the m_inputSchema.
      */
     initWorkingTupleStorage();
-    TableWindow tableWindow(input_table);
+    TableWindow tableWindow;
     ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
     m_pmp = &pmp;
 
@@ -670,34 +686,40 @@ bool WindowFunctionExecutor::p_execute(const NValueArray& params) {
      * Force a call p_execute_finish when this is all over.
      */
     EnsureCleanupOnExit finishCleanup(this);
-    for (EdgeType etype = START_OF_INPUT,
-                  nextEtype = INVALID_EDGE_TYPE;
-         etype != END_OF_INPUT;
-         etype = nextEtype) {
-        // Reset the aggregates if this is the
-        // start of a partition group.  The start of
-        // input is a special form of this.
-        if (etype == START_OF_INPUT || etype == START_OF_PARTITION_GROUP) {
-            m_aggregateRow->resetAggs();
+    /*
+     * This is the leading edge of the current order by
+     * group, or INVALID_EDGE_TYPE before the first row.
+     */
+    EdgeType groupEtype = INVALID_EDGE_TYPE;
+    TableIterator iterator = input_table->iteratorDeletingAsWeGo();
+    while (iterator.next(nextTuple)) {
+        m_pmp->countdownProgress();
+        EdgeType etype = findEdge(nextTuple, groupEtype == INVALID_EDGE_TYPE);
+        if (etype != NO_EDGE) {
+            // The previous order by group is complete.
+            if (groupEtype != INVALID_EDGE_TYPE) {
+                endOrderByGroup(tableWindow, groupEtype);
+            }
+            // Reset the aggregates if this is the
+            // start of a partition group.  The start of
+            // input is a special form of this.
+            if (etype == START_OF_INPUT || etype == START_OF_PARTITION_GROUP) {
+                m_aggregateRow->resetAggs();
+            }
+            tableWindow.resetCounts();
+            groupEtype = etype;
         }
-        // Find the next edge.  This will
-        // give the aggs a crack at each row
-        // if they want it.
-        nextEtype = findNextEdge(etype, tableWindow);
-        // Let the aggs know the results
-        // of the lookahead.
-        lookaheadNextGroupForAggs(tableWindow);
-        // Advance to the end of the current group.
-        for (int idx = 0; idx < tableWindow.m_orderByGroupSize; idx += 1) {
-            VOLT_TRACE("MiddleEdge: Window = %s", tableWindow.debug().c_str());
-            tableWindow.m_middleEdge.next(nextTuple);
-            m_pmp->countdownProgress();
-            m_aggregateRow->recordPassThroughTuple(nextTuple);
-            insertOutputTuple();
-            endRowForAggs(tableWindow, etype);
+        tableWindow.m_orderByGroupSize += 1;
+        lookaheadOneRowForAggs(nextTuple, tableWindow);
+        if (m_peerGroupBuffer != NULL) {
+            m_peerGroupBuffer->insertTempTuple(nextTuple);
+        } else {
+            outputRow(nextTuple, tableWindow, groupEtype);
         }
-        endGroupForAggs(tableWindow, etype);
-        VOLT_TRACE("FirstEdge: %s", tableWindow.debug().c_str());
+        VOLT_TRACE("Row: %s", tableWindow.debug().c_str());
+    }
+    if (groupEtype != INVALID_EDGE_TYPE) {
+        endOrderByGroup(tableWindow, groupEtype);
     }
     VOLT_TRACE("WindowFunctionExecutor: finalizing..");
 
@@ -705,64 +727,50 @@ bool WindowFunctionExecutor::p_execute(const NValueArray& params) {
     return true;
 }
 
-WindowFunctionExecutor::EdgeType WindowFunctionExecutor::findNextEdge(EdgeType edgeType, TableWindow &tableWindow)
+WindowFunctionExecutor::EdgeType WindowFunctionExecutor::findEdge(const TableTuple &nextTuple, bool firstRow)
 {
-    // This is just an alias for the buffered input tuple.
-    TableTuple &nextTuple = getBufferedInputTuple();
-    VOLT_TRACE("findNextEdge(start): %s", tableWindow.debug().c_str());
-    /*
-     * At the start of the input we need to prime the
-     * tuple pairs.
-     */
-    if (edgeType == START_OF_INPUT) {
-        if (tableWindow.m_leadingEdge.next(nextTuple)) {
-            initPartitionByKeyTuple(nextTuple);
-            initOrderByKeyTuple(nextTuple);
-            /* First row.  Nothing to compare it with. */
-            tableWindow.m_orderByGroupSize = 1;
-            lookaheadOneRowForAggs(nextTuple, tableWindow);
-        } else {
-            /*
-             * If there is no first row, then just
-             * return false.  The leading edge iterator
-             * will never have a next row, so we can
-             * ask for its next again and will always get false.
-             * We return a zero length group here.
-             */
-            tableWindow.m_orderByGroupSize = 0;
-            return END_OF_INPUT;
-        }
-    } else {
-        /*
-         * We've already got a row, so
-         * count it.
-         */
-        tableWindow.m_orderByGroupSize = 1;
-        lookaheadOneRowForAggs(nextTuple, tableWindow);
+    initPartitionByKeyTuple(nextTuple);
+    initOrderByKeyTuple(nextTuple);
+    if (firstRow) {
+        /* First row.  Nothing to compare it with. */
+        return START_OF_INPUT;
     }
-    do {
-        VOLT_TRACE("findNextEdge(loopStart): %s", tableWindow.debug().c_str());
-        if (tableWindow.m_leadingEdge.next(nextTuple)) {
-            initPartitionByKeyTuple(nextTuple);
-            initOrderByKeyTuple(nextTuple);
-            if (compareTuples(getInProgressPartitionByKeyTuple(),
-                              getLastPartitionByKeyTuple()) != 0) {
-                VOLT_TRACE("findNextEdge(Partition): %s", tableWindow.debug().c_str());
-                return START_OF_PARTITION_GROUP;
-            }
-            if (compareTuples(getInProgressOrderByKeyTuple(),
-                              getLastOrderByKeyTuple()) != 0) {
-                VOLT_TRACE("findNextEdge(Group): %s", tableWindow.debug().c_str());
-                return START_OF_PARTITION_BY_GROUP;
-            }
-            tableWindow.m_orderByGroupSize += 1;
-            lookaheadOneRowForAggs(nextTuple, tableWindow);
-            VOLT_TRACE("findNextEdge(loop): %s", tableWindow.debug().c_str());
-        } else {
-            VOLT_TRACE("findNextEdge(EOI): %s", tableWindow.debug().c_str());
-            return END_OF_INPUT;
+    if (compareTuples(getInProgressPartitionByKeyTuple(),
+                      getLastPartitionByKeyTuple()) != 0) {
+        return START_OF_PARTITION_GROUP;
+    }
+    if (compareTuples(getInProgressOrderByKeyTuple(),
+                      getLastOrderByKeyTuple()) != 0) {
+        return START_OF_PARTITION_BY_GROUP;
+    }
+    return NO_EDGE;
+}
+
+inline void WindowFunctionExecutor::outputRow(const TableTuple &tuple,
+                                              TableWindow &tableWindow,
+                                              EdgeType edgeType)
+{
+    m_aggregateRow->recordPassThroughTuple(tuple);
+    insertOutputTuple();
+    endRowForAggs(tableWindow, edgeType);
+}
+
+void WindowFunctionExecutor::endOrderByGroup(TableWindow &tableWindow, EdgeType edgeType)
+{
+    // Let the aggs know the results
+    // of the lookahead.
+    lookaheadNextGroupForAggs(tableWindow);
+    if (m_peerGroupBuffer != NULL) {
+        m_peerGroupBuffer->finishInserts();
+        TableTuple bufferedTuple(m_inputSchema);
+        TableIterator iterator = m_peerGroupBuffer->iteratorDeletingAsWeGo();
+        while (iterator.next(bufferedTuple)) {
+            outputRow(bufferedTuple, tableWindow, edgeType);
         }
-    } while (true);
+        m_peerGroupBuffer->deleteAllTuples();
+    }
+    endGroupForAggs(tableWindow, edgeType);
+    VOLT_TRACE("EndGroup: %s", tableWindow.debug().c_str());
 }
 
 void WindowFunctionExecutor::initPartitionByKeyTuple(const TableTuple& nextTuple)
@@ -853,6 +861,13 @@ void WindowFunctionExecutor::swapOrderByKeyTupleData() {
 void WindowFunctionExecutor::p_execute_finish() {
     VOLT_DEBUG("WindowFunctionExecutor::p_execute_finish() start\n");
     m_pmp = NULL;
+    /*
+     * The buffer is only non-empty here if we are
+     * unwinding from an exception.
+     */
+    if (m_peerGroupBuffer != NULL) {
+        m_peerGroupBuffer->deleteAllTuples();
+    }
     /*
      * The working tuples should not be null.
      */
@@ -27,6 +27,13 @@ struct WindowAggregateRow;
 struct TableWindow;
 /**
  * This is the executor for a WindowFunctionPlanNode.
+ *
+ * The input is consumed in a single pass, deleting input rows as we
+ * go.  When no window function needs to look ahead in an order by
+ * group, each row is output as soon as it is read.  Otherwise the rows
+ * of the current order by group are held in a buffer table, which is
+ * a large temp table for large queries, and output when the next group
+ * starts.
  */
 class WindowFunctionExecutor: public AbstractExecutor {
     /*
@@ -47,7 +54,8 @@ public:
         m_partitionByKeySchema(NULL),
         m_inputTable(NULL),
         m_inputSchema(NULL),
-        m_aggregateRow(NULL)
+        m_aggregateRow(NULL),
+        m_peerGroupBuffer(NULL)
         {
             dynamic_cast<WindowFunctionPlanNode *>(abstract_node)->collectOutputExpressions(m_outputColumnExpressions);
         }
@@ -56,15 +64,16 @@ public:
     /**
      * When calculating an window function, the value at a row may
      * depend on the order by peers of the row.  So, we need to
-     * scan the input forward to the next edge between order by
-     * groups.  Edges between partition by groups are a kind of
-     * edge between order by groups as well.
+     * know where the edges between order by groups are.  Edges
+     * between partition by groups are a kind of edge between order
+     * by groups as well.
      *
      * This enum type gives the type of kinds of edges between groups
      * of rows.
      */
     enum EdgeType {
         INVALID_EDGE_TYPE,           /** No Type. */
+        NO_EDGE,                     /** The row is an order by peer of the previous row. */
         START_OF_INPUT,              /** Start of input. */
         START_OF_PARTITION_GROUP,    /** Start of a new partition group. */
         START_OF_PARTITION_BY_GROUP, /** Start of an order by group. */
@@ -218,13 +227,21 @@ private:
     void initWorkingTupleStorage();
 
     /**
-     * Find the next edge, given that the current group's
-     * leading edge is the given edge type.  Return the edge type
-     * of the next group, not this group.  Note that
-     * the edge type is the type of the group after the current
-     * group.
+     * Evaluate the partition by and order by keys of the next input
+     * row and return the kind of edge between it and the previous row.
      */
-    EdgeType findNextEdge(EdgeType edgeType, TableWindow &);
+    EdgeType findEdge(const TableTuple &nextTuple, bool firstRow);
+
+    /**
+     * Output the row with the current window function values.
+     */
+    void outputRow(const TableTuple &tuple, TableWindow &tableWindow, EdgeType edgeType);
+
+    /**
+     * Finish the current order by group, whose leading edge has
+     * the given type, outputting any rows buffered for it.
+     */
+    void endOrderByGroup(TableWindow &tableWindow, EdgeType edgeType);
 
     Pool m_memoryPool;
     /**
@@ -333,6 +350,12 @@ private:
      * a tuple for the values passed through from the input.
      */
     WindowAggregateRow * m_aggregateRow;
+    /**
+     * This holds the rows of the current order by group when
+     * some window function needs to see the whole group before
+     * its value at any row is known.  It is NULL otherwise.
+     */
+    AbstractTempTable * m_peerGroupBuffer;
 };
 
 } /* namespace voltdb */
@@ -0,0 +1,698 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This file contains original code and/or modifications of original code.
+ * Any modifications made by VoltDB Inc. are licensed under the following
+ * terms and conditions:
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Copyright (C) 2008 by H-Store Project
+ * Brown University
+ * Massachusetts Institute of Technology
+ * Yale University
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include "expressions/batchexpression.h"
+
+#include <cmath>
+#include <cstring>
+
+#include "common/NValue.hpp"
+#include "common/TupleSchema.h"
+#include "common/ValueFactory.hpp"
+#include "common/ValuePeeker.hpp"
+#include "expressions/abstractexpression.h"
+#include "expressions/compiledexpression.h"
+#include "expressions/tuplevalueexpression.h"
+
+namespace voltdb {
+
+/** The kind of values a batch operator produces */
+enum class BatchDomain {
+    INVALID,
+    INTEGER,   // TINYINT through BIGINT, widened to int64_t
+    TIMESTAMP, // int64_t, but not usable in arithmetic
+    FLOAT,     // double
+    BOOLEAN    // 0 or 1 in the int64_t array
+};
+
+/**
+ * One operator of a compiled BatchExpression.  Each operator owns the
+ * result arrays for a full batch; a null row has its null flag set and an
+ * unspecified value.
+ */
+class BatchNode {
+public:
+    BatchNode() : m_domain(BatchDomain::INVALID) {}
+    virtual ~BatchNode() {}
+
+    /** Resolve the domain of this node for the current execution */
+    virtual bool bind() = 0;
+
+    /** Compute this node for every row of the batch; false if not exact */
+    virtual bool eval(const TupleBatch& batch) = 0;
+
+    BatchDomain domain() const { return m_domain; }
+
+    double doubleAt(int row) const {
+        return m_domain == BatchDomain::FLOAT ? m_doubles[row] : static_cast<double>(m_ints[row]);
+    }
+
+    int64_t m_ints[TupleBatch::CAPACITY];
+    double m_doubles[TupleBatch::CAPACITY];
+    bool m_nulls[TupleBatch::CAPACITY];
+
+protected:
+    BatchDomain m_domain;
+};
+
+namespace {
+
+inline BatchDomain domainForType(ValueType type) {
+    switch (type) {
+        case ValueType::tTINYINT:
+        case ValueType::tSMALLINT:
+        case ValueType::tINTEGER:
+        case ValueType::tBIGINT:
+            return BatchDomain::INTEGER;
+        case ValueType::tTIMESTAMP:
+            return BatchDomain::TIMESTAMP;
+        case ValueType::tDOUBLE:
+            return BatchDomain::FLOAT;
+        default:
+            return BatchDomain::INVALID;
+    }
+}
+
+template<typename T>
+inline void gatherIntegers(const TupleBatch& batch, uint32_t offset, int64_t nullValue,
+                           int64_t* values, bool* nulls) {
+    const int count = batch.size();
+    for (int i = 0; i < count; ++i) {
+        const int64_t value = *reinterpret_cast<const T*>(batch.addressAt(i) + offset);
+        values[i] = value;
+        nulls[i] = (value == nullValue);
+    }
+}
+
+/** A fixed-width column of the scanned tuple */
+class ColumnNode : public BatchNode {
+public:
+    ColumnNode(ValueType type, uint32_t offset)
+        : m_type(type), m_offset(TUPLE_HEADER_SIZE + offset) {
+        m_domain = domainForType(type);
+    }
+
+    bool bind() {
+        return true;
+    }
+
+    bool eval(const TupleBatch& batch) {
+        switch (m_type) {
+            case ValueType::tTINYINT:
+                gatherIntegers<int8_t>(batch, m_offset, INT8_NULL, m_ints, m_nulls);
+                break;
+            case ValueType::tSMALLINT:
+                gatherIntegers<int16_t>(batch, m_offset, INT16_NULL, m_ints, m_nulls);
+                break;
+            case ValueType::tINTEGER:
+                gatherIntegers<int32_t>(batch, m_offset, INT32_NULL, m_ints, m_nulls);
+                break;
+            case ValueType::tBIGINT:
+            case ValueType::tTIMESTAMP:
+                gatherIntegers<int64_t>(batch, m_offset, INT64_NULL, m_ints, m_nulls);
+                break;
+            case ValueType::tDOUBLE: {
+                const int count = batch.size();
+                for (int i = 0; i < count; ++i) {
+                    const double value = *reinterpret_cast<const double*>(batch.addressAt(i) + m_offset);
+                    m_doubles[i] = value;
+                    m_nulls[i] = (value <= DOUBLE_NULL);
+                }
+                break;
+            }
+            default:
+                vassert(false);
+                return false;
+        }
+        return true;
+    }
+
+private:
+    const ValueType m_type;
+    const uint32_t m_offset;
+};
+
+/**
+ * A constant or parameter.  Its value is fetched at bind time and
+ * broadcast lazily, so a short scan only pays for the rows it has.
+ */
+class ValueNode : public BatchNode {
+public:
+    ValueNode(const AbstractExpression* expression) : m_expression(expression), m_filled(0) {}
+
+    bool bind() {
+        m_value = m_expression->eval(NULL, NULL);
+        m_filled = 0;
+        m_domain = domainForType(ValuePeeker::peekValueType(m_value));
+        return m_domain != BatchDomain::INVALID;
+    }
+
+    bool eval(const TupleBatch& batch) {
+        const int count = batch.size();
+        if (count <= m_filled) {
+            return true;
+        }
+        const bool isNull = m_value.isNull();
+        if (m_domain == BatchDomain::FLOAT) {
+            const double value = isNull ? 0 : ValuePeeker::peekDouble(m_value);
+            std::fill(m_doubles + m_filled, m_doubles + count, value);
+        }
+        else {
+            const int64_t value = isNull ? 0 : ValuePeeker::peekAsBigInt(m_value);
+            std::fill(m_ints + m_filled, m_ints + count, value);
+        }
+        std::fill(m_nulls + m_filled, m_nulls + count, isNull);
+        m_filled = count;
+        return true;
+    }
+
+private:
+    const AbstractExpression* m_expression;
+    NValue m_value;
+    int m_filled;
+};
+
+/** +, - or * with NValue's promotion, overflow and null rules */
+class ArithmeticNode : public BatchNode {
+public:
+    ArithmeticNode(ExpressionType type, BatchNode* left, BatchNode* right)
+        : m_type(type), m_left(left), m_right(right) {}
+
+    bool bind() {
+        if ( ! m_left->bind() || ! m_right->bind()) {
+            return false;
+        }
+        const BatchDomain left = m_left->domain();
+        const BatchDomain right = m_right->domain();
+        if (left == BatchDomain::INTEGER && right == BatchDomain::INTEGER) {
+            m_domain = BatchDomain::INTEGER;
+        }
+        else if ((left == BatchDomain::INTEGER || left == BatchDomain::FLOAT) &&
+                 (right == BatchDomain::INTEGER || right == BatchDomain::FLOAT)) {
+            m_domain = BatchDomain::FLOAT;
+        }
+        else {
+            m_domain = BatchDomain::INVALID;
+        }
+        return m_domain != BatchDomain::INVALID;
+    }
+
+    bool eval(const TupleBatch& batch) {
+        if ( ! m_left->eval(batch) || ! m_right->eval(batch)) {
+            return false;
+        }
+        const int count = batch.size();
+        const bool* leftNulls = m_left->m_nulls;
+        const bool* rightNulls = m_right->m_nulls;
+        for (int i = 0; i < count; ++i) {
+            m_nulls[i] = leftNulls[i] || rightNulls[i];
+        }
+        if (m_domain == BatchDomain::INTEGER) {
+            return evalIntegers(count);
+        }
+        return evalDoubles(count);
+    }
+
+private:
+    bool evalIntegers(int count) {
+        const int64_t* lhs = m_left->m_ints;
+        const int64_t* rhs = m_right->m_ints;
+        bool overflow = false;
+        switch (m_type) {
+            case EXPRESSION_TYPE_OPERATOR_PLUS:
+                for (int i = 0; i < count; ++i) {
+                    const int64_t result = static_cast<int64_t>(
+                            static_cast<uint64_t>(lhs[i]) + static_cast<uint64_t>(rhs[i]));
+                    // Overflow iff both operands have the same sign and the result does not.
+                    overflow |= ! m_nulls[i] && ((lhs[i] ^ result) & (rhs[i] ^ result)) < 0;
+                    m_ints[i] = result;
+                }
+                break;
+            case EXPRESSION_TYPE_OPERATOR_MINUS:
+                for (int i = 0; i < count; ++i) {
+                    const int64_t result = static_cast<int64_t>(
+                            static_cast<uint64_t>(lhs[i]) - static_cast<uint64_t>(rhs[i]));
+                    overflow |= ! m_nulls[i] && ((lhs[i] ^ rhs[i]) & (lhs[i] ^ result)) < 0;
+                    m_ints[i] = result;
+                }
+                break;
+            case EXPRESSION_TYPE_OPERATOR_MULTIPLY:
+                for (int i = 0; i < count; ++i) {
+                    if (m_nulls[i]) {
+                        continue;
+                    }
+                    const int64_t result = static_cast<int64_t>(
+                            static_cast<uint64_t>(lhs[i]) * static_cast<uint64_t>(rhs[i]));
+                    // Dividing back detects overflow; -1 is special cased since
+                    // INT64_MIN / -1 itself overflows.  Like opMultiplyBigInts, a
+                    // product equal to the null sentinel is also out of range.
+                    if (lhs[i] == -1) {
+                        overflow |= (rhs[i] == INT64_MIN);
+                    }
+                    else if (lhs[i] != 0) {
+                        overflow |= (result / lhs[i] != rhs[i]);
+                    }
+                    overflow |= (result == INT64_NULL);
+                    m_ints[i] = result;
+                }
+                break;
+            default:
+                vassert(false);
+                return false;
+        }
+        if (overflow) {
+            // Let the scalar path raise the out-of-range error.
+            return false;
+        }
+        // A sum or difference that lands on the null sentinel reads back as null.
+        for (int i = 0; i < count; ++i) {
+            m_nulls[i] |= (m_ints[i] == INT64_NULL);
+        }
+        return true;
+    }
+
+    bool evalDoubles(int count) {
+        switch (m_type) {
+            case EXPRESSION_TYPE_OPERATOR_PLUS:
+                for (int i = 0; i < count; ++i) {
+                    m_doubles[i] = m_left->doubleAt(i) + m_right->doubleAt(i);
+                }
+                break;
+            case EXPRESSION_TYPE_OPERATOR_MINUS:
+                for (int i = 0; i < count; ++i) {
+                    m_doubles[i] = m_left->doubleAt(i) - m_right->doubleAt(i);
+                }
+                break;
+            case EXPRESSION_TYPE_OPERATOR_MULTIPLY:
+                for (int i = 0; i < count; ++i) {
+                    m_doubles[i] = m_left->doubleAt(i) * m_right->doubleAt(i);
+                }
+                break;
+            default:
+                vassert(false);
+                return false;
+        }
+        bool nonFinite = false;
+        for (int i = 0; i < count; ++i) {
+            if ( ! m_nulls[i]) {
+                nonFinite |= ! std::isfinite(m_doubles[i]);
+                m_nulls[i] = (m_doubles[i] <= DOUBLE_NULL);
+            }
+        }
+        // Let the scalar path raise the infinite or NaN error.
+        return ! nonFinite;
+    }
+
+    const ExpressionType m_type;
+    std::unique_ptr<BatchNode> m_left;
+    std::unique_ptr<BatchNode> m_right;
+};
+
+/** Mirrors NValue::compareDoubleValue: NaNs are equal and sort first */
+inline int compareDoubles(double lhs, double rhs) {
+    if (std::isnan(lhs)) {
+        return std::isnan(rhs) ? VALUE_COMPARE_EQUAL : VALUE_COMPARE_LESSTHAN;
+    }
+    else if (std::isnan(rhs)) {
+        return VALUE_COMPARE_GREATERTHAN;
+    }
+    return lhs > rhs ? VALUE_COMPARE_GREATERTHAN :
+           (lhs < rhs ? VALUE_COMPARE_LESSTHAN : VALUE_COMPARE_EQUAL);
+}
+
+inline int compareIntegers(int64_t lhs, int64_t rhs) {
+    return lhs > rhs ? VALUE_COMPARE_GREATERTHAN :
+           (lhs < rhs ? VALUE_COMPARE_LESSTHAN : VALUE_COMPARE_EQUAL);
+}
+
+inline bool comparisonHolds(ExpressionType type, int cmp) {
+    switch (type) {
+        case EXPRESSION_TYPE_COMPARE_EQUAL:
+            return cmp == VALUE_COMPARE_EQUAL;
+        case EXPRESSION_TYPE_COMPARE_NOTEQUAL:
+            return cmp != VALUE_COMPARE_EQUAL;
+        case EXPRESSION_TYPE_COMPARE_LESSTHAN:
+            return cmp == VALUE_COMPARE_LESSTHAN;
+        case EXPRESSION_TYPE_COMPARE_GREATERTHAN:
+            return cmp == VALUE_COMPARE_GREATERTHAN;
+        case EXPRESSION_TYPE_COMPARE_LESSTHANOREQUALTO:
+            return cmp != VALUE_COMPARE_GREATERTHAN;
+        case EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO:
+            return cmp != VALUE_COMPARE_LESSTHAN;
+        default:
+            vassert(false);
+            return false;
+    }
+}
+
+/** One of the six null-rejecting comparisons */
+class ComparisonNode : public BatchNode {
+public:
+    ComparisonNode(ExpressionType type, BatchNode* left, BatchNode* right)
+        : m_type(type), m_left(left), m_right(right), m_asDoubles(false) {}
+
+    bool bind() {
+        if ( ! m_left->bind() || ! m_right->bind()) {
+            return false;
+        }
+        const BatchDomain left = m_left->domain();
+        const BatchDomain right = m_right->domain();
+        m_domain = BatchDomain::BOOLEAN;
+        if (left == right && (left == BatchDomain::INTEGER || left == BatchDomain::TIMESTAMP)) {
+            m_asDoubles = false;
+        }
+        else if ((left == BatchDomain::INTEGER || left == BatchDomain::FLOAT) &&
+                 (right == BatchDomain::INTEGER || right == BatchDomain::FLOAT)) {
+            m_asDoubles = true;
+        }
+        else {
+            m_domain = BatchDomain::INVALID;
+        }
+        return m_domain != BatchDomain::INVALID;
+    }
+
+    bool eval(const TupleBatch& batch) {
+        if ( ! m_left->eval(batch) || ! m_right->eval(batch)) {
+            return false;
+        }
+        const int count = batch.size();
+        if (m_asDoubles) {
+            for (int i = 0; i < count; ++i) {
+                m_ints[i] = comparisonHolds(m_type,
+                        compareDoubles(m_left->doubleAt(i), m_right->doubleAt(i)));
+            }
+        }
+        else {
+            evalIntegers(count);
+        }
+        const bool* leftNulls = m_left->m_nulls;
+        const bool* rightNulls = m_right->m_nulls;
+        for (int i = 0; i < count; ++i) {
+            m_nulls[i] = leftNulls[i] || rightNulls[i];
+        }
+        return true;
+    }
+
+private:
+    // Hoist the operator switch out of the loop so each case is a
+    // branch-free loop the compiler can vectorize.
+    void evalIntegers(int count) {
+        const int64_t* lhs = m_left->m_ints;
+        const int64_t* rhs = m_right->m_ints;
+        switch (m_type) {
+            case EXPRESSION_TYPE_COMPARE_EQUAL:
+                for (int i = 0; i < count; ++i) { m_ints[i] = lhs[i] == rhs[i]; }
+                break;
+            case EXPRESSION_TYPE_COMPARE_NOTEQUAL:
+                for (int i = 0; i < count; ++i) { m_ints[i] = lhs[i] != rhs[i]; }
+                break;
+            case EXPRESSION_TYPE_COMPARE_LESSTHAN:
+                for (int i = 0; i < count; ++i) { m_ints[i] = lhs[i] < rhs[i]; }
+                break;
+            case EXPRESSION_TYPE_COMPARE_GREATERTHAN:
+                for (int i = 0; i < count; ++i) { m_ints[i] = lhs[i] > rhs[i]; }
+                break;
+            case EXPRESSION_TYPE_COMPARE_LESSTHANOREQUALTO:
+                for (int i = 0; i < count; ++i) { m_ints[i] = lhs[i] <= rhs[i]; }
+                break;
+            case EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO:
+                for (int i = 0; i < count; ++i) { m_ints[i] = lhs[i] >= rhs[i]; }
+                break;
+            default:
+                vassert(false);
+        }
+    }
+
+    const ExpressionType m_type;
+    std::unique_ptr<BatchNode> m_left;
+    std::unique_ptr<BatchNode> m_right;
+    bool m_asDoubles;
+};
+
+/** Three-valued AND / OR, as in ConjunctionExpression */
+class ConjunctionNode : public BatchNode {
+public:
+    ConjunctionNode(ExpressionType type, BatchNode* left, BatchNode* right)
+        : m_isAnd(type == EXPRESSION_TYPE_CONJUNCTION_AND), m_left(left), m_right(right) {}
+
+    bool bind() {
+        if ( ! m_left->bind() || ! m_right->bind()) {
+            return false;
+        }
+        m_domain = (m_left->domain() == BatchDomain::BOOLEAN &&
+                    m_right->domain() == BatchDomain::BOOLEAN) ?
+                BatchDomain::BOOLEAN : BatchDomain::INVALID;
+        return m_domain != BatchDomain::INVALID;
+    }
+
+    bool eval(const TupleBatch& batch) {
+        if ( ! m_left->eval(batch) || ! m_right->eval(batch)) {
+            return false;
+        }
+        const int count = batch.size();
+        const int64_t* lhs = m_left->m_ints;
+        const int64_t* rhs = m_right->m_ints;
+        const bool* leftNulls = m_left->m_nulls;
+        const bool* rightNulls = m_right->m_nulls;
+        // For AND a known FALSE decides the result, for OR a known TRUE does.
+        // Otherwise any NULL operand makes the result NULL.
+        const int64_t decisive = m_isAnd ? 0 : 1;
+        for (int i = 0; i < count; ++i) {
+            const bool decided = ( ! leftNulls[i] && lhs[i] == decisive) ||
+                                 ( ! rightNulls[i] && rhs[i] == decisive);
+            m_nulls[i] = ! decided && (leftNulls[i] || rightNulls[i]);
+            m_ints[i] = decided ? decisive : 1 - decisive;
+        }
+        return true;
+    }
+
+private:
+    const bool m_isAnd;
+    std::unique_ptr<BatchNode> m_left;
+    std::unique_ptr<BatchNode> m_right;
+};
+
+/** NOT (NULL stays NULL) and IS NULL */
+class UnaryNode : public BatchNode {
+public:
+    UnaryNode(ExpressionType type, BatchNode* child)
+        : m_isNot(type == EXPRESSION_TYPE_OPERATOR_NOT), m_child(child) {}
+
+    bool bind() {
+        if ( ! m_child->bind()) {
+            return false;
+        }
+        m_domain = ( ! m_isNot || m_child->domain() == BatchDomain::BOOLEAN) ?
+                BatchDomain::BOOLEAN : BatchDomain::INVALID;
+        return m_domain != BatchDomain::INVALID;
+    }
+
+    bool eval(const TupleBatch& batch) {
+        if ( ! m_child->eval(batch)) {
+            return false;
+        }
+        const int count = batch.size();
+        const bool* childNulls = m_child->m_nulls;
+        if (m_isNot) {
+            const int64_t* values = m_child->m_ints;
+            for (int i = 0; i < count; ++i) {
+                m_ints[i] = ! values[i];
+                m_nulls[i] = childNulls[i];
+            }
+        }
+        else {
+            for (int i = 0; i < count; ++i) {
+                m_ints[i] = childNulls[i];
+                m_nulls[i] = false;
+            }
+        }
+        return true;
+    }
+
+private:
+    const bool m_isNot;
+    std::unique_ptr<BatchNode> m_child;
+};
+
+BatchNode* compileNode(const AbstractExpression* expr, const TupleSchema* schema) {
+    if (expr == NULL) {
+        return NULL;
+    }
+    const ExpressionType type = expr->getExpressionType();
+    switch (type) {
+        case EXPRESSION_TYPE_VALUE_TUPLE: {
+            const TupleValueExpression* tve = dynamic_cast<const TupleValueExpression*>(expr);
+            if (tve == NULL || tve->getTupleIdx() != 0 ||
+                tve->getColumnId() >= schema->columnCount()) {
+                return NULL;
+            }
+            const TupleSchema::ColumnInfo* columnInfo = schema->getColumnInfo(tve->getColumnId());
+            if (domainForType(columnInfo->getVoltType()) == BatchDomain::INVALID) {
+                return NULL;
+            }
+            return new ColumnNode(columnInfo->getVoltType(), columnInfo->offset);
+        }
+        case EXPRESSION_TYPE_VALUE_CONSTANT:
+        case EXPRESSION_TYPE_VALUE_PARAMETER:
+            return new ValueNode(expr);
+        case EXPRESSION_TYPE_OPERATOR_NOT:
+        case EXPRESSION_TYPE_OPERATOR_IS_NULL: {
+            BatchNode* child = compileNode(expr->getLeft(), schema);
+            return child == NULL ? NULL : new UnaryNode(type, child);
+        }
+        case EXPRESSION_TYPE_OPERATOR_PLUS:
+        case EXPRESSION_TYPE_OPERATOR_MINUS:
+        case EXPRESSION_TYPE_OPERATOR_MULTIPLY:
+        case EXPRESSION_TYPE_COMPARE_EQUAL:
+        case EXPRESSION_TYPE_COMPARE_NOTEQUAL:
+        case EXPRESSION_TYPE_COMPARE_LESSTHAN:
+        case EXPRESSION_TYPE_COMPARE_GREATERTHAN:
+        case EXPRESSION_TYPE_COMPARE_LESSTHANOREQUALTO:
+        case EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO:
+        case EXPRESSION_TYPE_CONJUNCTION_AND:
+        case EXPRESSION_TYPE_CONJUNCTION_OR: {
+            std::unique_ptr<BatchNode> left(compileNode(expr->getLeft(), schema));
+            if ( ! left) {
+                return NULL;
+            }
+            std::unique_ptr<BatchNode> right(compileNode(expr->getRight(), schema));
+            if ( ! right) {
+                return NULL;
+            }
+            if (type == EXPRESSION_TYPE_CONJUNCTION_AND || type == EXPRESSION_TYPE_CONJUNCTION_OR) {
+                return new ConjunctionNode(type, left.release(), right.release());
+            }
+            if (type == EXPRESSION_TYPE_OPERATOR_PLUS || type == EXPRESSION_TYPE_OPERATOR_MINUS ||
+                type == EXPRESSION_TYPE_OPERATOR_MULTIPLY) {
+                return new ArithmeticNode(type, left.release(), right.release());
+            }
+            return new ComparisonNode(type, left.release(), right.release());
+        }
+        default:
+            return NULL;
+    }
+}
+
+} // anonymous namespace
+
+BatchExpression::BatchExpression(const AbstractExpression* expression, BatchNode* root)
+    : m_expression(expression), m_root(root) {}
+
+BatchExpression::~BatchExpression() {}
+
+BatchExpression* BatchExpression::compile(const AbstractExpression* expr, const TupleSchema* schema) {
+    // Batches are built from the tree structure, which a compiled
+    // expression keeps in its source.
+    expr = CompiledExpression::source(expr);
+    BatchNode* root = compileNode(expr, schema);
+    if (root == NULL) {
+        return NULL;
+    }
+    return new BatchExpression(expr, root);
+}
+
+bool BatchExpression::bind() {
+    return m_root->bind();
+}
+
+bool BatchExpression::isPredicate() const {
+    switch (m_expression->getExpressionType()) {
+        case EXPRESSION_TYPE_OPERATOR_NOT:
+        case EXPRESSION_TYPE_OPERATOR_IS_NULL:
+        case EXPRESSION_TYPE_COMPARE_EQUAL:
+        case EXPRESSION_TYPE_COMPARE_NOTEQUAL:
+        case EXPRESSION_TYPE_COMPARE_LESSTHAN:
+        case EXPRESSION_TYPE_COMPARE_GREATERTHAN:
+        case EXPRESSION_TYPE_COMPARE_LESSTHANOREQUALTO:
+        case EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO:
+        case EXPRESSION_TYPE_CONJUNCTION_AND:
+        case EXPRESSION_TYPE_CONJUNCTION_OR:
+            return true;
+        default:
+            return false;
+    }
+}
+
+int BatchExpression::select(const TupleBatch& batch, uint16_t* selection) {
+    vassert(m_root->domain() == BatchDomain::BOOLEAN);
+    if ( ! m_root->eval(batch)) {
+        return -1;
+    }
+    const int count = batch.size();
+    const int64_t* values = m_root->m_ints;
+    const bool* nulls = m_root->m_nulls;
+    int selected = 0;
+    for (int i = 0; i < count; ++i) {
+        selection[selected] = static_cast<uint16_t>(i);
+        selected += (values[i] != 0 && ! nulls[i]);
+    }
+    return selected;
+}
+
+bool BatchExpression::evaluate(const TupleBatch& batch) {
+    return m_root->eval(batch);
+}
+
+NValue BatchExpression::valueAt(int row) const {
+    switch (m_root->domain()) {
+        case BatchDomain::INTEGER:
+            return m_root->m_nulls[row] ? NValue::getNullValue(ValueType::tBIGINT) :
+                    ValueFactory::getBigIntValue(m_root->m_ints[row]);
+        case BatchDomain::TIMESTAMP:
+            return m_root->m_nulls[row] ? NValue::getNullValue(ValueType::tTIMESTAMP) :
+                    ValueFactory::getTimestampValue(m_root->m_ints[row]);
+        case BatchDomain::FLOAT:
+            return m_root->m_nulls[row] ? NValue::getNullValue(ValueType::tDOUBLE) :
+                    ValueFactory::getDoubleValue(m_root->m_doubles[row]);
+        case BatchDomain::BOOLEAN:
+            return m_root->m_nulls[row] ? NValue::getNullValue(ValueType::tBOOLEAN) :
+                    ValueFactory::getBooleanValue(m_root->m_ints[row] != 0);
+        default:
+            vassert(false);
+            return NValue();
+    }
+}
+
+}
@@ -0,0 +1,170 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This file contains original code and/or modifications of original code.
+ * Any modifications made by VoltDB Inc. are licensed under the following
+ * terms and conditions:
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Copyright (C) 2008 by H-Store Project
+ * Brown University
+ * Massachusetts Institute of Technology
+ * Yale University
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#pragma once
+
+#include <memory>
+
+#include "common/common.h"
+#include "common/tabletuple.h"
+
+namespace voltdb {
+
+class AbstractExpression;
+class BatchNode;
+class TupleSchema;
+
+/**
+ * A fixed-capacity run of tuple addresses from one table, gathered by a
+ * scan so that expressions can be evaluated a column at a time rather
+ * than a tuple at a time.
+ *
+ * The addresses must remain valid until the batch is cleared, so batches
+ * may only be collected from tables whose tuples do not move or get freed
+ * while they are being scanned (persistent tables, but not temp tables
+ * scanned with a deleting iterator).
+ */
+class TupleBatch {
+public:
+    static const int CAPACITY = 1024;
+
+    TupleBatch() : m_size(0) {}
+
+    void add(const TableTuple& tuple) {
+        vassert(m_size < CAPACITY);
+        m_addresses[m_size++] = tuple.address();
+    }
+
+    bool isFull() const { return m_size == CAPACITY; }
+    bool isEmpty() const { return m_size == 0; }
+    int size() const { return m_size; }
+    void clear() { m_size = 0; }
+
+    char* addressAt(int row) const {
+        vassert(row < m_size);
+        return m_addresses[row];
+    }
+
+    /** Keep only the rows named in the (ascending) selection vector */
+    void compact(const uint16_t* selection, int count) {
+        for (int i = 0; i < count; ++i) {
+            m_addresses[i] = m_addresses[selection[i]];
+        }
+        m_size = count;
+    }
+
+private:
+    int m_size;
+    char* m_addresses[CAPACITY];
+};
+
+/**
+ * A columnar ("vectorized") form of a simple expression tree.
+ *
+ * Predicates made of AND, OR, NOT, IS NULL and the six comparison
+ * operators over integer, timestamp and float columns, constants,
+ * parameters and +, - and * are compiled into a tree of batch operators.
+ * Each operator works on a whole TupleBatch at once: leaf columns are
+ * gathered into flat int64_t or double arrays with separate null flags,
+ * and the inner operators are tight loops over those arrays that the
+ * compiler can unroll and auto-vectorize.  This avoids the per-row
+ * virtual eval() calls and NValue construction of the scalar path.
+ *
+ * Results are exactly those of AbstractExpression::eval().  Anything the
+ * batch operators cannot reproduce exactly (an integer overflow, a
+ * non-finite float result, or a parameter of an unexpected type) is
+ * reported to the caller, which then evaluates the affected batch or the
+ * whole execution with the original expression.
+ */
+class BatchExpression {
+public:
+    /**
+     * Compile expr for tuples of the given schema.  Returns NULL if
+     * any part of the tree has no batch form; the caller should keep
+     * using the scalar expression in that case.
+     */
+    static BatchExpression* compile(const AbstractExpression* expr, const TupleSchema* schema);
+
+    ~BatchExpression();
+
+    /**
+     * Resolve the current values of constants and parameters.  Must be
+     * called once per execution, before any batch is evaluated.  Returns
+     * false if the parameter types for this execution are not supported,
+     * in which case the scalar expression must be used until the next bind.
+     */
+    bool bind();
+
+    /** True if the compiled tree yields a boolean */
+    bool isPredicate() const;
+
+    /**
+     * Evaluate a predicate over the batch and write the positions of the
+     * rows for which it is true into selection (which must hold
+     * TupleBatch::CAPACITY entries).  Returns the number of selected rows,
+     * or -1 if this batch must be evaluated with the scalar expression.
+     */
+    int select(const TupleBatch& batch, uint16_t* selection);
+
+    /**
+     * Evaluate a numeric expression over the batch.  Returns false if this
+     * batch must be evaluated with the scalar expression.  On success the
+     * value for each row is available from valueAt().
+     */
+    bool evaluate(const TupleBatch& batch);
+
+    /** The value computed for a row by the last successful evaluate() */
+    NValue valueAt(int row) const;
+
+    const AbstractExpression* getExpression() const { return m_expression; }
+
+private:
+    BatchExpression(const AbstractExpression* expression, BatchNode* root);
+
+    const AbstractExpression* m_expression;
+    std::unique_ptr<BatchNode> m_root;
+};
+
+}
@@ -0,0 +1,358 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#include "expressions/compiledexpression.h"
+
+#include <sstream>
+
+#include "common/SerializableEEException.h"
+#include "common/tabletuple.h"
+#include "expressions/comparisonexpression.h"
+#include "expressions/constantvalueexpression.h"
+#include "expressions/tuplevalueexpression.h"
+
+namespace voltdb {
+
+namespace {
+
+bool isSubquery(const AbstractExpression* expr) {
+    return expr != NULL &&
+        (expr->getExpressionType() == EXPRESSION_TYPE_ROW_SUBQUERY ||
+         expr->getExpressionType() == EXPRESSION_TYPE_SELECT_SUBQUERY);
+}
+
+/**
+ * True if expr is executed by an instruction of its own, rather than by
+ * an EVAL of its subtree.  Comparisons with a subquery operand are built
+ * by a different factory and keep their own eval().
+ */
+bool hasInstruction(const AbstractExpression* expr) {
+    switch (expr->getExpressionType()) {
+        case EXPRESSION_TYPE_COMPARE_EQUAL:
+        case EXPRESSION_TYPE_COMPARE_NOTEQUAL:
+        case EXPRESSION_TYPE_COMPARE_LESSTHAN:
+        case EXPRESSION_TYPE_COMPARE_GREATERTHAN:
+        case EXPRESSION_TYPE_COMPARE_LESSTHANOREQUALTO:
+        case EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO:
+        case EXPRESSION_TYPE_COMPARE_NOTDISTINCT:
+            return expr->getLeft() != NULL && expr->getRight() != NULL &&
+                ! isSubquery(expr->getLeft()) && ! isSubquery(expr->getRight());
+        case EXPRESSION_TYPE_CONJUNCTION_AND:
+        case EXPRESSION_TYPE_CONJUNCTION_OR:
+        case EXPRESSION_TYPE_OPERATOR_PLUS:
+        case EXPRESSION_TYPE_OPERATOR_MINUS:
+        case EXPRESSION_TYPE_OPERATOR_MULTIPLY:
+        case EXPRESSION_TYPE_OPERATOR_DIVIDE:
+            return expr->getLeft() != NULL && expr->getRight() != NULL;
+        case EXPRESSION_TYPE_OPERATOR_NOT:
+        case EXPRESSION_TYPE_OPERATOR_IS_NULL:
+            return expr->getLeft() != NULL;
+        default:
+            return false;
+    }
+}
+
+inline const TableTuple* checkTuple(const TableTuple* tuple, int tupleIdx) {
+    vassert(tuple);
+    if (tuple == NULL) {
+        throw SerializableEEException(tupleIdx == 0 ?
+                "CompiledExpression::eval: Couldn't find tuple 1 (possible index scan planning error)" :
+                "CompiledExpression::eval: Couldn't find tuple 2 (possible index scan planning error)");
+    }
+    return tuple;
+}
+
+}
+
+CompiledExpression::CompiledExpression(const AbstractExpression* source)
+    : AbstractExpression(source->getExpressionType()),
+      m_source(source),
+      m_result(-1)
+{
+    m_valueType = source->getValueType();
+    m_valueSize = source->getValueSize();
+    m_inBytes = source->getInBytes();
+    m_hasParameter = source->hasParameter();
+}
+
+CompiledExpression* CompiledExpression::compile(const AbstractExpression* expr) {
+    if (expr == NULL || ! hasInstruction(expr)) {
+        return NULL;
+    }
+    CompiledExpression* compiled = new CompiledExpression(expr);
+    compiled->m_result = compiled->compileNode(expr);
+    return compiled;
+}
+
+const AbstractExpression* CompiledExpression::source(const AbstractExpression* expr) {
+    const CompiledExpression* compiled = dynamic_cast<const CompiledExpression*>(expr);
+    return compiled == NULL ? expr : compiled->getSource();
+}
+
+int CompiledExpression::newRegister() {
+    m_registers.push_back(NValue());
+    return static_cast<int>(m_registers.size()) - 1;
+}
+
+int CompiledExpression::emit(Opcode op, int dest, int left, int right, int operand,
+                             const AbstractExpression* expr) {
+    Instruction instruction;
+    instruction.op = op;
+    instruction.dest = dest;
+    instruction.left = left;
+    instruction.right = right;
+    instruction.operand = operand;
+    instruction.expr = expr;
+    m_program.push_back(instruction);
+    return static_cast<int>(m_program.size()) - 1;
+}
+
+int CompiledExpression::compileNode(const AbstractExpression* expr) {
+    const TupleValueExpression* tve = dynamic_cast<const TupleValueExpression*>(expr);
+    if (tve != NULL) {
+        int dest = newRegister();
+        emit(tve->getTupleIdx() == 0 ? OP_LOAD_TUPLE1 : OP_LOAD_TUPLE2,
+             dest, -1, -1, tve->getColumnId(), expr);
+        return dest;
+    }
+    if (dynamic_cast<const ConstantValueExpression*>(expr) != NULL) {
+        // The value stays owned by the source tree.
+        int dest = newRegister();
+        m_registers[dest] = expr->eval(NULL, NULL);
+        return dest;
+    }
+    if ( ! hasInstruction(expr)) {
+        int dest = newRegister();
+        emit(OP_EVAL, dest, -1, -1, -1, expr);
+        return dest;
+    }
+
+    switch (expr->getExpressionType()) {
+        case EXPRESSION_TYPE_COMPARE_EQUAL:
+            return compileComparison(OP_CMP_EQ, CmpEq::isNullRejecting(), expr);
+        case EXPRESSION_TYPE_COMPARE_NOTEQUAL:
+            return compileComparison(OP_CMP_NE, CmpNe::isNullRejecting(), expr);
+        case EXPRESSION_TYPE_COMPARE_LESSTHAN:
+            return compileComparison(OP_CMP_LT, CmpLt::isNullRejecting(), expr);
+        case EXPRESSION_TYPE_COMPARE_GREATERTHAN:
+            return compileComparison(OP_CMP_GT, CmpGt::isNullRejecting(), expr);
+        case EXPRESSION_TYPE_COMPARE_LESSTHANOREQUALTO:
+            return compileComparison(OP_CMP_LTE, CmpLte::isNullRejecting(), expr);
+        case EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO:
+            return compileComparison(OP_CMP_GTE, CmpGte::isNullRejecting(), expr);
+        case EXPRESSION_TYPE_COMPARE_NOTDISTINCT:
+            return compileComparison(OP_CMP_NOT_DISTINCT, CmpNotDistinct::isNullRejecting(), expr);
+        case EXPRESSION_TYPE_CONJUNCTION_AND:
+        case EXPRESSION_TYPE_CONJUNCTION_OR: {
+            const bool isAnd = expr->getExpressionType() == EXPRESSION_TYPE_CONJUNCTION_AND;
+            int left = compileNode(expr->getLeft());
+            int dest = newRegister();
+            int shortCircuit = emit(isAnd ? OP_AND_LEFT : OP_OR_LEFT, dest, left, -1, -1, expr);
+            int right = compileNode(expr->getRight());
+            emit(isAnd ? OP_AND_RIGHT : OP_OR_RIGHT, dest, left, right, -1, expr);
+            m_program[shortCircuit].operand = static_cast<int>(m_program.size());
+            return dest;
+        }
+        case EXPRESSION_TYPE_OPERATOR_NOT:
+        case EXPRESSION_TYPE_OPERATOR_IS_NULL: {
+            int left = compileNode(expr->getLeft());
+            int dest = newRegister();
+            emit(expr->getExpressionType() == EXPRESSION_TYPE_OPERATOR_NOT ? OP_NOT : OP_IS_NULL,
+                 dest, left, -1, -1, expr);
+            return dest;
+        }
+        case EXPRESSION_TYPE_OPERATOR_PLUS:
+        case EXPRESSION_TYPE_OPERATOR_MINUS:
+        case EXPRESSION_TYPE_OPERATOR_MULTIPLY:
+        case EXPRESSION_TYPE_OPERATOR_DIVIDE: {
+            Opcode op;
+            switch (expr->getExpressionType()) {
+                case EXPRESSION_TYPE_OPERATOR_PLUS:
+                    op = OP_ADD;
+                    break;
+                case EXPRESSION_TYPE_OPERATOR_MINUS:
+                    op = OP_SUBTRACT;
+                    break;
+                case EXPRESSION_TYPE_OPERATOR_MULTIPLY:
+                    op = OP_MULTIPLY;
+                    break;
+                default:
+                    op = OP_DIVIDE;
+                    break;
+            }
+            int left = compileNode(expr->getLeft());
+            int right = compileNode(expr->getRight());
+            int dest = newRegister();
+            emit(op, dest, left, right, -1, expr);
+            return dest;
+        }
+        default:
+            vassert(false);
+            return -1;
+    }
+}
+
+/**
+ * Like ComparisonExpression::eval(), a NULL-rejecting comparison checks
+ * its left operand before the right one is evaluated at all.
+ */
+int CompiledExpression::compileComparison(Opcode op, bool nullRejecting, const AbstractExpression* expr) {
+    int left = compileNode(expr->getLeft());
+    int dest = newRegister();
+    int leftExit = -1;
+    if (nullRejecting) {
+        leftExit = emit(OP_NULL_EXIT, dest, left, -1, -1, expr);
+    }
+    int right = compileNode(expr->getRight());
+    int rightExit = -1;
+    if (nullRejecting) {
+        rightExit = emit(OP_NULL_EXIT, dest, right, -1, -1, expr);
+    }
+    emit(op, dest, left, right, -1, expr);
+    if (nullRejecting) {
+        m_program[leftExit].operand = static_cast<int>(m_program.size());
+        m_program[rightExit].operand = static_cast<int>(m_program.size());
+    }
+    return dest;
+}
+
+NValue CompiledExpression::eval(const TableTuple* tuple1, const TableTuple* tuple2) const {
+    NValue* r = &m_registers[0];
+    const Instruction* program = &m_program[0];
+    const int count = static_cast<int>(m_program.size());
+    int pc = 0;
+    while (pc < count) {
+        const Instruction& in = program[pc++];
+        switch (in.op) {
+            case OP_LOAD_TUPLE1:
+                r[in.dest] = checkTuple(tuple1, 0)->getNValue(in.operand);
+                break;
+            case OP_LOAD_TUPLE2:
+                r[in.dest] = checkTuple(tuple2, 1)->getNValue(in.operand);
+                break;
+            case OP_EVAL:
+                r[in.dest] = in.expr->eval(tuple1, tuple2);
+                break;
+            case OP_NULL_EXIT:
+                if (r[in.left].isNull()) {
+                    r[in.dest] = NValue::getNullValue(ValueType::tBOOLEAN);
+                    pc = in.operand;
+                }
+                break;
+            case OP_CMP_EQ:
+                r[in.dest] = CmpEq::compare(r[in.left], r[in.right]);
+                break;
+            case OP_CMP_NE:
+                r[in.dest] = CmpNe::compare(r[in.left], r[in.right]);
+                break;
+            case OP_CMP_LT:
+                r[in.dest] = CmpLt::compare(r[in.left], r[in.right]);
+                break;
+            case OP_CMP_GT:
+                r[in.dest] = CmpGt::compare(r[in.left], r[in.right]);
+                break;
+            case OP_CMP_LTE:
+                r[in.dest] = CmpLte::compare(r[in.left], r[in.right]);
+                break;
+            case OP_CMP_GTE:
+                r[in.dest] = CmpGte::compare(r[in.left], r[in.right]);
+                break;
+            case OP_CMP_NOT_DISTINCT:
+                r[in.dest] = CmpNotDistinct::compare(r[in.left], r[in.right]);
+                break;
+            case OP_AND_LEFT:
+                // FALSE AND x -> FALSE
+                if (r[in.left].isFalse()) {
+                    r[in.dest] = r[in.left];
+                    pc = in.operand;
+                }
+                break;
+            case OP_AND_RIGHT:
+                // TRUE AND x -> x, NULL AND FALSE -> FALSE, otherwise NULL
+                if (r[in.left].isTrue() || r[in.right].isFalse()) {
+                    r[in.dest] = r[in.right];
+                } else {
+                    r[in.dest] = NValue::getNullValue(ValueType::tBOOLEAN);
+                }
+                break;
+            case OP_OR_LEFT:
+                // TRUE OR x -> TRUE
+                if (r[in.left].isTrue()) {
+                    r[in.dest] = r[in.left];
+                    pc = in.operand;
+                }
+                break;
+            case OP_OR_RIGHT:
+                // FALSE OR x -> x, NULL OR TRUE -> TRUE, otherwise NULL
+                if (r[in.left].isFalse() || r[in.right].isTrue()) {
+                    r[in.dest] = r[in.right];
+                } else {
+                    r[in.dest] = NValue::getNullValue(ValueType::tBOOLEAN);
+                }
+                break;
+            case OP_NOT:
+                if (r[in.left].isTrue()) {
+                    r[in.dest] = NValue::getFalse();
+                } else if (r[in.left].isFalse()) {
+                    r[in.dest] = NValue::getTrue();
+                } else {
+                    r[in.dest] = r[in.left];
+                }
+                break;
+            case OP_IS_NULL:
+                r[in.dest] = r[in.left].isNull() ? NValue::getTrue() : NValue::getFalse();
+                break;
+            case OP_ADD:
+                r[in.dest] = r[in.left].op_add(r[in.right]);
+                break;
+            case OP_SUBTRACT:
+                r[in.dest] = r[in.left].op_subtract(r[in.right]);
+                break;
+            case OP_MULTIPLY:
+                r[in.dest] = r[in.left].op_multiply(r[in.right]);
+                break;
+            case OP_DIVIDE:
+                r[in.dest] = r[in.left].op_divide(r[in.right]);
+                break;
+        }
+    }
+    return r[m_result];
+}
+
+bool CompiledExpression::hasParameter() const {
+    return m_source->hasParameter();
+}
+
+int CompiledExpression::getFallbackCount() const {
+    int fallbacks = 0;
+    for (const Instruction& in : m_program) {
+        if (in.op == OP_EVAL && in.expr->getExpressionType() != EXPRESSION_TYPE_VALUE_PARAMETER) {
+            ++fallbacks;
+        }
+    }
+    return fallbacks;
+}
+
+std::string CompiledExpression::debugInfo(const std::string& spacer) const {
+    std::ostringstream buffer;
+    buffer << spacer << "CompiledExpression[" << m_program.size() << " instructions, "
+           << m_registers.size() << " registers, " << getFallbackCount() << " fallbacks]\n"
+           << m_source->debug(spacer + "   ");
+    return buffer.str();
+}
+
+}
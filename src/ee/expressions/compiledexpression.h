@@ -0,0 +1,125 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#pragma once
+
+#include <string>
+#include <vector>
+
+#include "common/NValue.hpp"
+#include "expressions/abstractexpression.h"
+
+namespace voltdb {
+
+/**
+ * A flattened form of an expression tree, evaluated by a small register
+ * machine instead of by recursive virtual eval() calls.
+ *
+ * The tree is compiled once, when its plan is loaded, into a linear
+ * program: each node writes its result into a register of its own, and
+ * the short-circuiting of AND, OR and of NULL comparison operands is done
+ * with forward jumps.  Column loads, comparisons, AND, OR, NOT, IS NULL
+ * and +, -, *, / are executed inline.  Constants are loaded into their
+ * registers at compile time.  Parameters and any subtree without an
+ * instruction of its own (functions, subqueries, CASE, IN lists, ...)
+ * are evaluated through the original tree by an EVAL instruction, so
+ * every expression can be compiled as long as its root is supported.
+ *
+ * Results are exactly those of the source tree's eval(), including the
+ * order in which operands are evaluated and therefore which errors are
+ * raised.  The source tree is kept for debugging and for the callers that
+ * inspect its structure (see source()).
+ *
+ * The registers are owned by the expression, so like the executors that
+ * use it, a compiled expression must only be evaluated by one thread at
+ * a time.
+ */
+class CompiledExpression : public AbstractExpression {
+public:
+    /**
+     * Compile expr.  Returns NULL if its root has no instruction, in
+     * which case the caller should keep using expr.  The source tree is
+     * not owned by the compiled expression and must outlive it.
+     */
+    static CompiledExpression* compile(const AbstractExpression* expr);
+
+    /** The source tree of a compiled expression, or expr itself */
+    static const AbstractExpression* source(const AbstractExpression* expr);
+
+    NValue eval(const TableTuple* tuple1, const TableTuple* tuple2) const;
+
+    bool hasParameter() const;
+
+    std::string debugInfo(const std::string& spacer) const;
+
+    const AbstractExpression* getSource() const { return m_source; }
+
+    int getInstructionCount() const { return static_cast<int>(m_program.size()); }
+
+    /** The number of subtrees evaluated through the source tree */
+    int getFallbackCount() const;
+
+    enum Opcode {
+        OP_LOAD_TUPLE1,       // r[dest] = tuple1[operand]
+        OP_LOAD_TUPLE2,       // r[dest] = tuple2[operand]
+        OP_EVAL,              // r[dest] = expr->eval(tuple1, tuple2)
+        OP_NULL_EXIT,         // if r[left] is NULL, r[dest] = NULL boolean and jump
+        OP_CMP_EQ,            // r[dest] = r[left] op r[right]
+        OP_CMP_NE,
+        OP_CMP_LT,
+        OP_CMP_GT,
+        OP_CMP_LTE,
+        OP_CMP_GTE,
+        OP_CMP_NOT_DISTINCT,
+        OP_AND_LEFT,          // if r[left] is FALSE, r[dest] = r[left] and jump
+        OP_AND_RIGHT,         // r[dest] = r[left] AND r[right], r[left] not FALSE
+        OP_OR_LEFT,           // if r[left] is TRUE, r[dest] = r[left] and jump
+        OP_OR_RIGHT,          // r[dest] = r[left] OR r[right], r[left] not TRUE
+        OP_NOT,
+        OP_IS_NULL,
+        OP_ADD,
+        OP_SUBTRACT,
+        OP_MULTIPLY,
+        OP_DIVIDE
+    };
+
+    struct Instruction {
+        Opcode op;
+        int dest;
+        int left;
+        int right;
+        // Column index for loads, jump target for the conditional opcodes
+        int operand;
+        const AbstractExpression* expr;
+    };
+
+private:
+    CompiledExpression(const AbstractExpression* source);
+
+    int compileNode(const AbstractExpression* expr);
+    int compileComparison(Opcode op, bool nullRejecting, const AbstractExpression* expr);
+    int emit(Opcode op, int dest, int left, int right, int operand, const AbstractExpression* expr);
+    int newRegister();
+
+    const AbstractExpression* m_source;
+    std::vector<Instruction> m_program;
+    // Holds the constants from compile time on; written by eval() otherwise
+    mutable std::vector<NValue> m_registers;
+    int m_result;
+};
+
+}
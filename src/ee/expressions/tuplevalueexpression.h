@@ -86,6 +86,8 @@ class TupleValueExpression : public AbstractExpression {
 
     int getColumnId() const {return this->value_idx;}
 
+    int getTupleIdx() const {return this->tuple_idx;}
+
   protected:
 
     const int tuple_idx;           // which tuple
@@ -74,15 +74,24 @@ class CompactingHashUniqueIndex : public TableIndex
 
     void addEntryDo(const TableTuple *tuple, TableTuple *conflictTuple) {
         ++m_inserts;
-        const void* const* conflictEntry = m_entries.insert(setKeyFromTuple(tuple), tuple->address());
-        if (conflictEntry != NULL && conflictTuple != NULL) {
+        const KeyType key = setKeyFromTuple(tuple);
+        const void* const* conflictEntry = m_entries.insert(key, tuple->address());
+        if (conflictEntry == NULL) {
+            if (isBloomFilterEnabled()) {
+                bloomFilterAdded(m_hasher(key));
+            }
+        } else if (conflictTuple != NULL) {
             conflictTuple->move(const_cast<void*>(*conflictEntry));
         }
     }
 
     bool deleteEntryDo(const TableTuple *tuple) {
         ++m_deletes;
-        return m_entries.erase(setKeyFromTuple(tuple));
+        if (m_entries.erase(setKeyFromTuple(tuple))) {
+            bloomFilterDeleted();
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -124,7 +133,7 @@ class CompactingHashUniqueIndex : public TableIndex
 
     bool moveToKey(const TableTuple *searchKey, IndexCursor& cursor) const {
         MapIterator &mapIter = castToIter(cursor);
-        mapIter = findKey(searchKey);
+        mapIter = probeKey(searchKey);
 
         if (mapIter.isEnd()) {
             cursor.m_match.move(NULL);
@@ -158,7 +167,7 @@ class CompactingHashUniqueIndex : public TableIndex
     TableTuple uniqueMatchingTuple(const TableTuple &searchTuple) const
     {
         TableTuple retval(getTupleSchema());
-        const MapIterator keyIter = findTuple(searchTuple);
+        const MapIterator keyIter = probeKey(setKeyFromTuple(&searchTuple));
         if ( ! keyIter.isEnd()) {
             retval.move(const_cast<void*>(keyIter.value()));
         }
@@ -166,14 +175,22 @@ class CompactingHashUniqueIndex : public TableIndex
     }
 
     bool hasKey(const TableTuple *searchKey) const {
-        return ! findKey(searchKey).isEnd();
+        return ! probeKey(searchKey).isEnd();
     }
 
     size_t getSize() const { return m_entries.size(); }
 
     int64_t getMemoryEstimate() const
     {
-        return m_entries.bytesAllocated();
+        return m_entries.bytesAllocated() + getBloomFilterMemory();
+    }
+
+    bool supportsBloomFilter() const { return true; }
+
+    void addKeysToBloomFilter()
+    {
+        auto addKey = [this](uint64_t hash) { addKeyToBloomFilter(hash); };
+        m_entries.visitKeyHashes(addKey);
     }
 
     std::string getTypeName() const { return "CompactingHashUniqueIndex"; };
@@ -184,14 +201,27 @@ class CompactingHashUniqueIndex : public TableIndex
     }
 
     // Non-virtual (so "really-private") helper methods.
-    MapIterator findKey(const TableTuple *searchKey) const
+    MapIterator findTuple(const TableTuple &originalTuple) const
+    {
+        return m_entries.find(setKeyFromTuple(&originalTuple));
+    }
+
+    // Lookups that may well miss go through the Bloom filter first.
+    MapIterator probeKey(const TableTuple *searchKey) const
     {
-        return m_entries.find(KeyType(searchKey));
+        return probeKey(KeyType(searchKey));
     }
 
-    MapIterator findTuple(const TableTuple &originalTuple) const
+    MapIterator probeKey(const KeyType &key) const
     {
-        return m_entries.find(setKeyFromTuple(&originalTuple));
+        if (isBloomFilterEnabled() && ! bloomFilterMayContain(m_hasher(key))) {
+            return MapIterator();
+        }
+        MapIterator mapIter = m_entries.find(key);
+        if (mapIter.isEnd()) {
+            bloomFilterFalsePositive();
+        }
+        return mapIter;
     }
 
     const KeyType setKeyFromTuple(const TableTuple *tuple) const
@@ -204,12 +234,14 @@ class CompactingHashUniqueIndex : public TableIndex
 
     // comparison stuff
    KeyEqualityChecker m_eq;
+   KeyHasher m_hasher;
 
 public:
     CompactingHashUniqueIndex(const TupleSchema *keySchema, const TableIndexScheme &scheme) :
         TableIndex(keySchema, scheme),
         m_entries(true, KeyHasher(keySchema), KeyEqualityChecker(keySchema)),
-        m_eq(keySchema)
+        m_eq(keySchema),
+        m_hasher(keySchema)
     {}
 };
 
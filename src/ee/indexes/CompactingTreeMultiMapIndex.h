@@ -51,19 +51,25 @@
 #include "indexes/tableindex.h"
 #include "common/tabletuple.h"
 #include "structures/CompactingMap.h"
+#include "structures/CompactingBTree.h"
+
+#include <type_traits>
 
 namespace voltdb {
 
 /**
  * Index implemented as a Binary Tree Multimap.
+ * The tree is the red-black CompactingMap by default, or the CompactingBTree
+ * for BTREE_INDEX; both share the same map interface.
  * @see TableIndex
  */
-template<typename KeyValuePair, bool hasRank>
+template<typename KeyValuePair, bool hasRank,
+         template<typename, typename, bool> class Map = CompactingMap>
 class CompactingTreeMultiMapIndex : public TableIndex
 {
     typedef typename KeyValuePair::first_type KeyType;
     typedef typename KeyType::KeyComparator KeyComparator;
-    typedef CompactingMap<KeyValuePair, KeyComparator, hasRank> MapType;
+    typedef Map<KeyValuePair, KeyComparator, hasRank> MapType;
     typedef typename MapType::iterator MapIterator;
     typedef std::pair<MapIterator, MapIterator> MapRange;
 
@@ -414,7 +420,12 @@ class CompactingTreeMultiMapIndex : public TableIndex
         return (ret);
     }
 
-    std::string getTypeName() const { return "CompactingTreeMultiMapIndex"; };
+    std::string getTypeName() const {
+        if (std::is_same<MapType, CompactingBTree<KeyValuePair, KeyComparator, hasRank> >::value) {
+            return "CompactingBTreeMultiMapIndex";
+        }
+        return "CompactingTreeMultiMapIndex";
+    };
 
     MapIterator findKey(const TableTuple *searchKey) const {
         KeyType tempKey(searchKey);
@@ -53,18 +53,24 @@
 #include "common/tabletuple.h"
 #include "indexes/tableindex.h"
 #include "structures/CompactingMap.h"
+#include "structures/CompactingBTree.h"
+
+#include <type_traits>
 
 namespace voltdb {
 
 /**
  * Index implemented as a Binary Tree Unique Map.
+ * The tree is the red-black CompactingMap by default, or the CompactingBTree
+ * for BTREE_INDEX; both share the same map interface.
  * @see TableIndex
  */
-template<typename KeyValuePair, bool hasRank>
+template<typename KeyValuePair, bool hasRank,
+         template<typename, typename, bool> class Map = CompactingMap>
 class CompactingTreeUniqueIndex : public TableIndex {
     typedef typename KeyValuePair::first_type KeyType;
     typedef typename KeyType::KeyComparator KeyComparator;
-    typedef CompactingMap<KeyValuePair, KeyComparator, hasRank> MapType;
+    typedef Map<KeyValuePair, KeyComparator, hasRank> MapType;
     typedef typename MapType::iterator MapIterator;
 
     ~CompactingTreeUniqueIndex() {};
@@ -75,15 +81,24 @@ class CompactingTreeUniqueIndex : public TableIndex {
 
     void addEntryDo(const TableTuple *tuple, TableTuple *conflictTuple) {
         ++m_inserts;
-        const void* const* conflictEntry = m_entries.insert(setKeyFromTuple(tuple), tuple->address());
-        if (conflictEntry != NULL && conflictTuple != NULL) {
+        const KeyType key = setKeyFromTuple(tuple);
+        const void* const* conflictEntry = m_entries.insert(key, tuple->address());
+        if (conflictEntry == NULL) {
+            if (isBloomFilterEnabled()) {
+                bloomFilterAdded(m_hasher(key));
+            }
+        } else if (conflictTuple != NULL) {
             conflictTuple->move(const_cast<void*>(*conflictEntry));
         }
     }
 
     bool deleteEntryDo(const TableTuple *tuple) {
         ++m_deletes;
-        return m_entries.erase(setKeyFromTuple(tuple));
+        if (m_entries.erase(setKeyFromTuple(tuple))) {
+            bloomFilterDeleted();
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -128,7 +143,7 @@ class CompactingTreeUniqueIndex : public TableIndex {
     {
         cursor.m_forward = true;
         MapIterator &mapIter = castToIter(cursor);
-        mapIter = findKey(searchKey);
+        mapIter = probeKey(searchKey);
 
         if (mapIter.isEnd()) {
             cursor.m_match.move(NULL);
@@ -304,7 +319,7 @@ class CompactingTreeUniqueIndex : public TableIndex {
     TableTuple uniqueMatchingTuple(const TableTuple &searchTuple) const
     {
         TableTuple retval(getTupleSchema());
-        const MapIterator keyIter = findTuple(searchTuple);
+        const MapIterator keyIter = probeKey(setKeyFromTuple(&searchTuple));
         if ( ! keyIter.isEnd()) {
             retval.move(const_cast<void*>(keyIter.value()));
         }
@@ -313,7 +328,7 @@ class CompactingTreeUniqueIndex : public TableIndex {
 
     bool hasKey(const TableTuple *searchKey) const
     {
-        return ! findKey(searchKey).isEnd();
+        return ! probeKey(searchKey).isEnd();
     }
 
     /**
@@ -372,7 +387,17 @@ class CompactingTreeUniqueIndex : public TableIndex {
     }
 
     int64_t getMemoryEstimate() const {
-        return m_entries.bytesAllocated();
+        return m_entries.bytesAllocated() + getBloomFilterMemory();
+    }
+
+    bool supportsBloomFilter() const {
+        return BloomFilterKeyHasher<KeyType>::supported;
+    }
+
+    void addKeysToBloomFilter() {
+        for (MapIterator mapIter = m_entries.begin(); ! mapIter.isEnd(); mapIter.moveNext()) {
+            addKeyToBloomFilter(m_hasher(mapIter.key()));
+        }
     }
 
     std::string debug() const {
@@ -389,22 +414,37 @@ class CompactingTreeUniqueIndex : public TableIndex {
     }
 
     std::string getTypeName() const {
+        if (std::is_same<MapType, CompactingBTree<KeyValuePair, KeyComparator, hasRank> >::value) {
+            return "CompactingBTreeUniqueIndex";
+        }
         return "CompactingTreeUniqueIndex";
     };
 
     virtual TableIndex *cloneEmptyNonCountingTreeIndex() const {
-        return new CompactingTreeUniqueIndex<KeyValuePair, false >(TupleSchema::createTupleSchema(getKeySchema()), m_scheme);
+        return new CompactingTreeUniqueIndex<KeyValuePair, false, Map>(TupleSchema::createTupleSchema(getKeySchema()), m_scheme);
     }
 
 
-    MapIterator findKey(const TableTuple *searchKey) const {
-        return m_entries.find(KeyType(searchKey));
-    }
-
     MapIterator findTuple(const TableTuple &originalTuple) const {
         return m_entries.find(setKeyFromTuple(&originalTuple));
     }
 
+    // Lookups that may well miss go through the Bloom filter first.
+    MapIterator probeKey(const TableTuple *searchKey) const {
+        return probeKey(KeyType(searchKey));
+    }
+
+    MapIterator probeKey(const KeyType &key) const {
+        if (isBloomFilterEnabled() && ! bloomFilterMayContain(m_hasher(key))) {
+            return MapIterator();
+        }
+        MapIterator mapIter = m_entries.find(key);
+        if (mapIter.isEnd()) {
+            bloomFilterFalsePositive();
+        }
+        return mapIter;
+    }
+
     const KeyType setKeyFromTuple(const TableTuple *tuple) const {
         KeyType result(tuple, m_scheme.columnIndices, m_scheme.indexedExpressions, m_keySchema);
         return result;
@@ -414,12 +454,14 @@ class CompactingTreeUniqueIndex : public TableIndex {
 
     // comparison stuff
     KeyComparator m_cmp;
+    BloomFilterKeyHasher<KeyType> m_hasher;
 
 public:
     CompactingTreeUniqueIndex(const TupleSchema *keySchema, const TableIndexScheme &scheme) :
         TableIndex(keySchema, scheme),
         m_entries(true, KeyComparator(keySchema)),
-        m_cmp(keySchema) {}
+        m_cmp(keySchema),
+        m_hasher(keySchema) {}
 };
 
 }
@@ -0,0 +1,40 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#include "indexes/IndexBloomFilter.h"
+
+#include <algorithm>
+
+using namespace voltdb;
+
+const int IndexBloomFilter::WORDS_PER_BLOCK;
+const size_t IndexBloomFilter::BITS_PER_KEY;
+const size_t IndexBloomFilter::MIN_CAPACITY;
+
+void IndexBloomFilter::reset(size_t expectedKeys) {
+    m_capacity = std::max(expectedKeys, MIN_CAPACITY);
+    size_t bits = m_capacity * BITS_PER_KEY;
+    m_blockCount = (bits + WORDS_PER_BLOCK * 32 - 1) / (WORDS_PER_BLOCK * 32);
+    // assign() keeps the allocation when the size doesn't change.
+    m_words.assign(m_blockCount * WORDS_PER_BLOCK, 0);
+}
+
+void IndexBloomFilter::clear() {
+    std::vector<uint32_t>().swap(m_words);
+    m_blockCount = 0;
+    m_capacity = 0;
+}
@@ -0,0 +1,160 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#pragma once
+
+#include <cstddef>
+#include <stdint.h>
+#include <vector>
+
+namespace voltdb {
+
+class TupleSchema;
+
+/**
+ * A blocked Bloom filter over 64-bit key hashes, consulted by unique indexes
+ * before they walk their hash chains or trees for a key that is probably
+ * absent.
+ *
+ * Each key sets one bit in each of the eight 32-bit words of a single
+ * 32-byte block, so a lookup touches one cache line. At the sizing used
+ * here (about 10 bits per key) roughly 1% of absent keys get through.
+ * Keys can't be removed; the owning index rebuilds the filter once enough
+ * deletes have left stale bits behind.
+ */
+class IndexBloomFilter {
+public:
+    IndexBloomFilter() : m_blockCount(0), m_capacity(0) {}
+
+    /**
+     * Clear the filter and size it for the given number of keys.
+     */
+    void reset(size_t expectedKeys);
+
+    /**
+     * Drop all storage. mayContain() answers true until the next reset().
+     */
+    void clear();
+
+    void add(uint64_t hash) {
+        uint32_t* block = &m_words[blockOffset(hash)];
+        uint32_t key = static_cast<uint32_t>(hash);
+        for (int i = 0; i < WORDS_PER_BLOCK; ++i) {
+            block[i] |= bitFor(key, i);
+        }
+    }
+
+    bool mayContain(uint64_t hash) const {
+        if (m_blockCount == 0) {
+            return true;
+        }
+        const uint32_t* block = &m_words[blockOffset(hash)];
+        uint32_t key = static_cast<uint32_t>(hash);
+        for (int i = 0; i < WORDS_PER_BLOCK; ++i) {
+            if ((block[i] & bitFor(key, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    bool isAllocated() const {
+        return m_blockCount != 0;
+    }
+
+    /** The number of keys the filter was sized for. */
+    size_t capacity() const {
+        return m_capacity;
+    }
+
+    int64_t memorySize() const {
+        return static_cast<int64_t>(m_words.capacity() * sizeof(uint32_t));
+    }
+
+    /**
+     * Spread the bits of a key hash. Index key hashers are cheap combinations
+     * of the key columns (an integer key can hash to itself), so they are
+     * mixed before the filter splits them into a block and eight bits.
+     */
+    static uint64_t mix(uint64_t hash) {
+        hash ^= hash >> 33;
+        hash *= 0xff51afd7ed558ccdULL;
+        hash ^= hash >> 33;
+        hash *= 0xc4ceb9fe1a85ec53ULL;
+        hash ^= hash >> 33;
+        return hash;
+    }
+
+    static const int WORDS_PER_BLOCK = 8;
+    static const size_t BITS_PER_KEY = 10;
+    static const size_t MIN_CAPACITY = 1024;
+
+private:
+    size_t blockOffset(uint64_t hash) const {
+        // The high half picks the block, the low half the bits within it.
+        uint64_t block = ((hash >> 32) * m_blockCount) >> 32;
+        return static_cast<size_t>(block * WORDS_PER_BLOCK);
+    }
+
+    static uint32_t bitFor(uint32_t key, int word) {
+        static const uint32_t SALT[WORDS_PER_BLOCK] = {
+            0x47b6137bU, 0x44974d91U, 0x8824ad5bU, 0xa2b7289dU,
+            0x705495c7U, 0x2df1424bU, 0x9efc4947U, 0x5c6bfb31U };
+        return 1U << ((key * SALT[word]) >> 27);
+    }
+
+    std::vector<uint32_t> m_words;
+    uint64_t m_blockCount;
+    size_t m_capacity;
+};
+
+template <typename T>
+struct BloomFilterVoid {
+    typedef void type;
+};
+
+/**
+ * Hashes index keys for a Bloom filter with the key type's KeyHasher, the
+ * one CompactingHashTable uses. Key types without one (TupleKey) can't
+ * have a filter.
+ */
+template <typename KeyType, typename Enable = void>
+struct BloomFilterKeyHasher {
+    static const bool supported = false;
+
+    BloomFilterKeyHasher(const TupleSchema *keySchema) {}
+
+    size_t operator()(const KeyType &key) const {
+        return 0;
+    }
+};
+
+template <typename KeyType>
+struct BloomFilterKeyHasher<KeyType, typename BloomFilterVoid<typename KeyType::KeyHasher>::type> {
+    static const bool supported = true;
+
+    BloomFilterKeyHasher(const TupleSchema *keySchema) : m_hasher(keySchema) {}
+
+    size_t operator()(const KeyType &key) const {
+        return m_hasher(key);
+    }
+
+private:
+    typename KeyType::KeyHasher m_hasher;
+};
+
+}
@@ -34,6 +34,9 @@ vector<string> IndexStats::generateIndexStatsColumnNames() {
     columnNames.push_back("IS_COUNTABLE");
     columnNames.push_back("ENTRY_COUNT");
     columnNames.push_back("MEMORY_ESTIMATE");
+    columnNames.push_back("BLOOM_FILTER_HITS");
+    columnNames.push_back("BLOOM_FILTER_MISSES");
+    columnNames.push_back("BLOOM_FILTER_FALSE_POSITIVES");
 
     return columnNames;
 }
@@ -88,6 +91,14 @@ void IndexStats::populateIndexStatsSchema(
     columnLengths.push_back(NValue::getTupleStorageSize(ValueType::tBIGINT));
     allowNull.push_back(false);
     inBytes.push_back(false);
+
+    // Bloom filter hits, misses and false positives
+    for (int i = 0; i < 3; i++) {
+        types.push_back(ValueType::tBIGINT);
+        columnLengths.push_back(NValue::getTupleStorageSize(ValueType::tBIGINT));
+        allowNull.push_back(false);
+        inBytes.push_back(false);
+    }
 }
 
 TempTable* IndexStats::generateEmptyIndexStatsTable() {
@@ -116,7 +127,8 @@ TempTable* IndexStats::generateEmptyIndexStatsTable() {
  */
 IndexStats::IndexStats(TableIndex* index)
     : StatsSource(), m_index(index), m_isUnique(0), m_isCountable(0),
-      m_lastTupleCount(0), m_lastMemEstimate(0)
+      m_lastTupleCount(0), m_lastMemEstimate(0), m_lastBloomFilterHits(0),
+      m_lastBloomFilterMisses(0), m_lastBloomFilterFalsePositives(0)
 {
 }
 
@@ -160,12 +172,21 @@ void IndexStats::updateStatsTuple(TableTuple *tuple) {
     tuple->setNValue( StatsSource::m_columnName2Index["INDEX_TYPE"], m_indexType);
     int64_t count = static_cast<int64_t>(m_index->getSize());
     int64_t mem_estimate_kb = m_index->getMemoryEstimate() / 1024;
+    int64_t bloomFilterHits = m_index->getBloomFilterHits();
+    int64_t bloomFilterMisses = m_index->getBloomFilterMisses();
+    int64_t bloomFilterFalsePositives = m_index->getBloomFilterFalsePositives();
 
     if (interval()) {
         count = count - m_lastTupleCount;
         m_lastTupleCount = static_cast<int64_t>(m_index->getSize());
         mem_estimate_kb = mem_estimate_kb - (m_lastMemEstimate / 1024);
         m_lastMemEstimate = m_index->getMemoryEstimate();
+        bloomFilterHits -= m_lastBloomFilterHits;
+        m_lastBloomFilterHits += bloomFilterHits;
+        bloomFilterMisses -= m_lastBloomFilterMisses;
+        m_lastBloomFilterMisses += bloomFilterMisses;
+        bloomFilterFalsePositives -= m_lastBloomFilterFalsePositives;
+        m_lastBloomFilterFalsePositives += bloomFilterFalsePositives;
     }
 
     tuple->setNValue(
@@ -179,6 +200,12 @@ void IndexStats::updateStatsTuple(TableTuple *tuple) {
     tuple->setNValue(StatsSource::m_columnName2Index["MEMORY_ESTIMATE"],
                      ValueFactory::
                      getBigIntValue(mem_estimate_kb));
+    tuple->setNValue(StatsSource::m_columnName2Index["BLOOM_FILTER_HITS"],
+                     ValueFactory::getBigIntValue(bloomFilterHits));
+    tuple->setNValue(StatsSource::m_columnName2Index["BLOOM_FILTER_MISSES"],
+                     ValueFactory::getBigIntValue(bloomFilterMisses));
+    tuple->setNValue(StatsSource::m_columnName2Index["BLOOM_FILTER_FALSE_POSITIVES"],
+                     ValueFactory::getBigIntValue(bloomFilterFalsePositives));
 }
 
 /**
@@ -99,6 +99,9 @@ private:
 
     int64_t m_lastTupleCount;
     int64_t m_lastMemEstimate;
+    int64_t m_lastBloomFilterHits;
+    int64_t m_lastBloomFilterMisses;
+    int64_t m_lastBloomFilterFalsePositives;
 };
 
 }
@@ -73,6 +73,7 @@ TableIndexScheme::TableIndexScheme(
       unique(a_unique),
       countable(a_countable),
       migrating(migrating),
+      bloomFilter(false),
       expressionsAsText(a_expressionsAsText),
       predicateAsText(a_predicateAsText),
       tupleSchema(a_tupleSchema) {
@@ -115,7 +116,11 @@ TableIndex::TableIndex(const TupleSchema *keySchema, const TableIndexScheme &sch
     m_deletes(0),
     m_updates(0),
 
-    m_stats(this)
+    m_stats(this),
+    m_bloomFilterStaleKeys(0),
+    m_bloomFilterHits(0),
+    m_bloomFilterMisses(0),
+    m_bloomFilterFalsePositives(0)
 {}
 
 TableIndex::~TableIndex()
@@ -170,6 +175,21 @@ std::string TableIndex::debug() const
     return (ret);
 }
 
+void TableIndex::setBloomFilterEnabled(bool enabled) {
+    if (! enabled) {
+        m_bloomFilter.clear();
+    } else if (! m_bloomFilter.isAllocated() && isUniqueIndex() && supportsBloomFilter()) {
+        rebuildBloomFilter();
+    }
+}
+
+void TableIndex::rebuildBloomFilter() {
+    // Leave room to double before the next rebuild.
+    m_bloomFilter.reset(getSize() * 2);
+    m_bloomFilterStaleKeys = 0;
+    addKeysToBloomFilter();
+}
+
 IndexStats* TableIndex::getIndexStats() {
     return &m_stats;
 }
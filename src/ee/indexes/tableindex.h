@@ -45,6 +45,8 @@
 
 #pragma once
 
+#include <algorithm>
+#include <atomic>
 #include <vector>
 #include <string>
 #include "boost/shared_ptr.hpp"
@@ -55,6 +57,7 @@
 #include "common/tabletuple.h"
 #include "common/TupleSchema.h"
 #include "indexes/IndexStats.h"
+#include "indexes/IndexBloomFilter.h"
 #include "common/ThreadLocalPool.h"
 #include "expressions/abstractexpression.h"
 
@@ -67,6 +70,7 @@ class AbstractExpression;
  */
 struct TableIndexScheme {
     TableIndexScheme() {
+        bloomFilter = false;
         tupleSchema = NULL;
     }
 
@@ -111,6 +115,7 @@ struct TableIndexScheme {
       unique(a_unique),
       countable(a_countable),
       migrating(migrating),
+      bloomFilter(false),
       expressionsAsText(),
       predicateAsText(),
       tupleSchema(a_tupleSchema)
@@ -127,6 +132,7 @@ struct TableIndexScheme {
       unique(other.unique),
       countable(other.countable),
       migrating(other.migrating),
+      bloomFilter(other.bloomFilter),
       expressionsAsText(other.expressionsAsText),
       predicateAsText(other.predicateAsText),
       tupleSchema(other.tupleSchema)
@@ -143,6 +149,7 @@ struct TableIndexScheme {
         unique = other.unique;
         countable = other.countable;
         migrating = other.migrating;
+        bloomFilter = other.bloomFilter;
         expressionsAsText = other.expressionsAsText;
         predicateAsText = other.predicateAsText;
         tupleSchema = other.tupleSchema;
@@ -166,6 +173,8 @@ struct TableIndexScheme {
     bool unique;
     bool countable;
     bool migrating;
+    // Consult a Bloom filter before probing this (unique) index
+    bool bloomFilter;
     std::string expressionsAsText;
     std::string predicateAsText;
     const TupleSchema *tupleSchema;
@@ -470,6 +479,32 @@ public:
 
     virtual size_t getSize() const = 0;
 
+    /**
+     * Turn on or off the Bloom filter consulted before key lookups.
+     * Only unique indexes whose key type can be hashed support one;
+     * for any other index this does nothing.
+     */
+    void setBloomFilterEnabled(bool enabled);
+
+    bool isBloomFilterEnabled() const {
+        return m_bloomFilter.isAllocated();
+    }
+
+    // Lookups the Bloom filter let through to the index
+    int64_t getBloomFilterHits() const {
+        return m_bloomFilterHits.load(std::memory_order_relaxed);
+    }
+
+    // Lookups the Bloom filter answered without touching the index
+    int64_t getBloomFilterMisses() const {
+        return m_bloomFilterMisses.load(std::memory_order_relaxed);
+    }
+
+    // Lookups the Bloom filter let through that found no entry
+    int64_t getBloomFilterFalsePositives() const {
+        return m_bloomFilterFalsePositives.load(std::memory_order_relaxed);
+    }
+
     // Return the amount of memory we think is allocated for this
     // index.
     virtual int64_t getMemoryEstimate() const = 0;
@@ -552,6 +587,79 @@ protected:
     // stats
     IndexStats m_stats;
 
+    /**
+     * Returns false if the key with the given hash is surely not in the
+     * index, and counts the answer.  Always true without a Bloom filter.
+     */
+    bool bloomFilterMayContain(size_t keyHash) const {
+        if (! m_bloomFilter.isAllocated()) {
+            return true;
+        }
+        if (m_bloomFilter.mayContain(IndexBloomFilter::mix(keyHash))) {
+            m_bloomFilterHits.fetch_add(1, std::memory_order_relaxed);
+            return true;
+        }
+        m_bloomFilterMisses.fetch_add(1, std::memory_order_relaxed);
+        return false;
+    }
+
+    /**
+     * Records that a lookup the Bloom filter let through found nothing.
+     */
+    void bloomFilterFalsePositive() const {
+        if (m_bloomFilter.isAllocated()) {
+            m_bloomFilterFalsePositives.fetch_add(1, std::memory_order_relaxed);
+        }
+    }
+
+    /**
+     * Keep the Bloom filter in step with a key just added to the index.
+     * The filter is rebuilt larger once it holds more keys than it was
+     * sized for, counting the keys of deleted entries it still remembers.
+     */
+    void bloomFilterAdded(size_t keyHash) {
+        if (m_bloomFilter.isAllocated()) {
+            if (getSize() + m_bloomFilterStaleKeys > m_bloomFilter.capacity()) {
+                rebuildBloomFilter();
+            } else {
+                m_bloomFilter.add(IndexBloomFilter::mix(keyHash));
+            }
+        }
+    }
+
+    /**
+     * Keys can't be taken out of a Bloom filter.  They make it less
+     * selective, so the filter is rebuilt once there are more of them
+     * than there are live keys.
+     */
+    void bloomFilterDeleted() {
+        if (m_bloomFilter.isAllocated() &&
+                ++m_bloomFilterStaleKeys > std::max(getSize(), IndexBloomFilter::MIN_CAPACITY)) {
+            rebuildBloomFilter();
+        }
+    }
+
+    void rebuildBloomFilter();
+
+    /**
+     * Unique indexes that can hash their keys override these two to
+     * support a Bloom filter.  addKeysToBloomFilter() hands the hash of
+     * every key in the index to addKeyToBloomFilter().
+     */
+    virtual bool supportsBloomFilter() const {
+        return false;
+    }
+
+    virtual void addKeysToBloomFilter() {}
+
+    void addKeyToBloomFilter(size_t keyHash) {
+        m_bloomFilter.add(IndexBloomFilter::mix(keyHash));
+    }
+
+    int64_t getBloomFilterMemory() const {
+        return m_bloomFilter.memorySize();
+    }
+
 protected:
     // Index specific implementations
     virtual void addEntryDo(const TableTuple *tuple, TableTuple *conflictTuple) = 0;
@@ -569,6 +677,14 @@ private:
     }
 
     ThreadLocalPool m_tlPool;
+
+    IndexBloomFilter m_bloomFilter;
+    size_t m_bloomFilterStaleKeys;
+    // Lookups on replicated tables come from every site at once, relaxed
+    // atomics keep the counts exact without ordering anything else.
+    mutable std::atomic<int64_t> m_bloomFilterHits;
+    mutable std::atomic<int64_t> m_bloomFilterMisses;
+    mutable std::atomic<int64_t> m_bloomFilterFalsePositives;
 };
 
 }
@@ -58,28 +58,40 @@ namespace voltdb {
 
 class TableIndexPicker
 {
-    template <class TKeyType>
-    TableIndex *getInstanceForKeyType() const
+    template <class TKeyType, template<typename, typename, bool> class TMap>
+    TableIndex *getTreeInstanceForKeyType() const
     {
         if (m_scheme.unique) {
-            if (m_type != BALANCED_TREE_INDEX) {
-                return new CompactingHashUniqueIndex<TKeyType >(m_keySchema, m_scheme);
-            } else if (m_scheme.countable) {
-                return new CompactingTreeUniqueIndex<NormalKeyValuePair<TKeyType>, true>(m_keySchema, m_scheme);
+            if (m_scheme.countable) {
+                return new CompactingTreeUniqueIndex<NormalKeyValuePair<TKeyType>, true, TMap>(m_keySchema, m_scheme);
             } else {
-                return new CompactingTreeUniqueIndex<NormalKeyValuePair<TKeyType>, false>(m_keySchema, m_scheme);
+                return new CompactingTreeUniqueIndex<NormalKeyValuePair<TKeyType>, false, TMap>(m_keySchema, m_scheme);
             }
         } else {
-            if (m_type != BALANCED_TREE_INDEX) {
-                return new CompactingHashMultiMapIndex<TKeyType >(m_keySchema, m_scheme);
-            } else if (m_scheme.countable) {
-                return new CompactingTreeMultiMapIndex<PointerKeyValuePair<TKeyType>, true>(m_keySchema, m_scheme);
+            if (m_scheme.countable) {
+                return new CompactingTreeMultiMapIndex<PointerKeyValuePair<TKeyType>, true, TMap>(m_keySchema, m_scheme);
             } else {
-                return new CompactingTreeMultiMapIndex<PointerKeyValuePair<TKeyType>, false>(m_keySchema, m_scheme);
+                return new CompactingTreeMultiMapIndex<PointerKeyValuePair<TKeyType>, false, TMap>(m_keySchema, m_scheme);
             }
         }
     }
 
+    template <class TKeyType>
+    TableIndex *getInstanceForKeyType() const
+    {
+        if (m_type == BALANCED_TREE_INDEX) {
+            return getTreeInstanceForKeyType<TKeyType, CompactingMap>();
+        }
+        if (m_type == BTREE_INDEX) {
+            return getTreeInstanceForKeyType<TKeyType, CompactingBTree>();
+        }
+        if (m_scheme.unique) {
+            return new CompactingHashUniqueIndex<TKeyType >(m_keySchema, m_scheme);
+        } else {
+            return new CompactingHashMultiMapIndex<TKeyType >(m_keySchema, m_scheme);
+        }
+    }
+
     template <std::size_t KeySize>
     TableIndex *getInstanceIfKeyFits()
     {
@@ -178,18 +190,10 @@ public:
             return result;
         }
 
-        if (m_scheme.unique) {
-            if (m_scheme.countable) {
-                return new CompactingTreeUniqueIndex<NormalKeyValuePair<TupleKey>, true >(m_keySchema, m_scheme);
-            } else {
-                return new CompactingTreeUniqueIndex<NormalKeyValuePair<TupleKey>, false>(m_keySchema, m_scheme);
-            }
-        }
-        if (m_scheme.countable) {
-            return new CompactingTreeMultiMapIndex<PointerKeyValuePair<TupleKey>, true >(m_keySchema, m_scheme);
-        } else {
-            return new CompactingTreeMultiMapIndex<PointerKeyValuePair<TupleKey>, false>(m_keySchema, m_scheme);
+        if (m_type == BTREE_INDEX) {
+            return getTreeInstanceForKeyType<TupleKey, CompactingBTree>();
         }
+        return getTreeInstanceForKeyType<TupleKey, CompactingMap>();
     }
 
     TableIndexPicker(const TupleSchema *keySchema, bool intsOnly, bool inlinesOrColumnsOnly,
@@ -293,6 +297,9 @@ TableIndex *TableIndexFactory::getInstance(const TableIndexScheme &scheme) {
     VOLT_TRACE("Creating index for '%s' with key schema '%s'", scheme.name.c_str(), keySchema->debug().c_str());
     TableIndexPicker picker(keySchema, isIntsOnly, isInlinesOrColumnsOnly, scheme);
     TableIndex *retval = picker.getInstance();
+    if (scheme.bloomFilter) {
+        retval->setBloomFilterEnabled(true);
+    }
     return retval;
 }
 
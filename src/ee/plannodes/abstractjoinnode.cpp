@@ -85,6 +85,12 @@ void AbstractJoinPlanNode::getOutputColumnExpressions(
     }
 }
 
+void AbstractJoinPlanNode::compileExpressions() {
+    compileExpression(m_preJoinPredicate);
+    compileExpression(m_joinPredicate);
+    compileExpression(m_wherePredicate);
+}
+
 std::string AbstractJoinPlanNode::debugInfo(const std::string& spacer) const
 {
     std::ostringstream buffer;
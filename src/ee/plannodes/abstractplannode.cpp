@@ -46,6 +46,7 @@
 
 #include "common/TupleSchema.h"
 #include "executors/abstractexecutor.h"
+#include "expressions/compiledexpression.h"
 #include "plannodeutil.h"
 #include "storage/persistenttable.h"
 #include "storage/TableCatalogDelegate.hpp"
@@ -319,6 +320,26 @@ AbstractExpression* AbstractPlanNode::loadExpressionFromJSONObject(const char* l
     }
 }
 
+void AbstractPlanNode::compileExpression(boost::scoped_ptr<AbstractExpression>& expr) {
+    CompiledExpression* compiled = CompiledExpression::compile(expr.get());
+    if (compiled != NULL) {
+        // Keep the source tree alive, and no longer owned by expr.
+        m_compiledExpressions.emplace_back();
+        m_compiledExpressions.back().reset(compiled);
+        expr.swap(m_compiledExpressions.back());
+    }
+}
+
+AbstractExpression* AbstractPlanNode::compileExpression(AbstractExpression* expr) {
+    CompiledExpression* compiled = CompiledExpression::compile(expr);
+    if (compiled == NULL) {
+        return expr;
+    }
+    m_compiledExpressions.emplace_back();
+    m_compiledExpressions.back().reset(compiled);
+    return compiled;
+}
+
 // ------------------------------------------------------------------
 // UTILITY METHODS
 // ------------------------------------------------------------------
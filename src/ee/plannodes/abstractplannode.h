@@ -53,6 +53,7 @@
 #include "common/types.h"
 #include "common/PlannerDomValue.h"
 
+#include <list>
 #include <map>
 #include <string>
 #include <vector>
@@ -204,6 +205,14 @@ public:
     std::string debug(const std::string& spacer) const;
     virtual std::string debugInfo(const std::string& spacer) const = 0;
 
+    /**
+     * Replace the predicates and computed output expressions of this node
+     * by CompiledExpressions.  Called once, when the plan is loaded and
+     * before the node's executor is initialized, by engines that have
+     * expression compilation enabled.
+     */
+    virtual void compileExpressions() {}
+
     void setPlanNodeIdForTest(int32_t plannode_id) { m_planNodeId = plannode_id; }
 
     /**
@@ -250,6 +259,14 @@ protected:
     static AbstractExpression* loadExpressionFromJSONObject(const char* label,
                                                             PlannerDomValue obj);
 
+    // Swap expr for its compiled form, if it has one.  The source tree
+    // stays alive as long as this node.
+    void compileExpression(boost::scoped_ptr<AbstractExpression>& expr);
+
+    // Return the compiled form of an expression owned elsewhere, or expr
+    // itself if it has none.  The compiled form is owned by this node.
+    AbstractExpression* compileExpression(AbstractExpression* expr);
+
     // Every PlanNode will have a unique id assigned to it at compile time
     int32_t m_planNodeId = -1;
 
@@ -271,6 +288,10 @@ protected:
     // and non-inline uses of the same PlanNode type.
     bool m_isInline = false;
 
+    // Expressions set aside by compileExpressions(): the source trees of
+    // compiled members, and the compiled forms of expressions owned elsewhere.
+    std::list<boost::scoped_ptr<AbstractExpression> > m_compiledExpressions{};
+
 private:
     static const int SCHEMA_UNDEFINED_SO_GET_FROM_INLINE_PROJECTION = -1;
     static const int SCHEMA_UNDEFINED_SO_GET_FROM_CHILD = -2;
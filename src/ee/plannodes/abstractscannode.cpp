@@ -52,6 +52,10 @@ namespace voltdb {
 
 AbstractScanPlanNode::~AbstractScanPlanNode() { }
 
+void AbstractScanPlanNode::compileExpressions() {
+    compileExpression(m_predicate);
+}
+
 Table* AbstractScanPlanNode::getTargetTable() const
 {
     if (m_tcd == NULL) {
@@ -59,6 +59,7 @@ class AbstractScanPlanNode : public AbstractPlanNode
 public:
     ~AbstractScanPlanNode();
     std::string debugInfo(const std::string& spacer) const;
+    void compileExpressions();
 
     /** Return the table to be scanned. */
     Table* getTargetTable() const;
@@ -55,6 +55,11 @@ PlanNodeType AggregatePlanNode::getPlanNodeType() const { return m_type; }
 
 AggregatePlanNode::~AggregatePlanNode() { }
 
+void AggregatePlanNode::compileExpressions() {
+    compileExpression(m_prePredicate);
+    compileExpression(m_postPredicate);
+}
+
 std::string AggregatePlanNode::debugInfo(const std::string &spacer) const
 {
     std::ostringstream buffer;
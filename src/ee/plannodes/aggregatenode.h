@@ -69,6 +69,7 @@ public:
     ~AggregatePlanNode();
     PlanNodeType getPlanNodeType() const;
     std::string debugInfo(const std::string &spacer) const;
+    void compileExpressions();
 
     const std::vector<ExpressionType> getAggregates() const { return m_aggregates; }
 
@@ -55,6 +55,15 @@ ProjectionPlanNode::~ProjectionPlanNode() { }
 
 PlanNodeType ProjectionPlanNode::getPlanNodeType() const { return PlanNodeType::Projection; }
 
+void ProjectionPlanNode::compileExpressions() {
+    // The source expressions stay owned by the output schema.  Plain
+    // column and parameter references have no compiled form, so the
+    // executors' all-columns and all-parameters shortcuts still apply.
+    for (int ctr = 0; ctr < m_outputColumnExpressions.size(); ctr++) {
+        m_outputColumnExpressions[ctr] = compileExpression(m_outputColumnExpressions[ctr]);
+    }
+}
+
 std::string ProjectionPlanNode::debugInfo(const string& spacer) const
 {
     std::ostringstream buffer;
@@ -81,6 +81,8 @@ public:
 
     std::string debugInfo(const std::string& spacer) const;
 
+    void compileExpressions();
+
 protected:
     void loadFromJSONObject(PlannerDomValue obj);
     //
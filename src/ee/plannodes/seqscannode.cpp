@@ -54,17 +54,28 @@ SeqScanPlanNode::~SeqScanPlanNode()
     // This is opposite the check that controls when the temp table is created in seqscanexecutor.
     // So, even if there is a temp table to be freed, it belongs to a subquery, so drop this
     // reference to it to prevent double-delete by AbstractPlanNode.
-    if (getPredicate() == NULL && getInlinePlanNodes().size() == 0) {
+    if (getPredicate() == NULL && getInlinePlanNodes().size() == 0 && ! isSlicedScan()) {
         clearOutputTableReference();
     }
 }
 
 PlanNodeType SeqScanPlanNode::getPlanNodeType() const { return PlanNodeType::SeqScan; }
 
+void SeqScanPlanNode::loadFromJSONObject(PlannerDomValue obj)
+{
+    AbstractScanPlanNode::loadFromJSONObject(obj);
+    if (obj.hasNonNullKey("SLICE_COLUMN")) {
+        m_sliceColumnIndex = obj.valueForKey("SLICE_COLUMN").asInt();
+    }
+}
+
 std::string SeqScanPlanNode::debugInfo(const std::string &spacer) const
 {
     std::ostringstream buffer;
     buffer << AbstractScanPlanNode::debugInfo(spacer);
+    if (isSlicedScan()) {
+        buffer << spacer << "Slice Column: " << m_sliceColumnIndex << "\n";
+    }
     buffer << spacer << "Scan Predicate: ";
     if (m_predicate != NULL) {
         buffer << "\n" << m_predicate->debug(spacer);
@@ -62,6 +62,19 @@ public:
     PlanNodeType getPlanNodeType() const;
     std::string debugInfo(const std::string &spacer) const;
 
+    /**
+     * A sliced scan of a replicated table only produces the rows whose slice
+     * column hashes to the local partition.  The scans run by all the
+     * partitions together produce each row exactly once.
+     */
+    bool isSlicedScan() const { return m_sliceColumnIndex >= 0; }
+    int getSliceColumnIndex() const { return m_sliceColumnIndex; }
+
+protected:
+    void loadFromJSONObject(PlannerDomValue obj);
+
+private:
+    int m_sliceColumnIndex = -1;
 };
 
 }
@@ -145,4 +145,19 @@ void WindowFunctionPlanNode::collectOutputExpressions(std::vector<AbstractExpres
     }
 }
 
+bool WindowFunctionPlanNode::needsOrderByGroupLookahead() const
+{
+    for (ExpressionType aggType : m_aggregates) {
+        switch (aggType) {
+        case EXPRESSION_TYPE_AGGREGATE_WINDOWED_RANK:
+        case EXPRESSION_TYPE_AGGREGATE_WINDOWED_DENSE_RANK:
+        case EXPRESSION_TYPE_AGGREGATE_WINDOWED_ROW_NUMBER:
+            break;
+        default:
+            return true;
+        }
+    }
+    return false;
+}
+
 }
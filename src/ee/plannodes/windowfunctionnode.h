@@ -58,6 +58,13 @@ public:
     }
 
     void collectOutputExpressions(std::vector<AbstractExpression *>&columnExpressions) const;
+
+    /**
+     * Return true if the value of some window function at a row
+     * depends on the rows which follow it in its order by group.
+     * If not, the executor can output each row as soon as it reads it.
+     */
+    bool needsOrderByGroupLookahead() const;
 protected:
     void loadFromJSONObject(PlannerDomValue obj);
 private:
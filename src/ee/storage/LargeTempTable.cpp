@@ -149,8 +149,19 @@ LargeTempTable::~LargeTempTable() {
     deleteAllTuples();
 }
 
-void LargeTempTable::nextFreeTuple(TableTuple*) {
-    throwSerializableEEException("nextFreeTuple not implemented");
+void LargeTempTable::nextFreeTuple(TableTuple* tuple) {
+    // Only one tuple is loaded at a time, and processLoadedTuple copies
+    // it (with its non-inlined values) out of the temp tuple.
+    tuple->move(tempTuple().address());
+}
+
+void LargeTempTable::processLoadedTuple(TableTuple& tuple,
+                                        ReferenceSerializeOutput*,
+                                        int32_t&,
+                                        size_t&,
+                                        bool,
+                                        bool) {
+    insertTuple(tuple);
 }
 
 std::string LargeTempTable::debug(const std::string& spacer) const {
@@ -483,40 +494,21 @@ public:
     }
 };
 
-}
-
-void LargeTempTable::sort(ProgressMonitorProxy* pmp,
-        const AbstractExecutor::TupleComparer& comparer, int limit, int offset) {
-
-    if (activeTupleCount() == 0) {
-        return;
-    } else if (limit == 0 || offset >= activeTupleCount()) {
-        deleteAllTuples();
-        return;
-    }
-
+/**
+ * Merge the sort runs in the queue, as many at a time as the block cache
+ * can hold, until just one run is left in the queue.
+ */
+void mergeSortRuns(std::queue<SortRunPtr>& sortRunQueue,
+                   ProgressMonitorProxy* pmp,
+                   const AbstractExecutor::TupleComparer& comparer,
+                   int limit, int offset,
+                   const LargeTempTable* templateTable) {
     LargeTempTableBlockCache& lttBlockCache = ExecutorContext::getExecutorContext()->lttBlockCache();
 
     // Let's merge as much as we can, reserving one slot in the block
     // cache for the output of the merge.
     const int MERGE_FACTOR = lttBlockCache.maxCacheSizeInBlocks() - 1;
 
-    // Sort each block and create a bunch of 1-block sort runs to be merged below
-    std::queue<SortRunPtr> sortRunQueue;
-    BlockSorter sorter{lttBlockCache, pmp, m_schema, comparer, limit, offset};
-    auto it = getBlockIds().begin();
-    while (it != getBlockIds().end()) {
-        auto blockId = *it;
-        it = disownBlock(it);
-        LargeTempTableBlock* block = lttBlockCache.fetchBlock(blockId);
-        sorter.sort(block);
-        lttBlockCache.invalidateStoredCopy(block);
-        block->unpin();
-        LargeTempTable* table = TableFactory::buildCopiedLargeTempTable("largesort", this);
-        table->inheritBlock(blockId);
-        sortRunQueue.emplace(SortRunPtr{new SortRun(table)});
-    }
-
     do {
         typedef std::priority_queue<SortRunPtr, std::vector<SortRunPtr>, SortRunComparer> SortRunPriorityQueue;
         SortRunPriorityQueue mergeHeap{SortRunComparer{comparer}};
@@ -542,7 +534,7 @@ void LargeTempTable::sort(ProgressMonitorProxy* pmp,
             offsetThisPass = offset;
         }
 
-        SortRunPtr outputSortRun(new SortRun(TableFactory::buildCopiedLargeTempTable("largesort", this)));
+        SortRunPtr outputSortRun(new SortRun(TableFactory::buildCopiedLargeTempTable("largesort", templateTable)));
         int outputTupleCount = 0;
         while (mergeHeap.size() > 0) {
             if (pmp != NULL) {
@@ -576,9 +568,62 @@ void LargeTempTable::sort(ProgressMonitorProxy* pmp,
         outputSortRun->finishInserts();
         sortRunQueue.push(outputSortRun);
     } while (sortRunQueue.size() > 1);
+}
 
+}
+
+void LargeTempTable::sort(ProgressMonitorProxy* pmp,
+        const AbstractExecutor::TupleComparer& comparer, int limit, int offset) {
+
+    if (activeTupleCount() == 0) {
+        return;
+    } else if (limit == 0 || offset >= activeTupleCount()) {
+        deleteAllTuples();
+        return;
+    }
+
+    LargeTempTableBlockCache& lttBlockCache = ExecutorContext::getExecutorContext()->lttBlockCache();
+
+    // Sort each block and create a bunch of 1-block sort runs to be merged below
+    std::queue<SortRunPtr> sortRunQueue;
+    BlockSorter sorter{lttBlockCache, pmp, m_schema, comparer, limit, offset};
+    auto it = getBlockIds().begin();
+    while (it != getBlockIds().end()) {
+        auto blockId = *it;
+        it = disownBlock(it);
+        LargeTempTableBlock* block = lttBlockCache.fetchBlock(blockId);
+        sorter.sort(block);
+        lttBlockCache.invalidateStoredCopy(block);
+        block->unpin();
+        LargeTempTable* table = TableFactory::buildCopiedLargeTempTable("largesort", this);
+        table->inheritBlock(blockId);
+        sortRunQueue.emplace(SortRunPtr{new SortRun(table)});
+    }
+
+    mergeSortRuns(sortRunQueue, pmp, comparer, limit, offset, this);
     swapContents(sortRunQueue.front()->peekTable());
 }
 
+void LargeTempTable::mergeSortedTables(ProgressMonitorProxy* pmp,
+        const AbstractExecutor::TupleComparer& comparer, int limit, int offset,
+        std::vector<std::unique_ptr<LargeTempTable>>& tables) {
+    vassert(activeTupleCount() == 0);
+
+    // The sort runs take ownership of the non-empty tables.
+    std::queue<SortRunPtr> sortRunQueue;
+    for (auto& table : tables) {
+        if (table->activeTupleCount() > 0) {
+            sortRunQueue.emplace(SortRunPtr{new SortRun(table.release())});
+        }
+    }
+    tables.clear();
+
+    if (sortRunQueue.empty() || limit == 0) {
+        return;
+    }
+
+    mergeSortRuns(sortRunQueue, pmp, comparer, limit, offset, this);
+    swapContents(sortRunQueue.front()->peekTable());
+}
 
 } // namespace voltdb
@@ -23,6 +23,8 @@
 #include "storage/AbstractTempTable.hpp"
 #include "storage/tableiterator.h"
 
+#include <memory>
+
 namespace voltdb {
 
 class LargeTempTableBlock;
@@ -88,6 +90,14 @@ public:
      */
     void sort(ProgressMonitorProxy *pmp, const AbstractExecutor::TupleComparer& comparer, int limit, int offset);
 
+    /**
+     * Merge the given tables, each already sorted using the given
+     * compare function, into this empty table.  Also apply the given
+     * limit and offset.  The given tables are consumed.
+     */
+    void mergeSortedTables(ProgressMonitorProxy *pmp, const AbstractExecutor::TupleComparer& comparer,
+                           int limit, int offset, std::vector<std::unique_ptr<LargeTempTable>>& tables);
+
     /** Releases the specified block.  Called by delete-as-you-go
         iterators.  Returns an iterator pointing to the next block
         id. */
@@ -115,8 +125,9 @@ public:
         throwSerializableEEException("Invalid call to getTableStats() on LargeTempTable");
     }
 
-    /** return a tuple object pointing to the address where the next
-        tuple should be inserted. */
+    /** return a tuple object pointing to the temp tuple, where a
+        tuple being loaded from a serialized table is staged until
+        processLoadedTuple copies it into a block. */
     void nextFreeTuple(TableTuple* tuple) override;
 
     /** Return the temp table limits object for this table. (Currently none) */
@@ -157,6 +168,14 @@ public:
 protected:
 
     LargeTempTable();
+
+    /** Copy a tuple loaded by Table::loadTuplesFrom into a block. */
+    void processLoadedTuple(TableTuple& tuple,
+                            ReferenceSerializeOutput* uniqueViolationOutput,
+                            int32_t& serializedTupleCount,
+                            size_t& tupleCountPosition,
+                            bool shouldDRStreamRow,
+                            bool ignoreTupleLimit) override;
 };
 
 }
@@ -0,0 +1,129 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#include "MaterializedViewMinMaxTracker.h"
+
+#include "common/ValuePeeker.hpp"
+
+namespace voltdb {
+
+void MaterializedViewMinMaxTracker::appendToGroupKey(std::string& groupKey, const NValue& value) {
+    const ValueType type = ValuePeeker::peekValueType(value);
+    if (isVariableLengthType(type)) {
+        if (value.isNull()) {
+            groupKey.push_back('\0');
+            return;
+        }
+        int32_t length;
+        const char* data = ValuePeeker::peekObject_withoutNull(value, &length);
+        groupKey.push_back('\1');
+        groupKey.append(reinterpret_cast<const char*>(&length), sizeof(length));
+        groupKey.append(data, length);
+        return;
+    }
+    if (type == ValueType::tDOUBLE && ! value.isNull()) {
+        // 0.0 and -0.0 group together, so they must encode the same way
+        double d = ValuePeeker::peekDouble(value);
+        if (d == 0.0) {
+            d = 0.0;
+        }
+        groupKey.append(reinterpret_cast<const char*>(&d), sizeof(d));
+        return;
+    }
+    // Fixed length nulls are stored as sentinel values, so the bytes say it all.
+    char storage[sizeof(TTInt)];
+    value.serializeToTupleStorage(storage, false, -1, false, false);
+    groupKey.append(storage, NValue::getTupleStorageSize(type));
+}
+
+void MaterializedViewMinMaxTracker::add(const std::string& groupKey, const NValue& value) {
+    GroupMap::iterator group = m_groups.find(groupKey);
+    if (group == m_groups.end()) {
+        group = m_groups.emplace(groupKey, ValueCounts()).first;
+        m_memorySize += GROUP_OVERHEAD + static_cast<int64_t>(groupKey.capacity());
+    }
+    std::pair<ValueCounts::iterator, bool> inserted = group->second.emplace(value, 1);
+    if (inserted.second) {
+        m_memorySize += VALUE_OVERHEAD;
+    }
+    else {
+        ++inserted.first->second;
+    }
+}
+
+bool MaterializedViewMinMaxTracker::remove(const std::string& groupKey, const NValue& value) {
+    GroupMap::iterator group = m_groups.find(groupKey);
+    if (group == m_groups.end()) {
+        return false;
+    }
+    ValueCounts::iterator count = group->second.find(value);
+    if (count == group->second.end()) {
+        return false;
+    }
+    if (--count->second == 0) {
+        group->second.erase(count);
+        m_memorySize -= VALUE_OVERHEAD;
+        if (group->second.empty()) {
+            m_memorySize -= GROUP_OVERHEAD + static_cast<int64_t>(group->first.capacity());
+            m_groups.erase(group);
+        }
+    }
+    return true;
+}
+
+NValue MaterializedViewMinMaxTracker::extreme(const std::string& groupKey, bool largest,
+        const NValue& noValue) const {
+    GroupMap::const_iterator group = m_groups.find(groupKey);
+    if (group == m_groups.end() || group->second.empty()) {
+        return noValue;
+    }
+    return largest ? group->second.rbegin()->first : group->second.begin()->first;
+}
+
+void MaterializedViewMinMaxTracking::invalidate() {
+    for (MaterializedViewMinMaxTracker& tracker : m_trackers) {
+        tracker.clear();
+    }
+    m_valid = false;
+    ++m_generation;
+}
+
+int64_t MaterializedViewMinMaxTracking::memorySize() const {
+    int64_t size = 0;
+    for (const MaterializedViewMinMaxTracker& tracker : m_trackers) {
+        size += tracker.memorySize();
+    }
+    return size;
+}
+
+void MaterializedViewMinMaxUndoAction::undo() {
+    // Nothing to put back if the counts have been thrown away since.
+    if (m_tracking->generation() != m_generation) {
+        return;
+    }
+    MaterializedViewMinMaxTracker& tracker = m_tracking->tracker(m_minMaxAggIdx);
+    if (m_added) {
+        if ( ! tracker.remove(m_groupKey, m_value)) {
+            m_tracking->invalidate();
+        }
+    }
+    else {
+        tracker.add(m_groupKey, m_value);
+    }
+}
+
+} // namespace voltdb
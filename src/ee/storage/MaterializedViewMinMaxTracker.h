@@ -0,0 +1,146 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#pragma once
+
+#include "common/NValue.hpp"
+#include "common/UndoReleaseAction.h"
+
+#include <boost/shared_ptr.hpp>
+
+#include <map>
+#include <string>
+#include <unordered_map>
+#include <vector>
+
+namespace voltdb {
+
+/**
+ * Counts of the values of one MIN() or MAX() view column in each group.
+ * With these the new MIN or MAX of a group can be read off directly when
+ * the source row holding the current one is deleted or updated, rather
+ * than searched for in the source table.
+ *
+ * Groups are identified by their encoded group by values, see
+ * appendToGroupKey().  Only fixed length value types are counted, so that
+ * the NValues held here never point at storage they don't own.
+ */
+class MaterializedViewMinMaxTracker {
+public:
+    /** Whether values of the given type can be counted */
+    static bool canTrack(ValueType type) {
+        return ! isVariableLengthType(type);
+    }
+
+    /** Append an encoding of a group by value that is equal for equal values */
+    static void appendToGroupKey(std::string& groupKey, const NValue& value);
+
+    void add(const std::string& groupKey, const NValue& value);
+
+    /** Returns false if the value wasn't being counted for the group */
+    bool remove(const std::string& groupKey, const NValue& value);
+
+    /** The smallest (or largest) value counted for the group, or noValue if there are none */
+    NValue extreme(const std::string& groupKey, bool largest, const NValue& noValue) const;
+
+    void clear() {
+        m_groups.clear();
+        m_memorySize = 0;
+    }
+
+    /** Estimated heap memory used by the counts */
+    int64_t memorySize() const {
+        return m_memorySize;
+    }
+
+private:
+    struct NValueLess {
+        bool operator()(const NValue& lhs, const NValue& rhs) const {
+            return lhs.compare(rhs) < 0;
+        }
+    };
+    typedef std::map<NValue, int64_t, NValueLess> ValueCounts;
+    typedef std::unordered_map<std::string, ValueCounts> GroupMap;
+
+    /** Rough per-entry costs of the maps, on top of the group key itself */
+    static const int64_t GROUP_OVERHEAD = sizeof(GroupMap::value_type) + 2 * sizeof(void*);
+    static const int64_t VALUE_OVERHEAD = sizeof(ValueCounts::value_type) + 4 * sizeof(void*);
+
+    GroupMap m_groups;
+    int64_t m_memorySize = 0;
+};
+
+/**
+ * The value counts for all of the MIN() and MAX() columns of a view.
+ * They are built from the source table when the view is created or its
+ * definition is loaded, and then kept up to date with every change to it.  Undo actions share ownership, so a
+ * rolled back transaction can put them back the way they were even if
+ * the view has been redefined in the meantime.
+ */
+class MaterializedViewMinMaxTracking {
+public:
+    explicit MaterializedViewMinMaxTracking(size_t minMaxColumnCount) :
+        m_trackers(minMaxColumnCount) {}
+
+    MaterializedViewMinMaxTracker& tracker(size_t minMaxAggIdx) {
+        return m_trackers[minMaxAggIdx];
+    }
+
+    bool isValid() const {
+        return m_valid;
+    }
+
+    void setValid() {
+        m_valid = true;
+    }
+
+    /** Drop all counts; they are not used again until rebuilt from the source table */
+    void invalidate();
+
+    /** Incremented by invalidate(), so undo actions can tell if their change has been discarded */
+    int64_t generation() const {
+        return m_generation;
+    }
+
+    int64_t memorySize() const;
+
+private:
+    std::vector<MaterializedViewMinMaxTracker> m_trackers;
+    bool m_valid = false;
+    int64_t m_generation = 0;
+};
+
+/** Reverses the count of one value added or removed by a transaction */
+class MaterializedViewMinMaxUndoAction : public UndoOnlyAction {
+public:
+    MaterializedViewMinMaxUndoAction(const boost::shared_ptr<MaterializedViewMinMaxTracking>& tracking,
+            size_t minMaxAggIdx, const std::string& groupKey, const NValue& value, bool added) :
+        m_tracking(tracking), m_generation(tracking->generation()), m_minMaxAggIdx(minMaxAggIdx),
+        m_groupKey(groupKey), m_value(value), m_added(added) {}
+
+    void undo() override;
+
+private:
+    boost::shared_ptr<MaterializedViewMinMaxTracking> m_tracking;
+    const int64_t m_generation;
+    const size_t m_minMaxAggIdx;
+    const std::string m_groupKey;
+    const NValue m_value;
+    const bool m_added;
+};
+
+} // namespace voltdb
@@ -101,7 +101,12 @@ public:
     }
 
     // Attempt to enable/disable the view.
-    void setEnabled(bool value);
+    virtual void setEnabled(bool value);
+
+    /** Memory used to maintain MIN/MAX columns without fallback queries */
+    virtual int64_t minMaxTrackingMemory() const {
+        return 0;
+    }
 
 protected:
     MaterializedViewTriggerForInsert(PersistentTable *destTable,
@@ -41,7 +41,8 @@ MaterializedViewTriggerForWrite::MaterializedViewTriggerForWrite(PersistentTable
     , m_minMaxSearchKeyBackingStoreSize(0)
 {
     // set up mechanisms for min/max recalculation
-    setupMinMaxRecalculation(mvInfo->indexForMinMax(), mvInfo->fallbackQueryStmts());
+    setupMinMaxRecalculation(mvInfo->indexForMinMax(), mvInfo->fallbackQueryStmts(),
+                             mvInfo->trackMinMax());
 
     // Catch up on pre-existing source tuples UNLESS dest tuples have already been migrated in.
     if (destTbl->isPersistentTableEmpty()) {
@@ -58,6 +59,11 @@ MaterializedViewTriggerForWrite::MaterializedViewTriggerForWrite(PersistentTable
              */
             initializeTupleHavingNoGroupBy(false);
         }
+        // The MIN/MAX counts start out empty, like the view, and the catch-up
+        // scan below fills them in.
+        if (m_minMaxTracking) {
+            m_minMaxTracking->setValid();
+        }
         if ( ! srcTbl->isPersistentTableEmpty()) {
             TableTuple scannedTuple(srcTbl->schema());
             TableIterator iterator = srcTbl->iterator();
@@ -66,6 +72,9 @@ MaterializedViewTriggerForWrite::MaterializedViewTriggerForWrite(PersistentTable
             }
         }
     }
+    else if (m_minMaxTracking) {
+        rebuildMinMaxTracking();
+    }
 }
 
 void MaterializedViewTriggerForWrite::build(PersistentTable *srcTbl,
@@ -81,7 +90,8 @@ void MaterializedViewTriggerForWrite::build(PersistentTable *srcTbl,
 MaterializedViewTriggerForWrite::~MaterializedViewTriggerForWrite() { }
 
 void MaterializedViewTriggerForWrite::setupMinMaxRecalculation(const catalog::CatalogMap<catalog::IndexRef> &indexForMinOrMax,
-                                                               const catalog::CatalogMap<catalog::Statement> &fallbackQueryStmts) {
+                                                               const catalog::CatalogMap<catalog::Statement> &fallbackQueryStmts,
+                                                               bool trackMinMax) {
     std::vector<TableIndex*> candidates = m_srcPersistentTable->allIndexes();
     m_indexForMinMax.clear();
     for (catalog::CatalogMap<catalog::IndexRef>::field_map_iter idxIterator = indexForMinOrMax.begin();
@@ -165,6 +175,27 @@ void MaterializedViewTriggerForWrite::setupMinMaxRecalculation(const catalog::Ca
 #endif
         ++ idx;
     }
+
+    // Any existing counts may not match the new definition, so start over.
+    // The caller builds them from the source table.
+    m_minMaxTracking.reset();
+    m_trackMinMaxAgg.clear();
+    if (trackMinMax) {
+        const TupleSchema* destSchema = destTable()->schema();
+        bool anyTrackable = false;
+        for (int aggIndex = 0; aggIndex < m_aggColumnCount; aggIndex++) {
+            if (m_aggTypes[aggIndex] == EXPRESSION_TYPE_AGGREGATE_MIN ||
+                m_aggTypes[aggIndex] == EXPRESSION_TYPE_AGGREGATE_MAX) {
+                bool trackable = MaterializedViewMinMaxTracker::canTrack(
+                        destSchema->columnType(static_cast<int>(m_groupByColumnCount) + aggIndex));
+                m_trackMinMaxAgg.push_back(trackable);
+                anyTrackable |= trackable;
+            }
+        }
+        if (anyTrackable) {
+            m_minMaxTracking.reset(new MaterializedViewMinMaxTracking(m_trackMinMaxAgg.size()));
+        }
+    }
 }
 
 // See if the index is just built on group by columns or it also includes min/max agg (ENG-6511)
@@ -393,6 +424,103 @@ NValue MaterializedViewTriggerForWrite::findFallbackValueUsingPlan(const TableTu
     return newVal;
 }
 
+std::string MaterializedViewTriggerForWrite::minMaxGroupKey(const TableTuple& srcTuple) {
+    std::string groupKey;
+    for (int colindex = 0; colindex < m_groupByColumnCount; colindex++) {
+        MaterializedViewMinMaxTracker::appendToGroupKey(groupKey,
+                getGroupByValueFromSrcTuple(colindex, srcTuple));
+    }
+    return groupKey;
+}
+
+void MaterializedViewTriggerForWrite::trackMinMaxValues(const TableTuple& srcTuple,
+                                                        const std::string& groupKey,
+                                                        bool isInsert, bool fallible) {
+    UndoQuantum *uq = fallible ? ExecutorContext::currentUndoQuantum() : NULL;
+    int minMaxAggIdx = 0;
+    int numCountStar = 0;
+    for (int aggIndex = 0; aggIndex < m_aggColumnCount; aggIndex++) {
+        if (m_aggTypes[aggIndex] == EXPRESSION_TYPE_AGGREGATE_COUNT_STAR) {
+            numCountStar++;
+            continue;
+        }
+        if (m_aggTypes[aggIndex] != EXPRESSION_TYPE_AGGREGATE_MIN &&
+            m_aggTypes[aggIndex] != EXPRESSION_TYPE_AGGREGATE_MAX) {
+            continue;
+        }
+        const int trackerIdx = minMaxAggIdx++;
+        if ( ! m_trackMinMaxAgg[trackerIdx]) {
+            continue;
+        }
+        NValue value = getAggInputFromSrcTuple(aggIndex, numCountStar, srcTuple);
+        if (value.isNull()) {
+            continue;
+        }
+        MaterializedViewMinMaxTracker& tracker = m_minMaxTracking->tracker(trackerIdx);
+        if (isInsert) {
+            tracker.add(groupKey, value);
+        }
+        else if ( ! tracker.remove(groupKey, value)) {
+            // The counts are out of step with the source table; fall back on
+            // searching it until they are next rebuilt.
+            m_minMaxTracking->invalidate();
+            return;
+        }
+        if (uq) {
+            UndoReleaseAction* undoAction = new (*uq) MaterializedViewMinMaxUndoAction(
+                    m_minMaxTracking, trackerIdx, groupKey, value, isInsert);
+            SynchronizedThreadLock::addUndoAction(m_srcPersistentTable->isReplicatedTable(), uq, undoAction);
+        }
+    }
+}
+
+void MaterializedViewTriggerForWrite::rebuildMinMaxTracking() {
+    VOLT_DEBUG("Counting min/max values for view %s", destTable()->name().c_str());
+    m_minMaxTracking->invalidate();
+    TableTuple tuple(m_srcPersistentTable->schema());
+    TableIterator iterator = m_srcPersistentTable->iterator();
+    while (iterator.next(tuple)) {
+        if (failsPredicate(tuple)) {
+            continue;
+        }
+        trackMinMaxValues(tuple, minMaxGroupKey(tuple), true, false);
+    }
+    m_minMaxTracking->setValid();
+}
+
+void MaterializedViewTriggerForWrite::updateDefinition(PersistentTable *destTable,
+                                                       catalog::MaterializedViewInfo *mvInfo) {
+    MaterializedViewTriggerForInsert::updateDefinition(destTable, mvInfo);
+    setupMinMaxRecalculation(mvInfo->indexForMinMax(),
+                             mvInfo->fallbackQueryStmts(),
+                             mvInfo->trackMinMax());
+    if (m_minMaxTracking && m_enabled) {
+        rebuildMinMaxTracking();
+    }
+}
+
+void MaterializedViewTriggerForWrite::setEnabled(bool enabled) {
+    MaterializedViewTriggerForInsert::setEnabled(enabled);
+    // The counts were dropped while the view wasn't being maintained.
+    if (m_minMaxTracking && m_enabled && ! m_minMaxTracking->isValid()) {
+        rebuildMinMaxTracking();
+    }
+}
+
+void MaterializedViewTriggerForWrite::processTupleInsert(const TableTuple &newTuple, bool fallible) {
+    MaterializedViewTriggerForInsert::processTupleInsert(newTuple, fallible);
+    if ( ! m_minMaxTracking || ! m_minMaxTracking->isValid()) {
+        return;
+    }
+    if ( ! m_enabled) {
+        // The view isn't being maintained, so neither are the counts.
+        m_minMaxTracking->invalidate();
+    }
+    else if ( ! failsPredicate(newTuple)) {
+        trackMinMaxValues(newTuple, minMaxGroupKey(newTuple), true, fallible);
+    }
+}
+
 void MaterializedViewTriggerForWrite::processTupleDelete(
         const TableTuple &oldTuple, bool fallible) {
     // don't change the view if this tuple doesn't match the predicate
@@ -400,6 +528,21 @@ void MaterializedViewTriggerForWrite::processTupleDelete(
         return;
     }
 
+    // Take the old tuple's values out of the MIN/MAX counts, if the view keeps them.
+    // Without valid counts the new MIN/MAX is searched for in the source table.
+    bool useMinMaxTracking = false;
+    std::string minMaxKey;
+    if (m_minMaxTracking && m_minMaxTracking->isValid()) {
+        if ( ! m_enabled) {
+            m_minMaxTracking->invalidate();
+        }
+        else {
+            minMaxKey = minMaxGroupKey(oldTuple);
+            trackMinMaxValues(oldTuple, minMaxKey, false, fallible);
+            useMinMaxTracking = m_minMaxTracking->isValid();
+        }
+    }
+
     auto destTbl = destTable();
 
     if ( ! findExistingTuple(oldTuple)) {
@@ -487,7 +630,11 @@ void MaterializedViewTriggerForWrite::processTupleDelete(
                     if (oldValue.compare(existingValue) == 0) {
                         // re-calculate MIN / MAX
                         newValue = NValue::getNullValue(destTbl->schema()->columnType(aggOffset+aggIndex));
-                        if (m_usePlanForAgg[minMaxAggIdx] && allowUsingPlanForMinMax) {
+                        if (useMinMaxTracking && m_trackMinMaxAgg[minMaxAggIdx]) {
+                            newValue = m_minMaxTracking->tracker(minMaxAggIdx).extreme(
+                                    minMaxKey, reversedForMin == 1, newValue);
+                        }
+                        else if (m_usePlanForAgg[minMaxAggIdx] && allowUsingPlanForMinMax) {
                             newValue = findFallbackValueUsingPlan(oldTuple, newValue, aggIndex, minMaxAggIdx, numCountStar);
                         }
                         // indexscan if an index is available, otherwise tablescan
@@ -19,6 +19,7 @@
 #define MATERIALIZEDVIEWTRIGGERFORWRITE_H_
 
 #include "MaterializedViewTriggerForInsert.h"
+#include "MaterializedViewMinMaxTracker.h"
 
 namespace voltdb {
 
@@ -36,6 +37,12 @@ public:
                       catalog::MaterializedViewInfo *mvInfo);
     ~MaterializedViewTriggerForWrite();
 
+    /**
+     * Like MaterializedViewTriggerForInsert::processTupleInsert, but also
+     * counts the new tuple's MIN/MAX values when the view tracks them.
+     */
+    void processTupleInsert(const TableTuple &newTuple, bool fallible);
+
     /**
      * This updates the materialized view desitnation table to reflect
      * write operations to the source table.
@@ -45,11 +52,15 @@ public:
      */
     void processTupleDelete(const TableTuple &oldTuple, bool fallible);
 
+    /** Also rebuilds the MIN/MAX value counts for the new definition */
     void updateDefinition(PersistentTable *destTable,
-                          catalog::MaterializedViewInfo *mvInfo) {
-        MaterializedViewTriggerForInsert::updateDefinition(destTable, mvInfo);
-        setupMinMaxRecalculation(mvInfo->indexForMinMax(),
-                                 mvInfo->fallbackQueryStmts());
+                          catalog::MaterializedViewInfo *mvInfo);
+
+    /** Also rebuilds the MIN/MAX value counts when maintenance resumes */
+    void setEnabled(bool enabled) override;
+
+    int64_t minMaxTrackingMemory() const override {
+        return m_minMaxTracking ? m_minMaxTracking->memorySize() : 0;
     }
 
 
@@ -59,7 +70,21 @@ private:
                                     catalog::MaterializedViewInfo *mvInfo);
 
     void setupMinMaxRecalculation(const catalog::CatalogMap<catalog::IndexRef> &indexForMinOrMax,
-                                  const catalog::CatalogMap<catalog::Statement> &fallbackQueryStmts);
+                                  const catalog::CatalogMap<catalog::Statement> &fallbackQueryStmts,
+                                  bool trackMinMax);
+
+    std::string minMaxGroupKey(const TableTuple& srcTuple);
+
+    /** Add (or remove) the tuple's values to (or from) the MIN/MAX value counts */
+    void trackMinMaxValues(const TableTuple& srcTuple, const std::string& groupKey,
+                           bool isInsert, bool fallible);
+
+    /**
+     * Count the MIN/MAX values of every source tuple from scratch.  Only
+     * done outside of transactions, when the view's definition is loaded
+     * or its maintenance is resumed.
+     */
+    void rebuildMinMaxTracking();
 
     void allocateMinMaxSearchKeyTuple();
 
@@ -94,6 +119,10 @@ private:
     // Executor vectors to be executed when fallback on min/max value is needed (ENG-8641).
     std::vector<boost::shared_ptr<ExecutorVector> > m_fallbackExecutorVectors;
     std::vector<bool> m_usePlanForAgg;
+    // Per-group counts of the values of each MIN/MAX column, if the view keeps them.
+    boost::shared_ptr<MaterializedViewMinMaxTracking> m_minMaxTracking;
+    // Whether each MIN/MAX column's values can be counted (fixed length types only)
+    std::vector<bool> m_trackMinMaxAgg;
 
 };
 
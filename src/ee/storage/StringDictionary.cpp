@@ -0,0 +1,94 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#include "storage/StringDictionary.h"
+
+#include "common/StringRef.h"
+
+namespace voltdb {
+
+StringDictionary::~StringDictionary() {
+    // The table releases all of its tuples first, so this only matters
+    // if something went wrong along the way.
+    for (EntryMap::value_type& entry : m_entries) {
+        StringRef::destroy(const_cast<StringRef*>(entry.first));
+    }
+}
+
+StringRef* StringDictionary::intern(int column, StringRef* sref) {
+    ColumnState& state = m_columns[column];
+    if ( ! m_enabled || state.m_excluded || state.m_disabled || sref == NULL) {
+        return sref;
+    }
+
+    int32_t length;
+    const char* data = sref->getObject(length);
+    std::string key(data, length);
+    ValueMap::iterator value = m_values.find(key);
+    if (value != m_values.end()) {
+        StringRef* shared = value->second;
+        Entry& entry = m_entries.find(shared)->second;
+        ++entry.m_refCount;
+        m_savedMemory += entry.m_allocatedSize;
+        ++state.m_hits;
+        StringRef::destroy(sref);
+        return shared;
+    }
+
+    if (m_entries.size() >= MAX_ENTRIES) {
+        return sref;
+    }
+    value = m_values.emplace(std::move(key), sref).first;
+    Entry entry;
+    entry.m_key = &value->first;
+    entry.m_refCount = 1;
+    entry.m_allocatedSize = sref->getAllocatedSizeInPersistentStorage();
+    m_entries.emplace(sref, entry);
+    m_stringMemory += entry.m_allocatedSize;
+    m_keyMemory += static_cast<int64_t>(value->first.capacity());
+
+    // A column that keeps adding values it never sees again isn't worth
+    // keeping in the dictionary.
+    if (++state.m_added >= COLUMN_SAMPLE_SIZE && state.m_hits < state.m_added) {
+        state.m_disabled = true;
+    }
+    return sref;
+}
+
+void StringDictionary::release(StringRef* sref) {
+    if (sref == NULL) {
+        return;
+    }
+    EntryMap::iterator found = m_entries.find(sref);
+    if (found == m_entries.end()) {
+        StringRef::destroy(sref);
+        return;
+    }
+
+    Entry& entry = found->second;
+    if (--entry.m_refCount > 0) {
+        m_savedMemory -= entry.m_allocatedSize;
+        return;
+    }
+    m_stringMemory -= entry.m_allocatedSize;
+    m_keyMemory -= static_cast<int64_t>(entry.m_key->capacity());
+    m_values.erase(m_values.find(*entry.m_key));
+    m_entries.erase(found);
+    StringRef::destroy(sref);
+}
+
+} // namespace voltdb
@@ -0,0 +1,124 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#pragma once
+
+#include <cstdint>
+#include <string>
+#include <unordered_map>
+#include <vector>
+
+namespace voltdb {
+
+class StringRef;
+
+/**
+ * A dictionary of the out-of-line VARCHAR and VARBINARY values of one
+ * persistent table.  Tuples holding equal values share a single StringRef,
+ * so a value repeated in many rows is stored once.  The StringRef pointer
+ * in the tuple serves as the dictionary code, and NValues read from the
+ * tuple see an ordinary StringRef.
+ *
+ * The table hands every newly allocated value of a column to intern() and
+ * every value it frees to release().  Values that aren't in the dictionary
+ * are simply destroyed by release().
+ *
+ * A column whose values turn out to be mostly distinct stops adding new
+ * entries, so high-cardinality columns don't grow the dictionary.
+ */
+class StringDictionary {
+public:
+    /** @param columnCount the number of uninlined object columns of the table */
+    explicit StringDictionary(int columnCount) : m_columns(columnCount) {}
+
+    ~StringDictionary();
+
+    /** Whether intern() shares new values; entries are kept either way */
+    void setEnabled(bool enabled) {
+        m_enabled = enabled;
+    }
+
+    bool isEnabled() const {
+        return m_enabled;
+    }
+
+    /** Exclude a column, e.g. one holding GEOGRAPHY values */
+    void excludeColumn(int column) {
+        m_columns[column].m_excluded = true;
+    }
+
+    /**
+     * Take ownership of a newly allocated persistent string of the given
+     * uninlined object column, and return the StringRef the tuple should
+     * store instead.  That is either sref itself or an existing entry with
+     * the same value, in which case sref is destroyed.
+     */
+    StringRef* intern(int column, StringRef* sref);
+
+    /** Drop one reference to a string, destroying it when no tuple uses it any more */
+    void release(StringRef* sref);
+
+    size_t entryCount() const {
+        return m_entries.size();
+    }
+
+    /** Memory used by the shared strings and the dictionary itself */
+    int64_t memorySize() const {
+        return m_stringMemory + static_cast<int64_t>(m_entries.size()) * ENTRY_OVERHEAD + m_keyMemory;
+    }
+
+    /** String memory that sharing has saved compared to one copy per tuple */
+    int64_t savedMemorySize() const {
+        return m_savedMemory;
+    }
+
+    /** Entries a column must add before its hit rate is checked */
+    static const int64_t COLUMN_SAMPLE_SIZE = 1024;
+
+    /** Limit on the number of distinct values kept */
+    static const size_t MAX_ENTRIES = 1 << 20;
+
+private:
+    struct Entry {
+        const std::string* m_key;
+        int64_t m_refCount;
+        int32_t m_allocatedSize;
+    };
+
+    struct ColumnState {
+        bool m_excluded = false;
+        bool m_disabled = false;
+        int64_t m_added = 0;
+        int64_t m_hits = 0;
+    };
+
+    typedef std::unordered_map<std::string, StringRef*> ValueMap;
+    typedef std::unordered_map<const StringRef*, Entry> EntryMap;
+
+    /** Rough per-entry cost of the two maps, on top of the key bytes */
+    static const int64_t ENTRY_OVERHEAD = sizeof(ValueMap::value_type) + sizeof(EntryMap::value_type) + 4 * sizeof(void*);
+
+    ValueMap m_values;
+    EntryMap m_entries;
+    std::vector<ColumnState> m_columns;
+    bool m_enabled = true;
+    int64_t m_stringMemory = 0;
+    int64_t m_keyMemory = 0;
+    int64_t m_savedMemory = 0;
+};
+
+} // namespace voltdb
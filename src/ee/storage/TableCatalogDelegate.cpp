@@ -192,6 +192,7 @@ bool TableCatalogDelegate::getIndexScheme(catalog::Table const& catalogTable,
                                expressionsAsText,
                                predicateAsText,
                                schema);
+    scheme->bloomFilter = catalogIndex.bloomFilter();
     return true;
 }
 
@@ -213,6 +214,9 @@ getIndexIdFromMap(TableIndexType type, bool countable, bool isUnique,
     case HASH_TABLE_INDEX:
         retval += "H";
         break;
+    case BTREE_INDEX:
+        retval += "T";
+        break;
     case COVERING_CELL_INDEX:
         retval += "G"; // C is taken
         break;
@@ -439,6 +443,8 @@ Table* TableCatalogDelegate::constructTableFromCatalog(catalog::Database const&
         persistentTable->addIndex(index);
     }
 
+    persistentTable->setStringDictionaryEnabled(catalogTable.isDictionaryEncoded());
+
     return table;
 }
 
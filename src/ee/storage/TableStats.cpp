@@ -20,6 +20,7 @@
 #include "common/ids.h"
 #include "common/ValueFactory.hpp"
 #include "common/tabletuple.h"
+#include "storage/MaterializedViewTriggerForInsert.h"
 #include "storage/table.h"
 #include "storage/persistenttable.h"
 #include "storage/tablefactory.h"
@@ -42,6 +43,8 @@ vector<string> TableStats::generateTableStatsColumnNames() {
     columnNames.push_back("PERCENT_FULL");
     columnNames.push_back("DR");
     columnNames.push_back("EXPORT");
+    columnNames.push_back("DICTIONARY_MEMORY");
+    columnNames.push_back("DICTIONARY_SAVED_MEMORY");
     return columnNames;
 }
 
@@ -109,6 +112,18 @@ void TableStats::populateTableStatsSchema(vector<ValueType> &types, vector<int32
     columnLengths.push_back(15);
     allowNull.push_back(false);
     inBytes.push_back(false);
+
+    // DICTIONARY_MEMORY
+    types.push_back(ValueType::tBIGINT);
+    columnLengths.push_back(NValue::getTupleStorageSize(ValueType::tBIGINT));
+    allowNull.push_back(false);
+    inBytes.push_back(false);
+
+    // DICTIONARY_SAVED_MEMORY
+    types.push_back(ValueType::tBIGINT);
+    columnLengths.push_back(NValue::getTupleStorageSize(ValueType::tBIGINT));
+    allowNull.push_back(false);
+    inBytes.push_back(false);
 }
 
 TempTable* TableStats::generateEmptyTableStatsTable() {
@@ -130,7 +145,8 @@ TempTable* TableStats::generateEmptyTableStatsTable() {
 TableStats::TableStats(Table* table)
     : StatsSource(), m_table(table), m_lastTupleCount(0),
       m_lastAllocatedTupleMemory(0), m_lastOccupiedTupleMemory(0),
-      m_lastStringDataMemory(0) { }
+      m_lastStringDataMemory(0), m_lastDictionaryMemory(0),
+      m_lastDictionarySavedMemory(0) { }
 
 /**
  * Configure a StatsSource superclass for a set of statistics. Since this class is only used in the EE it can be assumed that
@@ -166,28 +182,53 @@ void TableStats::updateStatsTuple(TableTuple *tuple) {
     int64_t tupleCount = m_table->activeTupleCount();
     int tupleLimit = m_table->tupleLimit();
     // This overflow is unlikely (requires 2 terabytes of allocated string memory)
-    int64_t allocated_tuple_mem_kb = m_table->allocatedTupleMemory() / 1024;
-    int64_t occupied_tuple_mem_kb = 0;
+    int64_t allocatedTupleMemory = m_table->allocatedTupleMemory();
+    int64_t occupiedTupleMemory = 0;
     PersistentTable* persistentTable = dynamic_cast<PersistentTable*>(m_table);
     if (persistentTable) {
-        occupied_tuple_mem_kb = persistentTable->occupiedTupleMemory() / 1024;
+        occupiedTupleMemory = persistentTable->occupiedTupleMemory();
+        // A view's MIN/MAX value counts are charged to the view table.
+        MaterializedViewTriggerForInsert* trigger = persistentTable->materializedViewTrigger();
+        if (trigger) {
+            int64_t minMaxTrackingMemory = trigger->minMaxTrackingMemory();
+            allocatedTupleMemory += minMaxTrackingMemory;
+            occupiedTupleMemory += minMaxTrackingMemory;
+        }
+    }
+    // Strings shared through the dictionary are counted once for every
+    // tuple that uses them, so take out what sharing saved.
+    int64_t stringDataMemory = m_table->nonInlinedMemorySize();
+    int64_t dictionaryMemory = 0;
+    int64_t dictionarySavedMemory = 0;
+    if (persistentTable) {
+        dictionaryMemory = persistentTable->stringDictionaryMemory();
+        dictionarySavedMemory = persistentTable->stringDictionarySavedMemory();
+        stringDataMemory -= dictionarySavedMemory;
     }
-    int64_t string_data_mem_kb = m_table->nonInlinedMemorySize() / 1024;
+    int64_t allocated_tuple_mem_kb = allocatedTupleMemory / 1024;
+    int64_t occupied_tuple_mem_kb = occupiedTupleMemory / 1024;
+    int64_t string_data_mem_kb = stringDataMemory / 1024;
+    int64_t dictionary_mem_kb = dictionaryMemory / 1024;
+    int64_t dictionary_saved_mem_kb = dictionarySavedMemory / 1024;
 
     if (interval()) {
         tupleCount = tupleCount - m_lastTupleCount;
         m_lastTupleCount = m_table->activeTupleCount();
         allocated_tuple_mem_kb =
             allocated_tuple_mem_kb - (m_lastAllocatedTupleMemory / 1024);
-        m_lastAllocatedTupleMemory = m_table->allocatedTupleMemory();
+        m_lastAllocatedTupleMemory = allocatedTupleMemory;
         occupied_tuple_mem_kb =
             occupied_tuple_mem_kb - (m_lastOccupiedTupleMemory / 1024);
         if (persistentTable) {
-            m_lastOccupiedTupleMemory = persistentTable->occupiedTupleMemory();
+            m_lastOccupiedTupleMemory = occupiedTupleMemory;
         }
         string_data_mem_kb =
             string_data_mem_kb - (m_lastStringDataMemory / 1024);
-        m_lastStringDataMemory = m_table->nonInlinedMemorySize();
+        m_lastStringDataMemory = stringDataMemory;
+        dictionary_mem_kb = dictionary_mem_kb - (m_lastDictionaryMemory / 1024);
+        m_lastDictionaryMemory = dictionaryMemory;
+        dictionary_saved_mem_kb = dictionary_saved_mem_kb - (m_lastDictionarySavedMemory / 1024);
+        m_lastDictionarySavedMemory = dictionarySavedMemory;
     }
 
     tuple->setNValue(StatsSource::m_columnName2Index["TUPLE_COUNT"],
@@ -222,6 +263,10 @@ void TableStats::updateStatsTuple(TableTuple *tuple) {
     }
     tuple->setNValue( StatsSource::m_columnName2Index["DR"], ValueFactory::getTempStringValue(isDR));
     tuple->setNValue( StatsSource::m_columnName2Index["EXPORT"], ValueFactory::getTempStringValue(isExport));
+    tuple->setNValue(StatsSource::m_columnName2Index["DICTIONARY_MEMORY"],
+            ValueFactory::getBigIntValue(dictionary_mem_kb));
+    tuple->setNValue(StatsSource::m_columnName2Index["DICTIONARY_SAVED_MEMORY"],
+            ValueFactory::getBigIntValue(dictionary_saved_mem_kb));
 }
 
 /**
@@ -94,6 +94,8 @@ private:
     int64_t m_lastAllocatedTupleMemory;
     int64_t m_lastOccupiedTupleMemory;
     int64_t m_lastStringDataMemory;
+    int64_t m_lastDictionaryMemory;
+    int64_t m_lastDictionarySavedMemory;
 };
 
 }
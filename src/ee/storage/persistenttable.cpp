@@ -66,6 +66,7 @@
 #include "indexes/tableindexfactory.h"
 #include "common/ValuePeeker.hpp"
 
+#include <algorithm>
 #include <boost/date_time/posix_time/posix_time.hpp>
 
 namespace voltdb {
@@ -184,7 +185,7 @@ PersistentTable::~PersistentTable() {
     TableIterator ti(this, m_data.begin());
     TableTuple tuple(m_schema);
     while (ti.next(tuple)) {
-        tuple.freeObjectColumns();
+        freeObjectColumns(tuple);
         tuple.setActiveFalse();
     }
 
@@ -836,6 +837,7 @@ void PersistentTable::doInsertTupleCommon(TableTuple& source, TableTuple& target
     }
 
     if (m_schema->getUninlinedObjectColumnCount() != 0) {
+        internObjectColumns(target);
         increaseStringMemCount(target.getNonInlinedMemorySizeForPersistentTable());
     }
 
@@ -912,6 +914,83 @@ void PersistentTable::doInsertTupleCommon(TableTuple& source, TableTuple& target
     insertTupleIntoDeltaTable(source, fallible);
 }
 
+void PersistentTable::setStringDictionaryEnabled(bool enabled) {
+    if (m_stringDictionary) {
+        m_stringDictionary->setEnabled(enabled);
+        return;
+    }
+    const uint16_t uninlinedColumnCount = m_schema->getUninlinedObjectColumnCount();
+    if ( ! enabled || m_isMaterialized || uninlinedColumnCount == 0) {
+        return;
+    }
+    m_stringDictionary.reset(new StringDictionary(uninlinedColumnCount));
+    for (uint16_t i = 0; i < uninlinedColumnCount; ++i) {
+        TupleSchema::ColumnInfo const* columnInfo =
+                m_schema->getColumnInfo(m_schema->getUninlinedObjectColumnInfoIndex(i));
+        if (columnInfo->getVoltType() != ValueType::tVARCHAR &&
+                columnInfo->getVoltType() != ValueType::tVARBINARY) {
+            m_stringDictionary->excludeColumn(i);
+        }
+    }
+}
+
+void PersistentTable::internObjectColumns(TableTuple& tuple) {
+    if ( ! m_stringDictionary || ! m_stringDictionary->isEnabled()) {
+        return;
+    }
+    const uint16_t uninlinedColumnCount = m_schema->getUninlinedObjectColumnCount();
+    for (uint16_t i = 0; i < uninlinedColumnCount; ++i) {
+        TupleSchema::ColumnInfo const* columnInfo =
+                m_schema->getColumnInfo(m_schema->getUninlinedObjectColumnInfoIndex(i));
+        StringRef** sref = reinterpret_cast<StringRef**>(tuple.getWritableDataPtr(columnInfo));
+        *sref = m_stringDictionary->intern(i, *sref);
+    }
+}
+
+void PersistentTable::internUpdatedObjectColumns(TableTuple& tuple, std::vector<char*>& newObjects) {
+    if (newObjects.empty() || ! m_stringDictionary || ! m_stringDictionary->isEnabled()) {
+        return;
+    }
+    // newObjects holds the values copyForPersistentUpdate just allocated,
+    // which are the ones the dictionary may replace.
+    const uint16_t uninlinedColumnCount = m_schema->getUninlinedObjectColumnCount();
+    for (uint16_t i = 0; i < uninlinedColumnCount; ++i) {
+        TupleSchema::ColumnInfo const* columnInfo =
+                m_schema->getColumnInfo(m_schema->getUninlinedObjectColumnInfoIndex(i));
+        char** dataPtr = reinterpret_cast<char**>(tuple.getWritableDataPtr(columnInfo));
+        std::vector<char*>::iterator newObject = std::find(newObjects.begin(), newObjects.end(), *dataPtr);
+        if (*dataPtr == NULL || newObject == newObjects.end()) {
+            continue;
+        }
+        StringRef* sref = m_stringDictionary->intern(i, reinterpret_cast<StringRef*>(*dataPtr));
+        *dataPtr = reinterpret_cast<char*>(sref);
+        *newObject = *dataPtr;
+    }
+}
+
+void PersistentTable::freeObjectColumns(TableTuple& tuple) {
+    if ( ! m_stringDictionary) {
+        tuple.freeObjectColumns();
+        return;
+    }
+    const uint16_t uninlinedColumnCount = m_schema->getUninlinedObjectColumnCount();
+    for (uint16_t i = 0; i < uninlinedColumnCount; ++i) {
+        TupleSchema::ColumnInfo const* columnInfo =
+                m_schema->getColumnInfo(m_schema->getUninlinedObjectColumnInfoIndex(i));
+        m_stringDictionary->release(*reinterpret_cast<StringRef**>(tuple.getWritableDataPtr(columnInfo)));
+    }
+}
+
+void PersistentTable::freeObjects(std::vector<char*> const& objects) {
+    if ( ! m_stringDictionary) {
+        NValue::freeObjectsFromTupleStorage(objects);
+        return;
+    }
+    BOOST_FOREACH (char* object, objects) {
+        m_stringDictionary->release(reinterpret_cast<StringRef*>(object));
+    }
+}
+
 void PersistentTable::insertTupleCommon(TableTuple& source, TableTuple& target,
       bool fallible, bool shouldDRStream, bool delayTupleDelete) {
     // If the target table is a replicated table, only one thread can reach here.
@@ -1120,6 +1199,7 @@ void PersistentTable::updateTupleWithSpecificIndexes(
 
     // this is the actual write of the new values
     targetTupleToUpdate.copyForPersistentUpdate(sourceTupleWithNewValues, oldObjects, newObjects);
+    internUpdatedObjectColumns(targetTupleToUpdate, newObjects);
 
     if (fromMigrate) {
         vassert(isTableWithMigrate(m_tableType) && m_shadowStream != nullptr);
@@ -1144,7 +1224,7 @@ void PersistentTable::updateTupleWithSpecificIndexes(
         // -- though maybe even that case should delegate memory management back to the PersistentTable
         // to keep the UndoAction stupid simple?
         // Anyway, there is no Undo Action in this case, so DIY.
-        NValue::freeObjectsFromTupleStorage(oldObjects);
+        freeObjects(oldObjects);
     }
 
     /**
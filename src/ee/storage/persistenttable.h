@@ -67,6 +67,7 @@
 #include "storage/DRTupleStream.h"
 #include "storage/viewableandreplicabletable.h"
 #include "storage/streamedtable.h"
+#include "storage/StringDictionary.h"
 #include "common/UndoQuantumReleaseInterest.h"
 #include "common/ThreadLocalPool.h"
 #include "common/SynchronizedThreadLock.h"
@@ -118,6 +119,7 @@ public:
     void deleteTupleForUndo(char* tupleData, bool skipLookup = false);
     void deleteTupleRelease(char* tuple);
     void deleteTupleStorage(TableTuple& tuple, TBPtr block = TBPtr(NULL));
+    void freeObjects(std::vector<char*> const& objects);
 
     size_t getSnapshotPendingBlockCount() const;
     size_t getSnapshotPendingLoadBlockCount() const;
@@ -457,6 +459,26 @@ public:
     // for test purpose
     void setDR(bool flag) { m_drEnabled = (flag && !m_isMaterialized); }
 
+    /**
+     * Share equal out-of-line VARCHAR and VARBINARY values between tuples.
+     * Disabling only stops new values from being shared.
+     */
+    void setStringDictionaryEnabled(bool enabled);
+
+    bool isStringDictionaryEnabled() const {
+        return m_stringDictionary && m_stringDictionary->isEnabled();
+    }
+
+    /** Memory used by the string dictionary, or 0 if there is none */
+    int64_t stringDictionaryMemory() const {
+        return m_stringDictionary ? m_stringDictionary->memorySize() : 0;
+    }
+
+    /** String memory saved by the string dictionary */
+    int64_t stringDictionarySavedMemory() const {
+        return m_stringDictionary ? m_stringDictionary->savedMemorySize() : 0;
+    }
+
     void setTupleLimit(int32_t newLimit) { m_tupleLimit = newLimit; }
     void setTableType(TableType tableType) { m_tableType = tableType; }
     bool isPersistentTableEmpty() const {
@@ -675,6 +697,13 @@ private:
 
     void doInsertTupleCommon(TableTuple& source, TableTuple& target, bool fallible, bool shouldDRStream = true, bool delayTupleDelete = false);
 
+    // Allocation and release of out-of-line values, going through the
+    // string dictionary when there is one.
+    void internObjectColumns(TableTuple& tuple);
+    void internUpdatedObjectColumns(TableTuple& tuple, std::vector<char*>& newObjects);
+    void freeObjectColumns(TableTuple& tuple);
+    void freeObjects(std::vector<char*> const& objects);
+
     void insertTupleForUndo(char* tuple);
 
     void updateTupleForUndo(char* targetTupleToUpdate,
@@ -815,6 +844,9 @@ private:
     // is DR enabled
     bool m_drEnabled;
 
+    // Shared out-of-line strings, if the table has ever been dictionary encoded
+    boost::scoped_ptr<StringDictionary> m_stringDictionary;
+
     // SHA-1 of signature string
     char m_signature[20];
 
@@ -902,6 +934,10 @@ inline void PersistentTableSurgeon::deleteTupleStorage(TableTuple& tuple, TBPtr
     m_table.deleteTupleStorage(tuple, block);
 }
 
+inline void PersistentTableSurgeon::freeObjects(std::vector<char*> const& objects) {
+    m_table.freeObjects(objects);
+}
+
 inline size_t PersistentTableSurgeon::getSnapshotPendingBlockCount() const {
     return m_table.getSnapshotPendingBlockCount();
 }
@@ -1056,7 +1092,7 @@ inline void PersistentTable::deleteTupleStorage(TableTuple& tuple, TBPtr block,
     // This frees referenced strings -- when could possibly be a better time?
     if (m_schema->getUninlinedObjectColumnCount() != 0) {
         decreaseStringMemCount(tuple.getNonInlinedMemorySizeForPersistentTable());
-        tuple.freeObjectColumns();
+        freeObjectColumns(tuple);
     }
 
     tuple.setActiveFalse();
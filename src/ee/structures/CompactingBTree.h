@@ -0,0 +1,1078 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+#ifndef COMPACTINGBTREE_H_
+#define COMPACTINGBTREE_H_
+
+#include "ContiguousAllocator.h"
+#include "CompactingMap.h"
+
+#include <cstdlib>
+#include <cstdio>
+#include <stdint.h>
+#include <utility>
+#include <common/debuglog.h>
+
+namespace voltdb {
+
+/**
+ * B+tree with the same interface as CompactingMap, meant as a drop-in
+ * replacement for the red-black tree behind the tree indexes.
+ *
+ * Entries live in wide leaf nodes that are chained together, so a range
+ * scan walks contiguous arrays instead of chasing a pointer per entry.
+ * Inner nodes keep their separator keys in one contiguous array, apart
+ * from the child pointers, so a lookup binary-searches a handful of cache
+ * lines per level. Node sizes target NODE_BYTES and fall back to a minimum
+ * fanout for wide keys.
+ *
+ * Like CompactingMap, node storage is packed into ContiguousAllocators
+ * (one for leaves, one for inner nodes). When a node is freed by a merge,
+ * the last allocated node of the same kind is moved into the hole so that
+ * memory stays dense and can shrink.
+ *
+ * With hasRank, each inner node also keeps the entry count of every child
+ * subtree, which makes rank lookups (COUNT(*) with range predicates)
+ * logarithmic.
+ *
+ * The same caveats as CompactingMap apply: entries are moved with
+ * assignment, and any mutation invalidates all iterators.
+ */
+template<typename KeyValuePair, typename Compare, bool hasRank=false>
+class CompactingBTree {
+    typedef typename KeyValuePair::first_type Key;
+    typedef typename KeyValuePair::second_type Data;
+protected:
+    static const int NODE_BYTES = 512;
+    static const int MIN_FANOUT = 4;
+    static const int BLOCK_BYTES = 64 * 1024;
+
+    struct InnerNode;
+
+    struct NodeBase {
+        InnerNode *parent;
+        // entries in a leaf, children in an inner node
+        int32_t count;
+        bool isLeaf;
+
+        NodeBase(bool leaf) : parent(NULL), count(0), isLeaf(leaf) {}
+
+        // The storage for all nodes is managed by the map's contiguous
+        // allocators. As with CompactingMap, "delete" only runs the destructor;
+        // the memory is reclaimed by a follow-on allocator.trim().
+        void* operator new(std::size_t unused_sz, ContiguousAllocator& ca)
+        {
+            void *memory = ca.alloc();
+            vassert(memory);
+            return memory;
+        }
+        void operator delete(void* unused) { }
+    };
+
+    static const int LEAF_HEADER_BYTES = static_cast<int>(sizeof(NodeBase) + 2 * sizeof(void*));
+    static const int LEAF_FIT = static_cast<int>((NODE_BYTES - LEAF_HEADER_BYTES) / sizeof(KeyValuePair));
+    static const int LEAF_CAPACITY = LEAF_FIT > MIN_FANOUT ? LEAF_FIT : MIN_FANOUT;
+    static const int LEAF_MIN = LEAF_CAPACITY / 2;
+
+    static const int INNER_SLOT_BYTES = static_cast<int>(sizeof(Key) + sizeof(void*) + (hasRank ? sizeof(int64_t) : 0));
+    static const int INNER_FIT = static_cast<int>((NODE_BYTES - sizeof(NodeBase)) / INNER_SLOT_BYTES);
+    static const int INNER_CAPACITY = INNER_FIT > MIN_FANOUT ? INNER_FIT : MIN_FANOUT;
+    static const int INNER_MIN = INNER_CAPACITY / 2;
+
+    struct LeafNode : public NodeBase {
+        LeafNode *prev;
+        LeafNode *next;
+        KeyValuePair kv[LEAF_CAPACITY];
+
+        LeafNode() : NodeBase(true), prev(NULL), next(NULL) {}
+    };
+
+    struct InnerNode : public NodeBase {
+        // keys[i] separates children[i] and children[i + 1]: every entry in
+        // children[i] is <= keys[i] and every entry in children[i + 1] is >= keys[i].
+        Key keys[INNER_CAPACITY - 1];
+        NodeBase *children[INNER_CAPACITY];
+        // number of entries under each child, only maintained with hasRank
+        int64_t subct[hasRank ? INNER_CAPACITY : 1];
+
+        InnerNode() : NodeBase(false) {}
+    };
+
+    // Adapts the comparator to ignore the tuple address part of the key.
+    struct RegardlessOfPointer {
+        const Compare &m_comper;
+        RegardlessOfPointer(const Compare &comper) : m_comper(comper) {}
+        int operator()(const Key &lhs, const Key &rhs) const {
+            return m_comper.compareWithoutPointer(lhs, rhs);
+        }
+    };
+
+    int64_t m_count;
+    NodeBase *m_root;
+    // number of inner levels above the leaves
+    int m_height;
+    LeafNode *m_first;
+    LeafNode *m_last;
+    ContiguousAllocator m_leafAllocator;
+    ContiguousAllocator m_innerAllocator;
+    const bool m_unique;
+    // key and value handed out by end iterators, like CompactingMap's NIL node
+    KeyValuePair m_nil;
+    Compare m_comper;
+
+public:
+    class iterator {
+        friend class CompactingBTree<KeyValuePair, Compare, hasRank>;
+    protected:
+        const CompactingBTree *m_map;
+        LeafNode *m_leaf;
+        int32_t m_index;
+        iterator(const CompactingBTree *m, LeafNode *leaf, int32_t index) : m_map(m), m_leaf(leaf), m_index(index) {}
+    public:
+        iterator() : m_map(NULL), m_leaf(NULL), m_index(0) {}
+        const Key &key() const { return m_leaf ? m_leaf->kv[m_index].getKey() : m_map->m_nil.getKey(); }
+        const Data &value() const { return m_leaf ? m_leaf->kv[m_index].getValue() : m_map->m_nil.getValue(); }
+        void setValue(const Data &value) { m_leaf->kv[m_index].setValue(value); }
+        void moveNext() {
+            if (m_leaf && ++m_index >= m_leaf->count) {
+                m_leaf = m_leaf->next;
+                m_index = 0;
+            }
+        }
+        void movePrev() {
+            if (m_leaf == NULL) {
+                return;
+            }
+            if (m_index > 0) {
+                --m_index;
+            }
+            else {
+                m_leaf = m_leaf->prev;
+                m_index = m_leaf ? m_leaf->count - 1 : 0;
+            }
+        }
+        bool isEnd() const { return ((!m_map) || (m_leaf == NULL)); }
+        bool equals(const iterator &iter) const {
+            if (isEnd()) {
+                return iter.isEnd();
+            }
+            return m_leaf == iter.m_leaf && m_index == iter.m_index;
+        }
+    };
+
+    CompactingBTree(bool unique, Compare comper);
+    ~CompactingBTree();
+
+    const Data *insert(const Key &key, const Data &data);
+    bool erase(const Key &key);
+    bool erase(iterator &iter);
+
+    iterator find(const Key &key) const;
+    iterator findRank(int64_t ith) const;
+    int64_t size() const { return m_count; }
+    iterator begin() const { return iterator(this, m_first, 0); }
+    iterator rbegin() const { return iterator(this, m_last, m_last ? m_last->count - 1 : 0); }
+
+    iterator lowerBound(const Key &key) const { return lowerBound(key, m_comper); }
+    iterator upperBound(const Key &key) const;
+    // do upperBound(key) but treat null values in key as maximum
+    iterator upperBoundNullAsMax(const Key &key) const;
+
+    std::pair<iterator, iterator> equalRange(const Key &key) const
+    {
+        return std::pair<iterator, iterator>(lowerBound(key), upperBound(key));
+    }
+
+    size_t bytesAllocated() const { return m_leafAllocator.bytesAllocated() + m_innerAllocator.bytesAllocated(); }
+
+    // Must pass a key that already in map, or else return -1
+    int64_t rankLower(const Key& key) const;
+    int64_t rankUpper(const Key& key) const;
+
+    /**
+     * For debugging: verify the B+tree ordering, occupancy and linkage. SLOW.
+     */
+    bool verify() const;
+    bool verifyRank() const;
+    /** Do we have a cached last buffer?  This is used in testing. */
+    bool hasCachedLastBuffer() const { return (m_leafAllocator.hasCachedLastBuffer()); }
+
+protected:
+    template<typename Cmp> iterator lowerBound(const Key &key, const Cmp &cmp) const;
+    template<typename Cmp> iterator upperBound(const Key &key, const Cmp &cmp) const;
+    template<bool upper, typename Cmp> LeafNode *descend(const Key &key, const Cmp &cmp) const;
+
+    iterator normalized(LeafNode *leaf, int32_t pos) const
+    {
+        if (pos >= leaf->count) {
+            return iterator(this, leaf->next, 0);
+        }
+        return iterator(this, leaf, pos);
+    }
+
+    /** First index in [0, n) whose key is not less (upper: greater) than key. */
+    template<bool upper, typename Cmp>
+    static int32_t searchLeaf(const LeafNode *leaf, const Key &key, const Cmp &cmp)
+    {
+        int32_t lo = 0;
+        int32_t hi = leaf->count;
+        while (lo < hi) {
+            int32_t mid = (lo + hi) >> 1;
+            int c = cmp(leaf->kv[mid].getKey(), key);
+            if (upper ? (c <= 0) : (c < 0)) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Index of the child to follow: the number of separators less (upper: not greater) than key. */
+    template<bool upper, typename Cmp>
+    static int32_t searchInner(const InnerNode *inner, const Key &key, const Cmp &cmp)
+    {
+        int32_t lo = 0;
+        int32_t hi = inner->count - 1;
+        while (lo < hi) {
+            int32_t mid = (lo + hi) >> 1;
+            int c = cmp(inner->keys[mid], key);
+            if (upper ? (c <= 0) : (c < 0)) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    static int32_t childIndex(const InnerNode *parent, const NodeBase *child)
+    {
+        int32_t idx = 0;
+        while (parent->children[idx] != child) {
+            ++idx;
+            vassert(idx < parent->count);
+        }
+        return idx;
+    }
+
+    static int64_t subtreeCount(const NodeBase *node)
+    {
+        if (node->isLeaf) {
+            return node->count;
+        }
+        const InnerNode *inner = static_cast<const InnerNode*>(node);
+        int64_t sum = 0;
+        for (int32_t i = 0; i < inner->count; ++i) {
+            sum += inner->subct[i];
+        }
+        return sum;
+    }
+
+    void adjustCounts(NodeBase *node, int64_t delta);
+    int64_t rankOf(const iterator &iter) const;
+
+    LeafNode *splitLeaf(LeafNode *leaf, int32_t keep);
+    void splitInner(InnerNode *node);
+    void insertIntoParent(NodeBase *left, const Key &separator, NodeBase *right);
+    void removeChild(InnerNode *parent, int32_t idx);
+
+    void rebalanceLeaf(LeafNode *leaf);
+    void rebalanceInner(InnerNode *node);
+    void freeLeaf(LeafNode *hole);
+    void freeInner(InnerNode *hole, InnerNode *&survivor);
+    void destroy(NodeBase *node);
+
+    int64_t verify(const NodeBase *node, int level, const Key *low, const Key *high) const;
+
+    static int32_t nodesPerBlock(size_t nodeSize)
+    {
+        int32_t perBlock = static_cast<int32_t>(BLOCK_BYTES / nodeSize);
+        return perBlock > 16 ? perBlock : 16;
+    }
+};
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+CompactingBTree<KeyValuePair, Compare, hasRank>::CompactingBTree(bool unique, Compare comper)
+    : m_count(0),
+      m_root(NULL),
+      m_height(0),
+      m_first(NULL),
+      m_last(NULL),
+      m_leafAllocator(static_cast<int32_t>(sizeof(LeafNode)), nodesPerBlock(sizeof(LeafNode))),
+      m_innerAllocator(static_cast<int32_t>(sizeof(InnerNode)), nodesPerBlock(sizeof(InnerNode))),
+      m_unique(unique),
+      m_comper(comper)
+{ }
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+CompactingBTree<KeyValuePair, Compare, hasRank>::~CompactingBTree()
+{
+    if (m_root != NULL) {
+        destroy(m_root);
+    }
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::destroy(NodeBase *node)
+{
+    if (node->isLeaf) {
+        delete static_cast<LeafNode*>(node);
+        return;
+    }
+    InnerNode *inner = static_cast<InnerNode*>(node);
+    for (int32_t i = 0; i < inner->count; ++i) {
+        destroy(inner->children[i]);
+    }
+    delete inner;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+template<bool upper, typename Cmp>
+typename CompactingBTree<KeyValuePair, Compare, hasRank>::LeafNode *
+CompactingBTree<KeyValuePair, Compare, hasRank>::descend(const Key &key, const Cmp &cmp) const
+{
+    NodeBase *node = m_root;
+    for (int level = m_height; level > 0; --level) {
+        InnerNode *inner = static_cast<InnerNode*>(node);
+        node = inner->children[searchInner<upper>(inner, key, cmp)];
+    }
+    return static_cast<LeafNode*>(node);
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+template<typename Cmp>
+typename CompactingBTree<KeyValuePair, Compare, hasRank>::iterator
+CompactingBTree<KeyValuePair, Compare, hasRank>::lowerBound(const Key &key, const Cmp &cmp) const
+{
+    if (m_root == NULL) {
+        return iterator(this, NULL, 0);
+    }
+    LeafNode *leaf = descend<false>(key, cmp);
+    return normalized(leaf, searchLeaf<false>(leaf, key, cmp));
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+template<typename Cmp>
+typename CompactingBTree<KeyValuePair, Compare, hasRank>::iterator
+CompactingBTree<KeyValuePair, Compare, hasRank>::upperBound(const Key &key, const Cmp &cmp) const
+{
+    if (m_root == NULL) {
+        return iterator(this, NULL, 0);
+    }
+    LeafNode *leaf = descend<true>(key, cmp);
+    return normalized(leaf, searchLeaf<true>(leaf, key, cmp));
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+typename CompactingBTree<KeyValuePair, Compare, hasRank>::iterator
+CompactingBTree<KeyValuePair, Compare, hasRank>::upperBound(const Key &key) const
+{
+    Key tmpKey(key);
+    setPointerValue(tmpKey, MAXPOINTER);
+    return upperBound(tmpKey, m_comper);
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+typename CompactingBTree<KeyValuePair, Compare, hasRank>::iterator
+CompactingBTree<KeyValuePair, Compare, hasRank>::upperBoundNullAsMax(const Key &key) const
+{
+    Key tmpKey(key);
+    setPointerValue(tmpKey, MAXPOINTER);
+    return upperBound(tmpKey, m_comper.getNullAsMaxComparator());
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+typename CompactingBTree<KeyValuePair, Compare, hasRank>::iterator
+CompactingBTree<KeyValuePair, Compare, hasRank>::find(const Key &key) const
+{
+    iterator iter = lowerBound(key);
+    if (iter.isEnd() || m_comper(iter.key(), key) != 0) {
+        return iterator(this, NULL, 0);
+    }
+    return iter;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+const typename CompactingBTree<KeyValuePair, Compare, hasRank>::Data *
+CompactingBTree<KeyValuePair, Compare, hasRank>::insert(const Key &key, const Data &value)
+{
+    if (m_root == NULL) {
+        LeafNode *leaf = new (m_leafAllocator) LeafNode();
+        m_root = m_first = m_last = leaf;
+        m_height = 0;
+    }
+
+    LeafNode *leaf;
+    int32_t pos;
+    if (m_unique) {
+        // Land on the first entry not less than key, which may be the head
+        // of the next leaf, to detect the collision.
+        leaf = descend<false>(key, m_comper);
+        pos = searchLeaf<false>(leaf, key, m_comper);
+        const KeyValuePair *candidate = (pos < leaf->count) ? &leaf->kv[pos] :
+                                        (leaf->next ? &leaf->next->kv[0] : NULL);
+        if (candidate != NULL && m_comper(candidate->getKey(), key) == 0) {
+            return &candidate->getValue();
+        }
+    }
+    else {
+        // Duplicates go after (to the right of) existing equal entries,
+        // like CompactingMap.
+        leaf = descend<true>(key, m_comper);
+        pos = searchLeaf<true>(leaf, key, m_comper);
+    }
+
+    if (leaf->count == LEAF_CAPACITY) {
+        // Appending to the rightmost leaf (ascending keys) leaves the full
+        // leaf full instead of splitting it in half.
+        int32_t keep = (leaf == m_last && pos == leaf->count) ? leaf->count - 1 : leaf->count / 2;
+        LeafNode *right = splitLeaf(leaf, keep);
+        if (pos > leaf->count) {
+            pos -= leaf->count;
+            leaf = right;
+        }
+    }
+
+    for (int32_t i = leaf->count; i > pos; --i) {
+        leaf->kv[i] = leaf->kv[i - 1];
+    }
+    leaf->kv[pos].setKeyValuePair(key, value);
+    ++leaf->count;
+    ++m_count;
+    if (hasRank) {
+        adjustCounts(leaf, 1);
+    }
+    return NULL;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+bool CompactingBTree<KeyValuePair, Compare, hasRank>::erase(const Key &key)
+{
+    iterator iter = find(key);
+    if (iter.isEnd()) {
+        return false;
+    }
+    return erase(iter);
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+bool CompactingBTree<KeyValuePair, Compare, hasRank>::erase(iterator &iter)
+{
+    vassert(!iter.isEnd());
+    LeafNode *leaf = iter.m_leaf;
+    for (int32_t i = iter.m_index + 1; i < leaf->count; ++i) {
+        leaf->kv[i - 1] = leaf->kv[i];
+    }
+    --leaf->count;
+    --m_count;
+    if (hasRank) {
+        adjustCounts(leaf, -1);
+    }
+
+    if (leaf == m_root) {
+        if (leaf->count == 0) {
+            m_root = m_first = m_last = NULL;
+            freeLeaf(leaf);
+        }
+    }
+    else if (leaf->count < LEAF_MIN) {
+        rebalanceLeaf(leaf);
+    }
+    vassert(m_count != 0 || (m_leafAllocator.count() == 0 && m_innerAllocator.count() == 0));
+    return true;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::adjustCounts(NodeBase *node, int64_t delta)
+{
+    while (node->parent != NULL) {
+        InnerNode *parent = node->parent;
+        parent->subct[childIndex(parent, node)] += delta;
+        node = parent;
+    }
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+typename CompactingBTree<KeyValuePair, Compare, hasRank>::LeafNode *
+CompactingBTree<KeyValuePair, Compare, hasRank>::splitLeaf(LeafNode *leaf, int32_t keep)
+{
+    LeafNode *right = new (m_leafAllocator) LeafNode();
+    for (int32_t i = keep; i < leaf->count; ++i) {
+        right->kv[i - keep] = leaf->kv[i];
+    }
+    right->count = leaf->count - keep;
+    leaf->count = keep;
+
+    right->prev = leaf;
+    right->next = leaf->next;
+    if (leaf->next != NULL) {
+        leaf->next->prev = right;
+    }
+    else {
+        m_last = right;
+    }
+    leaf->next = right;
+
+    insertIntoParent(leaf, right->kv[0].getKey(), right);
+    return right;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::splitInner(InnerNode *node)
+{
+    InnerNode *right = new (m_innerAllocator) InnerNode();
+    int32_t keep = node->count / 2;
+    for (int32_t i = keep; i < node->count; ++i) {
+        right->children[i - keep] = node->children[i];
+        right->children[i - keep]->parent = right;
+        if (hasRank) {
+            right->subct[i - keep] = node->subct[i];
+        }
+    }
+    for (int32_t i = keep; i < node->count - 1; ++i) {
+        right->keys[i - keep] = node->keys[i];
+    }
+    right->count = node->count - keep;
+    node->count = keep;
+
+    // the separator between the halves moves up
+    const Key separator(node->keys[keep - 1]);
+    insertIntoParent(node, separator, right);
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::insertIntoParent(NodeBase *left, const Key &separator,
+                                                                       NodeBase *right)
+{
+    InnerNode *parent = left->parent;
+    if (parent == NULL) {
+        vassert(left == m_root);
+        InnerNode *root = new (m_innerAllocator) InnerNode();
+        root->count = 2;
+        root->keys[0] = separator;
+        root->children[0] = left;
+        root->children[1] = right;
+        if (hasRank) {
+            root->subct[0] = subtreeCount(left);
+            root->subct[1] = subtreeCount(right);
+        }
+        left->parent = right->parent = root;
+        m_root = root;
+        ++m_height;
+        return;
+    }
+
+    if (parent->count == INNER_CAPACITY) {
+        // The parent's count for left still covers both halves, so the
+        // totals pushed up by this split remain correct.
+        splitInner(parent);
+        parent = left->parent;
+    }
+
+    int32_t idx = childIndex(parent, left);
+    for (int32_t i = parent->count; i > idx + 1; --i) {
+        parent->children[i] = parent->children[i - 1];
+        if (hasRank) {
+            parent->subct[i] = parent->subct[i - 1];
+        }
+    }
+    for (int32_t i = parent->count - 1; i > idx; --i) {
+        parent->keys[i] = parent->keys[i - 1];
+    }
+    parent->keys[idx] = separator;
+    parent->children[idx + 1] = right;
+    right->parent = parent;
+    ++parent->count;
+    if (hasRank) {
+        parent->subct[idx] = subtreeCount(left);
+        parent->subct[idx + 1] = subtreeCount(right);
+    }
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::removeChild(InnerNode *parent, int32_t idx)
+{
+    // drops children[idx] and the separator to its left
+    vassert(idx > 0);
+    for (int32_t i = idx; i < parent->count - 1; ++i) {
+        parent->children[i] = parent->children[i + 1];
+        if (hasRank) {
+            parent->subct[i] = parent->subct[i + 1];
+        }
+    }
+    for (int32_t i = idx - 1; i < parent->count - 2; ++i) {
+        parent->keys[i] = parent->keys[i + 1];
+    }
+    --parent->count;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::rebalanceLeaf(LeafNode *leaf)
+{
+    InnerNode *parent = leaf->parent;
+    int32_t idx = childIndex(parent, leaf);
+    LeafNode *left = (idx > 0) ? static_cast<LeafNode*>(parent->children[idx - 1]) : NULL;
+    LeafNode *right = (idx + 1 < parent->count) ? static_cast<LeafNode*>(parent->children[idx + 1]) : NULL;
+
+    if (left != NULL && left->count > LEAF_MIN) {
+        // borrow the last entry of the left sibling
+        for (int32_t i = leaf->count; i > 0; --i) {
+            leaf->kv[i] = leaf->kv[i - 1];
+        }
+        leaf->kv[0] = left->kv[left->count - 1];
+        --left->count;
+        ++leaf->count;
+        parent->keys[idx - 1] = leaf->kv[0].getKey();
+        if (hasRank) {
+            --parent->subct[idx - 1];
+            ++parent->subct[idx];
+        }
+        return;
+    }
+    if (right != NULL && right->count > LEAF_MIN) {
+        // borrow the first entry of the right sibling
+        leaf->kv[leaf->count] = right->kv[0];
+        ++leaf->count;
+        for (int32_t i = 1; i < right->count; ++i) {
+            right->kv[i - 1] = right->kv[i];
+        }
+        --right->count;
+        parent->keys[idx] = right->kv[0].getKey();
+        if (hasRank) {
+            ++parent->subct[idx];
+            --parent->subct[idx + 1];
+        }
+        return;
+    }
+
+    // merge with a sibling, always folding the right node into the left one
+    int32_t rightIdx = idx;
+    if (left == NULL) {
+        left = leaf;
+        rightIdx = idx + 1;
+    }
+    else {
+        right = leaf;
+    }
+    for (int32_t i = 0; i < right->count; ++i) {
+        left->kv[left->count + i] = right->kv[i];
+    }
+    left->count += right->count;
+    left->next = right->next;
+    if (right->next != NULL) {
+        right->next->prev = left;
+    }
+    else {
+        m_last = left;
+    }
+    if (hasRank) {
+        parent->subct[rightIdx - 1] += parent->subct[rightIdx];
+    }
+    removeChild(parent, rightIdx);
+    freeLeaf(right);
+    rebalanceInner(parent);
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::rebalanceInner(InnerNode *node)
+{
+    if (node == m_root) {
+        if (node->count == 1) {
+            // collapse a root with a single child
+            m_root = node->children[0];
+            m_root->parent = NULL;
+            --m_height;
+            InnerNode *unused = NULL;
+            freeInner(node, unused);
+        }
+        return;
+    }
+    if (node->count >= INNER_MIN) {
+        return;
+    }
+
+    InnerNode *parent = node->parent;
+    int32_t idx = childIndex(parent, node);
+    InnerNode *left = (idx > 0) ? static_cast<InnerNode*>(parent->children[idx - 1]) : NULL;
+    InnerNode *right = (idx + 1 < parent->count) ? static_cast<InnerNode*>(parent->children[idx + 1]) : NULL;
+
+    if (left != NULL && left->count > INNER_MIN) {
+        // rotate the last child of the left sibling through the parent
+        for (int32_t i = node->count; i > 0; --i) {
+            node->children[i] = node->children[i - 1];
+            if (hasRank) {
+                node->subct[i] = node->subct[i - 1];
+            }
+        }
+        for (int32_t i = node->count - 1; i > 0; --i) {
+            node->keys[i] = node->keys[i - 1];
+        }
+        node->children[0] = left->children[left->count - 1];
+        node->children[0]->parent = node;
+        node->keys[0] = parent->keys[idx - 1];
+        parent->keys[idx - 1] = left->keys[left->count - 2];
+        if (hasRank) {
+            int64_t moved = left->subct[left->count - 1];
+            node->subct[0] = moved;
+            parent->subct[idx - 1] -= moved;
+            parent->subct[idx] += moved;
+        }
+        --left->count;
+        ++node->count;
+        return;
+    }
+    if (right != NULL && right->count > INNER_MIN) {
+        // rotate the first child of the right sibling through the parent
+        node->children[node->count] = right->children[0];
+        node->children[node->count]->parent = node;
+        node->keys[node->count - 1] = parent->keys[idx];
+        parent->keys[idx] = right->keys[0];
+        if (hasRank) {
+            int64_t moved = right->subct[0];
+            node->subct[node->count] = moved;
+            parent->subct[idx] += moved;
+            parent->subct[idx + 1] -= moved;
+        }
+        ++node->count;
+        for (int32_t i = 1; i < right->count; ++i) {
+            right->children[i - 1] = right->children[i];
+            if (hasRank) {
+                right->subct[i - 1] = right->subct[i];
+            }
+        }
+        for (int32_t i = 1; i < right->count - 1; ++i) {
+            right->keys[i - 1] = right->keys[i];
+        }
+        --right->count;
+        return;
+    }
+
+    // merge with a sibling, pulling the separator down between the halves
+    int32_t rightIdx = idx;
+    if (left == NULL) {
+        left = node;
+        rightIdx = idx + 1;
+    }
+    else {
+        right = node;
+    }
+    left->keys[left->count - 1] = parent->keys[rightIdx - 1];
+    for (int32_t i = 0; i < right->count; ++i) {
+        left->children[left->count + i] = right->children[i];
+        left->children[left->count + i]->parent = left;
+        if (hasRank) {
+            left->subct[left->count + i] = right->subct[i];
+        }
+    }
+    for (int32_t i = 0; i < right->count - 1; ++i) {
+        left->keys[left->count + i] = right->keys[i];
+    }
+    left->count += right->count;
+    if (hasRank) {
+        parent->subct[rightIdx - 1] += parent->subct[rightIdx];
+    }
+    removeChild(parent, rightIdx);
+    freeInner(right, parent);
+    rebalanceInner(parent);
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::freeLeaf(LeafNode *hole)
+{
+    LeafNode *last = static_cast<LeafNode*>(m_leafAllocator.last());
+    if (last != hole) {
+        // Move the last leaf into the hole and repoint everything that
+        // referenced it.
+        if (last->parent != NULL) {
+            last->parent->children[childIndex(last->parent, last)] = hole;
+        }
+        else {
+            vassert(m_root == last);
+            m_root = hole;
+        }
+        if (last->prev != NULL) {
+            last->prev->next = hole;
+        }
+        else {
+            m_first = hole;
+        }
+        if (last->next != NULL) {
+            last->next->prev = hole;
+        }
+        else {
+            m_last = hole;
+        }
+        hole->parent = last->parent;
+        hole->count = last->count;
+        hole->prev = last->prev;
+        hole->next = last->next;
+        for (int32_t i = 0; i < last->count; ++i) {
+            hole->kv[i] = last->kv[i];
+        }
+    }
+    delete last;
+    m_leafAllocator.trim();
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+void CompactingBTree<KeyValuePair, Compare, hasRank>::freeInner(InnerNode *hole, InnerNode *&survivor)
+{
+    InnerNode *last = static_cast<InnerNode*>(m_innerAllocator.last());
+    if (last != hole) {
+        if (last->parent != NULL) {
+            last->parent->children[childIndex(last->parent, last)] = hole;
+        }
+        else {
+            vassert(m_root == last);
+            m_root = hole;
+        }
+        hole->parent = last->parent;
+        hole->count = last->count;
+        for (int32_t i = 0; i < last->count; ++i) {
+            hole->children[i] = last->children[i];
+            hole->children[i]->parent = hole;
+            if (hasRank) {
+                hole->subct[i] = last->subct[i];
+            }
+        }
+        for (int32_t i = 0; i < last->count - 1; ++i) {
+            hole->keys[i] = last->keys[i];
+        }
+        if (survivor == last) {
+            survivor = hole;
+        }
+    }
+    delete last;
+    m_innerAllocator.trim();
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+typename CompactingBTree<KeyValuePair, Compare, hasRank>::iterator
+CompactingBTree<KeyValuePair, Compare, hasRank>::findRank(int64_t ith) const
+{
+    if ((!hasRank) || ith < 1 || ith > m_count) {
+        return iterator(this, NULL, 0);
+    }
+    NodeBase *node = m_root;
+    int64_t rk = ith;
+    for (int level = m_height; level > 0; --level) {
+        InnerNode *inner = static_cast<InnerNode*>(node);
+        int32_t i = 0;
+        while (rk > inner->subct[i]) {
+            rk -= inner->subct[i];
+            ++i;
+        }
+        node = inner->children[i];
+    }
+    return iterator(this, static_cast<LeafNode*>(node), static_cast<int32_t>(rk - 1));
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+int64_t CompactingBTree<KeyValuePair, Compare, hasRank>::rankOf(const iterator &iter) const
+{
+    int64_t rank = iter.m_index + 1;
+    const NodeBase *node = iter.m_leaf;
+    while (node->parent != NULL) {
+        const InnerNode *parent = node->parent;
+        int32_t idx = childIndex(parent, node);
+        for (int32_t i = 0; i < idx; ++i) {
+            rank += parent->subct[i];
+        }
+        node = parent;
+    }
+    return rank;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+int64_t CompactingBTree<KeyValuePair, Compare, hasRank>::rankLower(const Key& key) const
+{
+    if (!hasRank) {
+        return -1;
+    }
+    // return -1 if the key passed in is not in the map
+    if (find(key).isEnd()) {
+        return -1;
+    }
+    // rank of the first entry matching the "data" part of the key
+    return rankOf(lowerBound(key, RegardlessOfPointer(m_comper)));
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+int64_t CompactingBTree<KeyValuePair, Compare, hasRank>::rankUpper(const Key& key) const
+{
+    if (!hasRank) {
+        return -1;
+    }
+    if (m_unique) {
+        return rankLower(key);
+    }
+    // return -1 if the key passed in is not in the map
+    if (find(key).isEnd()) {
+        return -1;
+    }
+    iterator it = upperBound(key);
+    if (it.isEnd()) {
+        return m_count;
+    }
+    return rankOf(it) - 1;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+bool CompactingBTree<KeyValuePair, Compare, hasRank>::verify() const
+{
+    if (m_root == NULL) {
+        if (m_count != 0 || m_first != NULL || m_last != NULL || m_leafAllocator.count() != 0) {
+            printf("Empty tree has %ld entries or dangling leaves\n", (long)m_count);
+            return false;
+        }
+        return true;
+    }
+    if (m_root->parent != NULL) {
+        printf("Root has a parent\n");
+        return false;
+    }
+    int64_t count = verify(m_root, m_height, NULL, NULL);
+    if (count != m_count) {
+        printf("Tree holds %ld entries, expected %ld\n", (long)count, (long)m_count);
+        return false;
+    }
+
+    // walk the leaf chain in both directions
+    int64_t leaves = 0;
+    int64_t chained = 0;
+    const LeafNode *prev = NULL;
+    for (const LeafNode *leaf = m_first; leaf != NULL; leaf = leaf->next) {
+        if (leaf->prev != prev) {
+            printf("Broken leaf chain\n");
+            return false;
+        }
+        if (prev != NULL && prev->count > 0 && leaf->count > 0) {
+            int cmp = m_comper(prev->kv[prev->count - 1].getKey(), leaf->kv[0].getKey());
+            if (cmp > 0 || (m_unique && cmp == 0)) {
+                printf("Leaves out of order\n");
+                return false;
+            }
+        }
+        ++leaves;
+        chained += leaf->count;
+        prev = leaf;
+    }
+    if (prev != m_last || chained != m_count || leaves != m_leafAllocator.count()) {
+        printf("Leaf chain covers %ld leaves and %ld entries, expected %ld and %ld\n",
+               (long)leaves, (long)chained, (long)m_leafAllocator.count(), (long)m_count);
+        return false;
+    }
+    return true;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+int64_t CompactingBTree<KeyValuePair, Compare, hasRank>::verify(const NodeBase *node, int level,
+                                                                 const Key *low, const Key *high) const
+{
+    if (node->isLeaf != (level == 0)) {
+        printf("Leaves at uneven depth\n");
+        return -1;
+    }
+    // Leaves split off by ascending inserts may start below LEAF_MIN, but
+    // only the root leaf may ever be empty.
+    if (node != m_root && node->count < (node->isLeaf ? 1 : INNER_MIN)) {
+        printf("Underfull node with %d slots\n", node->count);
+        return -1;
+    }
+
+    if (node->isLeaf) {
+        const LeafNode *leaf = static_cast<const LeafNode*>(node);
+        for (int32_t i = 0; i < leaf->count; ++i) {
+            const Key &key = leaf->kv[i].getKey();
+            if ((low != NULL && m_comper(key, *low) < 0) || (high != NULL && m_comper(key, *high) > 0)) {
+                printf("Leaf entry outside of its separators\n");
+                return -1;
+            }
+            if (i > 0) {
+                int cmp = m_comper(leaf->kv[i - 1].getKey(), key);
+                if (cmp > 0 || (m_unique && cmp == 0)) {
+                    printf("Leaf entries out of order\n");
+                    return -1;
+                }
+            }
+        }
+        return leaf->count;
+    }
+
+    const InnerNode *inner = static_cast<const InnerNode*>(node);
+    int64_t total = 0;
+    for (int32_t i = 0; i < inner->count; ++i) {
+        const NodeBase *child = inner->children[i];
+        if (child->parent != inner) {
+            printf("Child has a wrong parent pointer\n");
+            return -1;
+        }
+        if (i > 1 && m_comper(inner->keys[i - 2], inner->keys[i - 1]) > 0) {
+            printf("Separators out of order\n");
+            return -1;
+        }
+        int64_t sub = verify(child,
+                             level - 1,
+                             (i > 0) ? &inner->keys[i - 1] : low,
+                             (i < inner->count - 1) ? &inner->keys[i] : high);
+        if (sub < 0) {
+            return -1;
+        }
+        if (hasRank && inner->subct[i] != sub) {
+            printf("Child count %ld does not match %ld entries\n", (long)inner->subct[i], (long)sub);
+            return -1;
+        }
+        total += sub;
+    }
+    return total;
+}
+
+template<typename KeyValuePair, typename Compare, bool hasRank>
+bool CompactingBTree<KeyValuePair, Compare, hasRank>::verifyRank() const
+{
+    if (!hasRank) {
+        return true;
+    }
+
+    iterator scan = begin();
+    for (int64_t i = 1; i <= m_count; i++) {
+        iterator it = findRank(i);
+        if (it.isEnd() || !it.equals(scan)) {
+            printf("Rank %ld does not land on the %ld-th entry\n", (long)i, (long)i);
+            return false;
+        }
+        if (rankOf(it) != i) {
+            printf("Entry at rank %ld reports rank %ld\n", (long)i, (long)rankOf(it));
+            return false;
+        }
+        int64_t rkLower = rankLower(it.key());
+        int64_t rkUpper = rankUpper(it.key());
+        if (rkLower > i || rkUpper < i || (m_unique && rkLower != i)) {
+            printf("Rank %ld outside of [rankLower %ld, rankUpper %ld]\n", (long)i, (long)rkLower, (long)rkUpper);
+            return false;
+        }
+        scan.moveNext();
+    }
+    return true;
+}
+
+} // namespace voltdb
+
+#endif // COMPACTINGBTREE_H_
@@ -174,6 +174,16 @@ namespace voltdb {
         /** Return bytes used for this index */
         size_t bytesAllocated() const { return m_allocator.bytesAllocated() + TABLE_SIZES[m_sizeIndex] * sizeof(HashNode*); }
 
+        /** Call visitor(hash) with the hash of each key, once per bucket node */
+        template<typename Visitor>
+        void visitKeyHashes(Visitor &visitor) const {
+            for (uint64_t i = 0; i < TABLE_SIZES[m_sizeIndex]; ++i) {
+                for (const HashNode *node = m_buckets[i]; node; node = node->nextInBucket) {
+                    visitor(node->hash);
+                }
+            }
+        }
+
         /** verification for debugging and testing */
         bool verify();
         /** Do we have a cached last buffer?  This is used in testing. */
@@ -404,6 +404,12 @@ public class HostMessenger implements SocketJoiner.JoinHandler, InterfaceToMesse
     private final JoinAcceptor m_acceptor;
 
     private static final String SECONDARY_PICONETWORK_THREADS = "secondaryPicoNetworkThreads";
+    /*
+     * Stripe inter-host traffic across secondary PicoNetwork connections to every remote host
+     * rather than only to the hosts in this host's partition group. Must be set consistently
+     * on all hosts in the cluster.
+     */
+    private static final boolean STRIPE_ALL_HOSTS = Boolean.getBoolean("stripeAllPicoNetworkHosts");
 
     public Mailbox getMailbox(long hsId) {
         return m_siteMailboxes.get(hsId);
@@ -1788,6 +1794,10 @@ public class HostMessenger implements SocketJoiner.JoinHandler, InterfaceToMesse
             strBuilder.append(">");
             hostLog.info("Host " + strBuilder.toString() + " belongs to the same partition group.");
         }
+        if (STRIPE_ALL_HOSTS) {
+            partitionGroupPeers = Sets.newHashSet(getLiveHostIds());
+            hostLog.info("Striping PicoNetwork connections to all hosts.");
+        }
         partitionGroupPeers.remove(m_localHostId);
         m_peers = partitionGroupPeers;
         if (m_peers.isEmpty()) { /* when K-factor = 0 */
@@ -1820,6 +1830,10 @@ public class HostMessenger implements SocketJoiner.JoinHandler, InterfaceToMesse
         int targetConnectionsWithinPG = Math.min( connectionsWithoutPG, CoreUtils.availableProcessors() / 4);
 
         int secondaryConnections = (targetConnectionsWithinPG - 1) / existingConnectionsWithinPG;
+        if (STRIPE_ALL_HOSTS) {
+            // Every remote host counts as a peer, so the even-distribution target above rounds down to zero
+            secondaryConnections = Math.max(1, secondaryConnections);
+        }
         Integer configNumberOfConnections = Integer.getInteger(SECONDARY_PICONETWORK_THREADS);
         if (configNumberOfConnections != null) {
             secondaryConnections = configNumberOfConnections;
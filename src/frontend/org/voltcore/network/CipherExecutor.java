@@ -28,6 +28,8 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.net.ssl.SSLEngine;
 
@@ -48,13 +50,20 @@ public enum CipherExecutor {
     public final static int FRAME_SHIFT = 14; // 16384 (max TLS fragment)
     public final static int FRAME_SIZE = 1 << FRAME_SHIFT;
 
-    volatile ListeningExecutorService m_es;
+    // One single threaded executor per worker, or null when the service is not active
+    volatile ListeningExecutorService[] m_es;
     AtomicBoolean m_active = new AtomicBoolean(false);
     final int m_threadCount;
+    private final AtomicInteger m_nextWorker = new AtomicInteger(0);
+    private final WorkerStats[] m_stats;
 
     private CipherExecutor(int nthreads) {
         m_threadCount = nthreads;
-        m_es = CoreUtils.LISTENINGSAMETHREADEXECUTOR;
+        m_es = null;
+        m_stats = new WorkerStats[nthreads];
+        for (int ii = 0; ii < nthreads; ++ii) {
+            m_stats[ii] = new WorkerStats();
+        }
     }
 
     private static final int getWishedThreadCount() {
@@ -68,22 +77,56 @@ public enum CipherExecutor {
         return Math.max(2, coreCount/2);
     }
 
+    /**
+     * Assign a worker to a new connection. All of the connection's encrypt and decrypt
+     * tasks are submitted to that worker so its {@link SSLEngine} state stays on one
+     * thread. Workers are handed out round robin.
+     *
+     * @return worker index to pass to {@link #submit(int, Runnable)}
+     */
+    public int assignWorker() {
+        final int worker = Math.floorMod(m_nextWorker.getAndIncrement(), m_threadCount);
+        m_stats[worker].m_connections.increment();
+        return worker;
+    }
+
+    public int getThreadCount() {
+        return m_threadCount;
+    }
+
     /**
      * Guarantee execution of the given {@link Runnable} whether or not its
      * executor service is active. When it is not the {@link Runnable} is
      * executed in situ on the same thread that invokes this method
      *
+     * @param worker worker returned by {@link #assignWorker()}
      * @param r a {@link Runnable} task
      * @return a {@link ListenableFuture} for the given task
      */
-    final public ListenableFuture<?> submit(Runnable r) {
+    final public ListenableFuture<?> submit(int worker, Runnable r) {
+        final ListeningExecutorService[] es = m_es;
+        if (es == null) {
+            return CoreUtils.LISTENINGSAMETHREADEXECUTOR.submit(r);
+        }
         try {
-            return m_es.submit(r);
+            return es[worker].submit(r);
         } catch (RejectedExecutionException e) {
             return CoreUtils.LISTENINGSAMETHREADEXECUTOR.submit(r);
         }
     }
 
+    /**
+     * Guarantee execution of the given {@link Runnable} whether or not its
+     * executor service is active. When it is not the {@link Runnable} is
+     * executed in situ on the same thread that invokes this method
+     *
+     * @param r a {@link Runnable} task
+     * @return a {@link ListenableFuture} for the given task
+     */
+    final public ListenableFuture<?> submit(Runnable r) {
+        return submit(Math.floorMod(m_nextWorker.getAndIncrement(), m_threadCount), r);
+    }
+
     /**
      * Guarantee execution of the given {@link Callable&lt;T&gt;} whether or not its
      * executor service is active. When it is not the {@link Callable&lt;T&gt;} is
@@ -93,8 +136,12 @@ public enum CipherExecutor {
      * @return a {@link ListenableFuture&lt;T&gt;} for the given task
      */
     final public <T> ListenableFuture<T> submit(Callable<T> c) {
+        final ListeningExecutorService[] es = m_es;
+        if (es == null) {
+            return CoreUtils.LISTENINGSAMETHREADEXECUTOR.submit(c);
+        }
         try {
-            return m_es.submit(c);
+            return es[Math.floorMod(m_nextWorker.getAndIncrement(), m_threadCount)].submit(c);
         } catch (RejectedExecutionException e) {
             return CoreUtils.LISTENINGSAMETHREADEXECUTOR.submit(c);
         }
@@ -105,8 +152,11 @@ public enum CipherExecutor {
             synchronized(this) {
                 ThreadFactory thrdfct = CoreUtils.getThreadFactory(
                         name () + " SSL cipher service", CoreUtils.MEDIUM_STACK_SIZE);
-                m_es = MoreExecutors.listeningDecorator(
-                        Executors.newFixedThreadPool(m_threadCount, thrdfct));
+                ListeningExecutorService[] es = new ListeningExecutorService[m_threadCount];
+                for (int ii = 0; ii < m_threadCount; ++ii) {
+                    es[ii] = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor(thrdfct));
+                }
+                m_es = es;
             }
         }
     }
@@ -114,12 +164,16 @@ public enum CipherExecutor {
     public void shutdown() {
         if (m_active.compareAndSet(true, false)) {
             synchronized(this) {
-                ListeningExecutorService es = m_es;
-                if (es != CoreUtils.LISTENINGSAMETHREADEXECUTOR) {
-                    m_es = CoreUtils.LISTENINGSAMETHREADEXECUTOR;
-                    es.shutdown();
+                ListeningExecutorService[] es = m_es;
+                if (es != null) {
+                    m_es = null;
+                    for (ListeningExecutorService worker : es) {
+                        worker.shutdown();
+                    }
                     try {
-                        es.awaitTermination(365, TimeUnit.DAYS);
+                        for (ListeningExecutorService worker : es) {
+                            worker.awaitTermination(365, TimeUnit.DAYS);
+                        }
                     } catch (InterruptedException e) {
                         throw new RuntimeException(
                                 "Interrupted while waiting for " + name() + " cipher service shutdown",e);
@@ -129,6 +183,53 @@ public enum CipherExecutor {
         }
     }
 
+    /**
+     * Cumulative counters of the cipher work done by one worker
+     */
+    static final class WorkerStats {
+        final LongAdder m_connections = new LongAdder();
+        final LongAdder m_encryptedBytes = new LongAdder();
+        final LongAdder m_encryptNanos = new LongAdder();
+        final LongAdder m_decryptedBytes = new LongAdder();
+        final LongAdder m_decryptNanos = new LongAdder();
+        final LongAdder m_tasks = new LongAdder();
+        final LongAdder m_queuedNanos = new LongAdder();
+    }
+
+    void recordEncrypt(int worker, int bytes, long nanos) {
+        m_stats[worker].m_encryptedBytes.add(bytes);
+        m_stats[worker].m_encryptNanos.add(nanos);
+    }
+
+    void recordDecrypt(int worker, int bytes, long nanos) {
+        m_stats[worker].m_decryptedBytes.add(bytes);
+        m_stats[worker].m_decryptNanos.add(nanos);
+    }
+
+    /**
+     * Record how long a gateway task waited in its worker's queue before it ran
+     */
+    void recordQueued(int worker, long nanos) {
+        m_stats[worker].m_tasks.increment();
+        m_stats[worker].m_queuedNanos.add(nanos);
+    }
+
+    /**
+     * @return cumulative counters for a worker: connections assigned, bytes encrypted,
+     * encrypt nanos, bytes decrypted, decrypt nanos, tasks run and nanos tasks spent queued
+     */
+    public long[] getWorkerStats(int worker) {
+        final WorkerStats stats = m_stats[worker];
+        return new long[] {
+                stats.m_connections.sum(),
+                stats.m_encryptedBytes.sum(),
+                stats.m_encryptNanos.sum(),
+                stats.m_decryptedBytes.sum(),
+                stats.m_decryptNanos.sum(),
+                stats.m_tasks.sum(),
+                stats.m_queuedNanos.sum() };
+    }
+
     /*
      * To check for allocator leaks start your JVM with the following property set
      * -Dio.netty.leakDetectionLevel=PARANOID
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.GatheringByteChannel;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.concurrent.TimeUnit;
 
@@ -41,13 +42,23 @@ public abstract class NIOWriteStreamBase {
 
     protected boolean m_isShutdown = false;
 
-    protected BBContainer m_currentWriteBuffer = null;
-
     /**
      * Contains serialized buffers ready to write to the socket
      */
     protected final ArrayDeque<BBContainer> m_queuedBuffers = new ArrayDeque<BBContainer>();
 
+    /**
+     * Serialized buffers that have been flipped for reading and handed to the socket, but
+     * not yet completely written. Buffers move here from m_queuedBuffers once serialization
+     * into them is finished.
+     */
+    protected final ArrayDeque<BBContainer> m_drainingBuffers = new ArrayDeque<BBContainer>();
+
+    /*
+     * Reused array for gathering writes, grown as needed
+     */
+    private ByteBuffer m_gatherBuffers[] = new ByteBuffer[8];
+
     protected long m_bytesWritten = 0;
     protected long m_messagesWritten = 0;
 
@@ -78,16 +89,57 @@ public abstract class NIOWriteStreamBase {
      */
     public int getOutstandingMessageCount()
     {
-        return m_queuedBuffers.size();
+        return m_queuedBuffers.size() + m_drainingBuffers.size();
     }
 
     public boolean isEmpty()
     {
-        return m_queuedBuffers.isEmpty() && m_currentWriteBuffer == null;
+        return m_queuedBuffers.isEmpty() && m_drainingBuffers.isEmpty();
     }
 
     abstract int drainTo (final GatheringByteChannel channel) throws IOException;
 
+    /**
+     * Hand every pending serialized buffer to the channel in a single gathering write.
+     * Messages queued since the last flush were serialized back to back into pooled buffers,
+     * so a burst of small messages goes out in one system call. Fully written buffers are
+     * returned to the pool.
+     * @return number of bytes written
+     * @throws IOException
+     */
+    protected final long gatherTo(final GatheringByteChannel channel) throws IOException {
+        BBContainer c = null;
+        while ((c = m_queuedBuffers.poll()) != null) {
+            c.b().flip();
+            m_drainingBuffers.offer(c);
+        }
+        final int count = m_drainingBuffers.size();
+        if (count == 0) {
+            return 0;
+        }
+
+        if (m_gatherBuffers.length < count) {
+            m_gatherBuffers = new ByteBuffer[Integer.highestOneBit(count) << 1];
+        }
+        int ii = 0;
+        for (BBContainer pending : m_drainingBuffers) {
+            m_gatherBuffers[ii++] = pending.b();
+        }
+        final long rc;
+        try {
+            rc = channel.write(m_gatherBuffers, 0, count);
+        } finally {
+            Arrays.fill(m_gatherBuffers, 0, count, null);
+        }
+
+        //Discard fully written buffers back to the pool
+        while ((c = m_drainingBuffers.peek()) != null && !c.b().hasRemaining()) {
+            m_drainingBuffers.poll().discard();
+            m_messagesWritten++;
+        }
+        return rc;
+    }
+
     protected abstract Deque<DeferredSerialization> getQueuedWrites();
 
     /**
@@ -191,9 +243,9 @@ public abstract class NIOWriteStreamBase {
         int bytesReleased = 0;
         m_isShutdown = true;
         BBContainer c = null;
-        if (m_currentWriteBuffer != null) {
-            bytesReleased += m_currentWriteBuffer.b().remaining();
-            m_currentWriteBuffer.discard();
+        while ((c = m_drainingBuffers.poll()) != null) {
+            bytesReleased += c.b().remaining();
+            c.discard();
         }
         while ((c = m_queuedBuffers.poll()) != null) {
             //Buffer is not flipped after being written to in swap and serialize, need to do it here
@@ -74,7 +74,7 @@ public class PicoNIOWriteStream extends NIOWriteStreamBase {
     protected void updateQueued(int queued, boolean noBackpressureSignal) {}
 
     /**
-     * Drain pending buffers one at a time into the socket
+     * Drain all pending buffers into the socket using gathering writes
      * @param channel
      * @return
      * @throws IOException
@@ -84,33 +84,9 @@ public class PicoNIOWriteStream extends NIOWriteStreamBase {
         int bytesWritten = 0;
         long rc = 0;
         do {
-            /*
-             * Nothing to write
-             */
-            if (m_currentWriteBuffer == null && m_queuedBuffers.isEmpty()) {
-                break;
-            }
-
-            ByteBuffer buffer = null;
-            if (m_currentWriteBuffer == null) {
-                m_currentWriteBuffer = m_queuedBuffers.poll();
-                buffer = m_currentWriteBuffer.b();
-                buffer.flip();
-            } else {
-                buffer = m_currentWriteBuffer.b();
-            }
-
-            rc = channel.write(buffer);
-
-            //Discard the buffer back to a pool if no data remains
-            if (!buffer.hasRemaining()) {
-                m_currentWriteBuffer.discard();
-                m_currentWriteBuffer = null;
-                m_messagesWritten++;
-            }
+            rc = gatherTo(channel);
             bytesWritten += rc;
-
-        } while (rc > 0);
+        } while (rc > 0 && !m_drainingBuffers.isEmpty());
 
         m_bytesWritten += bytesWritten;
         return bytesWritten;
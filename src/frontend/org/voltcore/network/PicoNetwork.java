@@ -385,6 +385,7 @@ public class PicoNetwork implements Runnable, Connection, IOStatsIntf
             final long read = m_readStream.getBytesRead(interval);
             final long writeInfo[] = m_writeStream.getBytesAndMessagesWritten(interval);
             final long messagesRead = m_messagesRead;
+            final long queueDepth = m_writeStream.getOutstandingMessageCount();
             retval.put(
                     m_ih.connectionId(),
                     Pair.of(
@@ -393,7 +394,8 @@ public class PicoNetwork implements Runnable, Connection, IOStatsIntf
                                     read,
                                     messagesRead,
                                     writeInfo[0],
-                                    writeInfo[1]}));
+                                    writeInfo[1],
+                                    queueDepth}));
             retval.put(
                     -1L,
                     Pair.of(
@@ -402,7 +404,8 @@ public class PicoNetwork implements Runnable, Connection, IOStatsIntf
                                     read,
                                     messagesRead,
                                     writeInfo[0],
-                                    writeInfo[1] }));
+                                    writeInfo[1],
+                                    queueDepth }));
             return retval;
     }
 
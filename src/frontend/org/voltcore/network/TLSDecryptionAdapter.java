@@ -54,6 +54,7 @@ public class TLSDecryptionAdapter {
     private final ConcurrentLinkedDeque<ByteBuffer> m_decrypted = new ConcurrentLinkedDeque<>();
     private final FlexibleSemaphore m_inFlight = new FlexibleSemaphore(1);
     private final CipherExecutor m_ce;
+    private final int m_cipherWorker;
     private final DecryptionGateway m_dcryptgw;
     private final Connection m_connection;
     private final InputHandler m_inputHandler;
@@ -62,10 +63,12 @@ public class TLSDecryptionAdapter {
     private int m_needed = NOT_AVAILABLE;
 
 
-    public TLSDecryptionAdapter(Connection connection, InputHandler handler, SSLEngine sslEngine, CipherExecutor cipherExecutor) {
+    public TLSDecryptionAdapter(Connection connection, InputHandler handler, SSLEngine sslEngine,
+            CipherExecutor cipherExecutor, int cipherWorker) {
         m_connection = connection;
         m_inputHandler = handler;
         m_ce = cipherExecutor;
+        m_cipherWorker = cipherWorker;
         m_decrypter = new SSLBufferDecrypter(sslEngine);
         m_dcryptgw = new DecryptionGateway();
     }
@@ -220,13 +223,17 @@ public class TLSDecryptionAdapter {
      * it takes a view of the incoming queued buffers (that may span two BBContainers)
      * and decrypts them. It uses the assembler to gather all frames that comprise
      * a frame spanning message, otherwise it will enqueue decrypted messages to
-     * the m_descrypted queue.
+     * the m_descrypted queue. A single task run decrypts up to MAX_FRAMES_PER_TASK
+     * queued frames on this port's cipher worker before yielding the worker to
+     * other connections.
      */
     class DecryptionGateway implements Runnable {
+        private static final int MAX_FRAMES_PER_TASK = 16;
 
         private final byte[] m_overlap = new byte[m_decrypter.getPacketBufferSize()];
         private final ConcurrentLinkedDeque<NIOReadStream.Slice> m_q = new ConcurrentLinkedDeque<>();
         private final CompositeByteBuf m_msgbb = Unpooled.compositeBuffer();
+        private volatile long m_submittedNanos;
 
         synchronized void offer(NIOReadStream.Slice slice) {
             if (isDead()) {
@@ -271,11 +278,35 @@ public class TLSDecryptionAdapter {
 
         @Override
         public void run() {
-            final NIOReadStream.Slice slice = m_q.peek();
-            if (slice == null) {
-                return;
+            m_ce.recordQueued(m_cipherWorker, System.nanoTime() - m_submittedNanos);
+
+            NIOReadStream.Slice slice = null;
+            int frames = 0;
+            while ((slice = m_q.peek()) != null) {
+                if (!decrypt(slice)) {
+                    return;
+                }
+
+                synchronized(this) {
+                    m_q.poll();
+                    slice.markConsumed().discard();
+                    m_inFlight.release();
+                    if (m_q.peek() == null) {
+                        return;
+                    }
+                    if (++frames == MAX_FRAMES_PER_TASK) {
+                        submitSelf();
+                        return;
+                    }
+                }
             }
+        }
 
+        /**
+         * Decrypt one TLS frame and queue any messages it completes
+         * @return false if this gateway should stop processing frames
+         */
+        private boolean decrypt(final NIOReadStream.Slice slice) {
             ByteBuf src = slice.bb;
 
             if (isDead()) {
@@ -283,7 +314,7 @@ public class TLSDecryptionAdapter {
                     slice.markConsumed().discard();
                     m_q.poll();
                     releaseDecryptedBuffer();
-                    return;
+                    return false;
                 }
             }
 
@@ -298,8 +329,10 @@ public class TLSDecryptionAdapter {
 
             ByteBuf dest ;
             int srcBBLength = slicebbarr[0].remaining();
+            final long startNanos = System.nanoTime();
             try {
                 dest = m_decrypter.tlsunwrap(slicebbarr[0], m_ce.allocator());
+                m_ce.recordDecrypt(m_cipherWorker, srcBBLength, System.nanoTime() - startNanos);
             } catch (TLSException e) {
                 m_inFlight.release();
                 m_exceptions.offer(new ExecutionException("fragment decrypt task failed", e));
@@ -307,7 +340,7 @@ public class TLSDecryptionAdapter {
                 networkLog.error("isDead()=" + isDead() + ", Src buffer original length: " + srcBBLength +
                         ", Length after decrypt operation: " + slicebbarr[0].remaining());
                 m_connection.enableWriteSelection();
-                return;
+                return false;
             }
             assert !slicebbarr[0].hasRemaining() : "decrypter did not wholly consume the source buffer";
 
@@ -349,18 +382,12 @@ public class TLSDecryptionAdapter {
                 dest.release();
                 releaseDecryptedBuffer();
             }
-            synchronized(this) {
-                m_q.poll();
-                slice.markConsumed().discard();
-                m_inFlight.release();
-                if (m_q.peek() != null) {
-                    submitSelf();
-                }
-            }
+            return true;
         }
 
         void submitSelf() {
-            ListenableFuture<?> fut = m_ce.submit(this);
+            m_submittedNanos = System.nanoTime();
+            ListenableFuture<?> fut = m_ce.submit(m_cipherWorker, this);
             fut.addListener(new ExceptionListener(fut), CoreUtils.LISTENINGSAMETHREADEXECUTOR);
         }
 
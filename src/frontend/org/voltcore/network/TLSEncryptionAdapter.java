@@ -53,6 +53,7 @@ public class TLSEncryptionAdapter {
 
     private final Connection m_connection;
     private final CipherExecutor m_ce;
+    private final int m_cipherWorker;
     private final SSLEngine m_sslEngine;
     private final SSLBufferEncrypter m_encrypter;
     private final EncryptionGateway m_ecryptgw = new EncryptionGateway();
@@ -60,10 +61,12 @@ public class TLSEncryptionAdapter {
 
     public TLSEncryptionAdapter(Connection connection,
                                 SSLEngine engine,
-                                CipherExecutor cipherExecutor) {
+                                CipherExecutor cipherExecutor,
+                                int cipherWorker) {
         m_connection = connection;
         m_sslEngine = engine;
         m_ce = cipherExecutor;
+        m_cipherWorker = cipherWorker;
         m_encrypter = new SSLBufferEncrypter(engine);
     }
 
@@ -278,10 +281,15 @@ public class TLSEncryptionAdapter {
      * it takes an encryption request offer, divides it into chunks that
      * can be handled wholly by SSLEngine wrap, and queues all the
      * encrypted frames to the m_encrypted queue. All faults are queued
-     * to the m_exceptions queue
+     * to the m_exceptions queue. A single task run encrypts up to
+     * MAX_FRAMES_PER_TASK queued frames on this stream's cipher worker
+     * before yielding the worker to other connections.
      */
     class EncryptionGateway implements Runnable {
+        private static final int MAX_FRAMES_PER_TASK = 16;
+
         private final ConcurrentLinkedDeque<SerializedMessages> m_q = new ConcurrentLinkedDeque<>();
+        private volatile long m_submittedNanos;
 
         synchronized void offer(SerializedMessages frame) {
             final boolean wasEmpty = m_q.isEmpty();
@@ -311,25 +319,49 @@ public class TLSEncryptionAdapter {
 
         @Override
         public void run() {
-            SerializedMessages messages = m_q.peek();
-            if (messages == null) {
-                return;
+            m_ce.recordQueued(m_cipherWorker, System.nanoTime() - m_submittedNanos);
+
+            SerializedMessages messages = null;
+            int frames = 0;
+            while ((messages = m_q.peek()) != null) {
+                if (!encrypt(messages)) {
+                    return;
+                }
+
+                synchronized(this) {
+                    m_q.poll();
+                    if (m_q.peek() == null || m_isShutdown) {
+                        return;
+                    }
+                    if (++frames == MAX_FRAMES_PER_TASK) {
+                        submitSelf();
+                        return;
+                    }
+                }
             }
+        }
 
+        /**
+         * Encrypt one frame of messages and queue the result for draining
+         * @return false if this gateway should stop processing frames
+         */
+        private boolean encrypt(SerializedMessages messages) {
             try {
                 int clearTextSize = messages.m_messages.readableBytes();
                 ByteBuf encr;
+                final long startNanos = System.nanoTime();
                 try {
                     encr = m_encrypter.tlswrap(messages.m_messages, m_ce.allocator());
                 } catch (TLSException e) {
                     m_exceptions.offer(new ExecutionException("failed to encrypt frame", e));
                     m_connection.enableWriteSelection();
-                    return;
+                    return false;
                 }
+                m_ce.recordEncrypt(m_cipherWorker, clearTextSize, System.nanoTime() - startNanos);
 
                 if (m_isShutdown) {
                     encr.release();
-                    return;
+                    return false;
                 }
 
                 m_encryptedQueue.offer(new EncryptedMessages(encr, messages.m_count, clearTextSize));
@@ -345,19 +377,13 @@ public class TLSEncryptionAdapter {
                     // If the connection gets closed for some reason we will get this error.
                     // OK to ignore and return immediately
                     s_networkLog.debug("CancelledKeyException while trying to enable write", e);
-                    return;
+                    return false;
                 }
             } finally {
                 messages.m_messages.release();
                 m_inFlight.release();
             }
-
-            synchronized(this) {
-                m_q.poll();
-                if (m_q.peek() != null && !m_isShutdown) {
-                    submitSelf();
-                }
-            }
+            return true;
         }
 
         boolean isEmpty() {
@@ -365,7 +391,8 @@ public class TLSEncryptionAdapter {
         }
 
         void submitSelf() {
-            ListenableFuture<?> fut = m_ce.submit(this);
+            m_submittedNanos = System.nanoTime();
+            ListenableFuture<?> fut = m_ce.submit(m_cipherWorker, this);
             fut.addListener(new ExceptionListener(fut), CoreUtils.LISTENINGSAMETHREADEXECUTOR);
         }
     }
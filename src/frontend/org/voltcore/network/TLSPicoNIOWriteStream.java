@@ -34,9 +34,10 @@ public class TLSPicoNIOWriteStream extends PicoNIOWriteStream {
 
     private final TLSEncryptionAdapter m_tlsEncryptionAdapter;
 
-    public TLSPicoNIOWriteStream(Connection connection, SSLEngine engine, CipherExecutor cipherExecutor)
+    public TLSPicoNIOWriteStream(Connection connection, SSLEngine engine, CipherExecutor cipherExecutor,
+            int cipherWorker)
     {
-        m_tlsEncryptionAdapter = new TLSEncryptionAdapter(connection, engine, cipherExecutor);
+        m_tlsEncryptionAdapter = new TLSEncryptionAdapter(connection, engine, cipherExecutor, cipherWorker);
     }
 
     /**
@@ -87,8 +87,9 @@ public class TLSPicoNetwork extends PicoNetwork
     }
 
     protected void startSetup() {
-        m_tlsDecryptAdapter = new TLSDecryptionAdapter(this, m_ih, m_sslEngine, m_cipherExecutor);
-        m_writeStream = new TLSPicoNIOWriteStream(this, m_sslEngine, m_cipherExecutor);
+        final int cipherWorker = m_cipherExecutor.assignWorker();
+        m_tlsDecryptAdapter = new TLSDecryptionAdapter(this, m_ih, m_sslEngine, m_cipherExecutor, cipherWorker);
+        m_writeStream = new TLSPicoNIOWriteStream(this, m_sslEngine, m_cipherExecutor, cipherWorker);
     }
 
     protected void dispatchReadStream() throws IOException {
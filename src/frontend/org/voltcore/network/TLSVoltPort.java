@@ -34,6 +34,7 @@ public class TLSVoltPort extends VoltPort  {
     private final TLSDecryptionAdapter m_tlsDecryptAdapter;
     private final SSLEngine m_sslEngine;
     private final CipherExecutor m_cipherExecutor;
+    private final int m_cipherWorker;
 
     public TLSVoltPort(VoltNetwork network, InputHandler handler,
             InetSocketAddress remoteAddress, NetworkDBBPool pool,
@@ -41,7 +42,8 @@ public class TLSVoltPort extends VoltPort  {
         super(network, handler, remoteAddress, pool);
         m_sslEngine = sslEngine;
         m_cipherExecutor = cipherExecutor;
-        m_tlsDecryptAdapter = new TLSDecryptionAdapter(this, handler, sslEngine, cipherExecutor);
+        m_cipherWorker = cipherExecutor.assignWorker();
+        m_tlsDecryptAdapter = new TLSDecryptionAdapter(this, handler, sslEngine, cipherExecutor, m_cipherWorker);
     }
 
     @Override
@@ -54,7 +56,7 @@ public class TLSVoltPort extends VoltPort  {
                 m_handler.offBackPressure(),
                 m_handler.onBackPressure(),
                 m_handler.writestreamMonitor(),
-                m_sslEngine, m_cipherExecutor);
+                m_sslEngine, m_cipherExecutor, m_cipherWorker);
         m_interestOps = key.interestOps();
     }
 
@@ -310,9 +310,7 @@ public class VoltNIOWriteStream extends NIOWriteStreamBase implements WriteStrea
 
     /**
      * Does the work of queueing addititional buffers that have been serialized
-     * and choosing between gathering and regular writes to the channel. Also splits up very large
-     * writes of HeapByteBuffers into many smaller writes so Java doesn't allocate a monster DirectByteBuffer
-     * that will never be freed
+     * and handing them to the channel with gathering writes
      * @param channel
      * @return
      * @throws IOException
@@ -326,30 +324,16 @@ public class VoltNIOWriteStream extends NIOWriteStreamBase implements WriteStrea
                 /*
                  * Nothing to write
                  */
-                if (m_currentWriteBuffer == null && m_queuedBuffers.isEmpty()) {
+                if (m_drainingBuffers.isEmpty() && m_queuedBuffers.isEmpty()) {
                     return bytesWritten;
                 }
 
-                ByteBuffer buffer = null;
-                if (m_currentWriteBuffer == null) {
-                    m_currentWriteBuffer = m_queuedBuffers.poll();
-                    buffer = m_currentWriteBuffer.b();
-                    buffer.flip();
-                } else {
-                    buffer = m_currentWriteBuffer.b();
-                }
-
-                rc = channel.write(buffer);
+                rc = gatherTo(channel);
 
-                //Discard the buffer back to a pool if no data remains
-                if (buffer.hasRemaining()) {
+                if (!m_drainingBuffers.isEmpty()) {
                     if (!m_hadBackPressure) {
                         backpressureStarted();
                     }
-                } else {
-                    m_currentWriteBuffer.discard();
-                    m_currentWriteBuffer = null;
-                    m_messagesWritten++;
                 }
                 bytesWritten += rc;
 
@@ -357,7 +341,7 @@ public class VoltNIOWriteStream extends NIOWriteStreamBase implements WriteStrea
         } finally {
             //We might fail after writing few bytes. make sure the ones that are written accounted for.
             //Not sure if we need to do any backpressure magic as client is dead and so no backpressure on this may be needed.
-            if (m_queuedBuffers.isEmpty() && m_hadBackPressure && m_queuedWrites.size() <= m_maxQueuedWritesBeforeBackpressure) {
+            if (m_queuedBuffers.isEmpty() && m_drainingBuffers.size() <= 1 && m_hadBackPressure && m_queuedWrites.size() <= m_maxQueuedWritesBeforeBackpressure) {
                 backpressureEnded();
             }
             //Same here I dont know if we do need to do this housekeeping??
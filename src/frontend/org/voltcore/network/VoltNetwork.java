@@ -99,6 +99,13 @@ class VoltNetwork implements Runnable, IOStatsIntf
     private final Selector m_selector;
     private static final VoltLogger m_logger = new VoltLogger(VoltNetwork.class.getName());
     private static final VoltLogger networkLog = new VoltLogger("NETWORK");
+    /*
+     * Leave a port's selection interests installed while its callbacks run instead of clearing
+     * and reinstalling them around every dispatch. Ports only run on their network thread, so
+     * the registration behaves like an edge triggered one and each ready port costs no
+     * epoll_ctl calls unless its interests actually changed.
+     */
+    private static final boolean RETAIN_INTEREST_OPS = Boolean.getBoolean("NETWORK_RETAIN_INTEREST_OPS");
     private final ConcurrentLinkedQueue<Runnable> m_tasks = new ConcurrentLinkedQueue<Runnable>();
     private volatile boolean m_shouldStop = false;//volatile boolean is sufficient
     private final Thread m_thread;
@@ -407,7 +414,11 @@ class VoltNetwork implements Runnable, IOStatsIntf
         SelectionKey key = port.getKey();
 
         if (key.isValid()) {
-            key.interestOps (port.interestOps());
+            // Setting unchanged interests still costs an epoll_ctl on the next select
+            final int interestOps = port.interestOps();
+            if (key.interestOps() != interestOps) {
+                key.interestOps(interestOps);
+            }
         } else {
             m_ports.remove(port);
             m_numPorts.decrementAndGet();
@@ -417,7 +428,9 @@ class VoltNetwork implements Runnable, IOStatsIntf
     private void callPort(final VoltPort port) {
         try {
             port.lockForHandlingWork();
-            port.getKey().interestOps(0);
+            if (!RETAIN_INTEREST_OPS) {
+                port.getKey().interestOps(0);
+            }
             port.run();
         } catch (CancelledKeyException e) {
             port.m_running = false;
@@ -505,14 +518,17 @@ class VoltNetwork implements Runnable, IOStatsIntf
         long totalMessagesRead = 0;
         long totalWritten = 0;
         long totalMessagesWritten = 0;
+        long totalQueueDepth = 0;
         for (VoltPort p : m_ports) {
             final long read = p.readStream().getBytesRead(interval);
             final long writeInfo[] = p.writeStream().getBytesAndMessagesWritten(interval);
             final long messagesRead = p.getMessagesRead(interval);
+            final long queueDepth = p.writeStream().getOutstandingMessageCount();
             totalRead += read;
             totalMessagesRead += messagesRead;
             totalWritten += writeInfo[0];
             totalMessagesWritten += writeInfo[1];
+            totalQueueDepth += queueDepth;
             retval.put(
                     p.connectionId(),
                     Pair.of(
@@ -521,7 +537,8 @@ class VoltNetwork implements Runnable, IOStatsIntf
                                     read,
                                     messagesRead,
                                     writeInfo[0],
-                                    writeInfo[1] }));
+                                    writeInfo[1],
+                                    queueDepth }));
         }
         retval.put(
                 -1L,
@@ -531,7 +548,8 @@ class VoltNetwork implements Runnable, IOStatsIntf
                                 totalRead,
                                 totalMessagesRead,
                                 totalWritten,
-                                totalMessagesWritten }));
+                                totalMessagesWritten,
+                                totalQueueDepth }));
         return retval;
     }
 
@@ -34,9 +34,9 @@ public class VoltTLSNIOWriteStream extends VoltNIOWriteStream {
 
     public VoltTLSNIOWriteStream(Connection connection, Runnable offBackPressureCallback,
             Runnable onBackPressureCallback, QueueMonitor monitor,
-            SSLEngine engine, CipherExecutor cipherExecutor) {
+            SSLEngine engine, CipherExecutor cipherExecutor, int cipherWorker) {
         super(connection, offBackPressureCallback, onBackPressureCallback, monitor);
-        m_tlsEncryptAdapter = new TLSEncryptionAdapter(connection, engine, cipherExecutor);
+        m_tlsEncryptAdapter = new TLSEncryptionAdapter(connection, engine, cipherExecutor, cipherWorker);
     }
 
     @Override
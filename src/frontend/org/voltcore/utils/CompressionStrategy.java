@@ -14,18 +14,65 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
  */
-
 package org.voltcore.utils;
 
 import java.io.IOException;
-
+import java.nio.ByteBuffer;
 
 /**
- * Utility class for accessing a variety of com.sun.misc.Unsafe stuff
+ * A block compression codec. Snapshots, PBD segments and rejoin streams record the
+ * {@link #getId() id} of the codec that wrote them so readers can pick the matching
+ * strategy regardless of how the reader is configured. The codecs themselves and the
+ * lookup by id or name live on the server, in {@code org.voltdb.utils.CompressionService},
+ * so this class stays usable by the client.
+ * <p>
+ * The {@link ByteBuffer} methods follow Snappy's conventions: they operate on direct
+ * buffers from {@code position()} to {@code limit()}, never move the position of either
+ * buffer, and set the limit of the output buffer to the end of the data written.
  */
 public abstract class CompressionStrategy {
 
+    /**
+     * @return identifier of this codec as stored in file and message headers, never reused
+     */
+    public abstract byte getId();
+
+    /**
+     * @return name of this codec as used in configuration and snapshot headers
+     */
+    public abstract String getName();
+
     public abstract byte[] compress(byte data[]) throws IOException;
     public abstract byte[] uncompress(byte data[]) throws IOException;
 
+    /**
+     * @return the largest size {@code uncompressedLength} bytes may compress to
+     */
+    public abstract int maxCompressedLength(int uncompressedLength);
+
+    /**
+     * Compress {@code uncompressed} into {@code compressed}, which must have room for
+     * {@link #maxCompressedLength(int)} bytes.
+     *
+     * @return the compressed size
+     */
+    public abstract int compress(ByteBuffer uncompressed, ByteBuffer compressed) throws IOException;
+
+    /**
+     * @return the size {@code compressed} will uncompress to
+     */
+    public abstract int uncompressedLength(ByteBuffer compressed) throws IOException;
+
+    /**
+     * Uncompress {@code compressed} into {@code uncompressed}, which must have room for
+     * {@link #uncompressedLength(ByteBuffer)} bytes.
+     *
+     * @return the uncompressed size
+     */
+    public abstract int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException;
+
+    @Override
+    public String toString() {
+        return getName();
+    }
 }
@@ -0,0 +1,204 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.voltcore.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * zlib deflate, much slower than Snappy or LZ4 but noticeably smaller output, for snapshots
+ * written to disks that are slower than the compression pool. The level comes from the
+ * DEFLATE_COMPRESSION_LEVEL system property. Each block is prefixed with its uncompressed
+ * size as a 4-byte int.
+ */
+public class CompressionStrategyDeflate extends CompressionStrategy {
+
+    public static final byte ID = 2;
+    public static final String NAME = "DEFLATE";
+
+    public static final CompressionStrategyDeflate INSTANCE = new CompressionStrategyDeflate();
+
+    private static final int LEVEL = Integer.getInteger("DEFLATE_COMPRESSION_LEVEL", 3);
+    private static final int LENGTH_PREFIX = 4;
+
+    /*
+     * Deflater and Inflater hold native memory until end() is called so keep one of each
+     * per thread, along with heap scratch space for working on direct buffers
+     */
+    private static final class Codec {
+        final Deflater m_deflater = new Deflater(LEVEL);
+        final Inflater m_inflater = new Inflater();
+        byte m_input[] = new byte[1024 * 32];
+        byte m_output[] = new byte[1024 * 32];
+
+        byte[] input(int length) {
+            if (m_input.length < length) {
+                m_input = new byte[Math.max(m_input.length * 2, length)];
+            }
+            return m_input;
+        }
+
+        byte[] output(int length) {
+            if (m_output.length < length) {
+                m_output = new byte[Math.max(m_output.length * 2, length)];
+            }
+            return m_output;
+        }
+    }
+
+    private static final ThreadLocal<Codec> m_codec = new ThreadLocal<Codec>() {
+        @Override
+        protected Codec initialValue() {
+            return new Codec();
+        }
+    };
+
+    private CompressionStrategyDeflate() {}
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte data[]) throws IOException {
+        byte compressed[] = new byte[maxCompressedLength(data.length)];
+        int size = deflate(data, data.length, compressed);
+        return Arrays.copyOf(compressed, size);
+    }
+
+    @Override
+    public byte[] uncompress(byte data[]) throws IOException {
+        if (data.length < LENGTH_PREFIX) {
+            throw new IOException("Truncated deflate block");
+        }
+        return Arrays.copyOf(inflate(data, data.length), uncompressedLength(ByteBuffer.wrap(data)));
+    }
+
+    @Override
+    public int maxCompressedLength(int uncompressedLength) {
+        // zlib's deflateBound plus the zlib wrapper and the length prefix
+        return LENGTH_PREFIX + uncompressedLength + (uncompressedLength >> 12) + (uncompressedLength >> 14)
+                + (uncompressedLength >> 25) + 13 + 6;
+    }
+
+    @Override
+    public int compress(ByteBuffer uncompressed, ByteBuffer compressed) throws IOException {
+        final Codec codec = m_codec.get();
+        final int length = uncompressed.remaining();
+        final byte input[] = codec.input(length);
+        final byte output[] = codec.output(maxCompressedLength(length));
+        uncompressed.duplicate().get(input, 0, length);
+        final int size = deflate(input, length, output);
+
+        final ByteBuffer out = compressed.duplicate();
+        out.limit(out.capacity());
+        out.put(output, 0, size);
+        compressed.limit(compressed.position() + size);
+        return size;
+    }
+
+    @Override
+    public int uncompressedLength(ByteBuffer compressed) throws IOException {
+        if (compressed.remaining() < LENGTH_PREFIX) {
+            throw new IOException("Truncated deflate block");
+        }
+        return checkLength(compressed.getInt(compressed.position()));
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+        final Codec codec = m_codec.get();
+        final int length = uncompressedLength(compressed);
+        final int compressedLength = compressed.remaining();
+        final byte input[] = codec.input(compressedLength);
+        compressed.duplicate().get(input, 0, compressedLength);
+        final byte output[] = inflate(input, compressedLength);
+
+        final ByteBuffer out = uncompressed.duplicate();
+        out.limit(out.capacity());
+        out.put(output, 0, length);
+        uncompressed.limit(uncompressed.position() + length);
+        return length;
+    }
+
+    /*
+     * Compress the first length bytes of input into output after a length prefix,
+     * returning the total bytes written to output
+     */
+    private static int deflate(byte input[], int length, byte output[]) throws IOException {
+        final Deflater deflater = m_codec.get().m_deflater;
+        deflater.reset();
+        ByteBuffer.wrap(output).putInt(length);
+        deflater.setInput(input, 0, length);
+        deflater.finish();
+        int size = LENGTH_PREFIX;
+        while (!deflater.finished()) {
+            if (size == output.length) {
+                throw new IOException("Deflate output exceeded its bound for " + length + " bytes");
+            }
+            size += deflater.deflate(output, size, output.length - size);
+        }
+        return size;
+    }
+
+    /*
+     * Uncompress a block written by deflate from the first length bytes of input into
+     * this thread's scratch output, which has at least one spare byte to catch blocks
+     * that inflate to more than their prefix says
+     */
+    private static byte[] inflate(byte input[], int length) throws IOException {
+        final Codec codec = m_codec.get();
+        final Inflater inflater = codec.m_inflater;
+        final int expected = checkLength(ByteBuffer.wrap(input).getInt());
+        final byte output[] = codec.output(expected + 1);
+        inflater.reset();
+        inflater.setInput(input, LENGTH_PREFIX, length - LENGTH_PREFIX);
+        try {
+            int size = 0;
+            while (!inflater.finished() && size < output.length) {
+                int inflated = inflater.inflate(output, size, output.length - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += inflated;
+            }
+            if (size != expected || !inflater.finished()) {
+                throw new IOException("Corrupt deflate block, expected " + expected + " bytes");
+            }
+            return output;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static int checkLength(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Invalid deflate block length " + length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,142 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.voltcore.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * LZ4 block compression, faster than Snappy to compress and decompress for a similar ratio.
+ * LZ4 blocks don't record their uncompressed size so each block is prefixed with it as a
+ * 4-byte int.
+ */
+public class CompressionStrategyLZ4 extends CompressionStrategy {
+
+    public static final byte ID = 1;
+    public static final String NAME = "LZ4";
+
+    public static final CompressionStrategyLZ4 INSTANCE = new CompressionStrategyLZ4();
+
+    private static final int LENGTH_PREFIX = 4;
+
+    private final LZ4Compressor m_compressor;
+    private final LZ4SafeDecompressor m_decompressor;
+
+    private CompressionStrategyLZ4() {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        m_compressor = factory.fastCompressor();
+        m_decompressor = factory.safeDecompressor();
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte data[]) throws IOException {
+        byte compressed[] = new byte[maxCompressedLength(data.length)];
+        ByteBuffer.wrap(compressed).putInt(data.length);
+        try {
+            int size = m_compressor.compress(data, 0, data.length, compressed, LENGTH_PREFIX,
+                    compressed.length - LENGTH_PREFIX);
+            return Arrays.copyOf(compressed, LENGTH_PREFIX + size);
+        } catch (LZ4Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public byte[] uncompress(byte data[]) throws IOException {
+        if (data.length < LENGTH_PREFIX) {
+            throw new IOException("Truncated LZ4 block");
+        }
+        byte uncompressed[] = new byte[checkLength(ByteBuffer.wrap(data).getInt())];
+        try {
+            int size = m_decompressor.decompress(data, LENGTH_PREFIX, data.length - LENGTH_PREFIX, uncompressed, 0);
+            if (size != uncompressed.length) {
+                throw new IOException("LZ4 block uncompressed to " + size + " bytes, expected " + uncompressed.length);
+            }
+            return uncompressed;
+        } catch (LZ4Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public int maxCompressedLength(int uncompressedLength) {
+        return LENGTH_PREFIX + m_compressor.maxCompressedLength(uncompressedLength);
+    }
+
+    @Override
+    public int compress(ByteBuffer uncompressed, ByteBuffer compressed) throws IOException {
+        final int length = uncompressed.remaining();
+        final int start = compressed.position();
+        try {
+            int size = m_compressor.compress(uncompressed, uncompressed.position(), length,
+                    compressed, start + LENGTH_PREFIX, compressed.capacity() - start - LENGTH_PREFIX);
+            compressed.putInt(start, length);
+            compressed.limit(start + LENGTH_PREFIX + size);
+            return LENGTH_PREFIX + size;
+        } catch (LZ4Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public int uncompressedLength(ByteBuffer compressed) throws IOException {
+        if (compressed.remaining() < LENGTH_PREFIX) {
+            throw new IOException("Truncated LZ4 block");
+        }
+        return checkLength(compressed.getInt(compressed.position()));
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+        final int length = uncompressedLength(compressed);
+        final int start = uncompressed.position();
+        try {
+            int size = m_decompressor.decompress(compressed, compressed.position() + LENGTH_PREFIX,
+                    compressed.remaining() - LENGTH_PREFIX, uncompressed, start, length);
+            if (size != length) {
+                throw new IOException("LZ4 block uncompressed to " + size + " bytes, expected " + length);
+            }
+            uncompressed.limit(start + size);
+            return size;
+        } catch (LZ4Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static int checkLength(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Invalid LZ4 block length " + length);
+        }
+        return length;
+    }
+}
@@ -14,23 +14,36 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
  */
-
 package org.voltcore.utils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.xerial.snappy.Snappy;
 
 
 /**
- * Utility class for accessing a variety of com.sun.misc.Unsafe stuff
+ * Snappy, the codec everything was written with before the codec was recorded
  */
 public class CompressionStrategySnappy extends CompressionStrategy {
 
+    public static final byte ID = 0;
+    public static final String NAME = "SNAPPY";
+
     public static final CompressionStrategySnappy INSTANCE = new CompressionStrategySnappy();
 
     private CompressionStrategySnappy() {}
 
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
     @Override
     public byte[] compress(byte data[]) throws IOException {
         return Snappy.compress(data);
@@ -40,4 +53,24 @@ public class CompressionStrategySnappy extends CompressionStrategy {
     public byte[] uncompress(byte data[]) throws IOException {
         return Snappy.uncompress(data);
     }
+
+    @Override
+    public int maxCompressedLength(int uncompressedLength) {
+        return Snappy.maxCompressedLength(uncompressedLength);
+    }
+
+    @Override
+    public int compress(ByteBuffer uncompressed, ByteBuffer compressed) throws IOException {
+        return Snappy.compress(uncompressed, compressed);
+    }
+
+    @Override
+    public int uncompressedLength(ByteBuffer compressed) throws IOException {
+        return Snappy.uncompressedLength(compressed);
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+        return Snappy.uncompress(compressed, uncompressed);
+    }
 }
@@ -0,0 +1,136 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.voltcore.utils;
+
+import java.util.Arrays;
+
+/**
+ * Thread safe {@link LongObjectHashMap}. The key space is split over a fixed
+ * number of stripes, each a {@link LongObjectHashMap} guarded by its own
+ * monitor, so producers and consumers working on different keys rarely
+ * contend. Lookups of a single key are linearizable, {@link #keys()} and
+ * {@link #size()} are not atomic across stripes.
+ */
+public class ConcurrentLongObjectHashMap<V> {
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final LongObjectHashMap<V>[] m_stripes;
+    private final int m_mask;
+
+    public ConcurrentLongObjectHashMap() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes number of independently locked stripes, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectHashMap(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be greater than 0, " + stripes + " was specified");
+        }
+        final int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        m_stripes = (LongObjectHashMap<V>[]) new LongObjectHashMap<?>[count];
+        for (int i = 0; i < count; i++) {
+            m_stripes[i] = new LongObjectHashMap<>();
+        }
+        m_mask = count - 1;
+    }
+
+    private LongObjectHashMap<V> stripe(long key) {
+        // the low bits pick the stripe so sequential keys go round robin, the stripe
+        // itself hashes on the high bits of the product and is not skewed by this
+        return m_stripes[(int) (key ^ (key >>> 32)) & m_mask];
+    }
+
+    public V get(long key) {
+        final LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        final LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Only one of several threads racing to remove the same key gets the value back,
+     * which makes this usable to decide who gets to handle the mapping.
+     */
+    public V remove(long key) {
+        final LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (LongObjectHashMap<V> stripe : m_stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (LongObjectHashMap<V> stripe : m_stripes) {
+            synchronized (stripe) {
+                if (!stripe.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        for (LongObjectHashMap<V> stripe : m_stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the keys present in each stripe at the time it was visited. Mappings may be
+     * added or removed concurrently, callers have to expect a key to be gone by the time
+     * they look it up.
+     */
+    public long[] keys() {
+        long[] keys = new long[0];
+        int count = 0;
+        for (LongObjectHashMap<V> stripe : m_stripes) {
+            synchronized (stripe) {
+                if (keys.length - count < stripe.size()) {
+                    keys = Arrays.copyOf(keys, count + stripe.size() + 16);
+                }
+                count = stripe.copyKeys(keys, count);
+            }
+        }
+        return count == keys.length ? keys : Arrays.copyOf(keys, count);
+    }
+}
@@ -0,0 +1,237 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.voltcore.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open addressing hash map keyed by primitive longs. Avoids boxing the key
+ * and allocating an entry per mapping, which is what makes a
+ * {@code HashMap<Long, V>} expensive on paths that add and remove a mapping
+ * per message. Collisions are resolved with linear probing and removal
+ * shifts the following entries back, so there are no tombstones to clean up.
+ * <p>
+ * Null values are not supported, a null value marks an empty slot.
+ * Not thread safe, see {@link ConcurrentLongObjectHashMap}.
+ */
+public class LongObjectHashMap<V> {
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] m_keys;
+    private Object[] m_values;
+    private int m_mask;
+    private int m_shift;
+    private int m_resizeThreshold;
+    private int m_size;
+
+    public LongObjectHashMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * @param expectedSize number of mappings the map can hold without growing
+     */
+    public LongObjectHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative, " + expectedSize + " was specified");
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        // keep the load factor at or below one half
+        return Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+    }
+
+    private void allocate(int capacity) {
+        m_keys = new long[capacity];
+        m_values = new Object[capacity];
+        m_mask = capacity - 1;
+        m_shift = Long.numberOfLeadingZeros(m_mask);
+        m_resizeThreshold = capacity / 2;
+    }
+
+    /*
+     * Fibonacci hashing, spreads sequential keys such as handles and
+     * transaction ids evenly over the table
+     */
+    private int slot(long key) {
+        return (int) ((key * GOLDEN_RATIO) >>> m_shift);
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    public boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & m_mask) {
+            final Object value = m_values[i];
+            if (value == null) {
+                return null;
+            }
+            if (m_keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    /**
+     * @return the value previously mapped to the key or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongObjectHashMap does not support null values");
+        }
+        int i = slot(key);
+        for (; ; i = (i + 1) & m_mask) {
+            final Object existing = m_values[i];
+            if (existing == null) {
+                break;
+            }
+            if (m_keys[i] == key) {
+                m_values[i] = value;
+                return (V) existing;
+            }
+        }
+        m_keys[i] = key;
+        m_values[i] = value;
+        if (++m_size > m_resizeThreshold) {
+            rehash(m_values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return the value that was mapped to the key or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        for (int i = slot(key); ; i = (i + 1) & m_mask) {
+            final Object value = m_values[i];
+            if (value == null) {
+                return null;
+            }
+            if (m_keys[i] == key) {
+                closeGap(i);
+                m_size--;
+                return (V) value;
+            }
+        }
+    }
+
+    /*
+     * Backward shift deletion. Walk the run following the freed slot and move
+     * back every entry whose home slot does not lie between the gap and its
+     * current position, so lookups never stop early at the gap.
+     */
+    private void closeGap(int gap) {
+        for (int i = (gap + 1) & m_mask; m_values[i] != null; i = (i + 1) & m_mask) {
+            final int home = slot(m_keys[i]);
+            if (((i - home) & m_mask) >= ((i - gap) & m_mask)) {
+                m_keys[gap] = m_keys[i];
+                m_values[gap] = m_values[i];
+                gap = i;
+            }
+        }
+        m_values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = m_keys;
+        final Object[] oldValues = m_values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            final Object value = oldValues[i];
+            if (value != null) {
+                int slot = slot(oldKeys[i]);
+                while (m_values[slot] != null) {
+                    slot = (slot + 1) & m_mask;
+                }
+                m_keys[slot] = oldKeys[i];
+                m_values[slot] = value;
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(m_values, null);
+        m_size = 0;
+    }
+
+    /**
+     * @return a copy of the keys currently in the map, in no particular order
+     */
+    public long[] keys() {
+        final long[] keys = new long[m_size];
+        copyKeys(keys, 0);
+        return keys;
+    }
+
+    /**
+     * @return a copy of the values currently in the map, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        final List<V> values = new ArrayList<>(m_size);
+        for (int i = 0; i < m_values.length; i++) {
+            if (m_values[i] != null) {
+                values.add((V) m_values[i]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Append the keys currently in the map to the target array starting at offset.
+     * @return the offset after the last key written
+     */
+    int copyKeys(long[] target, int offset) {
+        for (int i = 0; i < m_values.length; i++) {
+            if (m_values[i] != null) {
+                target[offset++] = m_keys[i];
+            }
+        }
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < m_values.length; i++) {
+            if (m_values[i] != null) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(m_keys[i]).append('=').append(m_values[i]);
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,250 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltcore.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A multi-producer, single-consumer FIFO queue backed by pre-allocated arrays.
+ *
+ * Producers claim a slot in the tail chunk with a single atomic increment and
+ * publish the element into it, so an offer allocates nothing. When a chunk
+ * fills up the next producer links a fresh one instead of blocking, because
+ * the consumer itself (e.g. a site thread queueing work for later) may be a
+ * producer. Only one thread may call {@link #poll()}, {@link #drainTo(Object[])},
+ * {@link #take()} and {@link #clear()}; {@link #peek()}, {@link #size()} and
+ * {@link #isEmpty()} may be called from any thread but are only exact on the
+ * consumer.
+ *
+ * The consumer waits for elements according to a {@link WaitStrategy}. A parked
+ * consumer is woken by the first offer after it parked, later offers don't touch
+ * it, so a burst of offers costs a single unpark.
+ */
+public class MpscChunkedQueue<E> {
+
+    public enum WaitStrategy {
+        /** Poll until an element arrives, never give up the core */
+        SPIN,
+        /** Poll for the spin time, then park */
+        SPIN_THEN_PARK,
+        /** Park as soon as the queue is empty */
+        PARK
+    }
+
+    private static final class Chunk<E> {
+        // Position of the first slot of this chunk in the whole queue
+        final long m_base;
+        final AtomicReferenceArray<E> m_slots;
+        // Slots handed out to producers, may run past the end of the chunk
+        final AtomicInteger m_claimed = new AtomicInteger();
+        final AtomicReference<Chunk<E>> m_next = new AtomicReference<>();
+
+        Chunk(int size, long base) {
+            m_base = base;
+            m_slots = new AtomicReferenceArray<>(size);
+        }
+    }
+
+    private final int m_chunkSize;
+    private final WaitStrategy m_waitStrategy;
+    private final long m_spinNanos;
+
+    // Producers append to this chunk
+    private final AtomicReference<Chunk<E>> m_tail;
+
+    // Consumer position. m_head is volatile and m_consumed is published lazily
+    // so that other threads can peek and size the queue.
+    private volatile Chunk<E> m_head;
+    private int m_headIndex = 0;
+    private final AtomicLong m_consumed = new AtomicLong();
+
+    // Set by the consumer while it is parked
+    private volatile Thread m_parkedConsumer = null;
+
+    public MpscChunkedQueue(int chunkSize, WaitStrategy waitStrategy, long spinTime, TimeUnit unit) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        m_chunkSize = chunkSize;
+        m_waitStrategy = waitStrategy;
+        m_spinNanos = unit.toNanos(spinTime);
+        Chunk<E> first = new Chunk<>(chunkSize, 0);
+        m_tail = new AtomicReference<>(first);
+        m_head = first;
+    }
+
+    public void offer(E element) {
+        assert(element != null);
+        for (;;) {
+            Chunk<E> chunk = m_tail.get();
+            int index = chunk.m_claimed.getAndIncrement();
+            if (index < m_chunkSize) {
+                // Must be a volatile write, see take()
+                chunk.m_slots.set(index, element);
+                break;
+            }
+            // The chunk is full, link a new one (or help whoever did) and retry
+            Chunk<E> next = chunk.m_next.get();
+            if (next == null) {
+                Chunk<E> fresh = new Chunk<>(m_chunkSize, chunk.m_base + m_chunkSize);
+                next = chunk.m_next.compareAndSet(null, fresh) ? fresh : chunk.m_next.get();
+            }
+            m_tail.compareAndSet(chunk, next);
+        }
+        Thread parked = m_parkedConsumer;
+        if (parked != null) {
+            LockSupport.unpark(parked);
+        }
+    }
+
+    /**
+     * Remove the head of the queue. A slot that is claimed but not yet written
+     * reads as empty, the producer wakes the consumer once it is written.
+     * @return the head of the queue or null if empty
+     */
+    public E poll() {
+        Chunk<E> chunk = m_head;
+        int index = m_headIndex;
+        if (index == m_chunkSize) {
+            Chunk<E> next = chunk.m_next.get();
+            if (next == null) {
+                return null;
+            }
+            m_head = chunk = next;
+            m_headIndex = index = 0;
+        }
+        E element = chunk.m_slots.get(index);
+        if (element != null) {
+            chunk.m_slots.lazySet(index, null);
+            m_headIndex = index + 1;
+            m_consumed.lazySet(chunk.m_base + index + 1);
+        }
+        return element;
+    }
+
+    /**
+     * Move as many elements as are available, up to the length of {@code batch},
+     * into {@code batch}.
+     * @return the number of elements moved
+     */
+    public int drainTo(E[] batch) {
+        Chunk<E> chunk = m_head;
+        int index = m_headIndex;
+        int count = 0;
+        while (count < batch.length) {
+            if (index == m_chunkSize) {
+                Chunk<E> next = chunk.m_next.get();
+                if (next == null) {
+                    break;
+                }
+                m_head = chunk = next;
+                index = 0;
+            }
+            E element = chunk.m_slots.get(index);
+            if (element == null) {
+                break;
+            }
+            chunk.m_slots.lazySet(index, null);
+            batch[count++] = element;
+            index++;
+        }
+        m_headIndex = index;
+        if (count > 0) {
+            m_consumed.lazySet(chunk.m_base + index);
+        }
+        return count;
+    }
+
+    /**
+     * Wait for the head of the queue according to the wait strategy and remove it.
+     */
+    public E take() throws InterruptedException {
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+        if (m_waitStrategy != WaitStrategy.PARK) {
+            final long start = System.nanoTime();
+            do {
+                if ((element = poll()) != null) {
+                    return element;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            } while (m_waitStrategy == WaitStrategy.SPIN || System.nanoTime() - start < m_spinNanos);
+        }
+        final Thread self = Thread.currentThread();
+        try {
+            for (;;) {
+                // Publish that we are about to park before the last look at the queue.
+                // Producers write the slot before they check m_parkedConsumer, so
+                // either we see the element or the producer sees us and unparks.
+                m_parkedConsumer = self;
+                if ((element = poll()) != null) {
+                    return element;
+                }
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            m_parkedConsumer = null;
+        }
+    }
+
+    /**
+     * @return the head of the queue without removing it, or null if empty.
+     * Other threads may see null or an element that was just consumed.
+     */
+    public E peek() {
+        Chunk<E> chunk = m_head;
+        long index = m_consumed.get() - chunk.m_base;
+        if (index == m_chunkSize) {
+            chunk = chunk.m_next.get();
+            if (chunk == null) {
+                return null;
+            }
+            index = 0;
+        }
+        if (index < 0 || index >= m_chunkSize) {
+            return null;
+        }
+        return chunk.m_slots.get((int) index);
+    }
+
+    public int size() {
+        Chunk<E> tail = m_tail.get();
+        long produced = tail.m_base + Math.min(tail.m_claimed.get(), m_chunkSize);
+        return (int) Math.max(0, produced - m_consumed.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        while (poll() != null) {}
+    }
+}
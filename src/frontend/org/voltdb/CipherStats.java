@@ -0,0 +1,107 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.voltcore.network.CipherExecutor;
+import org.voltcore.utils.Pair;
+import org.voltdb.VoltTable.ColumnInfo;
+
+/**
+ * Encryption and decryption work done by each TLS cipher worker
+ */
+public class CipherStats extends StatsSource {
+
+    public enum Cipher {
+        CIPHER_SERVICE              (VoltType.STRING),
+        WORKER_ID                   (VoltType.INTEGER),
+        CONNECTIONS                 (VoltType.BIGINT),
+        ENCRYPTED_BYTES             (VoltType.BIGINT),
+        ENCRYPT_MB_PER_SEC          (VoltType.FLOAT),
+        DECRYPTED_BYTES             (VoltType.BIGINT),
+        DECRYPT_MB_PER_SEC          (VoltType.FLOAT),
+        TASKS                       (VoltType.BIGINT),
+        AVG_QUEUE_LATENCY_US        (VoltType.BIGINT);
+
+        public final VoltType m_type;
+        Cipher(VoltType type) { m_type = type; }
+    }
+
+    // Counters as of the last interval collection, keyed by row
+    private final Map<Pair<CipherExecutor, Integer>, long[]> m_lastCounters = new HashMap<>();
+    private boolean m_interval = false;
+
+    public CipherStats() {
+        super(false);
+    }
+
+    @Override
+    protected void populateColumnSchema(ArrayList<ColumnInfo> columns) {
+        super.populateColumnSchema(columns, Cipher.class);
+    }
+
+    @Override
+    protected Iterator<Object> getStatsRowKeyIterator(boolean interval) {
+        m_interval = interval;
+        List<Object> rows = new ArrayList<>();
+        for (CipherExecutor ce : CipherExecutor.values()) {
+            for (int worker = 0; worker < ce.getThreadCount(); ++worker) {
+                rows.add(Pair.of(ce, worker));
+            }
+        }
+        return rows.iterator();
+    }
+
+    @Override
+    protected synchronized int updateStatsRow(Object rowKey, Object[] rowValues) {
+        int offset = super.updateStatsRow(rowKey, rowValues);
+        @SuppressWarnings("unchecked")
+        final Pair<CipherExecutor, Integer> row = (Pair<CipherExecutor, Integer>) rowKey;
+        final long[] counters = row.getFirst().getWorkerStats(row.getSecond());
+        final long[] reported = counters.clone();
+        if (m_interval) {
+            final long[] last = m_lastCounters.put(row, counters);
+            if (last != null) {
+                for (int ii = 0; ii < reported.length; ++ii) {
+                    reported[ii] -= last[ii];
+                }
+            }
+        }
+
+        rowValues[offset + Cipher.CIPHER_SERVICE.ordinal()] = row.getFirst().name();
+        rowValues[offset + Cipher.WORKER_ID.ordinal()] = row.getSecond();
+        rowValues[offset + Cipher.CONNECTIONS.ordinal()] = reported[0];
+        rowValues[offset + Cipher.ENCRYPTED_BYTES.ordinal()] = reported[1];
+        rowValues[offset + Cipher.ENCRYPT_MB_PER_SEC.ordinal()] = megabytesPerSecond(reported[1], reported[2]);
+        rowValues[offset + Cipher.DECRYPTED_BYTES.ordinal()] = reported[3];
+        rowValues[offset + Cipher.DECRYPT_MB_PER_SEC.ordinal()] = megabytesPerSecond(reported[3], reported[4]);
+        rowValues[offset + Cipher.TASKS.ordinal()] = reported[5];
+        rowValues[offset + Cipher.AVG_QUEUE_LATENCY_US.ordinal()] =
+                reported[5] > 0 ? reported[6] / reported[5] / 1000 : 0L;
+        return offset + Cipher.values().length;
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return nanos > 0 ? (bytes * 1000.0) / nanos : 0.0;
+    }
+}
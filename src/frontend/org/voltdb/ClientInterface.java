@@ -963,10 +963,12 @@ public class ClientInterface implements SnapshotDaemon.DaemonInitiator {
         {
             buf.putInt(buf.capacity() - 4);
             clientResponse.flattenToBuffer(buf);
+            response.releaseResultBuffers();
         }
 
         @Override
         public void cancel() {
+            response.releaseResultBuffers();
         }
 
         public void setRestartMispartitionedTxn(boolean restart) {
@@ -989,6 +991,7 @@ public class ClientInterface implements SnapshotDaemon.DaemonInitiator {
                 clientData = cihm.findHandle(response.getClientInterfaceHandle());
             }
             if (clientData == null) {
+                response.releaseResultBuffers();
                 return DeferredSerialization.EMPTY_MESSAGE_LENGTH;
             }
 
@@ -996,6 +999,7 @@ public class ClientInterface implements SnapshotDaemon.DaemonInitiator {
             if (response.isMispartitioned() || response.isMisrouted()) {
                 // If the transaction is restarted, don't send a response to the client yet.
                 if (restartTransaction(clientData.m_messageSize, clientData.m_creationTimeNanos)) {
+                    response.releaseResultBuffers();
                     return DeferredSerialization.EMPTY_MESSAGE_LENGTH;
                 }
             }
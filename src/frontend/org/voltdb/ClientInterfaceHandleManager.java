@@ -18,14 +18,12 @@
 package org.voltdb;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import org.voltcore.logging.VoltLogger;
 import org.voltcore.network.Connection;
+import org.voltcore.utils.LongObjectHashMap;
 
 import com.google_voltpatches.common.collect.ImmutableMap;
 import com.google_voltpatches.common.collect.ImmutableMap.Builder;
@@ -108,7 +106,8 @@ public class ClientInterfaceHandleManager
 
     static class PartitionInFlightTracker {
         private final HandleGenerator m_generator;
-        private final Map<Long, Iv2InFlight> m_inFlights = new HashMap<Long, Iv2InFlight>();
+        // keyed by ci handle, primitive keys so adding and removing a handle doesn't allocate
+        private final LongObjectHashMap<Iv2InFlight> m_inFlights = new LongObjectHashMap<Iv2InFlight>();
 
         private PartitionInFlightTracker(int partitionId) {
             m_generator = new HandleGenerator(partitionId);
@@ -297,17 +296,19 @@ public class ClientInterfaceHandleManager
     private void collectAndRemovePartitionInFlightRequests(Integer partitionId, Long initiatorHSId, List<Iv2InFlight> retval) {
         PartitionInFlightTracker partitionStuff = m_trackerMap.get(partitionId);
         if (partitionStuff != null) {
-            Iterator<Entry<Long, Iv2InFlight>> iter = partitionStuff.m_inFlights.entrySet().iterator();
-            while (iter.hasNext()) {
-                Entry<Long, Iv2InFlight> entry = iter.next();
-                if (entry.getValue().m_initiatorHSId != initiatorHSId) {
+            // handles are generated in order, so this reports them in submission order
+            long[] ciHandles = partitionStuff.m_inFlights.keys();
+            Arrays.sort(ciHandles);
+            for (long ciHandle : ciHandles) {
+                Iv2InFlight inFlight = partitionStuff.m_inFlights.get(ciHandle);
+                if (inFlight.m_initiatorHSId != initiatorHSId) {
                     if (tmLog.isTraceEnabled()) {
-                        tmLog.trace("cleared response for handle " + entry.getKey());
+                        tmLog.trace("cleared response for handle " + ciHandle);
                     }
-                    iter.remove();
-                    retval.add(entry.getValue());
+                    partitionStuff.m_inFlights.remove(ciHandle);
+                    retval.add(inFlight);
                     m_outstandingTxns--;
-                    m_acg.reduceBackpressure(entry.getValue().m_messageSize);
+                    m_acg.reduceBackpressure(inFlight.m_messageSize);
                 }
             }
         }
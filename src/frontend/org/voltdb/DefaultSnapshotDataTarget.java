@@ -42,6 +42,7 @@ import org.json_voltpatches.JSONStringer;
 import org.voltcore.logging.Level;
 import org.voltcore.logging.VoltLogger;
 import org.voltcore.utils.Bits;
+import org.voltcore.utils.CompressionStrategy;
 import org.voltcore.utils.CoreUtils;
 import org.voltcore.utils.DBBPool;
 import org.voltcore.utils.DBBPool.BBContainer;
@@ -120,6 +121,12 @@ public class DefaultSnapshotDataTarget implements SnapshotDataTarget {
     static final ListeningScheduledExecutorService m_syncService = MoreExecutors.listeningDecorator(
             Executors.newSingleThreadScheduledExecutor(CoreUtils.getThreadFactory("Snapshot sync service")));
 
+    /*
+     * Codec for new snapshot files, recorded in the file header so restore picks the right one
+     */
+    public static final CompressionStrategy SNAPSHOT_COMPRESSION =
+            CompressionService.codecFromSystemProperty("SNAPSHOT_COMPRESSION");
+
     public static final int SNAPSHOT_SYNC_FREQUENCY = Integer.getInteger("SNAPSHOT_SYNC_FREQUENCY", 500);
     public static final int SNAPSHOT_FADVISE_BYTES = Integer.getInteger("SNAPSHOT_FADVISE_BYTES", 1024 * 1024 * 2);
     public static final int SNAPSHOT_RATELIMIT_MEGABYTES;
@@ -216,6 +223,7 @@ public class DefaultSnapshotDataTarget implements SnapshotDataTarget {
             stringer.keySymbolValuePair("tableName", tableName.toUpperCase());
             stringer.keySymbolValuePair("isReplicated", isReplicated);
             stringer.keySymbolValuePair("isCompressed", true);
+            stringer.keySymbolValuePair("compression", SNAPSHOT_COMPRESSION.getName());
             stringer.keySymbolValuePair("checksumType", "CRC32C");
             stringer.keySymbolValuePair("timestamp", timestamp);
             /*
@@ -469,7 +477,7 @@ public class DefaultSnapshotDataTarget implements SnapshotDataTarget {
              * that is 16 bytes, but 4 of those are done by CompressionService
              */
             cont.b().position(12);
-            compressionTask = CompressionService.compressAndCRC32cBufferAsync(tupleData, cont);
+            compressionTask = CompressionService.compressAndCRC32cBufferAsync(SNAPSHOT_COMPRESSION, tupleData, cont);
         }
         final Future<BBContainer> compressionTaskFinal = compressionTask;
 
@@ -34,7 +34,8 @@ public class IOStats extends StatsSource {
         BYTES_READ                  (VoltType.BIGINT),
         MESSAGES_READ               (VoltType.BIGINT),
         BYTES_WRITTEN               (VoltType.BIGINT),
-        MESSAGES_WRITTEN            (VoltType.BIGINT);
+        MESSAGES_WRITTEN            (VoltType.BIGINT),
+        WRITE_QUEUE_DEPTH           (VoltType.BIGINT);
 
         public final VoltType m_type;
         IoStats(VoltType type) { m_type = type; }
@@ -88,6 +89,7 @@ public class IOStats extends StatsSource {
         rowValues[offset + IoStats.MESSAGES_READ.ordinal()] = counters[1];
         rowValues[offset + IoStats.BYTES_WRITTEN.ordinal()] = counters[2];
         rowValues[offset + IoStats.MESSAGES_WRITTEN.ordinal()] = counters[3];
+        rowValues[offset + IoStats.WRITE_QUEUE_DEPTH.ordinal()] = counters[4];
         return offset + IoStats.values().length;
     }
 
@@ -32,7 +32,10 @@ public class IndexStats extends SiteStatsSource {
         IS_UNIQUE                   (VoltType.TINYINT),
         IS_COUNTABLE                (VoltType.TINYINT),
         ENTRY_COUNT                 (VoltType.BIGINT),
-        MEMORY_ESTIMATE             (VoltType.BIGINT);
+        MEMORY_ESTIMATE             (VoltType.BIGINT),
+        BLOOM_FILTER_HITS           (VoltType.BIGINT),
+        BLOOM_FILTER_MISSES         (VoltType.BIGINT),
+        BLOOM_FILTER_FALSE_POSITIVES (VoltType.BIGINT);
 
         public final VoltType m_type;
         Index(VoltType type) { m_type = type; }
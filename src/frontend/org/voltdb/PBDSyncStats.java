@@ -0,0 +1,82 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.voltdb.VoltTable.ColumnInfo;
+import org.voltdb.utils.PBDSegment;
+
+/**
+ * Syncs of persistent binary deque segments done by this host, across all export and DR deques
+ */
+public class PBDSyncStats extends StatsSource {
+
+    public enum PBDSync {
+        SYNCS                       (VoltType.BIGINT),
+        SYNCED_BYTES                (VoltType.BIGINT),
+        AVG_BYTES_PER_SYNC          (VoltType.BIGINT),
+        AVG_SYNC_LATENCY_US         (VoltType.BIGINT);
+
+        public final VoltType m_type;
+        PBDSync(VoltType type) { m_type = type; }
+    }
+
+    // Counters as of the last interval collection
+    private long[] m_lastCounters = null;
+    private boolean m_interval = false;
+
+    public PBDSyncStats() {
+        super(false);
+    }
+
+    @Override
+    protected void populateColumnSchema(ArrayList<ColumnInfo> columns) {
+        super.populateColumnSchema(columns, PBDSync.class);
+    }
+
+    @Override
+    protected Iterator<Object> getStatsRowKeyIterator(boolean interval) {
+        m_interval = interval;
+        return Collections.<Object>singletonList(Boolean.TRUE).iterator();
+    }
+
+    @Override
+    protected synchronized int updateStatsRow(Object rowKey, Object[] rowValues) {
+        int offset = super.updateStatsRow(rowKey, rowValues);
+        final long[] counters = PBDSegment.getSyncStats();
+        final long[] reported = counters.clone();
+        if (m_interval) {
+            if (m_lastCounters != null) {
+                for (int ii = 0; ii < reported.length; ++ii) {
+                    reported[ii] -= m_lastCounters[ii];
+                }
+            }
+            m_lastCounters = counters;
+        }
+
+        rowValues[offset + PBDSync.SYNCS.ordinal()] = reported[0];
+        rowValues[offset + PBDSync.SYNCED_BYTES.ordinal()] = reported[1];
+        rowValues[offset + PBDSync.AVG_BYTES_PER_SYNC.ordinal()] = reported[0] > 0 ? reported[1] / reported[0] : 0L;
+        rowValues[offset + PBDSync.AVG_SYNC_LATENCY_US.ordinal()] =
+                reported[0] > 0 ? reported[2] / reported[0] / 1000 : 0L;
+        return offset + PBDSync.values().length;
+    }
+}
@@ -638,6 +638,16 @@ public class ParameterConverter {
      * @throws InvocationTargetException
      */
     final static public VoltTable[] getResultsFromRawResults(String procedureName, Object result) throws InvocationTargetException {
+        return getResultsFromRawResults(procedureName, result, true);
+    }
+
+    /**
+     * Given the results of a procedure, convert it into a sensible array of VoltTables.
+     * @param copyToHeap false if the caller takes care of tables still backed by ee cache buffers
+     * @throws InvocationTargetException
+     */
+    final static public VoltTable[] getResultsFromRawResults(String procedureName, Object result, boolean copyToHeap)
+            throws InvocationTargetException {
         if (result == null) {
             return new VoltTable[0];
         }
@@ -649,7 +659,9 @@ public class ParameterConverter {
                     throw new InvocationTargetException(e);
                 }
                 // Make sure this table does not use an ee cache buffer
-                table.convertToHeapBuffer();
+                if (copyToHeap) {
+                    table.convertToHeapBuffer();
+                }
             }
 
             return retval;
@@ -657,7 +669,9 @@ public class ParameterConverter {
         if (result instanceof VoltTable) {
             VoltTable vt = (VoltTable) result;
             // Make sure this table does not use an ee cache buffer
-            vt.convertToHeapBuffer();
+            if (copyToHeap) {
+                vt.convertToHeapBuffer();
+            }
             return new VoltTable[] { vt };
         }
         if (result instanceof Long) {
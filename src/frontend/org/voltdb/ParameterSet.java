@@ -67,6 +67,15 @@ public class ParameterSet implements JSONString {
     // memoized serialized size (start assuming valid size for empty ParameterSet)
     private final int m_serializedSize;
 
+    /*
+     * Set only for parameter sets wrapped around bytes that are already in
+     * the serialized format (see fromSerializedBuffer()). The bytes are
+     * decoded into m_decoded the first time a value is asked for; until then
+     * m_params is null and flattenToBuffer() copies the bytes as they are.
+     */
+    private final ByteBuffer m_serializedParams;
+    private volatile ParameterSet m_decoded;
+
     public static ParameterSet emptyParameterSet() {
         return EMPTY;
     }
@@ -332,6 +341,101 @@ public class ParameterSet implements JSONString {
         m_serializedSize = serializedSize;
         m_encodedStrings = encodedStrings;
         m_encodedStringArrays = encodedStringArrays;
+        m_serializedParams = null;
+    }
+
+    private ParameterSet(ByteBuffer serializedParams) {
+        m_params = null;
+        m_serializedSize = serializedParams.remaining();
+        m_encodedStrings = null;
+        m_encodedStringArrays = null;
+        m_serializedParams = serializedParams;
+    }
+
+    /**
+     * Wrap parameters that are already serialized, without decoding them, if
+     * every value is a non-null scalar whose wire type is exactly the matching
+     * entry of {@code expectedTypes}. Such a set flattens to the same bytes
+     * that decoding, converting and re-serializing the values would produce,
+     * so it can be passed to the EE as is. Values are only decoded if they are
+     * read through {@link #getParam(int)}, {@link #toArray()} and friends.
+     *
+     * @param serializedParams buffer positioned at the start of the parameters;
+     *                         it is not modified and must not be modified later
+     * @param expectedTypes    the exact wire type expected for each parameter
+     * @return the wrapped parameter set, or null if any parameter would need
+     *         conversion (or the buffer is malformed) and has to be decoded
+     */
+    public static ParameterSet fromSerializedBuffer(ByteBuffer serializedParams, VoltType[] expectedTypes) {
+        ByteBuffer in = serializedParams.duplicate();
+        try {
+            if (in.getShort() != expectedTypes.length) {
+                return null;
+            }
+            for (VoltType expectedType : expectedTypes) {
+                if (in.get() != expectedType.getValue()) {
+                    return null;
+                }
+                switch (expectedType) {
+                case TINYINT:
+                case SMALLINT:
+                case INTEGER:
+                case BIGINT:
+                case FLOAT:
+                case TIMESTAMP:
+                    in.position(in.position() + expectedType.getLengthInBytesForFixedTypes());
+                    break;
+                case STRING:
+                case VARBINARY: {
+                    int len = in.getInt();
+                    // nulls are substituted with typed nulls when converted
+                    if (len < 0) {
+                        return null;
+                    }
+                    // so is the CSV null string
+                    if (expectedType == VoltType.STRING && len == 2 &&
+                            in.get(in.position()) == '\\' && in.get(in.position() + 1) == 'N') {
+                        return null;
+                    }
+                    in.position(in.position() + len);
+                    break;
+                }
+                default:
+                    return null;
+                }
+            }
+            if (in.hasRemaining()) {
+                return null;
+            }
+        } catch (RuntimeException e) {
+            // truncated or otherwise malformed, let the regular decoding report it
+            return null;
+        }
+        ByteBuffer params = serializedParams.slice();
+        return params.remaining() == 2 ? EMPTY : new ParameterSet(params);
+    }
+
+    /**
+     * @return true if the parameters are still held in their serialized form
+     */
+    public boolean isSerialized() {
+        return m_serializedParams != null && m_decoded == null;
+    }
+
+    private Object[] params() {
+        if (m_serializedParams == null) {
+            return m_params;
+        }
+        ParameterSet decoded = m_decoded;
+        if (decoded == null) {
+            try {
+                decoded = fromByteBuffer(m_serializedParams.duplicate());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to deserialize a parameter set.", e);
+            }
+            m_decoded = decoded;
+        }
+        return decoded.m_params;
     }
 
     static Object limitType(Object o) {
@@ -344,11 +448,11 @@ public class ParameterSet implements JSONString {
     }
 
     public Object getParam(int index) {
-        return m_params[index];
+        return params()[index];
     }
 
     public boolean hasParam(int index) {
-        return m_params.length > index;
+        return size() > index;
     }
 
     /**
@@ -356,10 +460,13 @@ public class ParameterSet implements JSONString {
      * @return
      */
     public Object[] toArray() {
-        return m_params.clone();
+        return params().clone();
     }
 
     public int size() {
+        if (m_serializedParams != null) {
+            return m_serializedParams.getShort(m_serializedParams.position());
+        }
         return m_params.length;
     }
 
@@ -514,11 +621,12 @@ public class ParameterSet implements JSONString {
 
     @Override
     public String toString() {
+        Object[] params = params();
         StringBuilder b = new StringBuilder();
         b.append("ParameterSet:");
-        for (int i = 0; i < m_params.length; ++i) {
-            b.append(",param[" + i + "]=" + (m_params[i] == null ? "NULL"
-                    : m_params[i].toString() + "(" + m_params[i].getClass().getName() + ")"));
+        for (int i = 0; i < params.length; ++i) {
+            b.append(",param[" + i + "]=" + (params[i] == null ? "NULL"
+                    : params[i].toString() + "(" + params[i].getClass().getName() + ")"));
         }
         return new String(b);
     }
@@ -528,7 +636,7 @@ public class ParameterSet implements JSONString {
         JSONStringer js = new JSONStringer();
         try {
             js.array();
-            for (Object o : m_params) {
+            for (Object o : params()) {
                 if(o instanceof Double) {
                     Double dval = (Double) o;
                     if (dval.isNaN()) {
@@ -693,6 +801,10 @@ public class ParameterSet implements JSONString {
     }
 
     public void flattenToBuffer(ByteBuffer buf) throws IOException {
+        if (m_serializedParams != null) {
+            buf.put(m_serializedParams.duplicate());
+            return;
+        }
 
         buf.putShort((short)m_params.length);
 
@@ -953,7 +1065,7 @@ public class ParameterSet implements JSONString {
         if (!(obj instanceof ParameterSet)) {
             return false;
         } else {
-            return Arrays.deepEquals(m_params, ((ParameterSet) obj).m_params);
+            return Arrays.deepEquals(params(), ((ParameterSet) obj).params());
         }
     }
 
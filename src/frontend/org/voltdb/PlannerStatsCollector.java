@@ -123,6 +123,18 @@ public class PlannerStatsCollector extends StatsSource {
     long m_failures = 0;
     long m_lastFailures = 0;
 
+    /**
+     * Plans loaded into the EE cache ahead of their first execution
+     */
+    long m_plansWarmed = 0;
+    long m_lastPlansWarmed = 0;
+
+    /**
+     * Total amount of time spent loading plans ahead of their first execution
+     */
+    long m_planWarmTime = 0;
+    long m_lastPlanWarmTime = 0;
+
 
     /**
      * Count of the number of invocations = m_cache1Hits + m_cache2Hits + m_cacheMisses + m_failures;
@@ -142,7 +154,9 @@ public class PlannerStatsCollector extends StatsSource {
         PLAN_TIME_MIN           (VoltType.BIGINT),
         PLAN_TIME_MAX           (VoltType.BIGINT),
         PLAN_TIME_AVG           (VoltType.BIGINT),
-        FAILURES                (VoltType.BIGINT);
+        FAILURES                (VoltType.BIGINT),
+        PLANS_WARMED            (VoltType.BIGINT),
+        PLAN_WARM_TIME          (VoltType.BIGINT);
 
         public final VoltType m_type;
         Planner(VoltType type) { m_type = type; }
@@ -194,6 +208,16 @@ public class PlannerStatsCollector extends StatsSource {
         m_partitionId = partitionId;
     }
 
+    /**
+     * Used to record plans loaded into the EE cache ahead of their first execution
+     */
+    public void updateEECacheWarming(long eeCacheSize, long warmed, long nanos, int partitionId) {
+        m_cache1Level = eeCacheSize;
+        m_plansWarmed += warmed;
+        m_planWarmTime += nanos;
+        m_partitionId = partitionId;
+    }
+
     /**
      * Called before doing planning. Starts timer.
      */
@@ -272,6 +296,8 @@ public class PlannerStatsCollector extends StatsSource {
         long cache2Hits  = m_cache2Hits;
         long cacheMisses = m_cacheMisses;
         long failureCount = m_failures;
+        long plansWarmed = m_plansWarmed;
+        long planWarmTime = m_planWarmTime;
 
         if (m_interval) {
             totalTimedExecutionTime = m_totalPlanningTime - m_lastTimedPlanningTime;
@@ -300,6 +326,12 @@ public class PlannerStatsCollector extends StatsSource {
             failureCount = m_failures - m_lastFailures;
             m_lastFailures = m_failures;
 
+            plansWarmed = m_plansWarmed - m_lastPlansWarmed;
+            m_lastPlansWarmed = m_plansWarmed;
+
+            planWarmTime = m_planWarmTime - m_lastPlanWarmTime;
+            m_lastPlanWarmTime = m_planWarmTime;
+
             m_lastInvocations = m_invocations;
         }
 
@@ -319,6 +351,8 @@ public class PlannerStatsCollector extends StatsSource {
             rowValues[offset + Planner.PLAN_TIME_AVG.ordinal()] = 0L;
         }
         rowValues[offset + Planner.FAILURES.ordinal()] = failureCount;
+        rowValues[offset + Planner.PLANS_WARMED.ordinal()] = plansWarmed;
+        rowValues[offset + Planner.PLAN_WARM_TIME.ordinal()] = planWarmTime;
 
         return offset + Planner.values().length;
     }
@@ -61,6 +61,7 @@ import org.voltdb.iv2.Site;
 import org.voltdb.iv2.UniqueIdGenerator;
 import org.voltdb.jni.ExecutionEngine;
 import org.voltdb.jni.ExecutionEngine.LoadTableCaller;
+import org.voltdb.jni.ResultBufferPool;
 import org.voltdb.messaging.FastDeserializer;
 import org.voltdb.messaging.FragmentTaskMessage;
 import org.voltdb.messaging.Iv2InitiateTaskMessage;
@@ -113,6 +114,8 @@ public class ProcedureRunner {
     protected final VoltProcedure m_procedure;
     protected Method m_procMethod;
     protected Class<?>[] m_paramTypes;
+    // wire types a single-statement proc can take without converting its parameters, or null
+    protected final VoltType[] m_serializedParamTypes;
 
     // per txn state (are reset after call)
     //
@@ -157,6 +160,11 @@ public class ProcedureRunner {
     /** boolean flag to mark whether the previous batch execution has EE exception or not.*/
     private long m_spBigBatchBeginToken;
 
+    // whether the current call may hand large results over in the EE's result buffers,
+    // and the buffers it handed over until the caller takes them
+    private boolean m_detachResultBuffers = false;
+    private ResultBufferPool.Reference m_detachedResultBuffers = null;
+
     // Used to get around the "abstract" for StmtProcedures.
     // Path of least resistance?
     static class StmtProcedure extends VoltProcedure {
@@ -196,6 +204,7 @@ public class ProcedureRunner {
         // the SQLStmts defined in the stored procedure.
         // The variable names are used in the granular statistics.
         m_stmtList = reflect();
+        m_serializedParamTypes = getSerializedParamTypes();
 
         if (site != null) {
             initSiteAndStats(m_site);
@@ -296,16 +305,35 @@ public class ProcedureRunner {
      * @return result of the procedure being invoked
      */
     public ClientResponseImpl call(boolean resetHash, Object[] paramListIn) {
+        return call(resetHash, paramListIn, null);
+    }
+
+    /**
+     * Wraps coreCall with statistics code for parameters obtained from
+     * {@link #getSerializedParams(StoredProcedureInvocation)}, which are handed
+     * to the statement as they are instead of being converted.
+     */
+    public ClientResponseImpl call(ParameterSet serializedParams) {
+        assert(m_serializedParamTypes != null);
+        return call(true, null, serializedParams);
+    }
+
+    private ClientResponseImpl call(boolean resetHash, Object[] paramListIn, ParameterSet serializedParams) {
         m_perCallStats = m_statsCollector.beginProcedure();
 
         // if we're keeping track, calculate parameter size
         if (m_perCallStats != null) {
             StoredProcedureInvocation invoc = (m_txnState != null ? m_txnState.getInvocation() : null);
-            ParameterSet params = (invoc != null ? invoc.getParams() : ParameterSet.fromArrayNoCopy(paramListIn));
-            m_perCallStats.setParameterSize(params.getSerializedSize());
+            if (invoc != null) {
+                // avoid decoding the parameters just to size them
+                m_perCallStats.setParameterSize(invoc.getSerializedParamSize());
+            } else {
+                ParameterSet params = (serializedParams != null ? serializedParams : ParameterSet.fromArrayNoCopy(paramListIn));
+                m_perCallStats.setParameterSize(params.getSerializedSize());
+            }
         }
 
-        ClientResponseImpl result = coreCall(resetHash, paramListIn);
+        ClientResponseImpl result = coreCall(resetHash, paramListIn, serializedParams);
 
         // if we're keeping track, calculate result size
         if (m_perCallStats != null) {
@@ -331,8 +359,62 @@ public class ProcedureRunner {
                 m_txnState.getInvocation().getBatchTimeout();
     }
 
+    /**
+     * Wrap the invocation's parameters, still in their serialized form, if
+     * this is a single-statement procedure and the client sent every parameter
+     * with exactly the type the statement takes. The EE then receives the
+     * client's bytes as they are; nothing is decoded unless something reads
+     * the values.
+     *
+     * @return the wrapped parameters to pass to {@link #call(ParameterSet)}, or
+     *         null if they have to be decoded and passed to {@link #call(Object[])}
+     */
+    public ParameterSet getSerializedParams(StoredProcedureInvocation invocation) {
+        if (m_serializedParamTypes == null || getNonVoltDBBackendIfExists() != null) {
+            return null;
+        }
+        ByteBuffer serializedParams = invocation.getSerializedParams();
+        if (serializedParams == null) {
+            return null;
+        }
+        return ParameterSet.fromSerializedBuffer(serializedParams, m_serializedParamTypes);
+    }
+
+    /**
+     * Parameters of a single-statement procedure can skip conversion when they
+     * arrive as the types below, for which ParameterConverter and
+     * getCleanParams() leave any non-null value unchanged.
+     */
+    private VoltType[] getSerializedParamTypes() {
+        if (m_hasJava || m_isSysProc || m_sqlStmts.size() != 1) {
+            return null;
+        }
+        byte[] stmtParamTypes = m_sqlStmts.get(0).stmt.statementParamTypes;
+        if (stmtParamTypes == null || stmtParamTypes.length != m_paramTypes.length) {
+            return null;
+        }
+        VoltType[] types = new VoltType[m_paramTypes.length];
+        for (int i = 0; i < m_paramTypes.length; i++) {
+            Class<?> paramType = m_paramTypes[i];
+            if (paramType == long.class) {
+                types[i] = VoltType.BIGINT;
+            } else if (paramType == double.class) {
+                types[i] = VoltType.FLOAT;
+            } else if (paramType == String.class) {
+                types[i] = VoltType.STRING;
+            } else if (paramType == byte[].class) {
+                types[i] = VoltType.VARBINARY;
+            } else if (paramType == TimestampType.class) {
+                types[i] = VoltType.TIMESTAMP;
+            } else {
+                return null;
+            }
+        }
+        return types;
+    }
+
     @SuppressWarnings("finally")
-    private ClientResponseImpl coreCall(boolean resetHash, Object[] paramListIn) {
+    private ClientResponseImpl coreCall(boolean resetHash, Object[] paramListIn, ParameterSet serializedParams) {
         // verify per-txn state has been reset
         assert(m_statusCode == ClientResponse.SUCCESS);
         assert(m_statusString == null);
@@ -364,35 +446,38 @@ public class ProcedureRunner {
         try {
             VoltTable[] results = null;
 
-            // inject sysproc execution context as the first parameter.
-            if (isSystemProcedure()) {
-                final Object[] combinedParams = new Object[paramList.length + 1];
-                combinedParams[0] = m_site.getSystemProcedureExecutionContext();
-                for (int i=0; i < paramList.length; ++i) {
-                    combinedParams[i+1] = paramList[i];
+            // parameters passed through have already been checked against m_paramTypes
+            if (serializedParams == null) {
+                // inject sysproc execution context as the first parameter.
+                if (isSystemProcedure()) {
+                    final Object[] combinedParams = new Object[paramList.length + 1];
+                    combinedParams[0] = m_site.getSystemProcedureExecutionContext();
+                    for (int i=0; i < paramList.length; ++i) {
+                        combinedParams[i+1] = paramList[i];
+                    }
+                    // swap the lists.
+                    paramList = combinedParams;
                 }
-                // swap the lists.
-                paramList = combinedParams;
-            }
-
-            if (paramList.length != m_paramTypes.length) {
-                String msg = "PROCEDURE " + m_procedureName + " EXPECTS " + String.valueOf(m_paramTypes.length) +
-                    " PARAMS, BUT RECEIVED " + String.valueOf(paramList.length);
-                m_statusCode = ClientResponse.GRACEFUL_FAILURE;
-                return getErrorResponse(m_statusCode, m_appStatusCode, m_appStatusString, msg, null);
-            }
 
-            for (int i = 0; i < m_paramTypes.length; i++) {
-                try {
-                    paramList[i] = ParameterConverter.tryToMakeCompatible(m_paramTypes[i], paramList[i]);
-                    // check the result type in an assert
-                    assert(ParameterConverter.verifyParameterConversion(paramList[i], m_paramTypes[i]));
-                } catch (Exception e) {
-                    String msg = "PROCEDURE " + m_procedureName + " TYPE ERROR FOR PARAMETER " + i +
-                            ": " + e.toString();
+                if (paramList.length != m_paramTypes.length) {
+                    String msg = "PROCEDURE " + m_procedureName + " EXPECTS " + String.valueOf(m_paramTypes.length) +
+                        " PARAMS, BUT RECEIVED " + String.valueOf(paramList.length);
                     m_statusCode = ClientResponse.GRACEFUL_FAILURE;
                     return getErrorResponse(m_statusCode, m_appStatusCode, m_appStatusString, msg, null);
                 }
+
+                for (int i = 0; i < m_paramTypes.length; i++) {
+                    try {
+                        paramList[i] = ParameterConverter.tryToMakeCompatible(m_paramTypes[i], paramList[i]);
+                        // check the result type in an assert
+                        assert(ParameterConverter.verifyParameterConversion(paramList[i], m_paramTypes[i]));
+                    } catch (Exception e) {
+                        String msg = "PROCEDURE " + m_procedureName + " TYPE ERROR FOR PARAMETER " + i +
+                                ": " + e.toString();
+                        m_statusCode = ClientResponse.GRACEFUL_FAILURE;
+                        return getErrorResponse(m_statusCode, m_appStatusCode, m_appStatusString, msg, null);
+                    }
+                }
             }
 
             // run a regular java class
@@ -404,7 +489,8 @@ public class ProcedureRunner {
                     try {
                         Object rawResult = m_procMethod.invoke(m_procedure, paramList);
 
-                        results = ParameterConverter.getResultsFromRawResults(m_procedureName, rawResult);
+                        // tables still in ee cache buffers are dealt with below
+                        results = ParameterConverter.getResultsFromRawResults(m_procedureName, rawResult, false);
                     } catch (IllegalAccessException e) {
                         // If reflection fails, invoke the same error handling that other exceptions do
                         throw new InvocationTargetException(e);
@@ -448,9 +534,13 @@ public class ProcedureRunner {
                     for (int i = 0; i < m_catProc.getStatements().size(); i++) {
                         QueuedSQL curStmt = m_sqlStmts.get(i);
                         int numStmtParams = curStmt.stmt.statementParamTypes.length;
-                        Object[] stmtParamList = Arrays.copyOfRange(paramList, curParamOffset,
-                                curParamOffset + numStmtParams);
-                        curStmt.params = getCleanParams(curStmt.stmt, false, stmtParamList);
+                        if (serializedParams != null) {
+                            curStmt.params = serializedParams;
+                        } else {
+                            Object[] stmtParamList = Arrays.copyOfRange(paramList, curParamOffset,
+                                    curParamOffset + numStmtParams);
+                            curStmt.params = getCleanParams(curStmt.stmt, false, stmtParamList);
+                        }
                         curParamOffset += numStmtParams;
 
                         if (getNonVoltDBBackendIfExists() != null) {
@@ -464,7 +554,6 @@ public class ProcedureRunner {
                     if (getNonVoltDBBackendIfExists() == null) {
                         m_batch.addAll(m_sqlStmts);
                         results = voltExecuteSQL(true);
-                        results = convertTablesToHeapBuffers(results);
                     }
                 } catch (SerializableException ex) {
                     retval = getErrorResponse(m_procedureName,
@@ -491,6 +580,7 @@ public class ProcedureRunner {
             }
 
             if (retval == null) {
+                results = detachOrCopyResults(results);
                 retval = new ClientResponseImpl(
                         m_statusCode,
                         m_appStatusCode,
@@ -523,6 +613,7 @@ public class ProcedureRunner {
             m_cachedSingleStmt.params = null;
             m_cachedSingleStmt.expectation = null;
             m_seenFinalBatch = false;
+            m_detachResultBuffers = false;
 
             m_site.completeProcedure();
         }
@@ -1324,6 +1415,37 @@ public class ProcedureRunner {
        return response;
     }
 
+    /**
+     * Let the next call hand large results over in the EE's result buffers
+     * rather than copying them to the heap. The caller must then take the
+     * buffers with {@link #takeDetachedResultBuffers()} and release them once
+     * the response holding the results has been serialized.
+     */
+    public void setDetachResultBuffers(boolean detach) {
+        m_detachResultBuffers = detach;
+    }
+
+    /**
+     * @return the EE result buffers backing the results of the last call, or
+     *         null if they were copied to the heap as usual
+     */
+    public ResultBufferPool.Reference takeDetachedResultBuffers() {
+        ResultBufferPool.Reference detached = m_detachedResultBuffers;
+        m_detachedResultBuffers = null;
+        return detached;
+    }
+
+    private VoltTable[] detachOrCopyResults(VoltTable[] results) {
+        assert(m_detachedResultBuffers == null);
+        if (m_detachResultBuffers && results.length > 0 && getExecutionEngine() != null) {
+            m_detachedResultBuffers = getExecutionEngine().detachResultBuffers(results);
+            if (m_detachedResultBuffers != null) {
+                return results;
+            }
+        }
+        return convertTablesToHeapBuffers(results);
+    }
+
     final private VoltTable[] convertTablesToHeapBuffers(VoltTable[] results) {
         for (VoltTable table : results) {
             // Make sure this table does not use an ee cache buffer
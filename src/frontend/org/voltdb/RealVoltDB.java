@@ -189,6 +189,7 @@ import org.voltdb.operator.StatusListener;
 import org.voltdb.operator.StopActivityStats;
 import org.voltdb.operator.XDCRReadinessStats;
 import org.voltdb.planner.ActivePlanRepository;
+import org.voltdb.plannodes.HashJoinPlanNode;
 import org.voltdb.probe.MeshProber;
 import org.voltdb.processtools.ShellTools;
 import org.voltdb.rejoin.Iv2RejoinCoordinator;
@@ -1645,6 +1646,10 @@ public class RealVoltDB implements VoltDBInterface, RestoreAgent.Callback, HostM
             m_gcStats = new GcStats();
             getStatsAgent().registerStatsSource(StatsSelector.GC,
                     0, m_gcStats);
+            getStatsAgent().registerStatsSource(StatsSelector.CIPHER,
+                    0, new CipherStats());
+            getStatsAgent().registerStatsSource(StatsSelector.PBDSYNC,
+                    0, new PBDSyncStats());
             // ENG-6321
             m_commandLogStats = new CommandLogStats(m_commandLog);
             getStatsAgent().registerStatsSource(StatsSelector.COMMANDLOG, 0, m_commandLogStats);
@@ -2999,6 +3004,10 @@ public class RealVoltDB implements VoltDBInterface, RestoreAgent.Callback, HostM
                         hostLog.info("Query timeout set to unlimited");
                         m_config.m_queryTimeout = 0;
                     }
+                    if (sysType.getQuery().isHashjoin()) {
+                        hostLog.info("Hash joins enabled");
+                    }
+                    HashJoinPlanNode.setEnabled(sysType.getQuery().isHashjoin());
                 }
             }
 
@@ -4387,6 +4396,9 @@ public class RealVoltDB implements VoltDBInterface, RestoreAgent.Callback, HostM
             m_messenger.setDeadHostTimeout(m_config.m_deadHostTimeoutMS);
         }
 
+        // 1.6 update whether the planner may use hash joins
+        HashJoinPlanNode.setEnabled(m_catalogContext.getDeployment().getSystemsettings().getQuery().isHashjoin());
+
         // 2. update client interface (asynchronously)
         //    CI in turn updates the planner thread.
         if (m_clientInterface != null) {
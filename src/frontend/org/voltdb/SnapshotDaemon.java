@@ -223,6 +223,10 @@ public class SnapshotDaemon implements SnapshotCompletionInterest {
                                                               new SnapshotSummary(
                                                                       VoltDB.instance().getCommandLogSnapshotPath(),
                                                                       VoltDB.instance().getSnapshotPath()));
+        // Snapshot restore progress, one row per table restored from this host
+        VoltDB.instance().getStatsAgent().registerStatsSource(StatsSelector.SNAPSHOTRESTORE,
+                                                              0,
+                                                              new SnapshotRestoreStatus());
         VoltDB.instance().getSnapshotCompletionMonitor().addInterest(this);
     }
 
@@ -0,0 +1,165 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.voltdb;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.voltdb.SnapshotStatus.SnapshotResult;
+import org.voltdb.VoltTable.ColumnInfo;
+
+/**
+ * Progress of the snapshot restore running on, or last run by, this host. There is one row
+ * per table this host reads from its save files. CHUNKS and SIZE count what has been read,
+ * decompressed and handed to the sites so far, SIZE in uncompressed bytes, and THROUGHPUT
+ * is SIZE over the time the table has been restoring in MB/s.
+ */
+public class SnapshotRestoreStatus extends StatsSource {
+
+    public enum SnapshotRestoreCols {
+        NONCE                   (VoltType.STRING),
+        TABLE                   (VoltType.STRING),
+        START_TIME              (VoltType.BIGINT),
+        END_TIME                (VoltType.BIGINT),
+        CHUNKS                  (VoltType.BIGINT),
+        SIZE                    (VoltType.BIGINT),
+        DURATION                (VoltType.BIGINT),
+        THROUGHPUT              (VoltType.FLOAT),
+        RESULT                  (VoltType.STRING);
+
+        public final VoltType m_type;
+        SnapshotRestoreCols(VoltType type) { m_type = type; }
+    }
+
+    static class TableProgress {
+        final String m_table;
+        final long m_startTime = System.currentTimeMillis();
+        final AtomicLong m_chunks = new AtomicLong();
+        final AtomicLong m_bytes = new AtomicLong();
+        // Local sites distributing the table which have not finished yet, guarded by this
+        int m_activeSites = 0;
+        volatile long m_endTime = 0;
+        volatile boolean m_failed = false;
+
+        TableProgress(String table) {
+            m_table = table;
+        }
+    }
+
+    private static String s_nonce = "";
+    private static final Map<String, TableProgress> s_tables = new LinkedHashMap<>();
+
+    /**
+     * Forget about the previous restore, called when this host starts scanning for save files
+     */
+    public static synchronized void restoreStarted(String nonce) {
+        s_nonce = nonce;
+        s_tables.clear();
+    }
+
+    private static synchronized TableProgress getProgress(String table) {
+        TableProgress progress = s_tables.get(table);
+        if (progress == null) {
+            progress = new TableProgress(table);
+            s_tables.put(table, progress);
+        }
+        return progress;
+    }
+
+    /**
+     * Called by each local site before it starts distributing {@code table}
+     */
+    public static void tableStarted(String table) {
+        TableProgress progress = getProgress(table);
+        synchronized (progress) {
+            progress.m_activeSites++;
+            progress.m_endTime = 0;
+        }
+    }
+
+    public static void chunkRestored(String table, long bytes) {
+        TableProgress progress = getProgress(table);
+        progress.m_chunks.incrementAndGet();
+        progress.m_bytes.addAndGet(bytes);
+    }
+
+    /**
+     * Called by each local site which called {@link #tableStarted(String)} once it is done with
+     * {@code table}. The table is only finished when the last of those sites reports in.
+     */
+    public static void tableFinished(String table, boolean success) {
+        TableProgress progress = getProgress(table);
+        if (!success) {
+            progress.m_failed = true;
+        }
+        synchronized (progress) {
+            if (progress.m_activeSites > 0 && --progress.m_activeSites == 0) {
+                progress.m_endTime = System.currentTimeMillis();
+            }
+        }
+    }
+
+    public SnapshotRestoreStatus() {
+        super(false);
+    }
+
+    @Override
+    protected void populateColumnSchema(ArrayList<ColumnInfo> columns) {
+        super.populateColumnSchema(columns, SnapshotRestoreCols.class);
+    }
+
+    @Override
+    protected int updateStatsRow(Object rowKey, Object[] rowValues) {
+        int offset = super.updateStatsRow(rowKey, rowValues);
+        TableProgress progress = (TableProgress) rowKey;
+        final long endTime = progress.m_endTime;
+        final long duration = (endTime == 0 ? System.currentTimeMillis() : endTime) - progress.m_startTime;
+        final long bytes = progress.m_bytes.get();
+        final double throughput = duration <= 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (duration / 1000.0);
+        final SnapshotResult result;
+        if (progress.m_failed) {
+            result = SnapshotResult.FAILURE;
+        } else if (endTime == 0) {
+            result = SnapshotResult.IN_PROGRESS;
+        } else {
+            result = SnapshotResult.SUCCESS;
+        }
+
+        synchronized (SnapshotRestoreStatus.class) {
+            rowValues[offset + SnapshotRestoreCols.NONCE.ordinal()] = s_nonce;
+        }
+        rowValues[offset + SnapshotRestoreCols.TABLE.ordinal()] = progress.m_table;
+        rowValues[offset + SnapshotRestoreCols.START_TIME.ordinal()] = progress.m_startTime;
+        rowValues[offset + SnapshotRestoreCols.END_TIME.ordinal()] = endTime;
+        rowValues[offset + SnapshotRestoreCols.CHUNKS.ordinal()] = progress.m_chunks.get();
+        rowValues[offset + SnapshotRestoreCols.SIZE.ordinal()] = bytes;
+        rowValues[offset + SnapshotRestoreCols.DURATION.ordinal()] = duration;
+        rowValues[offset + SnapshotRestoreCols.THROUGHPUT.ordinal()] = throughput;
+        rowValues[offset + SnapshotRestoreCols.RESULT.ordinal()] = result.name();
+        return offset + SnapshotRestoreCols.values().length;
+    }
+
+    @Override
+    protected Iterator<Object> getStatsRowKeyIterator(boolean interval) {
+        synchronized (SnapshotRestoreStatus.class) {
+            return new ArrayList<Object>(s_tables.values()).iterator();
+        }
+    }
+}
@@ -25,6 +25,7 @@ public enum StatsSelector {
     PROCEDURE,
     STARVATION,
     QUEUE,
+    MPREADPOOL(false),  // MPI read-only site pool usage
     IDLETIME(STARVATION),
     INITIATOR,
     LATENCY(false),
@@ -39,6 +40,7 @@ public enum StatsSelector {
     MANAGEMENT(MEMORY, INITIATOR, PROCEDURE, IOSTATS, TABLE, INDEX, STARVATION, QUEUE, CPU), // Returns pretty much everything
     SNAPSHOTSTATUS(false),
     SNAPSHOTSUMMARY(false),
+    SNAPSHOTRESTORE(false),  // progress of the snapshot restore on each host
     PROCEDUREPROFILE(PROCEDURE), // performs an aggregation of the procedure statistics
     PROCEDUREINPUT(PROCEDURE),
     PROCEDUREOUTPUT(PROCEDURE),
@@ -66,6 +68,8 @@ public enum StatsSelector {
     REBALANCE,      // return elastic rebalance progress
     KSAFETY,        // return ksafety coverage information
     GC,             // return GC Stats
+    CIPHER,         // return TLS cipher worker throughput and queueing
+    PBDSYNC,        // return export and DR overflow segment sync counts and latency
 
     COMMANDLOG(false),     // return number of outstanding bytes and txns on this node
     IMPORTER,       // synonym as IMPORT for backward compatibility
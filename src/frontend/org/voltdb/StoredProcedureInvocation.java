@@ -307,7 +307,7 @@ public class StoredProcedureInvocation implements JSONString {
                 getSerializedParamSize());
     }
 
-    private int getSerializedParamSize()
+    int getSerializedParamSize()
     {
         // get params size
         int serializedParamSize = 0;
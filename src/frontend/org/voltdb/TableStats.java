@@ -36,7 +36,9 @@ public class TableStats extends SiteStatsSource {
         TUPLE_LIMIT             (VoltType.INTEGER),
         PERCENT_FULL            (VoltType.INTEGER),
         DR                      (VoltType.STRING),
-        EXPORT                  (VoltType.STRING);
+        EXPORT                  (VoltType.STRING),
+        DICTIONARY_MEMORY       (VoltType.BIGINT),
+        DICTIONARY_SAVED_MEMORY (VoltType.BIGINT);
 
         public final VoltType m_type;
         Table(VoltType type) { m_type = type; }
@@ -47,6 +47,7 @@ public class ClientConfig {
     static final long DEFAULT_CONNECTION_TIMOUT_MS = 2 * 60 * 1000; // default timeout is 2 minutes;
     static final long DEFAULT_INITIAL_CONNECTION_RETRY_INTERVAL_MS = 1000; // default initial connection retry interval is 1 second
     static final long DEFAULT_MAX_CONNECTION_RETRY_INTERVAL_MS = 8000; // default max connection retry interval is 8 seconds
+    static final int DEFAULT_MAX_BATCH_BYTES = 64 * 1024; // write a batch once it reaches 64k
 
     final ClientAuthScheme m_hashScheme;
     final String m_username;
@@ -70,6 +71,8 @@ public class ClientConfig {
     boolean m_topologyChangeAware = false;
     boolean m_enableSSL = false;
     String m_sslPropsFile = null;
+    int m_batchWindowMicros = 0;
+    int m_maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
 
     //For unit testing. This should really be in Environment class we should assemble all such there.
     public static final boolean ENABLE_SSL_FOR_TEST = Boolean.valueOf(
@@ -408,6 +411,32 @@ public class ClientConfig {
         this.m_maxConnectionRetryIntervalMS = ms;
     }
 
+    /**
+     * <p>Coalesce procedure invocations sent over the same connection into a single
+     * network write. An invocation waits at most <code>windowMicros</code> for others
+     * to join its batch, and a batch is written without waiting once it holds
+     * <code>maxBatchBytes</code>. This saves writes and system calls for clients
+     * issuing many small asynchronous invocations at a high rate, at the cost of
+     * adding up to the window to each round trip. Defaults to off.</p>
+     *
+     * <p>Batch counts and delays are reported per connection in {@link ClientStats}.</p>
+     *
+     * @param windowMicros Longest time in microseconds an invocation is held back, 0 disables batching.
+     * @param maxBatchBytes Number of serialized bytes at which a batch is written right away.
+     */
+    public void setInvocationBatching(int windowMicros, int maxBatchBytes) {
+        if (windowMicros < 0) {
+            throw new IllegalArgumentException(
+                    "Batching window must not be negative, " + windowMicros + " was specified");
+        }
+        if (maxBatchBytes < 1) {
+            throw new IllegalArgumentException(
+                    "Max batch size must be greater than 0, " + maxBatchBytes + " was specified");
+        }
+        m_batchWindowMicros = windowMicros;
+        m_maxBatchBytes = maxBatchBytes;
+    }
+
     /**
      * <p>Set the target latency for the Auto Tune feature. Note this represents internal
      * latency as reported by the server(s), not round-trip latency measured by the
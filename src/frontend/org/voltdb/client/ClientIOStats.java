@@ -22,11 +22,22 @@ class ClientIOStats {
     long m_connectionId;
     long m_bytesSent;
     long m_bytesReceived;
+    long m_batchesSent;
+    long m_batchedInvocations;
+    long m_batchDelayNanos;
 
     ClientIOStats(long connectionId, long bytesSent, long bytesReceived) {
+        this(connectionId, bytesSent, bytesReceived, 0, 0, 0);
+    }
+
+    ClientIOStats(long connectionId, long bytesSent, long bytesReceived,
+                  long batchesSent, long batchedInvocations, long batchDelayNanos) {
         m_connectionId = connectionId;
         m_bytesSent = bytesSent;
         m_bytesReceived = bytesReceived;
+        m_batchesSent = batchesSent;
+        m_batchedInvocations = batchedInvocations;
+        m_batchDelayNanos = batchDelayNanos;
     }
 
     public static ClientIOStats diff(ClientIOStats newer, ClientIOStats older) {
@@ -36,7 +47,10 @@ class ClientIOStats {
 
         ClientIOStats retval = new ClientIOStats(older.m_connectionId,
                                                  newer.m_bytesSent - older.m_bytesSent,
-                                                 newer.m_bytesReceived - older.m_bytesReceived);
+                                                 newer.m_bytesReceived - older.m_bytesReceived,
+                                                 newer.m_batchesSent - older.m_batchesSent,
+                                                 newer.m_batchedInvocations - older.m_batchedInvocations,
+                                                 newer.m_batchDelayNanos - older.m_batchDelayNanos);
         return retval;
     }
 
@@ -45,6 +59,7 @@ class ClientIOStats {
      */
     @Override
     protected Object clone() {
-        return new ClientIOStats(m_connectionId, m_bytesSent, m_bytesReceived);
+        return new ClientIOStats(m_connectionId, m_bytesSent, m_bytesReceived,
+                                 m_batchesSent, m_batchedInvocations, m_batchDelayNanos);
     }
 }
@@ -144,6 +144,8 @@ public final class ClientImpl implements Client {
         }
         m_username = username;
         m_distributer.setTopologyChangeAware(config.m_topologyChangeAware);
+        m_distributer.setInvocationBatching(
+                TimeUnit.MICROSECONDS.toNanos(config.m_batchWindowMicros), config.m_maxBatchBytes);
         if (config.m_topologyChangeAware) {
             m_ex = Executors.newSingleThreadScheduledExecutor(CoreUtils.getThreadFactory("Topoaware thread"));
         }
@@ -74,6 +74,11 @@ public class ClientStats {
     long m_bytesSent;
     long m_bytesReceived;
 
+    // invocation batching, only recorded per connection
+    long m_batchesSent;
+    long m_batchedInvocations;
+    long m_batchDelayNanos;
+
     private static final long LOWEST_TRACKABLE = 50;
     private static final long HIGHEST_TRACKABLE = 10L * (1000L * 1000L);
     private static final int SIGNIFICANT_VALUE_DIGITS = 2;
@@ -96,6 +101,7 @@ public class ClientStats {
         m_invocationsCompleted = m_invocationAborts = m_invocationErrors = 0;
         m_roundTripTimeNanos = m_clusterRoundTripTime = 0;
         m_bytesSent = m_bytesReceived = 0;
+        m_batchesSent = m_batchedInvocations = m_batchDelayNanos = 0;
         m_latencyHistogram = constructHistogram();
     }
 
@@ -116,6 +122,9 @@ public class ClientStats {
         m_latencyHistogram.reestablishTotalCount();
         m_bytesSent = other.m_bytesSent;
         m_bytesReceived = other.m_bytesReceived;
+        m_batchesSent = other.m_batchesSent;
+        m_batchedInvocations = other.m_batchedInvocations;
+        m_batchDelayNanos = other.m_batchDelayNanos;
     }
 
     static ClientStats diff(ClientStats newer, ClientStats older) {
@@ -147,6 +156,10 @@ public class ClientStats {
         retval.m_bytesSent = newer.m_bytesSent - older.m_bytesSent;
         retval.m_bytesReceived = newer.m_bytesReceived - older.m_bytesReceived;
 
+        retval.m_batchesSent = newer.m_batchesSent - older.m_batchesSent;
+        retval.m_batchedInvocations = newer.m_batchedInvocations - older.m_batchedInvocations;
+        retval.m_batchDelayNanos = newer.m_batchDelayNanos - older.m_batchDelayNanos;
+
         return retval;
     }
 
@@ -195,6 +208,10 @@ public class ClientStats {
 
         m_bytesSent += other.m_bytesSent;
         m_bytesReceived += other.m_bytesReceived;
+
+        m_batchesSent += other.m_batchesSent;
+        m_batchedInvocations += other.m_batchedInvocations;
+        m_batchDelayNanos += other.m_batchDelayNanos;
     }
 
     void update(long roundTripTimeNanos, int clusterRoundTripTime, boolean abort, boolean error, boolean timeout) {
@@ -448,6 +465,41 @@ public class ClientStats {
         return m_bytesReceived;
     }
 
+    /**
+     * Return the number of batched network writes made during the time period covered
+     * by this stats instance when invocation batching is enabled with
+     * {@link ClientConfig#setInvocationBatching(int, int)}. This can be specific to a
+     * connection or global, but is not recorded for per-procedure statistics.
+     *
+     * @return The number of batches written or 0 for per-procedure statistics.
+     */
+    public long getBatchesSent() {
+        return m_batchesSent;
+    }
+
+    /**
+     * Get the average number of invocations coalesced into one batched network write
+     * during the time period covered by this stats instance.
+     *
+     * @return Average invocations per batch or 0 if no batch was written.
+     */
+    public double getAverageBatchSize() {
+        if (m_batchesSent == 0) return 0;
+        return m_batchedInvocations / (double) m_batchesSent;
+    }
+
+    /**
+     * Get the average time in milliseconds a batch stayed open, from its first invocation
+     * being queued to the batch being handed to the network, during the time period
+     * covered by this stats instance. This latency is included in the client round trip.
+     *
+     * @return Average batch delay in milliseconds or 0 if no batch was written.
+     */
+    public double getAverageBatchDelay() {
+        if (m_batchesSent == 0) return 0;
+        return (m_batchDelayNanos / (double) m_batchesSent) / 1000000.0D;
+    }
+
     /**
      * <p>Using the latency bucketing statistics gathered by the client, estimate
      * the k-percentile latency value for the time period covered by this stats
@@ -596,6 +648,10 @@ public class ClientStats {
                     (m_roundTripTimeNanos / (double)m_invocationsCompleted) / 1000000.0, m_clusterRoundTripTime / m_invocationsCompleted));
             sb.append(latencyHistoReport()).append("\n");
         }
+        if (m_batchesSent > 0) {
+            sb.append(String.format("    batches sent/avg size/avg delay: %d/%.1f/%.3f\n",
+                    m_batchesSent, getAverageBatchSize(), getAverageBatchDelay()));
+        }
 
         return sb.toString();
     }
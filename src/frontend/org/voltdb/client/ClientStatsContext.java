@@ -160,6 +160,9 @@ public class ClientStatsContext {
             if (cios != null) {
                 cs.m_bytesReceived = cios.m_bytesReceived;
                 cs.m_bytesSent = cios.m_bytesSent;
+                cs.m_batchesSent = cios.m_batchesSent;
+                cs.m_batchedInvocations = cios.m_batchedInvocations;
+                cs.m_batchDelayNanos = cios.m_batchDelayNanos;
             }
             retval.put(e.getKey(), cs);
         }
@@ -33,8 +33,6 @@ import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
@@ -61,6 +59,7 @@ import org.voltcore.network.QueueMonitor;
 import org.voltcore.network.VoltNetworkPool;
 import org.voltcore.network.VoltNetworkPool.IOStatsIntf;
 import org.voltcore.network.VoltProtocolHandler;
+import org.voltcore.utils.ConcurrentLongObjectHashMap;
 import org.voltcore.utils.CoreUtils;
 import org.voltcore.utils.Pair;
 import org.voltcore.utils.ssl.SSLConfiguration;
@@ -160,6 +159,10 @@ class Distributer {
     private AtomicBoolean m_createConnectionUponTopoChangeInProgress = new AtomicBoolean(false);
     private boolean m_topologyChangeAware;
 
+    // Invocation batching, a window of 0 writes every invocation as soon as it is queued
+    private long m_batchWindowNanos = 0;
+    private int m_maxBatchBytes = ClientConfig.DEFAULT_MAX_BATCH_BYTES;
+
     private final ScheduledExecutorService m_ex =
         Executors.newSingleThreadScheduledExecutor(
                 CoreUtils.getThreadFactory("VoltDB Client Reaper Thread"));
@@ -355,9 +358,12 @@ class Distributer {
                     }
 
                     // for each outstanding procedure
-                    for (final Map.Entry<Long, CallbackBookeeping> e : c.m_callbacks.entrySet()) {
-                        final long handle = e.getKey();
-                        final CallbackBookeeping cb = e.getValue();
+                    for (final long handle : c.m_callbacks.keys()) {
+                        final CallbackBookeeping cb = c.m_callbacks.get(handle);
+                        if (cb == null) {
+                            // answered since the keys were collected
+                            continue;
+                        }
 
                         // if the timeout is expired, call the callback and remove the
                         // bookeeping data
@@ -414,13 +420,38 @@ class Distributer {
         boolean ignoreBackpressure;
     }
 
+    /**
+     * Serialized invocations headed to one connection that are written together
+     */
+    static class InvocationBatch {
+        final long m_startNanos;
+        final ArrayList<ByteBuffer> m_invocations = new ArrayList<>();
+        int m_bytes;
+
+        InvocationBatch(long startNanos) {
+            m_startNanos = startNanos;
+        }
+
+        void add(ByteBuffer invocation) {
+            m_invocations.add(invocation);
+            m_bytes += invocation.remaining();
+        }
+    }
+
     class NodeConnection extends VoltProtocolHandler implements org.voltcore.network.QueueMonitor {
         private final AtomicInteger m_callbacksToInvoke = new AtomicInteger(0);
-        private final ConcurrentMap<Long, CallbackBookeeping> m_callbacks = new ConcurrentHashMap<>();
+        private final ConcurrentLongObjectHashMap<CallbackBookeeping> m_callbacks = new ConcurrentLongObjectHashMap<>();
         private final NonBlockingHashMap<String, ClientStats> m_stats = new NonBlockingHashMap<>();
         private Connection m_connection;
         private volatile boolean m_isConnected = true;
 
+        // Invocations waiting to go out as a single write, all guarded by m_batchLock
+        private final Object m_batchLock = new Object();
+        private InvocationBatch m_batch;
+        private long m_batchesSent;
+        private long m_batchedInvocations;
+        private long m_batchDelayNanos;
+
         volatile long m_lastResponseTimeNanos = System.nanoTime();
         boolean m_outstandingPing = false;
         ClientStatusListenerExt.DisconnectCause m_closeCause = DisconnectCause.CONNECTION_CLOSED;
@@ -508,11 +539,80 @@ class Distributer {
                 //for bookkeeping, but it feels dishonest to call this here
                 m_rateLimiter.transactionResponseReceived(nowNanos, -1, ignoreBackpressure);
                 return;
+            } else if (m_batchWindowNanos > 0) {
+                addToBatch(c, afterRateLimitNanos);
             } else {
                 m_connection.writeStream().enqueue(c);
             }
         }
 
+        /*
+         * Coalesce the invocation with others for this connection. The first invocation
+         * of a batch schedules the flush at the end of the window, an invocation that fills
+         * the batch up to the size threshold writes it right away from the calling thread.
+         */
+        private void addToBatch(ByteBuffer c, long nowNanos) {
+            InvocationBatch started = null;
+            synchronized (m_batchLock) {
+                if (m_batch == null) {
+                    m_batch = started = new InvocationBatch(nowNanos);
+                }
+                m_batch.add(c);
+                if (m_batch.m_bytes >= m_maxBatchBytes) {
+                    writeBatch(m_batch);
+                    m_batch = null;
+                    return;
+                }
+            }
+
+            if (started != null) {
+                final InvocationBatch batch = started;
+                try {
+                    m_ex.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            flushBatch(batch);
+                        }
+                    }, m_batchWindowNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException ree) {
+                    // shutting down, don't hold on to the invocation
+                    flushBatch(batch);
+                }
+            }
+        }
+
+        /*
+         * Write the batch unless it already went out because it filled up
+         */
+        void flushBatch(InvocationBatch batch) {
+            synchronized (m_batchLock) {
+                if (m_batch != batch) {
+                    return;
+                }
+                m_batch = null;
+                writeBatch(batch);
+            }
+        }
+
+        /*
+         * Must be called holding m_batchLock, so that batches cut by the window flush and
+         * by a full batch reach the write stream in the order their invocations were queued
+         */
+        private void writeBatch(InvocationBatch batch) {
+            assert(Thread.holdsLock(m_batchLock));
+            final ByteBuffer[] invocations = batch.m_invocations.toArray(new ByteBuffer[batch.m_invocations.size()]);
+            m_batchesSent++;
+            m_batchedInvocations += invocations.length;
+            m_batchDelayNanos += Math.max(0, System.nanoTime() - batch.m_startNanos);
+            m_connection.writeStream().enqueue(invocations);
+        }
+
+        long[] getBatchStats() {
+            synchronized (m_batchLock) {
+                return new long[] { m_batchesSent, m_batchedInvocations, m_batchDelayNanos };
+            }
+        }
+
         /*
          * For high precision timeouts, submit a discrete task to a scheduled
          * executor service to time out the transaction. The timeout task
@@ -762,6 +862,10 @@ class Distributer {
         public void stopping(Connection c) {
             super.stopping(c);
             m_isConnected = false;
+            //Invocations still waiting in a batch are failed with the rest of the callbacks below
+            synchronized (m_batchLock) {
+                m_batch = null;
+            }
             //Prevent queueing of new work to this connection
             synchronized (Distributer.this) {
                 /*
@@ -852,12 +956,12 @@ class Distributer {
                         ClientResponse.CONNECTION_LOST, new VoltTable[0],
                         "Connection to database host (" + m_connection.getHostnameAndIPAndPort() +
                 ") was lost before a response was received");
-            for (Map.Entry<Long, CallbackBookeeping> e : m_callbacks.entrySet()) {
+            for (long handle : m_callbacks.keys()) {
                 //Check for race with other threads
-                if (m_callbacks.remove(e.getKey()) == null) {
+                final CallbackBookeeping callBk = m_callbacks.remove(handle);
+                if (callBk == null) {
                     continue;
                 }
-                final CallbackBookeeping callBk = e.getValue();
                 try {
                     callBk.callback.clientCallback(r);
                 }
@@ -1398,8 +1502,10 @@ class Distributer {
 
             long read = perConnIOStats.getSecond()[0];
             long write = perConnIOStats.getSecond()[2];
+            long[] batchStats = conn.getBatchStats();
 
-            ClientIOStats cios = new ClientIOStats(conn.connectionId(), read, write);
+            ClientIOStats cios = new ClientIOStats(conn.connectionId(), read, write,
+                    batchStats[0], batchStats[1], batchStats[2]);
             retval.put(conn.connectionId(), cios);
         }
 
@@ -1659,6 +1765,17 @@ class Distributer {
         m_topologyChangeAware = topoAware;
     }
 
+    /**
+     * Coalesce invocations per connection into a single write. Only meant to be set
+     * before any connection is created.
+     * @param windowNanos longest an invocation waits for others to join its batch, 0 disables batching
+     * @param maxBatchBytes size at which a batch is written without waiting for the window to close
+     */
+    void setInvocationBatching(long windowNanos, int maxBatchBytes) {
+        m_batchWindowNanos = windowNanos;
+        m_maxBatchBytes = maxBatchBytes;
+    }
+
     void createConnectionsUponTopologyChange() {
 
         if(!m_topologyChangeAware || m_createConnectionUponTopoChangeInProgress.get()) {
@@ -79,6 +79,7 @@ import org.voltdb.compiler.statements.CreateRole;
 import org.voltdb.compiler.statements.CreateTask;
 import org.voltdb.compiler.statements.CreateTopic;
 import org.voltdb.compiler.statements.DRTable;
+import org.voltdb.compiler.statements.DictionaryTable;
 import org.voltdb.compiler.statements.DropAggregateFunction;
 import org.voltdb.compiler.statements.DropFunction;
 import org.voltdb.compiler.statements.DropProcedure;
@@ -244,6 +245,7 @@ public class DDLCompiler {
                                 .addNextProcessor(new DropRole(this))
                                 .addNextProcessor(new DropStream(this))
                                 .addNextProcessor(new DRTable(this))
+                                .addNextProcessor(new DictionaryTable(this))
                                 .addNextProcessor(new SetGlobalParam(this))
                                 .addNextProcessor(new CreateTask(this))
                                 .addNextProcessor(new DropTask(this))
@@ -343,6 +345,7 @@ public class DDLCompiler {
         protected static final String REPLICATE = "REPLICATE";
         protected static final String ROLE = "ROLE";
         protected static final String DR = "DR";
+        protected static final String DICTIONARY = "DICTIONARY";
         protected static final String TASK = "TASK";
         protected static final String AGGREGATE = "AGGREGATE";
         protected static final String TOPIC = "TOPIC";
@@ -1399,6 +1402,7 @@ public class DDLCompiler {
         // any ASSUMEUNIQUE index to be UNIQUE index on replicated table. Therefore, we
         // set it according to current DDL state, then recheck table.m_isreplicated in handlePartitions().
         table.setIsreplicated(!node.attributes.containsKey("partitioncolumn"));
+        table.setIsdictionaryencoded(node.attributes.containsKey("dictionaryTable"));
         if (isStream) {
             if(streamTarget != null && !Constants.CONNECTORLESS_STREAM_TARGET_NAME.equals(streamTarget)) {
                 table.setTabletype(TableType.STREAM.get());
@@ -1927,7 +1931,9 @@ public class DDLCompiler {
         // - Covering cell index (geo index for CONTAINS predicates)
         // - HASH index (set in HSQL because "hash" is in the name of the
         //   constraint or the index
-        // - TREE index, which is the default
+        // - TREE index, which is the default. It is a B+tree when "btree" is in
+        //   the name of the index or when the TREE_INDEX_TYPE system property
+        //   selects BTREE, and a red-black tree otherwise
         boolean isHashIndex = node.attributes.get("ishashindex").equals("true");
         if (has_geo_col) {
             index.setType(IndexType.COVERING_CELL_INDEX.getValue());
@@ -1944,7 +1950,7 @@ public class DDLCompiler {
             }
             index.setType(IndexType.HASH_TABLE.getValue());
         } else {
-            index.setType(IndexType.BALANCED_TREE.getValue());
+            index.setType(IndexType.treeTypeForName(name).getValue());
             index.setCountable(true);
         }
 
@@ -1995,6 +2001,7 @@ public class DDLCompiler {
         }
         index.setAssumeunique(assumeUnique);
         index.setMigrating(isMigrating);
+        index.setBloomfilter(index.getUnique() && IndexType.bloomFilterForName(name));
 
         if (predicate != null) {
             try {
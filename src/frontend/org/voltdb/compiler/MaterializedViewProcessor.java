@@ -69,6 +69,13 @@ import org.voltdb.utils.Encoder;
 
 public class MaterializedViewProcessor {
 
+    /**
+     * When set, single-table views keep per-group counts of their min()/max()
+     * values in the EE, so deleting the current min or max doesn't need a
+     * fallback query.
+     */
+    private static final boolean TRACK_MIN_MAX = Boolean.getBoolean("MATVIEW_TRACK_MINMAX");
+
     private final VoltCompiler m_compiler;
     private final HSQLInterface m_hsql;
 
@@ -171,7 +178,7 @@ public class MaterializedViewProcessor {
             // index or constraint in order to avoid error and crash.
             if (stmt.groupByColumns().size() != 0) {
                 Index pkIndex = destTable.getIndexes().add(HSQLInterface.AUTO_GEN_MATVIEW_IDX);
-                pkIndex.setType(IndexType.BALANCED_TREE.getValue());
+                pkIndex.setType(IndexType.DEFAULT_TREE.getValue());
                 pkIndex.setUnique(true);
                 // add the group by columns from the src table
                 // assume index 1 throuh #grpByCols + 1 are the cols
@@ -363,6 +370,8 @@ public class MaterializedViewProcessor {
                     matviewinfo.setAggregationexpressionsjson(aggregationExprsJson);
                 }
 
+                matviewinfo.setTrackminmax(TRACK_MIN_MAX && ! minMaxAggs.isEmpty());
+
                 // Find index for each min/max aggCol/aggExpr (ENG-6511 and ENG-8512)
                 for (Integer i = 0; i < minMaxAggs.size(); ++i) {
                     Index found = findBestMatchIndexForMatviewMinOrMax(matviewinfo, srcTable, groupbyExprs, minMaxAggs.get(i));
@@ -90,6 +90,13 @@ public class CatchAllVoltDBStatement extends StatementProcessor {
                     ddlStatement.statement.substring(0, ddlStatement.statement.length() - 1))); // remove trailing semicolon
         }
 
+        if (DICTIONARY.equals(m_firstProcessor.getCommandPrefix())) {
+            throw m_compiler.new VoltCompilerException(String.format(
+                    "Invalid DICTIONARY TABLE statement: \"%s\", " +
+                    "expected syntax: DICTIONARY TABLE <table> [DISABLE]",
+                    ddlStatement.statement.substring(0, ddlStatement.statement.length() - 1))); // remove trailing semicolon
+        }
+
         if (TASK.equals(m_firstProcessor.getCommandPrefix())) {
             throw m_compiler.new VoltCompilerException(String.format(
                     "Invalid CREATE TASK statement: \"%s\", expected syntax: \n\""
@@ -0,0 +1,76 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.compiler.statements;
+
+import java.util.regex.Matcher;
+
+import org.hsqldb_voltpatches.VoltXMLElement;
+import org.voltdb.catalog.Database;
+import org.voltdb.compiler.DDLCompiler;
+import org.voltdb.compiler.DDLCompiler.DDLStatement;
+import org.voltdb.compiler.DDLCompiler.StatementProcessor;
+import org.voltdb.compiler.VoltCompiler.DdlProceduresToLoad;
+import org.voltdb.compiler.VoltCompiler.VoltCompilerException;
+import org.voltdb.parser.SQLParser;
+
+/**
+ * Process DICTIONARY TABLE table-name [DISABLE]
+ */
+public class DictionaryTable extends StatementProcessor {
+
+    public DictionaryTable(DDLCompiler ddlCompiler) {
+        super(ddlCompiler);
+    }
+
+    @Override
+    protected boolean processStatement(DDLStatement ddlStatement, Database db, DdlProceduresToLoad whichProcs)
+            throws VoltCompilerException {
+        // matches if it is DICTIONARY TABLE <table-name> [DISABLE]
+        // group 1 -- table name
+        // group 2 -- NULL: share equal string values
+        //            NOT NULL: stop sharing them
+        Matcher statementMatcher = SQLParser.matchDictionaryTable(ddlStatement.statement);
+        if (! statementMatcher.matches()) {
+            return false;
+        }
+
+        String tableName = checkIdentifierStart(statementMatcher.group(1), ddlStatement.statement);
+        VoltXMLElement tableXML = m_schema.findChild("table", tableName.toUpperCase());
+        if (tableXML == null) {
+            throw m_compiler.new VoltCompilerException(String.format(
+                    "Invalid DICTIONARY statement: table %s does not exist", tableName));
+        }
+        if (tableXML.attributes.containsKey("query")) {
+            throw m_compiler.new VoltCompilerException(String.format(
+                    "Invalid DICTIONARY statement: table %s is a materialized view", tableName));
+        }
+        if (tableXML.attributes.containsKey("stream")) {
+            throw m_compiler.new VoltCompilerException(String.format(
+                    "Invalid DICTIONARY statement: table %s is a stream", tableName));
+        }
+
+        if (statementMatcher.group(2) != null) {
+            tableXML.attributes.remove("dictionaryTable");
+        }
+        else {
+            tableXML.attributes.put("dictionaryTable", "ENABLE");
+        }
+        return true;
+    }
+
+}
@@ -86,6 +86,9 @@ public class MpRoSite implements Runnable, SiteProcedureConnection
     // What type of EE is controlled
     final BackendTarget m_backend;
 
+    // The pool this site belongs to, which sets its share of the MP response budget
+    final MpRoSitePool m_pool;
+
     // Manages pending tasks.
     final SiteTaskerQueue m_scheduler;
 
@@ -377,13 +380,15 @@ public class MpRoSite implements Runnable, SiteProcedureConnection
             long siteId,
             BackendTarget backend,
             CatalogContext context,
-            int partitionId)
+            int partitionId,
+            MpRoSitePool pool)
     {
         m_siteId = siteId;
         m_context = context;
         m_partitionId = partitionId;
         m_scheduler = scheduler;
         m_backend = backend;
+        m_pool = pool;
     }
 
     /** Update the loaded procedures. */
@@ -797,6 +802,6 @@ public class MpRoSite implements Runnable, SiteProcedureConnection
 
     @Override
     public long getMaxTotalMpResponseSize() {
-        return MpTransactionState.MP_MAX_TOTAL_RESP_SIZE / MpRoSitePool.MAX_POOL_SIZE;
+        return m_pool.getMaxTotalMpResponseSize();
     }
 }
@@ -33,17 +33,32 @@ import org.voltdb.BackendTarget;
 import org.voltdb.CatalogContext;
 import org.voltdb.LoadedProcedureSet;
 import org.voltdb.StarvationTracker;
+import org.voltdb.compiler.deploymentfile.DeploymentType;
+import org.voltdb.compiler.deploymentfile.SystemSettingsType;
 
 /**
  * Provide a pool of MP Read-only sites to do MP RO work.
  * This should be owned by the MpTransactionTaskQueue and expects all operations
  * to be done while holding its lock.
+ *
+ * The pool starts with a single site and creates another whenever a read
+ * arrives with every site busy, up to a ceiling taken from the deployment
+ * ({@code <systemsettings><mpreadpool maxsize="..."/>}, the size of the old
+ * fixed pool by default). Sites left idle for {@link #IDLE_SITE_TIMEOUT_MS} are retired
+ * again, so the pool follows the concurrency of the MP read workload.
+ *
+ * The MP response budget is split evenly between as many sites as the ceiling allows,
+ * so a full pool never buffers more than the budget however high the ceiling is set.
  */
 class MpRoSitePool {
     final static VoltLogger tmLog = new VoltLogger("TM");
 
-    static final int MAX_POOL_SIZE = Integer.getInteger("MPI_READ_POOL_SIZE", 3);
+    // Overrides the ceiling from the deployment file when set
+    static final int MAX_POOL_SIZE_OVERRIDE = Integer.getInteger("MPI_READ_POOL_SIZE", 0);
+    // Ceiling unless the deployment or MPI_READ_POOL_SIZE raises it, the size of the old fixed pool
+    static final int DEFAULT_POOL_CEILING = 3;
     static final int INITIAL_POOL_SIZE = 1;
+    static final long IDLE_SITE_TIMEOUT_MS = Long.getLong("MPI_READ_POOL_IDLE_TIMEOUT_MS", 60_000);
 
     class MpRoSiteContext {
         final private SiteTaskerQueue m_queue;
@@ -51,6 +66,7 @@ class MpRoSitePool {
         final private CatalogContext m_catalogContext;
         final private LoadedProcedureSet m_loadedProcedures;
         final private Thread m_siteThread;
+        private long m_idleSince;
 
         MpRoSiteContext(long siteId, BackendTarget backend,
                 CatalogContext context, int partitionId,
@@ -62,12 +78,13 @@ class MpRoSitePool {
             // IZZY: Just need something non-null for now
             m_queue.setStarvationTracker(new StarvationTracker(siteId));
             m_queue.setupQueueDepthTracker(siteId);
-            m_site = new MpRoSite(m_queue, siteId, backend, m_catalogContext, partitionId);
+            m_site = new MpRoSite(m_queue, siteId, backend, m_catalogContext, partitionId, MpRoSitePool.this);
             m_loadedProcedures = new LoadedProcedureSet(m_site);
             m_loadedProcedures.loadProcedures(m_catalogContext);
             m_site.setLoadedProcedures(m_loadedProcedures);
             m_siteThread = threadFactory.newThread(m_site);
             m_siteThread.start();
+            m_idleSince = System.currentTimeMillis();
         }
 
         boolean offer(SiteTasker task) {
@@ -96,10 +113,12 @@ class MpRoSitePool {
         }
     }
 
-    // Stack of idle MpRoSites
+    // Stack of idle MpRoSites, the most recently used on top
     private Deque<MpRoSiteContext> m_idleSites = new ArrayDeque<>();
     // Active sites, hashed by the txnID they're working on
     private Map<Long, MpRoSiteContext> m_busySites = new HashMap<>();
+    // Start time of the transaction running on each busy site
+    private Map<Long, Long> m_startTimes = new HashMap<>();
 
     //The reference for all sites, used for shutdown
     private List<MpRoSiteContext> m_allSites = Collections.synchronizedList(new ArrayList<>());
@@ -112,6 +131,22 @@ class MpRoSitePool {
     private CatalogContext m_catalogContext;
     private ThreadFactory m_poolThreadFactory;
     private volatile boolean m_shuttingDown = false;
+    private volatile int m_ceiling;
+    // Share of the MP response budget each site may buffer, follows m_ceiling
+    private volatile long m_maxResponseSizePerSite;
+
+    // Counters reported by MpRoSitePoolStats, only written with the queue lock held
+    private volatile int m_siteCount = 0;
+    private volatile int m_busyCount = 0;
+    private volatile int m_peakBusyCount = 0;
+    private volatile long m_sitesCreated = 0;
+    private volatile long m_sitesRetired = 0;
+    private volatile long m_saturatedCount = 0;
+    // Whether the last check found every site busy, so a saturation is counted once
+    private boolean m_saturated = false;
+    private volatile long m_completedCount = 0;
+    private volatile long m_totalExecutionNanos = 0;
+    private volatile long m_maxExecutionNanos = 0;
 
     MpRoSitePool(
             long siteId,
@@ -129,18 +164,96 @@ class MpRoSitePool {
             CoreUtils.getThreadFactory("RO MP Site - " + CoreUtils.hsIdToString(m_siteId),
                     CoreUtils.MEDIUM_STACK_SIZE);
 
-        tmLog.info("Setting maximum size of MPI read pool to: " + MAX_POOL_SIZE);
+        setCeiling(getPoolCeiling(m_catalogContext));
+        tmLog.info("Setting maximum size of MPI read pool to: " + m_ceiling);
 
         // Construct the initial pool
         for (int i = 0; i < INITIAL_POOL_SIZE; i++) {
-            MpRoSiteContext site = new MpRoSiteContext(m_siteId,
-                    m_backend,
-                    m_catalogContext,
-                    m_partitionId,
-                    m_initiatorMailbox,
-                    m_poolThreadFactory);
-            m_idleSites.push(site);
-            m_allSites.add(site);
+            m_idleSites.push(createSite());
+        }
+    }
+
+    /**
+     * The number of sites the pool may grow to: MPI_READ_POOL_SIZE if set,
+     * otherwise the deployment setting, where 0 means {@link #DEFAULT_POOL_CEILING}.
+     */
+    static int getPoolCeiling(CatalogContext context)
+    {
+        if (MAX_POOL_SIZE_OVERRIDE > 0) {
+            return MAX_POOL_SIZE_OVERRIDE;
+        }
+        int maxSize = 0;
+        DeploymentType deployment = context.getDeployment();
+        if (deployment != null) {
+            SystemSettingsType ss = deployment.getSystemsettings();
+            if (ss != null && ss.getMpreadpool() != null) {
+                maxSize = ss.getMpreadpool().getMaxsize();
+            }
+        }
+        if (maxSize > 0) {
+            return maxSize;
+        }
+        return DEFAULT_POOL_CEILING;
+    }
+
+    // Overridden by tests to avoid starting real sites
+    MpRoSiteContext newSiteContext()
+    {
+        return new MpRoSiteContext(m_siteId,
+                m_backend,
+                m_catalogContext,
+                m_partitionId,
+                m_initiatorMailbox,
+                m_poolThreadFactory);
+    }
+
+    private MpRoSiteContext createSite()
+    {
+        MpRoSiteContext site = newSiteContext();
+        m_allSites.add(site);
+        m_siteCount = m_allSites.size();
+        m_sitesCreated++;
+        return site;
+    }
+
+    private void retireSite(MpRoSiteContext site)
+    {
+        site.shutdown();
+        m_allSites.remove(site);
+        m_siteCount = m_allSites.size();
+        m_sitesRetired++;
+    }
+
+    /**
+     * Retire the least recently used idle sites if they have been idle for
+     * longer than the timeout, or if the pool is above its ceiling.
+     */
+    private void retireIdleSites()
+    {
+        final long now = System.currentTimeMillis();
+        MpRoSiteContext site;
+        while ((site = m_idleSites.peekLast()) != null && m_allSites.size() > INITIAL_POOL_SIZE) {
+            if (m_allSites.size() <= m_ceiling && now - site.m_idleSince < IDLE_SITE_TIMEOUT_MS) {
+                break;
+            }
+            m_idleSites.pollLast();
+            retireSite(site);
+        }
+    }
+
+    private void setCeiling(int ceiling)
+    {
+        m_ceiling = ceiling;
+        m_maxResponseSizePerSite = MpTransactionState.MP_MAX_TOTAL_RESP_SIZE / ceiling;
+    }
+
+    private void updateCeiling()
+    {
+        int ceiling = getPoolCeiling(m_catalogContext);
+        if (ceiling != m_ceiling) {
+            tmLog.info("Changing maximum size of MPI read pool from " + m_ceiling + " to: " + ceiling);
+            setCeiling(ceiling);
+            retireIdleSites();
         }
     }
 
@@ -162,11 +275,11 @@ class MpRoSitePool {
             MpRoSiteContext site = siterator.next();
             if (site.getCatalogCRC() != m_catalogContext.getCatalogCRC()
                     || site.getCatalogVersion() != m_catalogContext.catalogVersion) {
-                site.shutdown();
-                m_idleSites.remove(site);
-                m_allSites.remove(site);
+                siterator.remove();
+                retireSite(site);
             }
         }
+        updateCeiling();
     }
 
     /**
@@ -175,6 +288,9 @@ class MpRoSitePool {
     void updateSettings(CatalogContext context)
     {
         m_catalogContext = context;
+        if (!m_shuttingDown) {
+            updateCeiling();
+        }
     }
 
     /**
@@ -203,7 +319,15 @@ class MpRoSitePool {
         if (m_shuttingDown) {
             return false;
         }
-        return (!m_idleSites.isEmpty() || m_busySites.size() < MAX_POOL_SIZE);
+        if (m_busySites.size() < m_ceiling) {
+            m_saturated = false;
+            return true;
+        }
+        if (!m_saturated) {
+            m_saturated = true;
+            m_saturatedCount++;
+        }
+        return false;
     }
 
     /**
@@ -223,17 +347,15 @@ class MpRoSitePool {
         }
         else {
             if (m_idleSites.isEmpty()) {
-                MpRoSiteContext newSite = new MpRoSiteContext(m_siteId,
-                        m_backend,
-                        m_catalogContext,
-                        m_partitionId,
-                        m_initiatorMailbox,
-                        m_poolThreadFactory);
-                m_idleSites.push(newSite);
-                m_allSites.add(newSite);
+                m_idleSites.push(createSite());
             }
             site = m_idleSites.pop();
             m_busySites.put(txnId, site);
+            m_startTimes.put(txnId, System.nanoTime());
+            m_busyCount = m_busySites.size();
+            if (m_busyCount > m_peakBusyCount) {
+                m_peakBusyCount = m_busyCount;
+            }
         }
         site.offer(task);
         return true;
@@ -252,17 +374,83 @@ class MpRoSitePool {
         if (site == null) {
             throw new RuntimeException("No busy site for txnID: " + txnId + " found, shouldn't happen.");
         }
+        m_busyCount = m_busySites.size();
+        Long startTime = m_startTimes.remove(txnId);
+        if (startTime != null) {
+            long duration = System.nanoTime() - startTime;
+            m_totalExecutionNanos += duration;
+            if (duration > m_maxExecutionNanos) {
+                m_maxExecutionNanos = duration;
+            }
+            m_completedCount++;
+        }
         // check the catalog versions, only push back onto idle if the catalog hasn't changed
         // otherwise, just let it get garbage collected and let doWork() construct new ones for the
         // pool with the updated catalog.
         if (site.getCatalogCRC() == m_catalogContext.getCatalogCRC()
                 && site.getCatalogVersion() == m_catalogContext.catalogVersion) {
+            site.m_idleSince = System.currentTimeMillis();
             m_idleSites.push(site);
         }
         else {
-            site.shutdown();
-            m_allSites.remove(site);
+            retireSite(site);
         }
+        retireIdleSites();
+    }
+
+    long getMaxTotalMpResponseSize()
+    {
+        return m_maxResponseSizePerSite;
+    }
+
+    int getCeiling()
+    {
+        return m_ceiling;
+    }
+
+    int getSiteCount()
+    {
+        return m_siteCount;
+    }
+
+    int getBusyCount()
+    {
+        return m_busyCount;
+    }
+
+    int getPeakBusyCount()
+    {
+        return m_peakBusyCount;
+    }
+
+    long getSitesCreated()
+    {
+        return m_sitesCreated;
+    }
+
+    long getSitesRetired()
+    {
+        return m_sitesRetired;
+    }
+
+    long getSaturatedCount()
+    {
+        return m_saturatedCount;
+    }
+
+    long getCompletedCount()
+    {
+        return m_completedCount;
+    }
+
+    long getTotalExecutionNanos()
+    {
+        return m_totalExecutionNanos;
+    }
+
+    long getMaxExecutionNanos()
+    {
+        return m_maxExecutionNanos;
     }
 
     void shutdown()
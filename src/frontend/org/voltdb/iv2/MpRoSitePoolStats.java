@@ -0,0 +1,106 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.iv2;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.voltdb.SiteStatsSource;
+import org.voltdb.VoltTable.ColumnInfo;
+import org.voltdb.VoltType;
+
+/**
+ * Statistics of the MPI's pool of read-only sites, returned by
+ * {@code @Statistics MPREADPOOL}. Execution times are in microseconds.
+ */
+public class MpRoSitePoolStats extends SiteStatsSource {
+
+    public enum MpReadPool {
+        CEILING                 (VoltType.INTEGER),
+        CURRENT_SIZE            (VoltType.INTEGER),
+        BUSY                    (VoltType.INTEGER),
+        PEAK_BUSY               (VoltType.INTEGER),
+        SITES_CREATED           (VoltType.BIGINT),
+        SITES_RETIRED           (VoltType.BIGINT),
+        SATURATED_COUNT         (VoltType.BIGINT),
+        COMPLETED_COUNT         (VoltType.BIGINT),
+        AVG_EXECUTION           (VoltType.BIGINT),
+        MAX_EXECUTION           (VoltType.BIGINT),
+        RESPONSE_BUDGET_PER_SITE(VoltType.BIGINT);
+
+        public final VoltType m_type;
+        MpReadPool(VoltType type) { m_type = type; }
+    }
+
+    private final MpRoSitePool m_pool;
+
+    MpRoSitePoolStats(long siteId, MpRoSitePool pool) {
+        super(siteId, false);
+        m_pool = pool;
+    }
+
+    @Override
+    protected void populateColumnSchema(ArrayList<ColumnInfo> columns) {
+        super.populateColumnSchema(columns, MpReadPool.class);
+    }
+
+    @Override
+    protected int updateStatsRow(Object rowKey, Object rowValues[]) {
+        int offset = super.updateStatsRow(rowKey, rowValues);
+        final long completed = m_pool.getCompletedCount();
+        rowValues[offset + MpReadPool.CEILING.ordinal()] = m_pool.getCeiling();
+        rowValues[offset + MpReadPool.CURRENT_SIZE.ordinal()] = m_pool.getSiteCount();
+        rowValues[offset + MpReadPool.BUSY.ordinal()] = m_pool.getBusyCount();
+        rowValues[offset + MpReadPool.PEAK_BUSY.ordinal()] = m_pool.getPeakBusyCount();
+        rowValues[offset + MpReadPool.SITES_CREATED.ordinal()] = m_pool.getSitesCreated();
+        rowValues[offset + MpReadPool.SITES_RETIRED.ordinal()] = m_pool.getSitesRetired();
+        rowValues[offset + MpReadPool.SATURATED_COUNT.ordinal()] = m_pool.getSaturatedCount();
+        rowValues[offset + MpReadPool.COMPLETED_COUNT.ordinal()] = completed;
+        rowValues[offset + MpReadPool.AVG_EXECUTION.ordinal()] =
+                m_pool.getTotalExecutionNanos() / Math.max(1, completed) / 1000;
+        rowValues[offset + MpReadPool.MAX_EXECUTION.ordinal()] = m_pool.getMaxExecutionNanos() / 1000;
+        rowValues[offset + MpReadPool.RESPONSE_BUDGET_PER_SITE.ordinal()] = m_pool.getMaxTotalMpResponseSize();
+        return offset + MpReadPool.values().length;
+    }
+
+    @Override
+    protected Iterator<Object> getStatsRowKeyIterator(final boolean interval) {
+        return new Iterator<Object>() {
+            boolean returnRow = true;
+            @Override
+            public boolean hasNext() {
+                return returnRow;
+            }
+
+            @Override
+            public Object next() {
+                if (returnRow) {
+                    returnRow = false;
+                    return new Object();
+                } else {
+                    return null;
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -27,6 +27,7 @@ import org.voltcore.messaging.Mailbox;
 import org.voltcore.utils.RateLimitedLogger;
 import org.voltdb.ClientResponseImpl;
 import org.voltdb.ExpectedProcedureException;
+import org.voltdb.ParameterSet;
 import org.voltdb.ProcedureRunner;
 import org.voltdb.SiteProcedureConnection;
 import org.voltdb.TheHashinator;
@@ -64,28 +65,6 @@ abstract public class ProcedureTask extends TransactionTask
         final InitiateResponseMessage response = new InitiateResponseMessage(task);
 
         try {
-            Object[] callerParams = null;
-            /*
-             * Parameters are lazily deserialized. We may not find out until now
-             * that the parameter set is corrupt
-             */
-            try {
-                callerParams = task.getParameters();
-            } catch (RuntimeException e) {
-                Writer result = new StringWriter();
-                PrintWriter pw = new PrintWriter(result);
-                e.printStackTrace(pw);
-                response.setResults(
-                        new ClientResponseImpl(ClientResponse.GRACEFUL_FAILURE,
-                            new VoltTable[] {},
-                                "Exception while deserializing procedure params, procedure="
-                                + m_procName + "\n"
-                                + result.toString()));
-            }
-            if (callerParams == null) {
-                return response;
-            }
-
             ClientResponseImpl cr = null;
             ProcedureRunner runner = siteConnection.getProcedureRunner(m_procName);
             if (runner == null) {
@@ -107,12 +86,46 @@ abstract public class ProcedureTask extends TransactionTask
                 return response;
             }
 
+            // Single-statement procedures can usually take the client's serialized
+            // parameters as they are, without decoding them at all.
+            Object[] callerParams = null;
+            ParameterSet serializedParams = runner.getSerializedParams(task.getStoredProcedureInvocation());
+            if (serializedParams == null) {
+                /*
+                 * Parameters are lazily deserialized. We may not find out until now
+                 * that the parameter set is corrupt
+                 */
+                try {
+                    callerParams = task.getParameters();
+                } catch (RuntimeException e) {
+                    Writer result = new StringWriter();
+                    PrintWriter pw = new PrintWriter(result);
+                    e.printStackTrace(pw);
+                    response.setResults(
+                            new ClientResponseImpl(ClientResponse.GRACEFUL_FAILURE,
+                                new VoltTable[] {},
+                                    "Exception while deserializing procedure params, procedure="
+                                    + m_procName + "\n"
+                                    + result.toString()));
+                }
+                if (callerParams == null) {
+                    return response;
+                }
+            }
+
             // Check partitioning of single-partition and n-partition transactions.
             if (runner.checkPartition(m_txnState, siteConnection.getCurrentHashinator())) {
                 runner.setupTransaction(m_txnState);
+                // Large read results can go to the client straight from the EE's result
+                // buffers. Writes keep their results around (see storeResults() below).
+                runner.setDetachResultBuffers(task.isReadOnly());
 
                 // execute the procedure
-                cr = runner.call(callerParams);
+                if (serializedParams != null) {
+                    cr = runner.call(serializedParams);
+                } else {
+                    cr = runner.call(callerParams);
+                }
 
                 // pass in the first value in the hashes array if it's not null
                 Integer hash = null;
@@ -127,7 +140,7 @@ abstract public class ProcedureTask extends TransactionTask
                 //                        cr.dropResultTable();
                 //                    }
 
-                response.setResults(cr);
+                response.setResults(cr, runner.takeDetachedResultBuffers());
                 // record the results of write transactions to the transaction state
                 // this may be used to verify the DR replica cluster gets the same value
                 // skip for multi-partition txns because only 1 of k+1 partitions will
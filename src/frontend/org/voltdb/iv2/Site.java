@@ -20,6 +20,7 @@ package org.voltdb.iv2;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
@@ -85,7 +86,9 @@ import org.voltdb.catalog.DRCatalogCommands;
 import org.voltdb.catalog.DRCatalogDiffEngine;
 import org.voltdb.catalog.Database;
 import org.voltdb.catalog.Deployment;
+import org.voltdb.catalog.PlanFragment;
 import org.voltdb.catalog.Procedure;
+import org.voltdb.catalog.Statement;
 import org.voltdb.catalog.Table;
 import org.voltdb.catalog.Topic;
 import org.voltdb.dtxn.SiteTracker;
@@ -106,6 +109,7 @@ import org.voltdb.messaging.CompleteTransactionMessage;
 import org.voltdb.messaging.FastDeserializer;
 import org.voltdb.messaging.FragmentTaskMessage;
 import org.voltdb.messaging.Iv2InitiateTaskMessage;
+import org.voltdb.planner.ActivePlanRepository;
 import org.voltdb.rejoin.TaskLog;
 import org.voltdb.settings.ClusterSettings;
 import org.voltdb.settings.NodeSettings;
@@ -114,12 +118,14 @@ import org.voltdb.sysprocs.saverestore.HiddenColumnFilter;
 import org.voltdb.sysprocs.saverestore.SystemTable;
 import org.voltdb.types.TimestampType;
 import org.voltdb.utils.CompressionService;
+import org.voltdb.utils.Encoder;
 import org.voltdb.utils.LogKeys;
 import org.voltdb.utils.MinimumRatioMaintainer;
 
 import com.google_voltpatches.common.base.Charsets;
 import com.google_voltpatches.common.base.Preconditions;
 import com.google_voltpatches.common.collect.Lists;
+import com.google_voltpatches.common.primitives.Longs;
 
 import vanilla.java.affinity.impl.PosixJNAAffinity;
 
@@ -131,6 +137,10 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
     private static final double m_taskLogReplayRatio =
             Double.valueOf(System.getProperty("TASKLOG_REPLAY_RATIO", "0.6"));
 
+    // Load procedure plans into the EE plan cache at startup and after catalog updates
+    private static final boolean m_warmPlanCache =
+            Boolean.valueOf(System.getProperty("WARM_PLAN_CACHE", "true"));
+
     // Set to false trigger shutdown.
     volatile boolean m_shouldContinue = true;
 
@@ -784,6 +794,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
             m_ee = initializeEE();
         }
         m_ee.loadFunctions(m_context);
+        warmPlanCache();
 
         m_snapshotter = new SnapshotSiteProcessor(m_pendingSiteTasks,
         m_snapshotPriority,
@@ -1741,6 +1752,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
         if (requireCatalogDiffCmdsApplyToEE == false) {
             // empty diff cmds for the EE to apply, so skip the JNI call
             hostLog.debug("Skipped applying diff commands on EE.");
+            warmPlanCache();
             return true;
         }
 
@@ -1790,6 +1802,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
         //No need to quiesce as there is no rolling of generation OLD datasources will be polled and pushed until there is no more data.
         //m_ee.quiesce(m_lastCommittedSpHandle);
         m_ee.updateCatalog(m_context.m_genId, requiresNewExportGeneration, diffCmds);
+        warmPlanCache();
 
         m_tickProducer.changeTickInterval(newCluster.getGlobalflushinterval());
 
@@ -1802,6 +1815,35 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
         return true;
     }
 
+    /**
+     * Load the plans of the user procedures into the EE plan cache so that the first
+     * invocations after startup or a catalog update don't pay for parsing them.
+     * Each site warms its own EE from its own thread.
+     */
+    private void warmPlanCache() {
+        if (!m_warmPlanCache) {
+            return;
+        }
+        List<Long> fragmentIds = new ArrayList<>();
+        for (Procedure proc : m_context.database.getProcedures()) {
+            if (proc.getSystemproc()) {
+                continue;
+            }
+            for (Statement stmt : proc.getStatements()) {
+                for (PlanFragment frag : stmt.getFragments()) {
+                    long fragmentId = ActivePlanRepository.findFragmentIdForPlanHash(
+                            Encoder.hexDecode(frag.getPlanhash()));
+                    if (fragmentId != -1) {
+                        fragmentIds.add(fragmentId);
+                    }
+                }
+            }
+        }
+        if (!fragmentIds.isEmpty()) {
+            m_ee.warmPlanCache(Longs.toArray(fragmentIds));
+        }
+    }
+
     /**
      * Update the system settings
      * @param context catalog context
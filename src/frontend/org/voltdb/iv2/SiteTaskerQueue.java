@@ -17,16 +17,44 @@
 
 package org.voltdb.iv2;
 
-import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.voltcore.utils.CoreUtils;
+import org.voltcore.utils.MpscChunkedQueue;
+import org.voltcore.utils.MpscChunkedQueue.WaitStrategy;
 import org.voltdb.QueueDepthTracker;
 import org.voltdb.StarvationTracker;
 
-/** SiteTaskerScheduler orders SiteTaskers for execution. */
+/**
+ * SiteTaskerScheduler orders SiteTaskers for execution.
+ *
+ * Any thread may offer tasks but only the site thread takes them. Tasks are
+ * moved out of the shared queue in batches of up to {@link #BATCH_SIZE}, and
+ * handed to the site one at a time from the batch. {@link #peek()},
+ * {@link #size()} and {@link #getOldestOfferTime()} may be called from any
+ * thread and never touch the batch; {@link #clear()} only asks the site
+ * thread to drop its backlog.
+ */
 public class SiteTaskerQueue
 {
-    private final LinkedTransferQueue<SiteTasker> m_tasks = new LinkedTransferQueue<SiteTasker>();
+    static final int CHUNK_SIZE = Integer.getInteger("SITE_QUEUE_CHUNK_SIZE", 1024);
+    static final int BATCH_SIZE = Integer.getInteger("SITE_QUEUE_BATCH_SIZE", 64);
+    // SPIN, SPIN_THEN_PARK or PARK. Spinning lasts for QUEUE_SPIN_MICROS.
+    static final WaitStrategy WAIT_STRATEGY = WaitStrategy.valueOf(System.getProperty(
+            "SITE_QUEUE_WAIT_STRATEGY",
+            CoreUtils.QUEUE_SPIN_MICROSECONDS > 0 ? "SPIN_THEN_PARK" : "PARK"));
+
+    private final MpscChunkedQueue<SiteTasker> m_tasks = new MpscChunkedQueue<>(CHUNK_SIZE,
+            WAIT_STRATEGY, CoreUtils.QUEUE_SPIN_MICROSECONDS, TimeUnit.NANOSECONDS);
+    // Tasks drained from m_tasks but not yet handed to the site, site thread only
+    private final SiteTasker[] m_batch = new SiteTasker[BATCH_SIZE];
+    private int m_batchHead = 0;
+    private int m_batchTail = 0;
+    // Oldest task in m_batch (null if none), published for other threads to peek at
+    private final AtomicReference<SiteTasker> m_batchHeadTask = new AtomicReference<>();
+    // Set by clear(), the site thread drops every queued task before its next poll
+    private volatile boolean m_clearRequested = false;
     private StarvationTracker m_starvationTracker;
     private QueueDepthTracker m_queueDepthTracker;
     private int m_partitionId;
@@ -47,22 +75,20 @@ public class SiteTaskerQueue
         // the queue depth before it is incremented
         // i.e. avoid queueDepth < 0
         m_queueDepthTracker.offerUpdate();
-        return m_tasks.offer(task);
+        m_tasks.offer(task);
+        return true;
     }
 
     // Block on the site tasker queue.
     public SiteTasker take() throws InterruptedException
     {
-        SiteTasker task = m_tasks.poll();
-
-        if (task == null) {
-            m_starvationTracker.beginStarvation();
-        } else {
-            m_queueDepthTracker.pollUpdate(task.getQueueOfferTime());
+        SiteTasker task = poll();
+        if (task != null) {
             return task;
         }
+        m_starvationTracker.beginStarvation();
         try {
-            task = CoreUtils.queueSpinTake(m_tasks);
+            task = m_tasks.take();
             // task is never null
             m_queueDepthTracker.pollUpdate(task.getQueueOfferTime());
             return task;
@@ -74,21 +100,68 @@ public class SiteTaskerQueue
     // Non-blocking poll on the site tasker queue.
     public SiteTasker poll()
     {
-        SiteTasker task = m_tasks.poll();
-        if (task != null) {
-            m_queueDepthTracker.pollUpdate(task.getQueueOfferTime());
+        if (m_clearRequested) {
+            dropBacklog();
+        }
+        if (m_batchHead == m_batchTail && !fillBatch()) {
+            return null;
         }
+        SiteTasker task = m_batch[m_batchHead];
+        m_batch[m_batchHead++] = null;
+        m_batchHeadTask.lazySet(m_batchHead < m_batchTail ? m_batch[m_batchHead] : null);
+        m_queueDepthTracker.pollUpdate(task.getQueueOfferTime());
         return task;
     }
 
-    // Non-blocking peek on the site tasker queue.
+    /**
+     * Non-blocking peek on the site tasker queue. May be called from any thread, it
+     * only reads the published head of the batch or the head of the shared queue.
+     */
     public SiteTasker peek()
     {
-        return m_tasks.peek();
+        SiteTasker task = m_batchHeadTask.get();
+        return task != null ? task : m_tasks.peek();
+    }
+
+    // Site thread only
+    private boolean fillBatch()
+    {
+        m_batchHead = 0;
+        m_batchTail = m_tasks.drainTo(m_batch);
+        if (m_batchTail == 0) {
+            return false;
+        }
+        m_batchHeadTask.lazySet(m_batch[0]);
+        return true;
+    }
+
+    // Site thread only
+    private void dropBacklog()
+    {
+        m_clearRequested = false;
+        while (m_batchHead < m_batchTail) {
+            m_queueDepthTracker.pollUpdate(m_batch[m_batchHead].getQueueOfferTime());
+            m_batch[m_batchHead++] = null;
+        }
+        m_batchHeadTask.lazySet(null);
+        SiteTasker task;
+        while ((task = m_tasks.poll()) != null) {
+            m_queueDepthTracker.pollUpdate(task.getQueueOfferTime());
+        }
+    }
+
+    /**
+     * Offer time of the task that has waited the longest, 0 if there is none.
+     * May be called from any thread.
+     */
+    public long getOldestOfferTime()
+    {
+        SiteTasker task = peek();
+        return task == null ? 0 : task.getQueueOfferTime();
     }
 
     public boolean isEmpty() {
-        return m_tasks.isEmpty();
+        return size() == 0;
     }
 
     public void setStarvationTracker(StarvationTracker tracker) {
@@ -96,15 +169,19 @@ public class SiteTaskerQueue
     }
 
     public QueueDepthTracker setupQueueDepthTracker(long siteId) {
-        m_queueDepthTracker = new QueueDepthTracker(siteId, m_tasks);
+        m_queueDepthTracker = new QueueDepthTracker(siteId, this);
         return m_queueDepthTracker;
     }
 
     public int size() {
-        return m_tasks.size();
+        return (m_batchTail - m_batchHead) + m_tasks.size();
     }
 
+    /**
+     * Drop every queued task. May be called from any thread, the tasks are dropped
+     * by the site thread the next time it polls the queue.
+     */
     public void clear() {
-        m_tasks.clear();
+        m_clearRequested = true;
     }
 }
@@ -82,7 +82,8 @@ public abstract class ExecutionEngine implements FastDeserializer.Deserializatio
         SET_MERGED_DRID_TRACKER(7),
         INIT_DRID_TRACKER(8),
         RESET_DR_APPLIED_TRACKER_SINGLE(9),
-        ELASTIC_CHANGE(10);
+        ELASTIC_CHANGE(10),
+        WARM_PLAN_CACHE(11);
 
         private TaskType(int taskId) {
             this.taskId = taskId;
@@ -224,6 +225,20 @@ public abstract class ExecutionEngine implements FastDeserializer.Deserializatio
         return m_usingFallbackBuffer;
     }
 
+    /**
+     * Hand the result buffers backing {@code tables} over to the caller rather
+     * than copying the tables to the heap, so they can be serialized straight
+     * from EE-written memory. The engine carries on with spare buffers. Any
+     * table that lives in some other direct buffer is copied to the heap.
+     *
+     * @return a reference the caller must release once nothing reads the
+     *         tables any more, or null if the tables were not handed over and
+     *         still need to be copied
+     */
+    public ResultBufferPool.Reference detachResultBuffers(VoltTable[] tables) {
+        return null;
+    }
+
     public void setBatchTimeout(int batchTimeout) {
         m_batchTimeout = batchTimeout;
     }
@@ -607,6 +622,30 @@ public abstract class ExecutionEngine implements FastDeserializer.Deserializatio
         return ActivePlanRepository.planForFragmentId(fragmentId);
     }
 
+    /**
+     * Load the plans for the given fragments into the EE plan cache ahead of their
+     * first execution. The EE loads only as many fragments as its cache has free
+     * room for, so plans which are already cached are never evicted.
+     * Engines which can only fetch plans while executing fragments leave this a no-op.
+     *
+     * @param fragmentIds  site-local ids of the fragments to load
+     */
+    public void warmPlanCache(long[] fragmentIds) {}
+
+    /**
+     * Record the outcome of warming the EE plan cache. The plans fetched by the EE
+     * while warming were counted as cache misses, which they are not.
+     *
+     * @param warmed  number of plans loaded into the cache
+     * @param nanos   time spent loading them in nanoseconds
+     */
+    protected void planCacheWarmed(long warmed, long nanos) {
+        m_cacheMisses = 0;
+        if (m_plannerStats != null) {
+            m_plannerStats.updateEECacheWarming(m_eeCacheSize, warmed, nanos, m_partitionId);
+        }
+    }
+
     /*
      * Interface frontend invokes to communicate to CPP execution engine.
      */
@@ -1031,6 +1070,7 @@ public abstract class ExecutionEngine implements FastDeserializer.Deserializatio
      * @param partitionId id of partitioned assigned to this EE
      * @param hostId id of the host this EE is running on
      * @param hostname name of the host this EE is running on
+     * @param compileExpressions compile plan expressions when plans are loaded
      * @return error code
      */
     protected native int nativeInitialize(
@@ -1045,7 +1085,8 @@ public abstract class ExecutionEngine implements FastDeserializer.Deserializatio
             int defaultDrBufferSize,
             long tempTableMemory,
             boolean createDrReplicatedStream,
-            int compactionThreshold);
+            int compactionThreshold,
+            boolean compileExpressions);
 
     /**
      * Sets (or re-sets) all the shared direct byte buffers in the EE.
@@ -77,12 +77,23 @@ public class ExecutionEngineJNI extends ExecutionEngine {
      */
     public static final int EE_COMPACTION_THRESHOLD;
 
+    /*
+     * Compile the predicates and projections of each plan into a flat program when the
+     * plan is loaded, instead of interpreting their expression trees on every row.
+     */
+    private static final boolean EE_COMPILE_EXPRESSIONS = Boolean.getBoolean("EE_COMPILE_EXPRESSIONS");
+
     private static final boolean HOST_TRACE_ENABLED;
 
     // Size of the parameter set buffer and the per-fragment stats buffer.
     // 256K is a reasonable size for those relatively small buffers.
     private static final int smallBufferSize = 256 * 1024;
 
+    // Spare result buffers kept for large read-only results that are handed to their
+    // responses instead of being copied, and the smallest result worth handing over.
+    private static final int DETACHED_RESULT_BUFFERS = Integer.getInteger("DETACHED_RESULT_BUFFERS", 2);
+    private static final int DETACH_RESULT_THRESHOLD = Integer.getInteger("DETACH_RESULT_THRESHOLD", 1024 * 1024);
+
     static {
         EE_COMPACTION_THRESHOLD = Integer.getInteger("EE_COMPACTION_THRESHOLD", 95);
         if (EE_COMPACTION_THRESHOLD < 0 || EE_COMPACTION_THRESHOLD > 99) {
@@ -125,10 +136,12 @@ public class ExecutionEngineJNI extends ExecutionEngine {
      * that rely on being able to serialize large results sets will get the same amount of storage
      * when using the IPC backend.
      **/
-    private final BBContainer m_firstDeserializerBufferOrigin = org.voltcore.utils.DBBPool.allocateDirect(1024 * 1024 * 10);
+    private final ResultBufferPool m_resultBuffers =
+            new ResultBufferPool(1024 * 1024 * 10, 2 + DETACHED_RESULT_BUFFERS);
+    private BBContainer m_firstDeserializerBufferOrigin = m_resultBuffers.take();
     private FastDeserializer m_firstDeserializer =
             new FastDeserializer(m_firstDeserializerBufferOrigin.b());
-    private final BBContainer m_nextDeserializerBufferOrigin = org.voltcore.utils.DBBPool.allocateDirect(1024 * 1024 * 10);
+    private BBContainer m_nextDeserializerBufferOrigin = m_resultBuffers.take();
     private FastDeserializer m_nextDeserializer =
             new FastDeserializer(m_nextDeserializerBufferOrigin.b());
 
@@ -189,7 +202,8 @@ public class ExecutionEngineJNI extends ExecutionEngine {
                     defaultDrBufferSize,
                     tempTableMemory * 1024 * 1024,
                     isLowestSiteId,
-                    EE_COMPACTION_THRESHOLD);
+                    EE_COMPACTION_THRESHOLD,
+                    EE_COMPILE_EXPRESSIONS);
         checkErrorCode(errorCode);
 
         setupPsetBuffer(smallBufferSize);
@@ -320,9 +334,10 @@ public class ExecutionEngineJNI extends ExecutionEngine {
             checkErrorCode(errorCode);
         }
         m_firstDeserializer = null;
-        m_firstDeserializerBufferOrigin.discard();
+        m_firstDeserializerBufferOrigin = null;
         m_nextDeserializer = null;
-        m_nextDeserializerBufferOrigin.discard();
+        m_nextDeserializerBufferOrigin = null;
+        m_resultBuffers.discard();
         m_exceptionBuffer = null;
         m_exceptionBufferOrigin.discard();
         m_emptyDeserializer = null;
@@ -490,6 +505,68 @@ public class ExecutionEngineJNI extends ExecutionEngine {
         }
     }
 
+    @Override
+    public ResultBufferPool.Reference detachResultBuffers(VoltTable[] tables) {
+        boolean inFirst = false;
+        boolean inNext = false;
+        long size = 0;
+        for (VoltTable table : tables) {
+            ByteBuffer buf = PrivateVoltTableFactory.getTableDataReference(table);
+            if (ResultBufferPool.contains(m_firstDeserializerBufferOrigin, buf)) {
+                inFirst = true;
+                size += buf.limit();
+            } else if (ResultBufferPool.contains(m_nextDeserializerBufferOrigin, buf)) {
+                inNext = true;
+                size += buf.limit();
+            }
+        }
+        // small results are cheaper to copy than to tie up a whole buffer
+        if (size < DETACH_RESULT_THRESHOLD) {
+            return null;
+        }
+
+        BBContainer first = inFirst ? m_resultBuffers.take() : null;
+        BBContainer next = inNext ? m_resultBuffers.take() : null;
+        if ((inFirst && first == null) || (inNext && next == null)) {
+            // out of spares until responses holding earlier results are serialized
+            if (first != null) {
+                m_resultBuffers.giveBack(first);
+            }
+            if (next != null) {
+                m_resultBuffers.giveBack(next);
+            }
+            return null;
+        }
+
+        for (VoltTable table : tables) {
+            ByteBuffer buf = PrivateVoltTableFactory.getTableDataReference(table);
+            if (!ResultBufferPool.contains(m_firstDeserializerBufferOrigin, buf) &&
+                    !ResultBufferPool.contains(m_nextDeserializerBufferOrigin, buf)) {
+                // e.g. the fallback buffer the EE frees on its next call
+                table.convertToHeapBuffer();
+            }
+        }
+
+        final ResultBufferPool.Reference detached;
+        if (inFirst && inNext) {
+            detached = m_resultBuffers.detach(m_firstDeserializerBufferOrigin, m_nextDeserializerBufferOrigin);
+        } else if (inFirst) {
+            detached = m_resultBuffers.detach(m_firstDeserializerBufferOrigin);
+        } else {
+            detached = m_resultBuffers.detach(m_nextDeserializerBufferOrigin);
+        }
+        if (inFirst) {
+            m_firstDeserializerBufferOrigin = first;
+            m_firstDeserializer = new FastDeserializer(first.b());
+        }
+        if (inNext) {
+            m_nextDeserializerBufferOrigin = next;
+            m_nextDeserializer = new FastDeserializer(next.b());
+        }
+        updateEEBufferPointers();
+        return detached;
+    }
+
     @Override
     public VoltTable serializeTable(final int tableId) throws EEException {
         if (HOST_TRACE_ENABLED) {
@@ -1087,6 +1164,19 @@ public class ExecutionEngineJNI extends ExecutionEngine {
         }
     }
 
+    @Override
+    public void warmPlanCache(long[] fragmentIds) {
+        ByteBuffer paramBuffer = getParamBufferForExecuteTask(4 + 8 * fragmentIds.length);
+        paramBuffer.putInt(fragmentIds.length);
+        for (long fragmentId : fragmentIds) {
+            paramBuffer.putLong(fragmentId);
+        }
+        ByteBuffer resultBuffer = ByteBuffer.wrap(executeTask(TaskType.WARM_PLAN_CACHE, paramBuffer));
+        long warmed = resultBuffer.getLong();
+        long nanos = resultBuffer.getLong();
+        planCacheWarmed(warmed, nanos);
+    }
+
     @Override
     public ByteBuffer getParamBufferForExecuteTask(int requiredCapacity) {
         clearPsetAndEnsureCapacity(8 + requiredCapacity);
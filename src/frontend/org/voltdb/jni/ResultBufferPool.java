@@ -0,0 +1,169 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.jni;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.voltcore.utils.DBBPool;
+import org.voltcore.utils.DBBPool.BBContainer;
+import org.voltdb.VoltDB;
+
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * The direct buffers an engine has the EE serialize results into. Besides the
+ * buffers the engine is using, the pool keeps a few spares so that a large
+ * result can be handed to its response as it is: the buffer holding it is
+ * detached from the engine and replaced by a spare, and it comes back to the
+ * pool when the last {@link Reference} to it is released, normally once the
+ * response has been serialized.
+ *
+ * The pool discards the buffers it still owns with the engine. Buffers that
+ * are detached at that point are discarded by the release of their last
+ * reference instead, so a queued response can still be serialized after the
+ * engine is gone.
+ */
+public class ResultBufferPool {
+
+    private final int m_bufferSize;
+    private final int m_maxBuffers;
+    // only touched by the engine's thread
+    private final ArrayList<BBContainer> m_allocated = new ArrayList<>();
+    // buffers come back from whichever thread released the last reference
+    private final ConcurrentLinkedQueue<BBContainer> m_free = new ConcurrentLinkedQueue<>();
+    // buffers held by a Reference, guarded by this
+    private final Set<BBContainer> m_detached = new HashSet<>();
+    private volatile boolean m_discarded = false;
+
+    public ResultBufferPool(int bufferSize, int maxBuffers) {
+        m_bufferSize = bufferSize;
+        m_maxBuffers = maxBuffers;
+    }
+
+    /**
+     * @return a buffer, or null if the pool is at its limit and every buffer is in use
+     */
+    public BBContainer take() {
+        BBContainer buffer = m_free.poll();
+        if (buffer == null && m_allocated.size() < m_maxBuffers) {
+            buffer = DBBPool.allocateDirect(m_bufferSize);
+            m_allocated.add(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Return a buffer obtained from {@link #take()} that was never handed out.
+     */
+    public void giveBack(BBContainer buffer) {
+        if (!m_discarded) {
+            m_free.offer(buffer);
+        }
+    }
+
+    /**
+     * Wrap buffers the engine no longer writes to in a reference that returns
+     * them to the pool when released.
+     */
+    public Reference detach(BBContainer... buffers) {
+        synchronized (this) {
+            Collections.addAll(m_detached, buffers);
+        }
+        return new Reference(buffers);
+    }
+
+    /**
+     * Return buffers whose last reference was released, or discard them if the
+     * pool was discarded while they were detached.
+     */
+    private synchronized void reattach(BBContainer[] buffers) {
+        for (BBContainer buffer : buffers) {
+            m_detached.remove(buffer);
+            if (m_discarded) {
+                buffer.discard();
+            } else {
+                m_free.offer(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return true if {@code buf} is a view of the memory of {@code buffer}
+     */
+    public static boolean contains(BBContainer buffer, ByteBuffer buf) {
+        if (!buf.isDirect()) {
+            return false;
+        }
+        final long start = buffer.address();
+        final long address = ((DirectBuffer) buf).address();
+        return address >= start && address < start + buffer.b().capacity();
+    }
+
+    public int getBufferSize() {
+        return m_bufferSize;
+    }
+
+    /**
+     * Discard every buffer that is not detached. Called when the engine is
+     * released, detached buffers are discarded by their last release.
+     */
+    public synchronized void discard() {
+        m_discarded = true;
+        m_free.clear();
+        for (BBContainer buffer : m_allocated) {
+            if (!m_detached.contains(buffer)) {
+                buffer.discard();
+            }
+        }
+        m_allocated.clear();
+    }
+
+    /**
+     * A reference counted handle on detached result buffers. The holder of
+     * the last reference must not touch anything backed by the buffers after
+     * calling {@link #release()}.
+     */
+    public final class Reference {
+        private final BBContainer[] m_buffers;
+        private final AtomicInteger m_refCount = new AtomicInteger(1);
+
+        private Reference(BBContainer[] buffers) {
+            m_buffers = buffers;
+        }
+
+        public Reference retain() {
+            m_refCount.incrementAndGet();
+            return this;
+        }
+
+        public void release() {
+            final int count = m_refCount.decrementAndGet();
+            if (count == 0) {
+                reattach(m_buffers);
+            } else if (count < 0) {
+                VoltDB.crashLocalVoltDB("Broken refcounting of EE result buffers", true, null);
+            }
+        }
+    }
+}
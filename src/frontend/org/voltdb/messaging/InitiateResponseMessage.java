@@ -31,6 +31,7 @@ import org.voltdb.VoltTable;
 import org.voltdb.client.ClientResponse;
 import org.voltdb.iv2.DeterminismHash;
 import org.voltdb.iv2.TxnEgo;
+import org.voltdb.jni.ResultBufferPool;
 
 /**
  * Message from an execution site to initiator with the final response for
@@ -64,6 +65,10 @@ public class InitiateResponseMessage extends VoltMessage {
     // No need to serialize it
     public boolean m_isFromNonRestartableSysproc = false;
 
+    // EE result buffers backing the tables of m_response, if they were not copied
+    // to the heap. Not serialized, released once m_response has been.
+    private ResultBufferPool.Reference m_resultBuffers = null;
+
     /** Empty constructor for de-serialization */
     public InitiateResponseMessage()
     {
@@ -188,6 +193,7 @@ public class InitiateResponseMessage extends VoltMessage {
         m_invocation = invocation;
         m_currentHashinatorConfig = currentHashinatorConfig;
         m_commit = false;
+        releaseResultBuffers();
         m_response = new ClientResponseImpl(ClientResponse.TXN_RESTART, new VoltTable[]{}, "Mispartitioned");
     }
 
@@ -195,6 +201,7 @@ public class InitiateResponseMessage extends VoltMessage {
         m_invocation = invocation;
         m_currentHashinatorConfig = TheHashinator.getCurrentVersionedConfig();
         m_commit = false;
+        releaseResultBuffers();
         m_response = new ClientResponseImpl(ClientResponse.TXN_MISROUTED, new VoltTable[]{}, "Misrouted");
     }
 
@@ -207,6 +214,29 @@ public class InitiateResponseMessage extends VoltMessage {
         m_response = r;
     }
 
+    /**
+     * Set the results along with the EE result buffers backing their tables.
+     * The buffers are released once the results have been serialized, either
+     * to the client or to the host of its client interface, so nothing may
+     * read the tables after that.
+     */
+    public void setResults(ClientResponseImpl r, ResultBufferPool.Reference resultBuffers) {
+        setResults(r);
+        releaseResultBuffers();
+        m_resultBuffers = resultBuffers;
+    }
+
+    /**
+     * Release the EE result buffers backing the results, if any. Safe to call
+     * more than once.
+     */
+    public synchronized void releaseResultBuffers() {
+        if (m_resultBuffers != null) {
+            m_resultBuffers.release();
+            m_resultBuffers = null;
+        }
+    }
+
     public void setMismatchPos(int pos) {
         m_hashMismatchPos = pos;
     }
@@ -275,6 +305,8 @@ public class InitiateResponseMessage extends VoltMessage {
         }
         assert(buf.capacity() == buf.position());
         buf.limit(buf.position());
+        // the receiving host has its own copy of the results now
+        releaseResultBuffers();
     }
 
     @Override
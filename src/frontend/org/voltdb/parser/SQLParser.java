@@ -662,7 +662,7 @@ public class SQLParser extends SQLPatternFactory
     /**
      *  If the statement starts with a VoltDB-specific DDL command,
      *  one of create procedure, create role, create function, create aggregate function,
-     *  drop procedure, drop role, partition, replicate, export, import, or dr,
+     *  drop procedure, drop role, partition, replicate, export, import, dr, or dictionary,
      *  the one match group is set to the matching command EXCEPT as special
      *  (needlessly obscure) cases, simply returns only "procedure" for "create
      *  procedure", only "role" for "create role", only "aggregate" for "create aggregate
@@ -688,6 +688,7 @@ public class SQLParser extends SQLPatternFactory
             "\\AREPLICATE|" +
             "\\AIMPORT|" +
             "\\ADR|" +
+            "\\ADICTIONARY|" +
             "\\ASET|" +
             "\\AALTER\\s+(?:TASK|TOPIC)" +
             ")" +                                  // end (group 1)
@@ -703,6 +704,15 @@ public class SQLParser extends SQLPatternFactory
             "\\s*;\\z"                              // (end statement)
             );
 
+    private static final Pattern PAT_DICTIONARY_TABLE = Pattern.compile(
+            "(?i)" +                                // (ignore case)
+            "\\A"  +                                // start statement
+            "DICTIONARY\\s+TABLE\\s+" +             // DICTIONARY TABLE
+            "([\\w.$]+)" +                          // (1) <table name>
+            "(?:\\s+(DISABLE))?" +                  //     (2) optional DISABLE argument
+            "\\s*;\\z"                              // (end statement)
+            );
+
     //========== Patterns from SQLCommand ==========
 
     private static final String EndOfLineCommentPatternString =
@@ -1065,6 +1075,16 @@ public class SQLParser extends SQLPatternFactory
         return PAT_DR_TABLE.matcher(statement);
     }
 
+    /**
+     * Match statement against dictionary table pattern
+     * @param statement  statement to match against
+     * @return           pattern matcher object
+     */
+    public static Matcher matchDictionaryTable(String statement)
+    {
+        return PAT_DICTIONARY_TABLE.matcher(statement);
+    }
+
     /**
      * Match statement against pattern for start of any partition statement
      * @param statement  statement to match against
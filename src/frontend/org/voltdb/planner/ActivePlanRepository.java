@@ -75,6 +75,18 @@ public abstract class ActivePlanRepository {
         return frag.fragId;
     }
 
+    /**
+     * Get the site-local fragment id for a given plan identified by 20-byte sha-1 hash,
+     * or -1 if the plan has not been loaded into the repository.
+     */
+    public static long findFragmentIdForPlanHash(byte[] planHash) {
+        Sha1Wrapper key = new Sha1Wrapper(planHash);
+        synchronized (FragInfo.class) {
+            FragInfo frag = m_plansByHash.get(key);
+            return frag == null ? -1 : frag.fragId;
+        }
+    }
+
     /**
      * Get the statement text for the fragment identified by its hash
      */
@@ -33,6 +33,7 @@ import org.hsqldb_voltpatches.lib.StringUtil;
 import org.voltcore.utils.Pair;
 import org.voltdb.ParameterSet;
 import org.voltdb.VoltType;
+import org.voltdb.catalog.Column;
 import org.voltdb.catalog.Constraint;
 import org.voltdb.catalog.Database;
 import org.voltdb.catalog.Table;
@@ -46,12 +47,16 @@ import org.voltdb.expressions.ExpressionUtil;
 import org.voltdb.expressions.FunctionExpression;
 import org.voltdb.planner.microoptimizations.MicroOptimizationRunner;
 import org.voltdb.planner.parseinfo.StmtCommonTableScan;
+import org.voltdb.planner.parseinfo.StmtTableScan;
+import org.voltdb.planner.parseinfo.StmtTargetTableScan;
 import org.voltdb.plannodes.AbstractPlanNode;
 import org.voltdb.plannodes.AbstractReceivePlanNode;
+import org.voltdb.plannodes.AbstractScanPlanNode;
 import org.voltdb.plannodes.SendPlanNode;
 import org.voltdb.plannodes.SeqScanPlanNode;
 import org.voltdb.types.ConstraintType;
 import org.voltdb.types.ExpressionType;
+import org.voltdb.utils.CatalogUtil;
 
 /**
  * The query planner accepts catalog data, SQL statements from the catalog, then
@@ -88,6 +93,7 @@ public class QueryPlanner implements AutoCloseable {
 
     private static final boolean DEBUGGING_STATIC_MODE_TO_RETRY_ON_ERROR = false;
 
+
     public final static String UPSERT_TAG = "isUpsert";
 
     private static final Lock PLANNER_LOCK = new ReentrantLock();
@@ -415,6 +421,19 @@ public class QueryPlanner implements AutoCloseable {
      * @return
      */
     private CompiledPlan compileFromXML(VoltXMLElement xmlSQL, String[] paramValues) {
+        return compileFromXML(xmlSQL, paramValues, isSlicingReplicatedScans());
+    }
+
+    /**
+     * Slicing is opt-in for now: multi-partition queries that sequentially scan a single
+     * replicated table split the scan into slices that every partition scans concurrently
+     * only when the SLICE_REPLICATED_SCANS system property is set.
+     */
+    static boolean isSlicingReplicatedScans() {
+        return Boolean.getBoolean("SLICE_REPLICATED_SCANS");
+    }
+
+    private CompiledPlan compileFromXML(VoltXMLElement xmlSQL, String[] paramValues, boolean maySliceScan) {
         // Get a parsed statement from the xml
         // The callers of compilePlan are ready to catch any exceptions thrown here.
         // Simple constant expressions (i.e. "1 + 1" or "(2 * 4 + 2)/3") are evaluated and substituted by HSQL;
@@ -465,6 +484,9 @@ public class QueryPlanner implements AutoCloseable {
             m_isLargeQuery = false;
         }
 
+        Column sliceColumn = maySliceScan ? getReplicatedScanSliceColumn(parsedStmt) : null;
+        m_partitioning.setSlicedReplicatedScan(sliceColumn != null);
+
         // Init Assembler. Each plan assembler requires a new instance of the PlanSelector
         // to keep track of the best plan
         PlanAssembler assembler = new PlanAssembler(m_db, m_partitioning,
@@ -472,6 +494,14 @@ public class QueryPlanner implements AutoCloseable {
         // find the plan with minimal cost
         CompiledPlan bestPlan = assembler.getBestCostPlan(parsedStmt, m_isForView);
 
+        // Only a sequential scan can be sliced.  A query that is better served
+        // by an index is planned again to run whole on a single site.
+        if (sliceColumn != null && (bestPlan == null || ! sliceReplicatedScan(bestPlan, sliceColumn))) {
+            m_partitioning.setSlicedReplicatedScan(false);
+            m_partitioning.resetAnalysisState();
+            return compileFromXML(xmlSQL, paramValues, false);
+        }
+
         // This processing of bestPlan outside/after getBestCostPlan
         // allows getBestCostPlan to be called both here and
         // in PlanAssembler.getNextUnion on each branch of a union.
@@ -545,6 +575,86 @@ public class QueryPlanner implements AutoCloseable {
         return bestPlan;
     }
 
+    /**
+     * Find the column by which a sequential scan of the statement's table
+     * can be sliced across the partitions, if the statement is a read-only
+     * multi-partition query of a single replicated table.
+     * @return the slice column, or null if the scan should not be sliced
+     */
+    private Column getReplicatedScanSliceColumn(AbstractParsedStmt parsedStmt) {
+        if (m_isForView || m_partitioning.wasSpecifiedAsSingle() ||
+                ! (parsedStmt instanceof ParsedSelectStmt)) {
+            return null;
+        }
+        ParsedSelectStmt selectStmt = (ParsedSelectStmt) parsedStmt;
+        if (selectStmt.hasWindowFunctionExpression() ||
+                ! selectStmt.findSubquerySubexpressions().isEmpty()) {
+            return null;
+        }
+        Collection<StmtTableScan> scans = selectStmt.allScans();
+        if (scans.size() != 1) {
+            return null;
+        }
+        StmtTableScan scan = scans.iterator().next();
+        if (! (scan instanceof StmtTargetTableScan) || ! scan.getIsReplicated()) {
+            return null;
+        }
+        Table table = ((StmtTargetTableScan) scan).getTargetTable();
+        // Prefer the leading primary key column, which spreads
+        // the rows most evenly over the partitions.
+        Collection<Column> pkeyColumns = CatalogUtil.getPrimaryKeyColumns(table);
+        if (! pkeyColumns.isEmpty() && isSliceColumn(pkeyColumns.iterator().next())) {
+            return pkeyColumns.iterator().next();
+        }
+        for (Column column : CatalogUtil.getSortedCatalogItems(table.getColumns(), "index")) {
+            if (isSliceColumn(column)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A slice column has to meet the requirements of a partitioning column,
+     * so that every row hashes to exactly one partition.
+     */
+    private static boolean isSliceColumn(Column column) {
+        if (column.getNullable()) {
+            return false;
+        }
+        switch (VoltType.get((byte) column.getType())) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case STRING:
+            case VARBINARY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Mark the collector fragment's scan of the replicated table as sliced.
+     * @return false if the plan does not sequentially scan the table below its receive node
+     */
+    private static boolean sliceReplicatedScan(CompiledPlan plan, Column sliceColumn) {
+        if (plan.rootPlanGraph.findAllNodesOfClass(AbstractReceivePlanNode.class).size() != 1) {
+            return false;
+        }
+        List<AbstractPlanNode> scans = plan.rootPlanGraph.findAllNodesOfClass(AbstractScanPlanNode.class);
+        if (scans.size() != 1 || ! (scans.get(0) instanceof SeqScanPlanNode)) {
+            return false;
+        }
+        SeqScanPlanNode scan = (SeqScanPlanNode) scans.get(0);
+        if (scan.isSubQuery() || scan.isCommonTableScan()) {
+            return false;
+        }
+        scan.setSliceColumnIndex(sliceColumn.getIndex());
+        return true;
+    }
+
     public static int fragmentizePlan(CompiledPlan plan) {
         // split up the plan everywhere we see send/receive into multiple plan fragments
         List<AbstractPlanNode> receives = plan.rootPlanGraph.findAllNodesOfClass(AbstractReceivePlanNode.class);
@@ -19,6 +19,7 @@ package org.voltdb.planner;
 
 import java.util.*;
 
+import org.voltdb.compiler.DatabaseEstimates;
 import org.voltdb.exceptions.PlanningErrorException;
 import org.voltdb.expressions.AbstractExpression;
 import org.voltdb.expressions.ExpressionUtil;
@@ -32,6 +33,7 @@ import org.voltdb.plannodes.IndexSortablePlanNode;
 import org.voltdb.plannodes.AbstractJoinPlanNode;
 import org.voltdb.plannodes.AbstractPlanNode;
 import org.voltdb.plannodes.AbstractReceivePlanNode;
+import org.voltdb.plannodes.HashJoinPlanNode;
 import org.voltdb.plannodes.IndexScanPlanNode;
 import org.voltdb.plannodes.IndexUseForOrderBy;
 import org.voltdb.plannodes.MaterializedScanPlanNode;
@@ -58,6 +60,9 @@ public class SelectSubPlanAssembler extends SubPlanAssembler {
     /** The list of all possible join orders, assembled by queueAllJoinOrders */
     private Deque<JoinNode> m_joinOrders = new ArrayDeque<>();
 
+    /** The estimates the plans are costed with, used to choose between join algorithms */
+    private final DatabaseEstimates m_estimates;
+
     private static final Runtime RUN_TIME = Runtime.getRuntime();
     // Number of times generateSubPlanForJoinNode() gets called recursively that we collect an estimate of heap size,
     // and early exit if too large heap size had been used.
@@ -82,8 +87,10 @@ public class SelectSubPlanAssembler extends SubPlanAssembler {
      * @param partitioning in/out param first element is partition key value, forcing a single-partition statement if non-null,
      * second may be an inferred partition key if no explicit single-partitioning was specified
      */
-    SelectSubPlanAssembler(ParsedSelectStmt selectStmt, StatementPartitioning partitioning) {
+    SelectSubPlanAssembler(ParsedSelectStmt selectStmt, StatementPartitioning partitioning,
+            DatabaseEstimates estimates) {
         super(selectStmt, partitioning);
+        m_estimates = estimates;
         if (selectStmt.hasJoinOrder()) {
             // If a join order was provided or large number of tables join
             m_joinOrders.addAll(selectStmt.getJoinOrder());
@@ -573,8 +580,10 @@ public class SelectSubPlanAssembler extends SubPlanAssembler {
             // Propagate information used for order by clauses in window functions
             // and the statement level order by clause.  This is only if the
             // branch node is an inner join.
+            // A hash join does not preserve the order of its outer input.
             if ((answer != null)
                     && (branchJoinNode.getJoinType() == JoinType.INNER)
+                    && ! (answer instanceof HashJoinPlanNode)
                     && outerScanPlan instanceof IndexSortablePlanNode) {
                 IndexUseForOrderBy indexUseForJoin = answer.indexUse();
                 IndexUseForOrderBy indexUseFromScan = ((IndexSortablePlanNode)outerScanPlan).indexUse();
@@ -715,7 +724,6 @@ public class SelectSubPlanAssembler extends SubPlanAssembler {
 
         AbstractJoinPlanNode ajNode;
         if (canHaveNLJ) {
-            NestLoopPlanNode nljNode = new NestLoopPlanNode();
             // get all the clauses that join the applicable two tables
             // Copy innerAccessPath.joinExprs to leave it unchanged,
             // avoiding accumulation of redundant expressions when
@@ -754,6 +762,23 @@ public class SelectSubPlanAssembler extends SubPlanAssembler {
                 // the inner node ONLY, that can not be pushed down.
                 joinClauses.addAll(innerAccessPath.otherExprs);
             }
+            // Without an index to drive the inner side, an equi-join may be better
+            // served by hashing the inner result once than by rescanning it for every
+            // outer tuple, so keep whichever of the two is estimated to do less work.
+            // The inner result has to be complete before the join starts, which rules
+            // out the send-before-join special case below.  NLIJ plans over the inner
+            // table's indexes are built from other access paths and compete with this
+            // one in the PlanSelector.
+            final AbstractJoinPlanNode nljNode;
+            if (HashJoinPlanNode.isEnabled() &&
+                    ! (innerPlan instanceof IndexScanPlanNode) &&
+                    ! needInnerSendReceive &&
+                    hasHashJoinKey(innerJoinNode, joinClauses) &&
+                    isHashJoinCheaper(outerPlan, innerPlan)) {
+                nljNode = new HashJoinPlanNode();
+            } else {
+                nljNode = new NestLoopPlanNode();
+            }
             nljNode.setJoinPredicate(ExpressionUtil.combinePredicates(ExpressionType.CONJUNCTION_AND, joinClauses));
 
             // combine the tails plan graph with the new head node
@@ -821,6 +846,71 @@ public class SelectSubPlanAssembler extends SubPlanAssembler {
         return singleTVEExprs;
     }
 
+    /**
+     * Determines whether the join clauses include an equality that a hash join can use
+     * as its key: one side based only on the inner node's tables, the other only on
+     * outer tables, and both of the same type.
+     *
+     * @param innerJoinNode - the inner node of the join.
+     * @param joinClauses - the clauses that join the two nodes.
+     * @return true if at least one clause can serve as a hash key.
+     */
+    private static boolean hasHashJoinKey(JoinNode innerJoinNode, List<AbstractExpression> joinClauses) {
+        Set<String> innerAliases = new HashSet<>(innerJoinNode.generateTableJoinOrder());
+        for (AbstractExpression expr : joinClauses) {
+            if (expr.getExpressionType() != ExpressionType.COMPARE_EQUAL ||
+                    expr.getLeft().getValueType() != expr.getRight().getValueType()) {
+                continue;
+            }
+            Boolean leftIsInner = isBasedOnInnerOnly(expr.getLeft(), innerAliases);
+            Boolean rightIsInner = isBasedOnInnerOnly(expr.getRight(), innerAliases);
+            if (leftIsInner != null && rightIsInner != null && ! leftIsInner.equals(rightIsInner)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the work of a hash join and a nest loop join over the same inputs.
+     * The plan costs only count each input of a join once, which understates the
+     * nest loop join: it rescans its whole inner plan for every outer tuple, where
+     * the hash join reads the inner plan once to build the hash table and then
+     * probes it once per outer tuple.
+     *
+     * @param outerPlan - the outer node plan-sub-graph.
+     * @param innerPlan - the inner node plan-sub-graph.
+     * @return true if the hash join is estimated to do less work.
+     */
+    private boolean isHashJoinCheaper(AbstractPlanNode outerPlan, AbstractPlanNode innerPlan) {
+        outerPlan.computeEstimatesRecursively(new PlanStatistics(), m_estimates, null);
+        PlanStatistics innerStats = new PlanStatistics();
+        innerPlan.computeEstimatesRecursively(innerStats, m_estimates, null);
+        double outerTuples = outerPlan.getEstimatedOutputTupleCount();
+        double innerCost = innerStats.getStatistic(0, StatsField.TUPLES_READ);
+        double nestLoopCost = outerTuples * innerCost;
+        double hashCost = innerCost + innerPlan.getEstimatedOutputTupleCount() + outerTuples;
+        return hashCost < nestLoopCost;
+    }
+
+    /**
+     * @return TRUE if every column the expression refers to belongs to one of the
+     * inner tables, FALSE if none do, or null if it refers to no columns or to both sides.
+     */
+    private static Boolean isBasedOnInnerOnly(AbstractExpression expr, Set<String> innerAliases) {
+        List<TupleValueExpression> tves = expr.findAllTupleValueSubexpressions();
+        if (tves.isEmpty()) {
+            return null;
+        }
+        boolean first = innerAliases.contains(tves.get(0).getTableAlias());
+        for (TupleValueExpression tve : tves) {
+            if (innerAliases.contains(tve.getTableAlias()) != first) {
+                return null;
+            }
+        }
+        return first;
+    }
+
     /**
      * For a join node, determines whether any of the inner-outer expressions were used
      * for an inner index access -- this requires joining with a NestLoopIndexJoin.
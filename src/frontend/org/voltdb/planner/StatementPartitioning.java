@@ -153,6 +153,14 @@ public class StatementPartitioning implements Cloneable {
      * on ALL partitions.*/
     private boolean m_isReplicatedDmlToRunOnAllPartitions = false;
 
+    /*
+     * If true, the only table scanned by this query is replicated, and its scan is to be
+     * split into slices that the collector fragment scans concurrently on every partition.
+     * The statement is then planned as if the table were partitioned without a partitioning
+     * column, so that the coordinator fragment merges the slices.
+     */
+    private boolean m_isSlicedReplicatedScan = false;
+
     /**
      * @param specifiedValue non-null if only SP plans are to be assumed
      * @param lockInInferredPartitioningConstant true if MP plans should be automatically optimized for SP where possible
@@ -272,7 +280,7 @@ public class StatementPartitioning implements Cloneable {
      *    - There is a single useful partitioning expression
      */
     public boolean isInferredSingle() {
-        return m_inferPartitioning &&
+        return m_inferPartitioning && ! m_isSlicedReplicatedScan &&
                 ((m_countOfIndependentlyPartitionedTables == 0 && ! m_isDML)  ||
                         singlePartitioningExpression() != null);
     }
@@ -281,6 +289,9 @@ public class StatementPartitioning implements Cloneable {
      * Returns true if the statement will require two fragments.
      */
     public boolean requiresTwoFragments() {
+        if (m_isSlicedReplicatedScan) {
+            return true;
+        }
         if (m_inferPartitioning) {
             return !isInferredSingle();
         } else {
@@ -356,6 +367,22 @@ public class StatementPartitioning implements Cloneable {
         return m_isReplicatedDmlToRunOnAllPartitions;
     }
 
+    /**
+     * Plan the scan of the replicated table as slices run by every partition.
+     * Only ever set for multi-partition (or inferred) read-only statements.
+     */
+    public void setSlicedReplicatedScan(boolean sliced) {
+        assert(! sliced || ! wasSpecifiedAsSingle());
+        m_isSlicedReplicatedScan = sliced;
+    }
+
+    /**
+     * Accessor
+     */
+    public boolean isSlicedReplicatedScan() {
+        return m_isSlicedReplicatedScan;
+    }
+
     /**
      * Given the query's list of tables and its collection(s) of equality-filtered columns and their equivalents,
      * determine whether all joins involving partitioned tables can be executed locally on a single partition.
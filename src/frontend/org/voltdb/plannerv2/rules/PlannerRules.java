@@ -72,6 +72,7 @@ import org.voltdb.plannerv2.rules.physical.VoltPJoinPushThroughJoinRule;
 import org.voltdb.plannerv2.rules.physical.VoltPJoinRule;
 import org.voltdb.plannerv2.rules.physical.VoltPLimitRule;
 import org.voltdb.plannerv2.rules.physical.VoltPNestLoopIndexToMergeJoinRule;
+import org.voltdb.plannerv2.rules.physical.VoltPNestLoopToHashJoinRule;
 import org.voltdb.plannerv2.rules.physical.VoltPNestLoopToIndexJoinRule;
 import org.voltdb.plannerv2.rules.physical.VoltPSeqScanRule;
 import org.voltdb.plannerv2.rules.physical.VoltPSetOpsRule;
@@ -233,6 +234,7 @@ public class PlannerRules {
             VoltPJoinRule.INSTANCE,
             VoltPNestLoopToIndexJoinRule.INSTANCE_SSCAN,
             VoltPNestLoopToIndexJoinRule.INSTANCE_CALC_SSCAN,
+            VoltPNestLoopToHashJoinRule.INSTANCE,
             VoltPNestLoopIndexToMergeJoinRule.INSTANCE_SSCAN_ISCAN,
             VoltPNestLoopIndexToMergeJoinRule.INSTANCE_SSCAN_CALC_ISCAN,
             VoltPNestLoopIndexToMergeJoinRule.INSTANCE_CALC_SSCAN_ISCAN,
@@ -0,0 +1,71 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.voltdb.plannerv2.rules.physical;
+
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.voltdb.plannerv2.rel.physical.VoltPhysicalHashJoin;
+import org.voltdb.plannerv2.rel.physical.VoltPhysicalNestLoopJoin;
+import org.voltdb.plannodes.HashJoinPlanNode;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Offers a hash join as an alternative to a nest loop join that has at least one
+ * equality between an outer and an inner column of the same type.
+ * The non-equi part of the condition is kept and evaluated as a residual predicate.
+ * Only active when hash joins are enabled, see {@link HashJoinPlanNode#isEnabled()}.
+ */
+public class VoltPNestLoopToHashJoinRule extends RelOptRule {
+
+    public static final VoltPNestLoopToHashJoinRule INSTANCE = new VoltPNestLoopToHashJoinRule();
+
+    private VoltPNestLoopToHashJoinRule() {
+        super(operand(VoltPhysicalNestLoopJoin.class, any()), "VoltPNestLoopToHashJoin");
+    }
+
+    @Override
+    public boolean matches(RelOptRuleCall call) {
+        if (! HashJoinPlanNode.isEnabled()) {
+            return false;
+        }
+        final VoltPhysicalNestLoopJoin join = call.rel(0);
+        final JoinInfo joinInfo = join.analyzeCondition();
+        final List<RelDataTypeField> outerFields = join.getLeft().getRowType().getFieldList();
+        final List<RelDataTypeField> innerFields = join.getRight().getRowType().getFieldList();
+        for (int i = 0; i < joinInfo.leftKeys.size(); ++i) {
+            if (outerFields.get(joinInfo.leftKeys.get(i)).getType().getSqlTypeName() ==
+                    innerFields.get(joinInfo.rightKeys.get(i)).getType().getSqlTypeName()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        final VoltPhysicalNestLoopJoin join = call.rel(0);
+        call.transformTo(new VoltPhysicalHashJoin(join.getCluster(), join.getTraitSet(),
+                join.getLeft(), join.getRight(), join.getCondition(), join.getVariablesSet(),
+                join.getJoinType(), join.isSemiJoinDone(), ImmutableList.copyOf(join.getSystemFieldList()),
+                join.getWhereCondition(), join.getOffset(), join.getLimit()));
+    }
+}
@@ -291,7 +291,7 @@ final public class CreateIndexUtils {
             index.setType(IndexType.COVERING_CELL_INDEX.getValue());
         } else {
             index.setCountable(true);
-            index.setType(IndexType.BALANCED_TREE.getValue());
+            index.setType(IndexType.treeTypeForName(indexName).getValue());
         }
         index.setUnique(true);
         index.setAssumeunique(type == SqlKind.ASSUME_UNIQUE);
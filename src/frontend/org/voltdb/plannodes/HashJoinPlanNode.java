@@ -0,0 +1,161 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.plannodes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json_voltpatches.JSONException;
+import org.json_voltpatches.JSONStringer;
+import org.voltdb.compiler.DatabaseEstimates;
+import org.voltdb.compiler.ScalarValueHints;
+import org.voltdb.expressions.AbstractExpression;
+import org.voltdb.expressions.ExpressionUtil;
+import org.voltdb.expressions.TupleValueExpression;
+import org.voltdb.types.ExpressionType;
+import org.voltdb.types.PlanNodeType;
+import org.voltdb.types.SortDirectionType;
+
+/**
+ * An equi-join executed by building a hash table over the inner child's output
+ * and probing it with each outer tuple.  The hash keys are derived from the
+ * equality conjuncts of the join predicate; the whole join predicate is still
+ * evaluated on every candidate pair.
+ *
+ * The EE may spill both inputs to disk for large queries, which does not
+ * preserve the outer ordering, so the output of this node is never ordered.
+ */
+public class HashJoinPlanNode extends AbstractJoinPlanNode {
+
+    public enum Members {
+        OUTER_HASH_EXPRESSIONS,
+        INNER_HASH_EXPRESSIONS;
+    }
+
+    private static volatile boolean s_enabled = false;
+
+    /**
+     * Hash joins are opt-in: the planner only considers them when the deployment
+     * sets {@code <systemsettings><query hashjoin="true"/></systemsettings>}, or,
+     * for planners run outside of a server, when the ENABLE_HASH_JOIN system
+     * property is set.
+     */
+    public static boolean isEnabled() {
+        return s_enabled || Boolean.getBoolean("ENABLE_HASH_JOIN");
+    }
+
+    /**
+     * Apply the deployment's hash join setting. Statements planned before the
+     * change keep their plans; stored procedures are replanned on the next
+     * schema change.
+     */
+    public static void setEnabled(boolean enabled) {
+        s_enabled = enabled;
+    }
+
+    public HashJoinPlanNode() {
+        super();
+    }
+
+    @Override
+    public PlanNodeType getPlanNodeType() {
+        return PlanNodeType.HASHJOIN;
+    }
+
+    @Override
+    public void computeCostEstimates(long childOutputTupleCountEstimate,
+                                     DatabaseEstimates estimates,
+                                     ScalarValueHints[] paramHints) {
+
+        m_estimatedOutputTupleCount = childOutputTupleCountEstimate;
+        // Each input is read once, and every inner tuple is also inserted into the hash table.
+        assert(m_children.size() == 2);
+        AbstractPlanNode innerChild = m_children.get(1);
+        m_estimatedProcessedTupleCount = discountEstimatedProcessedTupleCount(m_children.get(0)) +
+                innerChild.m_estimatedProcessedTupleCount + innerChild.m_estimatedOutputTupleCount;
+    }
+
+    @Override
+    public boolean isOutputOrdered(List<AbstractExpression> sortExpressions, List<SortDirectionType> sortDirections) {
+        return false;
+    }
+
+    @Override
+    public void resolveSortDirection() {
+        m_sortDirection = SortDirectionType.INVALID;
+    }
+
+    @Override
+    protected String explainPlanForNode(String indent) {
+        return "HASH " + this.m_joinType.toString() + " JOIN" + explainFilters(indent);
+    }
+
+    @Override
+    public void toJSONString(JSONStringer stringer) throws JSONException {
+        super.toJSONString(stringer);
+        // The key pairs can only be told apart once the TVE table indexes are resolved
+        List<AbstractExpression> outerKeys = new ArrayList<>();
+        List<AbstractExpression> innerKeys = new ArrayList<>();
+        collectHashKeys(getJoinPredicate(), outerKeys, innerKeys);
+        assert(! outerKeys.isEmpty());
+        stringer.key(Members.OUTER_HASH_EXPRESSIONS.name()).array(outerKeys);
+        stringer.key(Members.INNER_HASH_EXPRESSIONS.name()).array(innerKeys);
+    }
+
+    /**
+     * Split the equality conjuncts of a resolved join predicate into the
+     * outer and inner key expressions.  Only equalities between expressions of
+     * the same type, each based on columns of one side only, qualify.
+     */
+    private static void collectHashKeys(AbstractExpression joinExpr,
+            List<AbstractExpression> outerKeys, List<AbstractExpression> innerKeys) {
+        for (AbstractExpression expr : ExpressionUtil.uncombineAny(joinExpr)) {
+            if (expr.getExpressionType() != ExpressionType.COMPARE_EQUAL ||
+                    expr.getLeft().getValueType() != expr.getRight().getValueType()) {
+                continue;
+            }
+            int leftSide = sideOf(expr.getLeft());
+            int rightSide = sideOf(expr.getRight());
+            if (leftSide == 0 && rightSide == 1) {
+                outerKeys.add(expr.getLeft());
+                innerKeys.add(expr.getRight());
+            } else if (leftSide == 1 && rightSide == 0) {
+                outerKeys.add(expr.getRight());
+                innerKeys.add(expr.getLeft());
+            }
+        }
+    }
+
+    /**
+     * @return the table index (0 for outer, 1 for inner) that all TVEs of
+     * the expression refer to, or -1 if there are none or they are mixed.
+     */
+    private static int sideOf(AbstractExpression expr) {
+        List<TupleValueExpression> tves = expr.findAllTupleValueSubexpressions();
+        if (tves.isEmpty()) {
+            return -1;
+        }
+        int side = tves.get(0).getTableIndex();
+        for (TupleValueExpression tve : tves) {
+            if (tve.getTableIndex() != side) {
+                return -1;
+            }
+        }
+        return side;
+    }
+}
@@ -38,6 +38,9 @@ import org.voltdb.types.SortDirectionType;
 public class SeqScanPlanNode extends AbstractScanPlanNode implements ScanPlanNodeWhichCanHaveInlineInsert {
     private Integer m_CTEBaseStmtId;
     private AbstractPlanNode m_CTEBaseNode = null;
+    // For a sliced scan of a replicated table, the index of the column whose
+    // hash selects the rows belonging to the executing partition, else -1.
+    private int m_sliceColumnIndex = -1;
 
     public SeqScanPlanNode() {
         super();
@@ -166,14 +169,35 @@ public class SeqScanPlanNode extends AbstractScanPlanNode implements ScanPlanNod
         if (isCommonTableScan()) {
             sb.append("COMMON TABLE ");
         }
-        sb.append("\"").append(tableName).append("\"")
-          .append(explainPredicate("\n" + indent + " filter by "));
+        sb.append("\"").append(tableName).append("\"");
+        if (isSlicedScan()) {
+            sb.append(" (partition slice)");
+        }
+        sb.append(explainPredicate("\n" + indent + " filter by "));
         if (isCommonTableScan() && m_CTEBaseNode != null) {
             sb.append(m_CTEBaseNode.explainPlanForNode(indent + extraIndent));
         }
         return sb.toString();
     }
 
+    /**
+     * Limit this scan of a replicated table to the rows whose given column
+     * hashes to the executing partition, so that the scans run by all the
+     * partitions together cover every row exactly once.
+     * @param sliceColumnIndex index of a non-nullable partitionable column
+     */
+    public void setSliceColumnIndex(int sliceColumnIndex) {
+        m_sliceColumnIndex = sliceColumnIndex;
+    }
+
+    public int getSliceColumnIndex() {
+        return m_sliceColumnIndex;
+    }
+
+    public boolean isSlicedScan() {
+        return m_sliceColumnIndex >= 0;
+    }
+
     public StmtCommonTableScan getCommonTableScan() {
         if (m_tableScan instanceof StmtCommonTableScan) {
             return (StmtCommonTableScan)m_tableScan;
@@ -200,7 +224,8 @@ public class SeqScanPlanNode extends AbstractScanPlanNode implements ScanPlanNod
     }
 
     enum Members {
-        CTE_STMT_ID
+        CTE_STMT_ID,
+        SLICE_COLUMN
     }
 
     @Override
@@ -210,6 +235,9 @@ public class SeqScanPlanNode extends AbstractScanPlanNode implements ScanPlanNod
         if (isCommonTableScan()) {
             stringer.key(Members.CTE_STMT_ID.name()).value(m_CTEBaseStmtId);
         }
+        if (isSlicedScan()) {
+            stringer.key(Members.SLICE_COLUMN.name()).value(m_sliceColumnIndex);
+        }
     }
 
     @Override
@@ -220,6 +248,7 @@ public class SeqScanPlanNode extends AbstractScanPlanNode implements ScanPlanNod
         } else {
             m_CTEBaseStmtId = null;
         }
+        m_sliceColumnIndex = jobj.optInt(Members.SLICE_COLUMN.name(), -1);
     }
 
     @Override
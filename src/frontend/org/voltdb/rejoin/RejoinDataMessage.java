@@ -22,13 +22,18 @@ import java.nio.ByteBuffer;
 
 import org.voltcore.messaging.Subject;
 import org.voltcore.messaging.VoltMessage;
+import org.voltcore.utils.CompressionStrategy;
+import org.voltcore.utils.CompressionStrategySnappy;
 import org.voltdb.messaging.VoltDbMessageFactory;
+import org.voltdb.utils.CompressionService;
 
 /**
  *
  */
 public class RejoinDataMessage extends VoltMessage {
     private long m_targetId = -1;
+    // id of the codec m_data is compressed with
+    private byte m_codecId = CompressionStrategySnappy.ID;
     // compressed snapshot data
     private byte[] m_data = null;
 
@@ -37,8 +42,13 @@ public class RejoinDataMessage extends VoltMessage {
     }
 
     public RejoinDataMessage(long targetId, byte[] data) {
+        this(targetId, CompressionStrategySnappy.INSTANCE, data);
+    }
+
+    public RejoinDataMessage(long targetId, CompressionStrategy codec, byte[] data) {
         m_subject = Subject.DEFAULT.getId();
         m_targetId = targetId;
+        m_codecId = codec.getId();
         m_data = data;
     }
 
@@ -50,11 +60,16 @@ public class RejoinDataMessage extends VoltMessage {
         return m_data;
     }
 
+    public CompressionStrategy getCodec() throws IOException {
+        return CompressionService.codecForId(m_codecId);
+    }
+
     @Override
     public int getSerializedSize() {
         int msgsize = super.getSerializedSize();
         msgsize +=
                 8 + // m_targetId
+                1 + // m_codecId
                 4 + // data length
                 m_data.length;
         return msgsize;
@@ -63,6 +78,7 @@ public class RejoinDataMessage extends VoltMessage {
     @Override
     protected void initFromBuffer(ByteBuffer buf) throws IOException {
         m_targetId = buf.getLong();
+        m_codecId = buf.get();
         int len = buf.getInt();
         m_data = new byte[len];
         buf.get(m_data);
@@ -72,6 +88,7 @@ public class RejoinDataMessage extends VoltMessage {
     public void flattenToBuffer(ByteBuffer buf) throws IOException {
         buf.put(VoltDbMessageFactory.REJOIN_DATA_ID);
         buf.putLong(m_targetId);
+        buf.put(m_codecId);
         buf.putInt(m_data.length);
         buf.put(m_data);
         buf.limit(buf.position());
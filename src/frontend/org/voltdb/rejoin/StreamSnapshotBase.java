@@ -18,6 +18,7 @@
 package org.voltdb.rejoin;
 
 import org.voltcore.messaging.VoltMessage;
+import org.voltcore.utils.CompressionStrategy;
 import org.voltdb.exceptions.SerializableException;
 
 /**
@@ -30,7 +31,7 @@ public abstract class StreamSnapshotBase {
     public static final int contentOffset = tableIdOffset + 4;
 
     public static interface MessageFactory {
-        public VoltMessage makeDataMessage(long targetId, byte[] data);
+        public VoltMessage makeDataMessage(long targetId, CompressionStrategy codec, byte[] data);
 
         public boolean isAckEOS(VoltMessage msg);
         public long getAckTargetId(VoltMessage msg);
@@ -40,9 +41,9 @@ public abstract class StreamSnapshotBase {
 
     public static class DefaultMessageFactory implements MessageFactory {
         @Override
-        public VoltMessage makeDataMessage(long targetId, byte[] data)
+        public VoltMessage makeDataMessage(long targetId, CompressionStrategy codec, byte[] data)
         {
-            return new RejoinDataMessage(targetId, data);
+            return new RejoinDataMessage(targetId, codec, data);
         }
 
         @Override
@@ -154,6 +154,7 @@ implements Runnable {
                     compressionBuffer.flip();
                     int uncompressedSize =
                             CompressionService.decompressBuffer(
+                                    dataMsg.getCodec(),
                                     compressionBuffer,
                                     messageBuffer);
                     messageBuffer.limit(uncompressedSize);
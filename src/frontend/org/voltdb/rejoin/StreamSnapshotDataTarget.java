@@ -38,6 +38,7 @@ import java.util.stream.Collectors;
 
 import org.voltcore.logging.VoltLogger;
 import org.voltcore.messaging.Mailbox;
+import org.voltcore.utils.CompressionStrategy;
 import org.voltcore.utils.CoreUtils;
 import org.voltcore.utils.DBBPool;
 import org.voltcore.utils.DBBPool.BBContainer;
@@ -72,6 +73,8 @@ implements SnapshotDataTarget, StreamSnapshotAckReceiver.AckCallback {
     // shortened when in test mode
     public final static long DEFAULT_WRITE_TIMEOUT_MS = m_rejoinDeathTestMode ? 10000 : Long.getLong("REJOIN_WRITE_TIMEOUT_MS", 60000);
     final static long WATCHDOG_PERIOD_S = 5;
+    // codec for the data blocks, sent with each block so the receiver doesn't need the same setting
+    static final CompressionStrategy REJOIN_COMPRESSION = CompressionService.codecFromSystemProperty("REJOIN_COMPRESSION");
 
     // Number of bytes in the fixed header of a table data Block Type(1) + BlockIndex(4) + TableId(4) + partition id(4) + row count(4)
     final static int ROW_COUNT_OFFSET = contentOffset + 4;
@@ -218,16 +221,16 @@ implements SnapshotDataTarget, StreamSnapshotAckReceiver.AckCallback {
         protected int send(Mailbox mb, MessageFactory msgFactory, BBContainer message) throws IOException {
             final ByteBuffer messageBuffer = message.b();
             if (messageBuffer.isDirect()) {
-                byte[] data = CompressionService.compressBuffer(messageBuffer);
-                mb.send(m_destHSId, msgFactory.makeDataMessage(m_targetId, data));
+                byte[] data = CompressionService.compressBuffer(REJOIN_COMPRESSION, messageBuffer);
+                mb.send(m_destHSId, msgFactory.makeDataMessage(m_targetId, REJOIN_COMPRESSION, data));
                 return data.length;
             } else {
                 byte compressedBytes[] =
-                    CompressionService.compressBytes(
+                    CompressionService.compressBytes(REJOIN_COMPRESSION,
                             messageBuffer.array(), messageBuffer.position(),
                             messageBuffer.remaining());
 
-                mb.send(m_destHSId, msgFactory.makeDataMessage(m_targetId, compressedBytes));
+                mb.send(m_destHSId, msgFactory.makeDataMessage(m_targetId, REJOIN_COMPRESSION, compressedBytes));
                 return compressedBytes.length;
             }
         }
@@ -235,13 +238,14 @@ implements SnapshotDataTarget, StreamSnapshotAckReceiver.AckCallback {
         private void sendReplicatedDataToNonLowestSites(Mailbox mb, MessageFactory msgFactory, ByteBuffer message, int len) throws IOException {
             byte[] compressedBytes;
             if (message.isDirect()) {
-                compressedBytes = CompressionService.compressBuffer(message);
+                compressedBytes = CompressionService.compressBuffer(REJOIN_COMPRESSION, message);
             }
             else {
                 compressedBytes =
-                    CompressionService.compressBytes(message.array(), 0, len);
+                    CompressionService.compressBytes(REJOIN_COMPRESSION, message.array(), 0, len);
             }
-            mb.send(Longs.toArray(m_otherDestHSIds), msgFactory.makeDataMessage(m_targetId, compressedBytes));
+            mb.send(Longs.toArray(m_otherDestHSIds),
+                    msgFactory.makeDataMessage(m_targetId, REJOIN_COMPRESSION, compressedBytes));
         }
 
         public synchronized int doWork(Mailbox mb, MessageFactory msgFactory) throws Exception {
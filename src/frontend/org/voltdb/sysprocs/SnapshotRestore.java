@@ -75,6 +75,7 @@ import org.voltdb.ExtensibleSnapshotDigestData;
 import org.voltdb.ParameterSet;
 import org.voltdb.PrivateVoltTableFactory;
 import org.voltdb.SnapshotCompletionMonitor.ExportSnapshotTuple;
+import org.voltdb.SnapshotRestoreStatus;
 import org.voltdb.SnapshotTableInfo;
 import org.voltdb.StartAction;
 import org.voltdb.SystemProcedureExecutionContext;
@@ -149,6 +150,24 @@ public class SnapshotRestore extends VoltSystemProcedure {
     static final long m_reportInterval = 60000;
     static DateFormat m_reportDateFormat = new SimpleDateFormat("HH:mm:ss");
 
+    // Total number of decompressed chunks this host may hold in memory for one partitioned
+    // table, split between its save files. 0 means four per local site.
+    private static final int READAHEAD_CHUNKS = Integer.getInteger("SNAPSHOT_RESTORE_READAHEAD_CHUNKS", 0);
+
+    // Signalled by the save files whenever a chunk finishes decompressing or a reader finishes,
+    // sites with nothing to load wait here instead of blocking on one particular file
+    private static final Object s_chunkAvailable = new Object();
+    private static long s_chunkSignals = 0;
+    static final Runnable s_chunkListener = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (s_chunkAvailable) {
+                s_chunkSignals++;
+                s_chunkAvailable.notifyAll();
+            }
+        }
+    };
+
     private static synchronized void initializeTableSaveFiles(
             String filePath,
             String fileNonce,
@@ -181,14 +200,17 @@ public class SnapshotRestore extends VoltSystemProcedure {
             relevantPartitionSet.add(part_id);
         }
 
+        final int readAheadChunks = readAheadChunksPerFile(st.getLocalSites().length, originalHostIds.length);
         for (int originalHostId : originalHostIds) {
             final File f = getSaveFileForPartitionedTable(filePath, fileNonce,
                     tableName,
                     originalHostId);
             TableSaveFile savefile = getTableSaveFile(
                     f,
-                    st.getLocalSites().length * 2,
+                    readAheadChunks,
                     relevantPartitionSet.toArray(new Integer[relevantPartitionSet.size()]));
+            savefile.setChunkListener(s_chunkListener);
+            savefile.startReading();
 
             m_saveFiles.offer(savefile);
             for (int part_id : savefile.getPartitionIds())
@@ -219,17 +241,55 @@ public class SnapshotRestore extends VoltSystemProcedure {
         return hasMoreChunks;
     }
 
-    private static synchronized BBContainer getNextChunk() throws IOException {
-        BBContainer c = null;
-        while (c == null && m_saveFiles.peek() != null) {
-            TableSaveFile f = m_saveFiles.peek();
-            c = f.getNextChunk();
-            if (c == null) {
-                f.close();
-                m_saveFiles.poll();
+    /**
+     * Every file of a table is read concurrently, so split the table's read ahead budget between them
+     */
+    static int readAheadChunksPerFile(int localSites, int saveFiles) {
+        final int readAheadBudget = READAHEAD_CHUNKS > 0 ? READAHEAD_CHUNKS : localSites * 4;
+        return Math.max(2, readAheadBudget / Math.max(1, saveFiles));
+    }
+
+    /**
+     * Take the next decompressed chunk from whichever of {@code saveFiles} has one ready, rotating
+     * through the files so that they are all drained together. Files are closed and removed once
+     * exhausted. Blocks until a chunk is available and returns null once every file is exhausted.
+     */
+    static BBContainer getNextChunk(ArrayDeque<TableSaveFile> saveFiles) throws IOException {
+        while (true) {
+            final long signals;
+            synchronized (s_chunkAvailable) {
+                signals = s_chunkSignals;
+            }
+            synchronized (SnapshotRestore.class) {
+                for (int ii = saveFiles.size(); ii > 0; ii--) {
+                    TableSaveFile f = saveFiles.poll();
+                    BBContainer c = f.pollNextChunk();
+                    if (c != null) {
+                        saveFiles.offer(f);
+                        return c;
+                    }
+                    if (f.hasMoreChunks()) {
+                        saveFiles.offer(f);
+                    } else {
+                        f.close();
+                    }
+                }
+                if (saveFiles.isEmpty()) {
+                    return null;
+                }
+            }
+            // Don't hold the class lock while waiting, closing a file joins its reader
+            // which may be calling the listener
+            synchronized (s_chunkAvailable) {
+                while (s_chunkSignals == signals) {
+                    try {
+                        s_chunkAvailable.wait();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
             }
         }
-        return c;
     }
 
     @Override
@@ -465,6 +525,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
                 // can't be attempting to set and clear this HashSet simultaneously
                 m_initializedTableSaveFileNames.clear();
                 m_saveFiles.clear();// Tests will reuse a VoltDB process that fails a restore
+                SnapshotRestoreStatus.restoreStarted((String) params[2]);
 
                 m_filePath = (String) params[0];
                 m_filePathType = (String) params[1];
@@ -2094,10 +2155,12 @@ public class SnapshotRestore extends VoltSystemProcedure {
             boolean isRecover) {
         String hostname = CoreUtils.getHostnameOrAddress();
         TableSaveFile savefile = null;
+        SnapshotRestoreStatus.tableStarted(tableName);
         try {
             savefile = getTableSaveFile(getSaveFileForReplicatedTable(tableName), 3, null);
             assert(savefile.getCompleted());
         } catch (IOException e) {
+            SnapshotRestoreStatus.tableFinished(tableName, false);
             VoltTable result = constructResultsTable();
             result.addRow(m_hostId, hostname, CoreUtils.getSiteIdFromHSId(m_siteId), tableName, -1,
                     "FAILURE", "Unable to load table: " + tableName + " error:\n" + CoreUtils.throwableToString(e));
@@ -2140,6 +2203,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
                     continue;   // Should be equivalent to break
                 }
                 try {
+                    SnapshotRestoreStatus.chunkRestored(tableName, c.b().remaining());
                     VoltTable table = converter.convert(c.b());
 
                     Map<Integer, byte[]> partitionedTables = null;
@@ -2224,6 +2288,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
                 }
             }
         } catch (Exception e) {
+            SnapshotRestoreStatus.tableFinished(tableName, false);
             VoltTable result = PrivateVoltTableFactory.createUninitializedVoltTable();
             result = constructResultsTable();
             result.addRow(m_hostId, hostname, CoreUtils.getSiteIdFromHSId(m_siteId), tableName, -1,
@@ -2237,6 +2302,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
             }
         }
 
+        SnapshotRestoreStatus.tableFinished(tableName, true);
         return results[0];
     }
 
@@ -2269,6 +2335,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
         }
         assert(partition_to_siteCount.size() == partitionCount);
 
+        SnapshotRestoreStatus.tableStarted(tableName);
         try
         {
             initializeTableSaveFiles(
@@ -2291,6 +2358,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
                     }
                 }
             }
+            SnapshotRestoreStatus.tableFinished(tableName, false);
             VoltTable result = constructResultsTable();
             result.addRow(m_hostId, hostname, CoreUtils.getSiteIdFromHSId(m_siteId), tableName, relevantPartitionIds[0],
                     "FAILURE", "Unable to load table: " + tableName + " error:\n" + CoreUtils.throwableToString(e));
@@ -2306,7 +2374,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
             TableConverter converter = createConverter(tableName, isRecover);
 
             while (hasMoreChunks()) {
-                c = getNextChunk();
+                c = getNextChunk(m_saveFiles);
                 if (c == null) {
                     continue;//Should be equivalent to break
                 }
@@ -2317,6 +2385,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
                 byte compressedTable[] = null;
                 SynthesizedPlanFragment[] pfs = null;
                 try {
+                    SnapshotRestoreStatus.chunkRestored(tableName, c.b().remaining());
                     VoltTable table = converter.convert(c.b());
 
                     if (asReplicated) {
@@ -2394,6 +2463,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
                 }
             }
         } catch (Exception e) {
+            SnapshotRestoreStatus.tableFinished(tableName, false);
             VoltTable result = PrivateVoltTableFactory.createUninitializedVoltTable();
             result = constructResultsTable();
             result.addRow(m_hostId, hostname, CoreUtils.getSiteIdFromHSId(m_siteId), tableName,
@@ -2426,6 +2496,7 @@ public class SnapshotRestore extends VoltSystemProcedure {
             result.addRow(m_hostId, hostname, CoreUtils.getSiteIdFromHSId(m_siteId), tableName, ctx.getPartitionId(),
                     "SUCCESS", "");
         }
+        SnapshotRestoreStatus.tableFinished(tableName, true);
         return result;
     }
 
@@ -29,7 +29,9 @@ import java.nio.channels.FileChannel;
 import java.util.ArrayDeque;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.Checksum;
@@ -42,6 +44,8 @@ import org.json_voltpatches.JSONObject;
 import org.voltcore.TransactionIdManager;
 import org.voltcore.logging.VoltLogger;
 import org.voltcore.utils.Bits;
+import org.voltcore.utils.CompressionStrategy;
+import org.voltcore.utils.CompressionStrategySnappy;
 import org.voltcore.utils.DBBPool;
 import org.voltcore.utils.DBBPool.BBContainer;
 import org.voltdb.NativeLibraryLoader;
@@ -246,6 +250,7 @@ public class TableSaveFile implements Closeable
                 m_tableName = fd.readString();
                 m_isReplicated = fd.readBoolean();
                 m_isCompressed = false;
+                m_codec = CompressionStrategySnappy.INSTANCE;
                 m_checksumType = ChecksumType.CRC32;
                 if (!m_isReplicated) {
                     m_partitionIds = (int[])fd.readArray(int.class);
@@ -291,6 +296,8 @@ public class TableSaveFile implements Closeable
                 m_tableName = obj.getString("tableName");
                 m_isReplicated = obj.getBoolean("isReplicated");
                 m_isCompressed = obj.optBoolean("isCompressed", false);
+                // Files written before the codec was recorded are all Snappy
+                m_codec = CompressionService.codecForName(obj.optString("compression", CompressionStrategySnappy.NAME));
                 m_checksumType = ChecksumType.valueOf(obj.optString("checksumType", "CRC32"));
                 if (!m_isReplicated) {
                     JSONArray partitionIds = obj.getJSONArray("partitionIds");
@@ -325,6 +332,9 @@ public class TableSaveFile implements Closeable
             throw new IOException(e);
         } catch (JSONException e) {
             throw new IOException(e);
+        } catch (IllegalArgumentException e) {
+            // unknown checksum type or compression codec
+            throw new IOException(e);
         }
     }
 
@@ -371,6 +381,10 @@ public class TableSaveFile implements Closeable
         return m_isCompressed;
     }
 
+    public CompressionStrategy getCodec() {
+        return m_codec;
+    }
+
     public int getTotalPartitions() {
         return m_totalPartitions;
     }
@@ -405,6 +419,14 @@ public class TableSaveFile implements Closeable
         }
 
         synchronized (this) {
+            // chunks still being decompressed use the buffers freed below
+            while (m_pendingChunks > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
             while (!m_availableChunks.isEmpty()) {
                 m_availableChunks.poll().discard();
             }
@@ -418,9 +440,12 @@ public class TableSaveFile implements Closeable
         while ((cont = m_buffers.poll()) != null) {
             cont.discard();
         }
+        while ((cont = m_inputBuffers.poll()) != null) {
+            cont.discard();
+        }
     }
 
-    public Set<Integer> getCorruptedPartitionIds() {
+    public synchronized Set<Integer> getCorruptedPartitionIds() {
         return m_corruptedPartitions;
     }
 
@@ -428,25 +453,84 @@ public class TableSaveFile implements Closeable
         return m_tableHeader;
     }
 
+    /**
+     * Start reading ahead without waiting for the first chunk to be requested
+     */
+    public synchronized void startReading()
+    {
+        if (m_chunkReader == null && m_hasMoreChunks.get()) {
+            m_chunkReader = new ChunkReader();
+            m_chunkReaderThread = new Thread(m_chunkReader, "ChunkReader");
+            m_chunkReaderThread.start();
+        }
+    }
+
+    /**
+     * Register a callback run whenever a chunk becomes available or the file has been
+     * read completely. It is invoked from the reading threads without holding any lock
+     * of this save file, so it must not block.
+     */
+    public void setChunkListener(Runnable listener)
+    {
+        m_chunkListener = listener;
+    }
+
+    private void notifyChunkListener()
+    {
+        final Runnable listener = m_chunkListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private synchronized void setChunkReaderException(IOException e)
+    {
+        m_hasMoreChunks.set(false);
+        if (m_chunkReaderException == null) {
+            m_chunkReaderException = e;
+        }
+        notifyAll();
+    }
+
+    private synchronized void markAllPartitionsCorrupted()
+    {
+        for (int partitionId : m_partitionIds) {
+            m_corruptedPartitions.add(partitionId);
+        }
+    }
+
+    /**
+     * Like {@link #getNextChunk()} but returns null instead of waiting when no chunk is ready yet.
+     * Use {@link #hasMoreChunks()} to tell whether more chunks will come.
+     */
+    public synchronized BBContainer pollNextChunk() throws IOException
+    {
+        if (m_chunkReaderException != null) {
+            throw m_chunkReaderException;
+        }
+        startReading();
+        final Container c = m_availableChunks.poll();
+        if (c != null) {
+            m_chunkReads.release();
+        }
+        return c;
+    }
+
     // Will get the next chunk of the table that is just over the chunk size
     public synchronized BBContainer getNextChunk() throws IOException
     {
         if (m_chunkReaderException != null) {
             throw m_chunkReaderException;
         }
-        if (!m_hasMoreChunks.get()) {
+        if (!m_hasMoreChunks.get() && m_pendingChunks == 0) {
             final Container c = m_availableChunks.poll();
             return c;
         }
 
-        if (m_chunkReader == null) {
-            m_chunkReader = new ChunkReader();
-            m_chunkReaderThread = new Thread(m_chunkReader, "ChunkReader");
-            m_chunkReaderThread.start();
-        }
+        startReading();
 
         Container c = null;
-        while (c == null && (m_hasMoreChunks.get() || !m_availableChunks.isEmpty())) {
+        while (c == null && (m_hasMoreChunks.get() || m_pendingChunks > 0 || !m_availableChunks.isEmpty())) {
             c = m_availableChunks.poll();
             if (c == null) {
                 try {
@@ -471,7 +555,7 @@ public class TableSaveFile implements Closeable
         if (m_chunkReaderException != null) {
             throw m_chunkReaderException;
         }
-        return m_hasMoreChunks.get() || !m_availableChunks.isEmpty();
+        return m_hasMoreChunks.get() || m_pendingChunks > 0 || !m_availableChunks.isEmpty();
     }
 
     // thread safe file channels
@@ -493,9 +577,15 @@ public class TableSaveFile implements Closeable
     private final long m_timestamp;
     private AtomicBoolean m_hasMoreChunks = new AtomicBoolean(true);
     private ConcurrentLinkedQueue<BBContainer> m_buffers = new ConcurrentLinkedQueue<BBContainer>();
+    // Compressed chunks read from disk waiting to be decompressed
+    private final ConcurrentLinkedQueue<BBContainer> m_inputBuffers = new ConcurrentLinkedQueue<BBContainer>();
+    // Number of chunks handed to the compression service and not finished yet
+    private int m_pendingChunks = 0;
+    private volatile Runnable m_chunkListener = null;
     private final ArrayDeque<Container> m_availableChunks = new ArrayDeque<Container>();
     private final HashSet<Integer> m_relevantPartitionIds;
     private final ChecksumType m_checksumType;
+    private final CompressionStrategy m_codec;
 
     /*
      * In version 2 the layout of chunks was rejiggered to do less work
@@ -532,12 +622,13 @@ public class TableSaveFile implements Closeable
         /*
          * The old method was out of hand. Going to start a new one with a different format
          * that should be easier to understand and validate.
+         *
+         * This thread only does the IO and validates the chunk header. Checking the payload CRC
+         * and decompressing it happens on the compression service threads, so several chunks
+         * can be decompressed while the next ones are read. The read ahead permits bound the
+         * number of chunks in flight, read but not yet handed out.
          */
         private void readChunksV2() {
-            //For reading the compressed input.
-            final BBContainer fileInputBufferC =
-                    DBBPool.allocateDirect(CompressionService.maxCompressedLength(DEFAULT_CHUNKSIZE));
-            final ByteBuffer fileInputBuffer = fileInputBufferC.b();
             long sinceLastFAdvise = Long.MAX_VALUE;
             long positionAtLastFAdvise = 0;
 
@@ -584,11 +675,10 @@ public class TableSaveFile implements Closeable
                 try {
                     m_chunkReads.acquire();
                 } catch (InterruptedException e) {
-                    fileInputBufferC.discard();
                     return;
                 }
                 boolean expectedAnotherChunk = false;
-                Container c = null;
+                BBContainer fileInputBufferC = null;
                 try {
 
                     /*
@@ -621,9 +711,7 @@ public class TableSaveFile implements Closeable
                     int generatedValue = (int)partitionIdCRC.getValue();
                     if (generatedValue != nextChunkPartitionIdCRC) {
                         chunkLengthB.position(0);
-                        for (int partitionId : m_partitionIds) {
-                            m_corruptedPartitions.add(partitionId);
-                        }
+                        markAllPartitionsCorrupted();
                         throw new IOException("Chunk partition ID CRC check failed. " +
                                 "This corrupts all partitions in this file");
                     }
@@ -641,16 +729,15 @@ public class TableSaveFile implements Closeable
                         throw new IOException("Corrupted TableSaveFile chunk has negative chunk length");
                     }
 
+                    fileInputBufferC = getInputBuffer();
+                    final ByteBuffer fileInputBuffer = fileInputBufferC.b();
                     if (nextChunkLength > fileInputBuffer.capacity()) {
                         throw new IOException("Corrupted TableSaveFile chunk has unreasonable length " +
                                 "> DEFAULT_CHUNKSIZE bytes");
                     }
 
                     /*
-                     * Go fetch the compressed data so that the uncompressed size is known
-                     * and use that to set nextChunkLength to be the uncompressed length,
-                     * the code ahead that constructs the volt table is expecting
-                     * the uncompressed size/data since it is producing an uncompressed table
+                     * Go fetch the compressed data, the decompression task works out the uncompressed size
                      */
                     fileInputBuffer.clear();
                     fileInputBuffer.limit(nextChunkLength);
@@ -662,89 +749,9 @@ public class TableSaveFile implements Closeable
                         sinceLastFAdvise += read;
                     }
                     fileInputBuffer.flip();
-                    nextChunkLength = CompressionService.uncompressedLength(fileInputBuffer);
-
-                    /*
-                     * Validate the rest of the chunk. This can fail if the data is corrupted
-                     * or the length value was corrupted.
-                     */
-                    final int calculatedCRC =
-                            DBBPool.getBufferCRC32C(fileInputBuffer, 0, fileInputBuffer.remaining());
-                    if (calculatedCRC != nextChunkCRC) {
-                        m_corruptedPartitions.add(nextChunkPartitionId);
-                        if (m_continueOnCorruptedChunk) {
-                            m_chunkReads.release();
-                            continue;
-                        } else {
-                            throw new IOException("CRC mismatch in saved table chunk");
-                        }
-                    }
 
-                    /*
-                     * Now allocate space to store the chunk using the VoltTable serialization representation.
-                     * The chunk will contain an integer row count preceding it so it can
-                     * be sucked straight in. There is a little funny business to overwrite the
-                     * partition id that is not part of the serialization format
-                     */
-                    c = getOutputBuffer(nextChunkPartitionId);
-
-                    /*
-                     * If the length value is wrong or not all data made it to disk this read will
-                     * not complete correctly. There could be overflow, underflow etc.
-                     * so use a try finally block to indicate that all partitions are now corrupt.
-                     * The enclosing exception handlers will do the right thing WRT to
-                     * propagating the error and closing the file.
-                     */
-                    boolean completedRead = false;
-                    try {
-                        final ByteBuffer buf = c.b();
-                        /*
-                         * Assemble a VoltTable out of the chunk of tuples.
-                         * Put in the header that was cached in the constructor,
-                         * then copy the tuple data.
-                         */
-                        buf.clear();
-                        buf.limit(nextChunkLength  + m_tableHeader.capacity());
-                        m_tableHeader.position(0);
-                        buf.put(m_tableHeader);
-                        //Doesn't move buffer position, does change the limit
-                        CompressionService.decompressBuffer(fileInputBuffer, buf);
-                        completedRead = true;
-                    } finally {
-                        if (!completedRead) {
-                            for (int partitionId : m_partitionIds) {
-                                m_corruptedPartitions.add(partitionId);
-                            }
-                            if (m_continueOnCorruptedChunk) {
-                                m_chunkReads.release();
-                                continue;
-                            } else {
-                                throw new IOException("Failed decompression of saved table chunk");
-                            }
-                        }
-                    }
-
-                    /*
-                     * Skip irrelevant chunks after CRC is calculated. Always calulate the CRC
-                     * in case it is the length value that is corrupted
-                     */
-                    if (m_relevantPartitionIds != null) {
-                        if (!m_relevantPartitionIds.contains(nextChunkPartitionId)) {
-                            m_chunkReads.release();
-                            continue;
-                        }
-                    }
-
-                    /*
-                     * VoltTable wants the buffer at the home position 0
-                     */
-                    c.b().position(0);
-
-                    synchronized (TableSaveFile.this) {
-                        m_availableChunks.offer(c);
-                        c = null;
-                        TableSaveFile.this.notifyAll();
-                    }
+                    submitDecompression(fileInputBufferC, nextChunkPartitionId, nextChunkCRC);
+                    fileInputBufferC = null;
                 } catch (EOFException eof) {
                     synchronized (TableSaveFile.this) {
                         m_hasMoreChunks.set(false);
@@ -755,36 +762,151 @@ public class TableSaveFile implements Closeable
                         TableSaveFile.this.notifyAll();
                     }
                 } catch (IOException e) {
-                    synchronized (TableSaveFile.this) {
-                        m_hasMoreChunks.set(false);
-                        m_chunkReaderException = e;
-                        TableSaveFile.this.notifyAll();
-                    }
+                    setChunkReaderException(e);
                 } catch (BufferUnderflowException e) {
-                    synchronized (TableSaveFile.this) {
-                        m_hasMoreChunks.set(false);
-                        m_chunkReaderException = new IOException(e);
-                        TableSaveFile.this.notifyAll();
-                    }
+                    setChunkReaderException(new IOException(e));
                 } catch (BufferOverflowException e) {
-                    synchronized (TableSaveFile.this) {
-                        m_hasMoreChunks.set(false);
-                        m_chunkReaderException = new IOException(e);
-                        TableSaveFile.this.notifyAll();
-                    }
+                    setChunkReaderException(new IOException(e));
                 } catch (IndexOutOfBoundsException e) {
+                    setChunkReaderException(new IOException(e));
+                } finally {
+                    if (fileInputBufferC != null) {
+                        m_inputBuffers.offer(fileInputBufferC);
+                    }
+                }
+            }
+        }
+
+        private BBContainer getInputBuffer() {
+            BBContainer c = m_inputBuffers.poll();
+            if (c == null) {
+                c = DBBPool.allocateDirect(CompressionService.maxCompressedLength(DEFAULT_CHUNKSIZE));
+            }
+            return c;
+        }
+
+        private void submitDecompression(final BBContainer fileInputBufferC, final int partitionId, final int crc) {
+            synchronized (TableSaveFile.this) {
+                m_pendingChunks++;
+            }
+            try {
+                CompressionService.submitCompressionTask(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        decompressChunk(fileInputBufferC, partitionId, crc);
+                        return null;
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the compression service is shutting down, do the work on this thread
+                decompressChunk(fileInputBufferC, partitionId, crc);
+            }
+        }
+
+        /*
+         * Validate and decompress one chunk read by readChunksV2, runs on a compression service thread
+         */
+        private void decompressChunk(final BBContainer fileInputBufferC, final int partitionId, final int crc) {
+            Container c = null;
+            try {
+                final ByteBuffer fileInputBuffer = fileInputBufferC.b();
+                final int nextChunkLength = CompressionService.uncompressedLength(m_codec, fileInputBuffer);
+
+                /*
+                 * Validate the rest of the chunk. This can fail if the data is corrupted
+                 * or the length value was corrupted.
+                 */
+                final int calculatedCRC =
+                        DBBPool.getBufferCRC32C(fileInputBuffer, 0, fileInputBuffer.remaining());
+                if (calculatedCRC != crc) {
                     synchronized (TableSaveFile.this) {
-                        m_hasMoreChunks.set(false);
-                        m_chunkReaderException = new IOException(e);
-                        TableSaveFile.this.notifyAll();
+                        m_corruptedPartitions.add(partitionId);
                     }
-                } finally {
-                    if (c != null) {
-                        c.discard();
+                    if (m_continueOnCorruptedChunk) {
+                        m_chunkReads.release();
+                        return;
+                    } else {
+                        throw new IOException("CRC mismatch in saved table chunk");
                     }
                 }
+
+                /*
+                 * Now allocate space to store the chunk using the VoltTable serialization representation.
+                 * The chunk will contain an integer row count preceding it so it can
+                 * be sucked straight in. There is a little funny business to overwrite the
+                 * partition id that is not part of the serialization format
+                 */
+                c = getOutputBuffer(partitionId);
+
+                /*
+                 * If the length value is wrong or not all data made it to disk this read will
+                 * not complete correctly. There could be overflow, underflow etc.
+                 * so indicate that all partitions are now corrupt.
+                 */
+                try {
+                    final ByteBuffer buf = c.b();
+                    /*
+                     * Assemble a VoltTable out of the chunk of tuples.
+                     * Put in the header that was cached in the constructor,
+                     * then copy the tuple data.
+                     */
+                    buf.clear();
+                    buf.limit(nextChunkLength  + m_tableHeader.capacity());
+                    final ByteBuffer header = m_tableHeader.duplicate();
+                    header.position(0);
+                    buf.put(header);
+                    //Doesn't move buffer position, does change the limit
+                    CompressionService.decompressBuffer(m_codec, fileInputBuffer, buf);
+                } catch (IOException | RuntimeException e) {
+                    markAllPartitionsCorrupted();
+                    if (m_continueOnCorruptedChunk) {
+                        m_chunkReads.release();
+                        return;
+                    } else {
+                        throw new IOException("Failed decompression of saved table chunk", e);
+                    }
+                }
+
+                /*
+                 * Skip irrelevant chunks after CRC is calculated. Always calulate the CRC
+                 * in case it is the length value that is corrupted
+                 */
+                if (m_relevantPartitionIds != null) {
+                    if (!m_relevantPartitionIds.contains(partitionId)) {
+                        m_chunkReads.release();
+                        return;
+                    }
+                }
+
+                /*
+                 * VoltTable wants the buffer at the home position 0
+                 */
+                c.b().position(0);
+
+                synchronized (TableSaveFile.this) {
+                    m_availableChunks.offer(c);
+                    c = null;
+                    TableSaveFile.this.notifyAll();
+                }
+            } catch (IOException e) {
+                setChunkReaderException(e);
+            } catch (BufferUnderflowException e) {
+                setChunkReaderException(new IOException(e));
+            } catch (BufferOverflowException e) {
+                setChunkReaderException(new IOException(e));
+            } catch (IndexOutOfBoundsException e) {
+                setChunkReaderException(new IOException(e));
+            } finally {
+                if (c != null) {
+                    c.discard();
+                }
+                m_inputBuffers.offer(fileInputBufferC);
+                synchronized (TableSaveFile.this) {
+                    m_pendingChunks--;
+                    TableSaveFile.this.notifyAll();
+                }
+                notifyChunkListener();
             }
-            fileInputBufferC.discard();
         }
 
         private void readChunks() {
@@ -885,7 +1007,7 @@ public class TableSaveFile implements Closeable
                             }
                         }
                         fileInputBuffer.flip();
-                        nextChunkLength = CompressionService.uncompressedLength(fileInputBuffer);
+                        nextChunkLength = CompressionService.uncompressedLength(m_codec, fileInputBuffer);
                     }
 
                     /*
@@ -931,7 +1053,7 @@ public class TableSaveFile implements Closeable
                         c.b().position(c.b().position() + 4);//Leave space for row count to be moved into
                         checksumStartPosition = c.b().position();
                         if (isCompressed()) {
-                            CompressionService.decompressBuffer(fileInputBuffer, c.b());
+                            CompressionService.decompressBuffer(m_codec, fileInputBuffer, c.b());
                             c.b().position(c.b().limit());
                         } else {
                             while (c.b().hasRemaining()) {
@@ -1085,6 +1207,7 @@ public class TableSaveFile implements Closeable
                     } catch (IOException e) {
                     }
                 }
+                notifyChunkListener();
             }
         }
 
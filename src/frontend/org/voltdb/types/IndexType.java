@@ -52,6 +52,39 @@ public enum IndexType {
         }
     }
 
+    /**
+     * The kind of ordered index built for tree indexes: BALANCED_TREE (red-black)
+     * unless the TREE_INDEX_TYPE system property selects BTREE.
+     */
+    public static final IndexType DEFAULT_TREE =
+            "BTREE".equalsIgnoreCase(System.getProperty("TREE_INDEX_TYPE")) ? BTREE : BALANCED_TREE;
+
+    /**
+     * The kind of tree index for an index with the given name. Like "hash",
+     * the string "btree" anywhere in the name selects a B+tree index.
+     */
+    public static IndexType treeTypeForName(String indexName) {
+        if (indexName != null && indexName.toUpperCase().contains("BTREE")) {
+            return BTREE;
+        }
+        return DEFAULT_TREE;
+    }
+
+    /**
+     * Set the UNIQUE_INDEX_BLOOM_FILTER system property to put a Bloom filter
+     * in front of the key lookups of every unique index.
+     */
+    public static final boolean UNIQUE_INDEX_BLOOM_FILTER = Boolean.getBoolean("UNIQUE_INDEX_BLOOM_FILTER");
+
+    /**
+     * Whether a unique index with the given name gets a Bloom filter. Like
+     * "btree", the string "bloom" anywhere in the name asks for one.
+     */
+    public static boolean bloomFilterForName(String indexName) {
+        return UNIQUE_INDEX_BLOOM_FILTER ||
+                (indexName != null && indexName.toUpperCase().contains("BLOOM"));
+    }
+
     public static Map<Integer, IndexType> getIndexMap() {
         return idx_lookup;
     }
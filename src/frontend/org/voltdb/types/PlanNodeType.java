@@ -49,6 +49,7 @@ public enum PlanNodeType implements PlanMatcher {
     NESTLOOP        (20, NestLoopPlanNode.class),
     NESTLOOPINDEX   (21, NestLoopIndexPlanNode.class),
     MERGEJOIN       (22, MergeJoinPlanNode.class),
+    HASHJOIN        (23, HashJoinPlanNode.class),
 
     //
     // Operator Nodes
@@ -434,6 +434,10 @@ public abstract class CatalogSchemaTools {
             sb.append("DR TABLE ").append(catalog_tbl.getTypeName()).append(";\n");
         }
 
+        if (catalog_tbl.getIsdictionaryencoded()) {
+            sb.append("DICTIONARY TABLE ").append(catalog_tbl.getTypeName()).append(";\n");
+        }
+
         sb.append("\n");
         // Canonical DDL generation for this table is done, now just hand the CREATE TABLE
         // statement to whoever might be interested (DDLCompiler, I'm looking in your direction)
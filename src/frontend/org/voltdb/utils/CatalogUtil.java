@@ -1206,6 +1206,11 @@ public abstract class CatalogUtil {
             procedure = new SystemSettingsType.Procedure();
             ss.setProcedure(procedure);
         }
+        SystemSettingsType.Mpreadpool mpReadPool = ss.getMpreadpool();
+        if (mpReadPool == null) {
+            mpReadPool = new SystemSettingsType.Mpreadpool();
+            ss.setMpreadpool(mpReadPool);
+        }
         SystemSettingsType.Snapshot snap = ss.getSnapshot();
         if (snap == null) {
             snap = new SystemSettingsType.Snapshot();
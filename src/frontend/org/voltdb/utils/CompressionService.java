@@ -27,6 +27,11 @@ import java.util.concurrent.Future;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterOutputStream;
 
+import org.voltcore.logging.VoltLogger;
+import org.voltcore.utils.CompressionStrategy;
+import org.voltcore.utils.CompressionStrategyDeflate;
+import org.voltcore.utils.CompressionStrategyLZ4;
+import org.voltcore.utils.CompressionStrategySnappy;
 import org.voltcore.utils.CoreUtils;
 import org.voltcore.utils.DBBPool;
 import org.voltcore.utils.DBBPool.BBContainer;
@@ -41,6 +46,8 @@ import com.google_voltpatches.common.util.concurrent.MoreExecutors;
 
 public final class CompressionService {
 
+    private static final VoltLogger hostLog = new VoltLogger("HOST");
+
     static {
         CoreUtils.m_threadLocalDeallocator = new Runnable() {
             @Override
@@ -80,12 +87,12 @@ public final class CompressionService {
                                          CoreUtils.getThreadFactory("Compression service thread"))
             );
 
-    private static IOBuffers getBuffersForCompression(int length, boolean inputNotUsed) {
+    private static IOBuffers getBuffersForCompression(CompressionStrategy codec, int length, boolean inputNotUsed) {
         IOBuffers buffers = m_buffers.get();
         BBContainer input = buffers.input;
         BBContainer output = buffers.output;
 
-        final int maxCompressedLength = Snappy.maxCompressedLength(length);
+        final int maxCompressedLength = codec.maxCompressedLength(length);
 
         final int inputCapacity = input.b().capacity();
         final int outputCapacity = output.b().capacity();
@@ -129,6 +136,11 @@ public final class CompressionService {
     }
 
     public static Future<BBContainer> compressAndCRC32cBufferAsync(final ByteBuffer inBuffer, final BBContainer outBufferC) {
+        return compressAndCRC32cBufferAsync(CompressionStrategySnappy.INSTANCE, inBuffer, outBufferC);
+    }
+
+    public static Future<BBContainer> compressAndCRC32cBufferAsync(final CompressionStrategy codec,
+            final ByteBuffer inBuffer, final BBContainer outBufferC) {
         assert(inBuffer.isDirect());
         assert(outBufferC.b().isDirect());
         return submitCompressionTask(new Callable<BBContainer>() {
@@ -140,7 +152,7 @@ public final class CompressionService {
                 final int crcPosition = outBuffer.position();
                 outBuffer.position(outBuffer.position() + 4);
                 final int crcCalcStart = outBuffer.position();
-                compressBuffer(inBuffer, outBuffer);
+                compressBuffer(codec, inBuffer, outBuffer);
                 final int crc32c =
                         DBBPool.getCRC32C( outBufferC.address(), crcCalcStart, outBuffer.limit() - crcCalcStart);
                 outBuffer.putInt(crcPosition, crc32c);
@@ -151,29 +163,41 @@ public final class CompressionService {
     }
 
     public static int compressBuffer(ByteBuffer buffer, ByteBuffer output) throws IOException {
+        return compressBuffer(CompressionStrategySnappy.INSTANCE, buffer, output);
+    }
+
+    public static int compressBuffer(CompressionStrategy codec, ByteBuffer buffer, ByteBuffer output) throws IOException {
         assert(buffer.isDirect());
         assert(output.isDirect());
-        return Snappy.compress(buffer, output);
+        return codec.compress(buffer, output);
     }
 
     public static byte[] compressBuffer(ByteBuffer buffer) throws IOException {
+        return compressBuffer(CompressionStrategySnappy.INSTANCE, buffer);
+    }
+
+    public static byte[] compressBuffer(CompressionStrategy codec, ByteBuffer buffer) throws IOException {
         assert(buffer.isDirect());
-        IOBuffers buffers = getBuffersForCompression(buffer.remaining(), true);
+        IOBuffers buffers = getBuffersForCompression(codec, buffer.remaining(), true);
         ByteBuffer output = buffers.output.b();
 
-        final int compressedSize = Snappy.compress(buffer, output);
+        final int compressedSize = codec.compress(buffer, output);
         byte result[] = new byte[compressedSize];
         output.get(result);
         return result;
     }
 
     public static byte[] compressBytes(byte bytes[], int offset, int length) throws IOException {
-        final IOBuffers buffers = getBuffersForCompression(bytes.length, false);
+        return compressBytes(CompressionStrategySnappy.INSTANCE, bytes, offset, length);
+    }
+
+    public static byte[] compressBytes(CompressionStrategy codec, byte bytes[], int offset, int length) throws IOException {
+        final IOBuffers buffers = getBuffersForCompression(codec, bytes.length, false);
         final ByteBuffer input = buffers.input.b();
         final ByteBuffer output = buffers.output.b();
         input.put(bytes, offset, length);
         input.flip();
-        final int compressedSize = Snappy.compress(input, output);
+        final int compressedSize = codec.compress(input, output);
         final byte compressed[] = new byte[compressedSize];
         output.get(compressed);
         return compressed;
@@ -217,20 +241,87 @@ public final class CompressionService {
         return result;
     }
 
+    /**
+     * @return the largest size {@code uncompressedSize} bytes compress to with any codec, so that
+     * buffers sized with it can hold data compressed by whichever codec is configured
+     */
     public static int maxCompressedLength(int uncompressedSize) {
-        return Snappy.maxCompressedLength(uncompressedSize);
+        return Math.max(CompressionStrategySnappy.INSTANCE.maxCompressedLength(uncompressedSize),
+                Math.max(CompressionStrategyLZ4.INSTANCE.maxCompressedLength(uncompressedSize),
+                         CompressionStrategyDeflate.INSTANCE.maxCompressedLength(uncompressedSize)));
+    }
+
+    /**
+     * @return the codec which wrote data tagged with {@code id}
+     * @throws IOException if {@code id} is not a known codec, the data is corrupt or from a newer version
+     */
+    public static CompressionStrategy codecForId(int id) throws IOException {
+        switch (id) {
+        case CompressionStrategySnappy.ID:
+            return CompressionStrategySnappy.INSTANCE;
+        case CompressionStrategyLZ4.ID:
+            return CompressionStrategyLZ4.INSTANCE;
+        case CompressionStrategyDeflate.ID:
+            return CompressionStrategyDeflate.INSTANCE;
+        default:
+            throw new IOException("Unknown compression codec id " + id);
+        }
+    }
+
+    /**
+     * @return the codec called {@code name}, case insensitive
+     * @throws IllegalArgumentException if there is no such codec
+     */
+    public static CompressionStrategy codecForName(String name) {
+        switch (name.trim().toUpperCase()) {
+        case CompressionStrategySnappy.NAME:
+            return CompressionStrategySnappy.INSTANCE;
+        case CompressionStrategyLZ4.NAME:
+            return CompressionStrategyLZ4.INSTANCE;
+        case CompressionStrategyDeflate.NAME:
+            return CompressionStrategyDeflate.INSTANCE;
+        default:
+            throw new IllegalArgumentException("Unknown compression codec " + name);
+        }
+    }
+
+    /**
+     * Look up the codec named by the system property {@code property}, falling back to Snappy
+     * if it is not set or not a known codec.
+     */
+    public static CompressionStrategy codecFromSystemProperty(String property) {
+        String name = System.getProperty(property);
+        if (name == null) {
+            return CompressionStrategySnappy.INSTANCE;
+        }
+        try {
+            return codecForName(name);
+        } catch (IllegalArgumentException e) {
+            hostLog.warn("Unknown compression codec " + name + " for " + property + ", using "
+                    + CompressionStrategySnappy.NAME);
+            return CompressionStrategySnappy.INSTANCE;
+        }
     }
 
     public static int uncompressedLength(ByteBuffer compressed) throws IOException {
+        return uncompressedLength(CompressionStrategySnappy.INSTANCE, compressed);
+    }
+
+    public static int uncompressedLength(CompressionStrategy codec, ByteBuffer compressed) throws IOException {
         assert(compressed.isDirect());
-        return Snappy.uncompressedLength(compressed);
+        return codec.uncompressedLength(compressed);
     }
 
     public static int decompressBuffer(final ByteBuffer compressed, final ByteBuffer uncompressed) throws IOException {
+        return decompressBuffer(CompressionStrategySnappy.INSTANCE, compressed, uncompressed);
+    }
+
+    public static int decompressBuffer(final CompressionStrategy codec, final ByteBuffer compressed,
+            final ByteBuffer uncompressed) throws IOException {
         assert(compressed.isDirect());
         assert(uncompressed.isDirect());
 
-        return Snappy.uncompress(compressed, uncompressed);
+        return codec.uncompress(compressed, uncompressed);
     }
 
     public static byte[] decompressBytes(byte bytes[]) throws IOException {
@@ -43,6 +43,7 @@ import java.util.Random;
 import java.util.zip.CRC32;
 
 import org.voltcore.logging.VoltLogger;
+import org.voltcore.utils.CompressionStrategy;
 import org.voltcore.utils.DBBPool;
 import org.voltcore.utils.DBBPool.BBContainer;
 import org.voltcore.utils.DeferredSerialization;
@@ -75,6 +76,8 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
     private FileChannelWrapper m_fc;
     // Avoid unnecessary sync with this flag
     private boolean m_syncedSinceLastEdit = true;
+    // Entry bytes written since the last sync, reported in the sync stats
+    private long m_bytesSinceSync = 0;
     // Reusable crc calculator. Must be reset before each use
     private final CRC32 m_crc;
     // Mirror of the isFinal metadata on the filesystem
@@ -539,9 +542,9 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
 
         for (UpdateEntry entry : entries) {
             if (entry.m_isCopy) {
-                writeEntry(entry.m_data, -1, entry.m_isCompressed);
+                writeEntry(entry.m_data, -1, entry.m_compressionFlags);
             } else {
-                writeEntry(entry.m_data, maxCompressedSize(entry.m_data), false);
+                writeEntry(entry.m_data, maxCompressedSize(entry.m_data), NO_FLAGS);
             }
 
             ++m_numOfEntries;
@@ -788,7 +791,12 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
             throw new IOException("Segment closed");
         }
         if (!m_syncedSinceLastEdit) {
-            m_fc.force(true);
+            // Entries and the segment header are all file data, so fdatasync is enough. Only the isFinal
+            // attribute is metadata and setFinal() forces that on its own.
+            final long start = System.nanoTime();
+            m_fc.force(false);
+            recordSync(m_bytesSinceSync, System.nanoTime() - start);
+            m_bytesSinceSync = 0;
         }
         m_syncedSinceLastEdit = true;
     }
@@ -830,7 +838,7 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
             return -1;
         }
 
-        int written = writeEntry(buf, maxCompressedSize, false);
+        int written = writeEntry(buf, maxCompressedSize, NO_FLAGS);
 
         // Update segment header
         updateHeaderDataAfterOffer(remaining, startId, endId, timestamp);
@@ -843,7 +851,7 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
      */
     private int maxCompressedSize(ByteBuffer buffer) {
         int length = buffer.remaining();
-        return m_compress && length >= 32 && buffer.isDirect() ? CompressionService.maxCompressedLength(length) : -1;
+        return m_compress && length >= 32 && buffer.isDirect() ? COMPRESSION.maxCompressedLength(length) : -1;
     }
 
     /**
@@ -851,11 +859,11 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
      *
      * @param buffer            containing the entry
      * @param maxCompressedSize the max size this entry will compress to or {@code -1} if it should not be compressed
-     * @param isPreCompressed   {@code true} if {@code buffer} contains an already compressed entry
+     * @param preCompressedFlags compression flags of {@code buffer} if it contains an already compressed entry
      * @return The number of bytes written
      * @throws IOException
      */
-    private int writeEntry(ByteBuffer buffer, int maxCompressedSize, boolean isPreCompressed)
+    private int writeEntry(ByteBuffer buffer, int maxCompressedSize, char preCompressedFlags)
             throws IOException {
         m_syncedSinceLastEdit = false;
         DBBPool.BBContainer compressedContainer = null;
@@ -868,25 +876,23 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
             if (maxCompressedSize > 0) {
                 compressedContainer = DBBPool.allocateDirectAndPool(maxCompressedSize);
                 ByteBuffer compressed = compressedContainer.b();
-                final int compressedSize = CompressionService.compressBuffer(buffer.asReadOnlyBuffer(), compressed);
+                final int compressedSize = CompressionService.compressBuffer(COMPRESSION, buffer.asReadOnlyBuffer(),
+                        compressed);
 
                 // Only bother with compression overhead if it actually saves some space
                 if (compressedSize < buffer.remaining() * 0.9) {
                     compressed.limit(compressedSize);
-                    flags |= PBDSegment.FLAG_COMPRESSED;
+                    flags |= PBDSegment.compressedFlags(COMPRESSION);
                     toWrite = compressed;
                 }
-            } else if (isPreCompressed) {
-                flags |= PBDSegment.FLAG_COMPRESSED;
+            } else {
+                flags |= preCompressedFlags;
             }
 
             writeEntryHeader(toWrite, flags);
 
-            // Write entry header
-            writeBuffer(m_entryHeaderBuf.b());
-
-            // Write entry
-            return writeBuffer(toWrite);
+            // Write entry header and entry with one vectored write
+            return writeBuffers(m_entryHeaderBuf.b(), toWrite);
         } finally {
             if (compressedContainer != null) {
                 compressedContainer.discard();
@@ -894,12 +900,18 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
         }
     }
 
-    private int writeBuffer(ByteBuffer buffer) throws IOException {
-        buffer.flip();
-        while (buffer.hasRemaining()) {
-            m_fc.write(buffer);
-        }
-        return buffer.limit();
+    /**
+     * @return the number of bytes in {@code entry}
+     */
+    private int writeBuffers(ByteBuffer header, ByteBuffer entry) throws IOException {
+        header.flip();
+        entry.flip();
+        final ByteBuffer[] buffers = { header, entry };
+        while (header.hasRemaining() || entry.hasRemaining()) {
+            m_fc.write(buffers);
+        }
+        m_bytesSinceSync += header.limit() + entry.limit();
+        return entry.limit();
     }
 
     // Used by DR path
@@ -948,6 +960,7 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
             while (partialCont.b().hasRemaining()) {
                 m_fc.write(partialCont.b());
             }
+            m_bytesSinceSync += partialCont.b().limit();
         } finally {
             partialCont.discard();
         }
@@ -1128,10 +1141,11 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
                         try {
                             fillBuffer(compressedBuf.b(), entryId, flags, entryCRC, checkCrc);
 
-                            uncompressedLen = CompressionService.uncompressedLength(compressedBuf.bDR());
+                            final CompressionStrategy codec = getCodec(flags);
+                            uncompressedLen = CompressionService.uncompressedLength(codec, compressedBuf.bDR());
                             retcont = factory.getContainer(uncompressedLen);
                             retcont.b().limit(uncompressedLen);
-                            CompressionService.decompressBuffer(compressedBuf.bDR(), retcont.b());
+                            CompressionService.decompressBuffer(codec, compressedBuf.bDR(), retcont.b());
                         } finally {
                             compressedBuf.discard();
                         }
@@ -1380,7 +1394,8 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
      */
     private static final class UpdateEntry {
         final boolean m_isCopy;
-        final boolean m_isCompressed;
+        // flags describing how m_data is compressed or NO_FLAGS
+        final char m_compressionFlags;
         final ByteBuffer m_data;
         final int m_dataLength;
 
@@ -1393,16 +1408,16 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
          */
         static UpdateEntry copy(ByteBuffer headerAndData) throws IOException {
             int length;
-            boolean compressed = isCompressed(headerAndData);
-            if (compressed) {
+            char compressionFlags = compressionFlags(headerAndData);
+            if (compressionFlags != NO_FLAGS) {
                 ByteBuffer duplicate = headerAndData.asReadOnlyBuffer();
                 duplicate.position(ENTRY_HEADER_BYTES);
-                length = CompressionService.uncompressedLength(duplicate);
+                length = CompressionService.uncompressedLength(getCodec(compressionFlags), duplicate);
             } else {
                 length = headerAndData.getInt(ENTRY_HEADER_TOTAL_BYTES_OFFSET);
             }
 
-            return copy(headerAndData, compressed, length);
+            return copy(headerAndData, compressionFlags, length);
         }
 
         /**
@@ -1413,12 +1428,12 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
          * @return {@link UpdateEntry} instance
          */
         static UpdateEntry copy(ByteBuffer headerAndData, int length) {
-            return copy(headerAndData, isCompressed(headerAndData), length);
+            return copy(headerAndData, compressionFlags(headerAndData), length);
         }
 
-        private static UpdateEntry copy(ByteBuffer headerAndData, boolean compressed, int length) {
+        private static UpdateEntry copy(ByteBuffer headerAndData, char compressionFlags, int length) {
             headerAndData.position(ENTRY_HEADER_BYTES);
-            return new UpdateEntry(true, compressed, headerAndData.slice(), length);
+            return new UpdateEntry(true, compressionFlags, headerAndData.slice(), length);
         }
 
         /**
@@ -1428,16 +1443,18 @@ class PBDRegularSegment<M> extends PBDSegment<M> {
          * @return {@link UpdateEntry} instance
          */
         static UpdateEntry entry(ByteBuffer entry) {
-            return new UpdateEntry(false, false, entry, entry.remaining());
+            return new UpdateEntry(false, NO_FLAGS, entry, entry.remaining());
         }
 
-        private static boolean isCompressed(ByteBuffer entryHeader) {
-            return (entryHeader.getChar(ENTRY_HEADER_FLAG_OFFSET) & FLAG_COMPRESSED) == FLAG_COMPRESSED;
+        private static char compressionFlags(ByteBuffer entryHeader) {
+            char flags = entryHeader.getChar(ENTRY_HEADER_FLAG_OFFSET);
+            return (flags & FLAG_COMPRESSED) == FLAG_COMPRESSED ? (char) (flags & (FLAG_COMPRESSED | FLAG_CODEC_MASK))
+                    : NO_FLAGS;
         }
 
-        UpdateEntry(boolean copy, boolean compressed, ByteBuffer data, int dataLength) {
+        UpdateEntry(boolean copy, char compressionFlags, ByteBuffer data, int dataLength) {
             m_isCopy = copy;
-            m_isCompressed = compressed;
+            m_compressionFlags = compressionFlags;
             m_data = data;
             m_dataLength = dataLength;
         }
@@ -24,6 +24,9 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.voltcore.utils.CompressionStrategy;
 import org.voltcore.utils.DBBPool;
 import org.voltcore.utils.DeferredSerialization;
 import org.voltcore.utils.Pair;
@@ -65,6 +68,13 @@ public abstract class PBDSegment<M> {
 
     static final char NO_FLAGS = 0;
     static final char FLAG_COMPRESSED = 1;
+    // Compressed entries carry the id of their codec in these bits, 0 is Snappy which is what
+    // was always used before the codec was recorded. Kept in the low byte, which the entry CRC covers
+    static final int FLAG_CODEC_SHIFT = 4;
+    static final char FLAG_CODEC_MASK = 0x00F0;
+
+    // Codec used to compress new entries, readers always use the codec recorded in the entry
+    static final CompressionStrategy COMPRESSION = CompressionService.codecFromSystemProperty("PBD_COMPRESSION");
 
     // Export Segment Entry Header layout (each segment has multiple entries):
     //  - crc of segment entry (4 bytes),
@@ -78,6 +88,39 @@ public abstract class PBDSegment<M> {
     public static final int ENTRY_HEADER_FLAG_OFFSET = ENTRY_HEADER_ENTRY_ID_OFFSET + 4;
     public static final int ENTRY_HEADER_BYTES = ENTRY_HEADER_FLAG_OFFSET + 2;
 
+    /**
+     * @return entry flags marking an entry as compressed with {@code codec}
+     */
+    static char compressedFlags(CompressionStrategy codec) {
+        return (char) (FLAG_COMPRESSED | (codec.getId() << FLAG_CODEC_SHIFT));
+    }
+
+    /**
+     * @return the codec a compressed entry with {@code flags} was written with
+     */
+    static CompressionStrategy getCodec(char flags) throws IOException {
+        return CompressionService.codecForId((flags & FLAG_CODEC_MASK) >>> FLAG_CODEC_SHIFT);
+    }
+
+    // Segment syncs done by this process, shared by all PBDs
+    private static final LongAdder s_syncs = new LongAdder();
+    private static final LongAdder s_syncedBytes = new LongAdder();
+    private static final LongAdder s_syncNanos = new LongAdder();
+
+    static void recordSync(long bytes, long nanos) {
+        s_syncs.increment();
+        s_syncedBytes.add(bytes);
+        s_syncNanos.add(nanos);
+    }
+
+    /**
+     * @return process wide segment sync counters: syncs, bytes written since the previous sync of each
+     *         segment and total nanoseconds spent syncing
+     */
+    public static long[] getSyncStats() {
+        return new long[] { s_syncs.sum(), s_syncedBytes.sum(), s_syncNanos.sum() };
+    }
+
     final File m_file;
     // Persistent ID of this segment. This is monotonically increasing for PBDs with requiresId=false.
     // It is the starting id in the segment otherwise, but still increasing value
@@ -0,0 +1,126 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltcore.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reading a batch of messages off a channel and slicing them out of the
+ * network buffers, as the network thread does for every read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NIOReadStreamBenchmark {
+
+    private static final int MESSAGES = 16;
+
+    @Param({"64", "4096", "65536"})
+    public int messageSize;
+
+    /** Hands out the same bytes every time it is rewound */
+    private static final class RepeatingChannel implements ReadableByteChannel {
+        private final ByteBuffer m_data;
+
+        RepeatingChannel(int size) {
+            m_data = ByteBuffer.allocate(size);
+            for (int i = 0; i < size; i++) {
+                m_data.put((byte) i);
+            }
+            m_data.flip();
+        }
+
+        void rewind() {
+            m_data.rewind();
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (!m_data.hasRemaining()) {
+                return 0;
+            }
+            int length = Math.min(dst.remaining(), m_data.remaining());
+            ByteBuffer src = m_data.duplicate();
+            src.limit(src.position() + length);
+            dst.put(src);
+            m_data.position(m_data.position() + length);
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private NIOReadStream m_stream;
+    private NetworkDBBPool m_pool;
+    private RepeatingChannel m_channel;
+
+    @Setup
+    public void setup() {
+        m_stream = new NIOReadStream();
+        m_pool = new NetworkDBBPool();
+        m_channel = new RepeatingChannel(MESSAGES * messageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        m_stream.shutdown();
+        m_pool.clear();
+    }
+
+    @Benchmark
+    public int readAndSlice() throws IOException {
+        final int total = MESSAGES * messageSize;
+        m_channel.rewind();
+        int read = 0;
+        while (read < total) {
+            read += m_stream.read(m_channel, total - read, m_pool);
+        }
+        int sliced = 0;
+        for (int i = 0; i < MESSAGES; i++) {
+            NIOReadStream.Slice slice = m_stream.getSlice(messageSize);
+            sliced += slice.bb.readableBytes();
+            slice.markConsumed().discard();
+        }
+        return sliced;
+    }
+}
@@ -0,0 +1,136 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltcore.utils;
+
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.voltcore.utils.MpscChunkedQueue.WaitStrategy;
+
+/**
+ * Cost of handing a burst of tasks to a site thread, the way network threads
+ * feed a SiteTaskerQueue: each benchmark thread offers a burst and waits until
+ * the consumer has taken all of it. Compares the LinkedTransferQueue the
+ * SiteTaskerQueue used to wrap with the MpscChunkedQueue it wraps now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SiteQueueBenchmark {
+
+    @Param({"LinkedTransferQueue", "MpscChunkedQueue"})
+    public String queue;
+
+    @Param({"1", "16", "128"})
+    public int burst;
+
+    /** What the producers put on the queue: their own progress counter */
+    public static final class Producer {
+        volatile long consumed = 0;
+        long offered = 0;
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+        final Producer producer = new Producer();
+    }
+
+    private interface HandOff {
+        void offer(Producer p);
+        Producer poll();
+    }
+
+    private HandOff m_handOff;
+    private Thread m_consumer;
+    private volatile boolean m_running;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("LinkedTransferQueue".equals(queue)) {
+            final LinkedTransferQueue<Producer> ltq = new LinkedTransferQueue<>();
+            m_handOff = new HandOff() {
+                @Override public void offer(Producer p) { ltq.offer(p); }
+                @Override public Producer poll() { return ltq.poll(); }
+            };
+        } else {
+            final MpscChunkedQueue<Producer> mpsc =
+                    new MpscChunkedQueue<>(1024, WaitStrategy.SPIN, 0, TimeUnit.NANOSECONDS);
+            m_handOff = new HandOff() {
+                @Override public void offer(Producer p) { mpsc.offer(p); }
+                @Override public Producer poll() { return mpsc.poll(); }
+            };
+        }
+        m_running = true;
+        m_consumer = new Thread("SiteQueueBenchmark consumer") {
+            @Override
+            public void run() {
+                while (m_running) {
+                    Producer p = m_handOff.poll();
+                    if (p != null) {
+                        // single consumer, no need for an atomic increment
+                        p.consumed = p.consumed + 1;
+                    }
+                }
+            }
+        };
+        m_consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        m_running = false;
+        m_consumer.join();
+    }
+
+    @Benchmark
+    public long offerBurst(ProducerState state) {
+        final Producer p = state.producer;
+        for (int i = 0; i < burst; i++) {
+            m_handOff.offer(p);
+        }
+        p.offered += burst;
+        while (p.consumed != p.offered) {
+            // wait for the consumer to catch up
+        }
+        return p.offered;
+    }
+}
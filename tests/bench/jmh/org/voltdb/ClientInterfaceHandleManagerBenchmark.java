@@ -0,0 +1,91 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Client interface cost of tracking a transaction: creating its handle when
+ * the invocation arrives and finding or removing it when the response or a
+ * failure comes back, with a realistic number of other transactions in flight.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClientInterfaceHandleManagerBenchmark {
+
+    private static final int PARTITION_COUNT = 8;
+
+    @Param({"16", "1024", "65536"})
+    public int inFlight;
+
+    private ClientInterfaceHandleManager m_cihm;
+    // handles in flight, oldest first, used as a ring
+    private long[] m_handles;
+    private int m_oldest = 0;
+    private int m_partition = 0;
+
+    @Setup
+    public void setup() {
+        m_cihm = new ClientInterfaceHandleManager(false, null, null, AdmissionControlGroup.getDummy());
+        m_handles = new long[inFlight];
+        for (int i = 0; i < inFlight; i++) {
+            m_handles[i] = createHandle();
+        }
+    }
+
+    private long createHandle() {
+        m_partition = (m_partition + 1) % PARTITION_COUNT;
+        return m_cihm.getHandle(true, m_partition, 0, 100, 0, "Vote", 0, false);
+    }
+
+    /*
+     * Responses mostly come back in the order the invocations went out, so
+     * retire the oldest handle and replace it with a new one
+     */
+    @Benchmark
+    public Object createAndFind() {
+        Object retired = m_cihm.findHandle(m_handles[m_oldest]);
+        m_handles[m_oldest] = createHandle();
+        m_oldest = (m_oldest + 1) % inFlight;
+        return retired;
+    }
+
+    @Benchmark
+    public Object createAndRemove() {
+        Object retired = m_cihm.removeHandle(m_handles[m_oldest]);
+        m_handles[m_oldest] = createHandle();
+        m_oldest = (m_oldest + 1) % inFlight;
+        return retired;
+    }
+}
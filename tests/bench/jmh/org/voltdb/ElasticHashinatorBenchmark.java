@@ -0,0 +1,75 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Routing a partitioning parameter to its partition.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ElasticHashinatorBenchmark {
+
+    private static final int VALUES = 1024;
+
+    @Param({"8", "64"})
+    public int partitions;
+
+    private ElasticHashinator m_hashinator;
+    private final Long[] m_longs = new Long[VALUES];
+    private final String[] m_strings = new String[VALUES];
+    private int m_next = 0;
+
+    @Setup
+    public void setup() {
+        m_hashinator = new ElasticHashinator(TheHashinator.getConfigureBytes(partitions), false);
+        for (int i = 0; i < VALUES; i++) {
+            m_longs[i] = i * 7919L;
+            m_strings[i] = "key-" + i;
+        }
+    }
+
+    @Benchmark
+    public int bigintParameter() {
+        m_next = (m_next + 1) & (VALUES - 1);
+        return m_hashinator.getHashedPartitionForParameter(VoltType.BIGINT, m_longs[m_next]);
+    }
+
+    @Benchmark
+    public int stringParameter() {
+        m_next = (m_next + 1) & (VALUES - 1);
+        return m_hashinator.getHashedPartitionForParameter(VoltType.STRING, m_strings[m_next]);
+    }
+}
@@ -0,0 +1,82 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.voltdb.types.TimestampType;
+
+/**
+ * Serializing a typical set of procedure parameters and reading it back, both
+ * by full decoding and by the lazy path used for single-statement procedures.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParameterSetBenchmark {
+
+    private static final VoltType[] TYPES = {
+        VoltType.BIGINT, VoltType.INTEGER, VoltType.STRING, VoltType.FLOAT, VoltType.TIMESTAMP, VoltType.VARBINARY
+    };
+
+    private ParameterSet m_params;
+    private ByteBuffer m_buffer;
+
+    @Setup
+    public void setup() {
+        m_params = ParameterSet.fromArrayNoCopy(
+                1234567890123L,
+                42,
+                "customer-0000042",
+                3.14159,
+                new TimestampType(1_500_000_000_000_000L),
+                new byte[64]);
+        m_buffer = ByteBuffer.allocate(m_params.getSerializedSize());
+    }
+
+    @Benchmark
+    public ParameterSet roundTrip() throws IOException {
+        m_buffer.clear();
+        m_params.flattenToBuffer(m_buffer);
+        m_buffer.flip();
+        return ParameterSet.fromByteBuffer(m_buffer);
+    }
+
+    @Benchmark
+    public ParameterSet roundTripSerialized() throws IOException {
+        m_buffer.clear();
+        m_params.flattenToBuffer(m_buffer);
+        m_buffer.flip();
+        return ParameterSet.fromSerializedBuffer(m_buffer, TYPES);
+    }
+}
@@ -0,0 +1,126 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.client;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.voltcore.network.MockConnection;
+import org.voltcore.network.MockWriteStream;
+import org.voltcore.network.WriteStream;
+import org.voltdb.ClientResponseImpl;
+import org.voltdb.VoltTable;
+
+/**
+ * Client side cost of an invocation: queueing the serialized invocation with
+ * its callback bookkeeping and matching the response back to the callback.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistributerBenchmark {
+
+    private static final String PROC = "Vote";
+
+    /** A connection that drops whatever is written to it */
+    private static final class NullConnection extends MockConnection {
+        private final WriteStream m_nullStream = new MockWriteStream() {
+            @Override
+            public void enqueue(ByteBuffer b) {}
+        };
+
+        @Override
+        public WriteStream writeStream() {
+            return m_nullStream;
+        }
+
+        @Override
+        public String getHostnameOrIP() {
+            return "localhost";
+        }
+
+        @Override
+        public int getRemotePort() {
+            return 21212;
+        }
+
+        @Override
+        public long connectionId() {
+            return 1;
+        }
+    }
+
+    private static final ProcedureCallback NULL_CALLBACK = new ProcedureCallback() {
+        @Override
+        public void clientCallback(ClientResponse clientResponse) {}
+    };
+
+    private Distributer m_distributer;
+    private Distributer.NodeConnection m_connection;
+    private ByteBuffer m_invocation;
+    private ByteBuffer m_response;
+    private long m_handle = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        m_distributer = new Distributer();
+        m_connection = m_distributer.new NodeConnection(new long[] { 0, 0 });
+        m_connection.setConnection(new NullConnection());
+
+        ProcedureInvocation invocation = new ProcedureInvocation(0, PROC, 1234567890L, 2, "AB");
+        m_invocation = ByteBuffer.allocate(invocation.getSerializedSize());
+        invocation.flattenToBuffer(m_invocation);
+        m_invocation.flip();
+
+        ClientResponseImpl response = new ClientResponseImpl(ClientResponse.SUCCESS, new VoltTable[0], null, 0);
+        m_response = ByteBuffer.allocate(response.getSerializedSize());
+        response.flattenToBuffer(m_response);
+        m_response.flip();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        m_distributer.shutdown();
+    }
+
+    @Benchmark
+    public long createWorkAndRespond() {
+        final long handle = m_handle++;
+        m_connection.createWork(System.nanoTime(), handle, PROC, m_invocation.duplicate(),
+                NULL_CALLBACK, true, Distributer.USE_DEFAULT_CLIENT_TIMEOUT);
+        // the client handle follows the version byte
+        ByteBuffer response = m_response.duplicate();
+        response.putLong(1, handle);
+        m_connection.handleMessage(response, null);
+        return handle;
+    }
+}
@@ -0,0 +1,81 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.messaging;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Writing and reading a message made of a mix of ints, longs, doubles and strings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FastSerializerBenchmark {
+
+    private static final int FIELD_GROUPS = 16;
+    private static final String STRING = "The quick brown fox jumps over the lazy dog";
+
+    private final FastSerializer m_serializer = new FastSerializer();
+    private byte[] m_serialized;
+
+    @Setup
+    public void setup() {
+        serialize();
+        m_serialized = m_serializer.getBytes();
+    }
+
+    @Benchmark
+    public int serialize() {
+        m_serializer.clear();
+        for (int i = 0; i < FIELD_GROUPS; i++) {
+            m_serializer.writeInt(i);
+            m_serializer.writeLong(i * 31L);
+            m_serializer.writeDouble(i * 0.5);
+            m_serializer.writeString(STRING);
+        }
+        return m_serializer.size();
+    }
+
+    @Benchmark
+    public long deserialize() throws IOException {
+        FastDeserializer fds = new FastDeserializer(m_serialized);
+        long sum = 0;
+        for (int i = 0; i < FIELD_GROUPS; i++) {
+            sum += fds.readInt();
+            sum += fds.readLong();
+            sum += (long) fds.readDouble();
+            sum += fds.readString().length();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,116 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.voltcore.utils.CompressionStrategy;
+import org.voltcore.utils.DBBPool;
+import org.voltcore.utils.DBBPool.BBContainer;
+import org.voltdb.VoltTable;
+import org.voltdb.VoltType;
+
+/**
+ * Compressing and decompressing direct buffers of table data with each codec,
+ * as snapshots, rejoin and the PBD do. The compression ratio of each codec is
+ * printed when its trial is set up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionServiceBenchmark {
+
+    @Param({"SNAPPY", "LZ4", "DEFLATE"})
+    public String codecName;
+
+    @Param({"4096", "1048576"})
+    public int size;
+
+    private CompressionStrategy m_codec;
+
+    private BBContainer m_uncompressed;
+    private BBContainer m_compressed;
+    private BBContainer m_output;
+
+    @Setup
+    public void setup() throws IOException {
+        m_codec = CompressionService.codecForName(codecName);
+
+        // A serialized table with a sequential id, a low cardinality string, a small
+        // integer and a random value, roughly what snapshot and export blocks hold
+        Random random = new Random(0);
+        VoltTable table = new VoltTable(
+                new VoltTable.ColumnInfo("ID", VoltType.BIGINT),
+                new VoltTable.ColumnInfo("REGION", VoltType.STRING),
+                new VoltTable.ColumnInfo("STATUS", VoltType.INTEGER),
+                new VoltTable.ColumnInfo("VALUE", VoltType.FLOAT));
+        for (long id = 0; table.getSerializedSize() < size + 4; id++) {
+            table.addRow(id, "region-" + random.nextInt(8), random.nextInt(4), random.nextDouble());
+        }
+        ByteBuffer serialized = table.getBuffer();
+        m_uncompressed = DBBPool.allocateDirect(size);
+        serialized.limit(serialized.position() + size);
+        m_uncompressed.b().put(serialized);
+        m_uncompressed.b().clear();
+
+        final int maxCompressed = m_codec.maxCompressedLength(size);
+        m_compressed = DBBPool.allocateDirect(maxCompressed);
+        m_output = DBBPool.allocateDirect(Math.max(size, maxCompressed));
+        int length = CompressionService.compressBuffer(m_codec, m_uncompressed.b().duplicate(), m_compressed.b());
+        m_compressed.b().limit(length);
+        System.out.printf("%n%s compresses %d bytes to %d, ratio %.2f%n", codecName, size, length,
+                (double) size / length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        m_uncompressed.discard();
+        m_compressed.discard();
+        m_output.discard();
+    }
+
+    @Benchmark
+    public int compress() throws IOException {
+        m_output.b().clear();
+        return CompressionService.compressBuffer(m_codec, m_uncompressed.b().duplicate(), m_output.b());
+    }
+
+    @Benchmark
+    public int decompress() throws IOException {
+        m_output.b().clear();
+        return CompressionService.decompressBuffer(m_codec, m_compressed.b().duplicate(), m_output.b());
+    }
+}
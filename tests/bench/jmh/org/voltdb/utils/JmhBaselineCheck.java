@@ -0,0 +1,151 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json_voltpatches.JSONArray;
+import org.json_voltpatches.JSONObject;
+
+/**
+ * Compare a JMH JSON result file against a checked in baseline and fail when
+ * any benchmark regressed by more than the given percentage.
+ * <p>
+ * Usage: JmhBaselineCheck &lt;baseline.json&gt; &lt;result.json&gt; &lt;threshold percent&gt; [&lt;waive&gt;]
+ * <p>
+ * Throughput scores regress when they drop, every other mode regresses when the
+ * score grows. A missing baseline file, or a benchmark missing from it, fails the
+ * check too, since nothing was compared. Pass {@code true} for waive (ant
+ * -Djmh.baseline.waive=true) to only report those, e.g. while a new benchmark
+ * has no recorded baseline yet.
+ */
+public class JmhBaselineCheck {
+
+    static Map<String, JSONObject> load(File file) throws Exception {
+        JSONArray results = new JSONArray(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        Map<String, JSONObject> byKey = new HashMap<>();
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            byKey.put(key(result), result);
+        }
+        return byKey;
+    }
+
+    static String key(JSONObject result) throws Exception {
+        StringBuilder sb = new StringBuilder(result.getString("benchmark"));
+        sb.append(' ').append(result.getString("mode"));
+        if (result.has("params")) {
+            // sort so the key does not depend on the order JMH wrote them in
+            JSONObject params = result.getJSONObject("params");
+            Map<String, String> sorted = new TreeMap<>();
+            Iterator<String> it = params.keys();
+            while (it.hasNext()) {
+                String name = it.next();
+                sorted.put(name, params.getString(name));
+            }
+            sb.append(' ').append(sorted);
+        }
+        return sb.toString();
+    }
+
+    static double score(JSONObject result) throws Exception {
+        return result.getJSONObject("primaryMetric").getDouble("score");
+    }
+
+    /**
+     * @return the regression in percent, negative when the result improved
+     */
+    static double regression(String mode, double baseline, double current) {
+        if (baseline == 0) {
+            return 0;
+        }
+        double change = (current - baseline) * 100.0 / baseline;
+        return "thrpt".equals(mode) ? -change : change;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("Usage: JmhBaselineCheck <baseline.json> <result.json> <threshold percent> [<waive>]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        File resultFile = new File(args[1]);
+        double threshold = Double.parseDouble(args[2]);
+        boolean waive = args.length == 4 && Boolean.parseBoolean(args[3]);
+
+        if (!baselineFile.exists()) {
+            if (waive) {
+                System.out.println("No JMH baseline at " + baselineFile + ", regression check waived.");
+                return;
+            }
+            System.err.println("No JMH baseline at " + baselineFile
+                    + ", record one with ant jmhbaseline or waive the check with -Djmh.baseline.waive=true");
+            System.exit(1);
+        }
+
+        Map<String, JSONObject> baseline = load(baselineFile);
+        Map<String, JSONObject> current = load(resultFile);
+        List<String> regressions = new ArrayList<>();
+        List<String> unchecked = new ArrayList<>();
+        for (Map.Entry<String, JSONObject> e : new TreeMap<>(current).entrySet()) {
+            JSONObject base = baseline.get(e.getKey());
+            if (base == null) {
+                System.out.println("NEW        " + e.getKey());
+                unchecked.add(e.getKey());
+                continue;
+            }
+            double was = score(base);
+            double is = score(e.getValue());
+            double pct = regression(e.getValue().getString("mode"), was, is);
+            String line = String.format("%-10s %s: %.3f -> %.3f (%+.1f%%)",
+                    pct > threshold ? "REGRESSED" : "OK", e.getKey(), was, is, -pct);
+            System.out.println(line);
+            if (pct > threshold) {
+                regressions.add(line);
+            }
+        }
+
+        boolean failed = false;
+        if (!regressions.isEmpty()) {
+            System.err.println(regressions.size() + " benchmark(s) regressed by more than " + threshold + "%");
+            failed = true;
+        }
+        if (!unchecked.isEmpty() && !waive) {
+            System.err.println(unchecked.size() + " benchmark(s) have no baseline, record one with ant jmhbaseline"
+                    + " or waive the check with -Djmh.baseline.waive=true");
+            failed = true;
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.voltcore.logging.VoltLogger;
+import org.voltcore.utils.DBBPool;
+import org.voltcore.utils.DBBPool.BBContainer;
+
+/**
+ * Appending an entry to a persistent binary deque and reading it back
+ * through a cursor, as export and DR do for every buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PersistentBinaryDequeBenchmark {
+
+    private static final VoltLogger LOG = new VoltLogger("HOST");
+    private static final String CURSOR = "bench";
+
+    @Param({"1024", "65536"})
+    public int entrySize;
+
+    @Param({"false", "true"})
+    public boolean compression;
+
+    private File m_dir;
+    private BBContainer m_data;
+    private PersistentBinaryDeque<Void> m_pbd;
+    private BinaryDequeReader<Void> m_reader;
+
+    @Setup
+    public void setup() throws IOException {
+        m_dir = Files.createTempDirectory("pbdbench").toFile();
+        m_data = DBBPool.allocateDirect(entrySize);
+        ByteBuffer data = m_data.b();
+        while (data.remaining() >= 8) {
+            data.putLong(data.position() / 64);
+        }
+        data.clear();
+        m_pbd = PersistentBinaryDeque.builder("bench", m_dir, LOG).compression(compression).build();
+        m_reader = m_pbd.openForRead(CURSOR);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        m_pbd.closeAndDelete();
+        m_data.discard();
+        FileUtils.deleteDirectory(m_dir);
+    }
+
+    @Benchmark
+    public int offerPoll() throws IOException {
+        m_pbd.offer(DBBPool.wrapBB(m_data.b().duplicate()));
+        BBContainer entry = m_reader.poll(PersistentBinaryDeque.UNSAFE_CONTAINER_FACTORY);
+        try {
+            return entry.b().remaining();
+        } finally {
+            entry.discard();
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include <sstream>
+#include <string>
+#include <vector>
+
+#include "harness.h"
+
+#include "test_utils/LargeTempTableTopend.hpp"
+#include "test_utils/Tools.hpp"
+#include "test_utils/UniqueEngine.hpp"
+
+#include "common/executorcontext.hpp"
+#include "common/NValue.hpp"
+#include "common/SynchronizedThreadLock.h"
+#include "common/ValuePeeker.hpp"
+#include "common/tabletuple.h"
+#include "execution/ExecutorVector.h"
+#include "storage/AbstractTempTable.hpp"
+#include "storage/TempTableLimits.h"
+#include "storage/table.h"
+#include "storage/tableiterator.h"
+
+using namespace voltdb;
+
+/**
+ * Catalog for a database with two tables:
+ *  create table o (id integer not null,
+ *                  k  integer);
+ *  create table i (id      integer not null,
+ *                  k       integer,
+ *                  payload varchar(500));
+ */
+static const std::string catalogPayload =
+    "add / clusters cluster\n"
+    "set /clusters#cluster localepoch 1199145600\n"
+    "set $PREV securityEnabled false\n"
+    "set $PREV httpdportno -1\n"
+    "set $PREV jsonapi true\n"
+    "set $PREV networkpartition false\n"
+    "set $PREV heartbeatTimeout 90\n"
+    "set $PREV useddlschema false\n"
+    "set $PREV drConsumerEnabled false\n"
+    "set $PREV drProducerEnabled true\n"
+    "set $PREV drRole \"master\"\n"
+    "set $PREV drClusterId 0\n"
+    "set $PREV drProducerPort 5555\n"
+    "set $PREV drMasterHost \"\"\n"
+    "set $PREV drFlushInterval 1000\n"
+    "set $PREV exportFlushInterval 4000\n"
+    "set $PREV preferredSource 0\n"
+    "add /clusters#cluster databases database\n"
+    "set /clusters#cluster/databases#database schema \"\"\n"
+    "set $PREV isActiveActiveDRed false\n"
+    "set $PREV securityprovider \"hash\"\n"
+    "add /clusters#cluster/databases#database tables O\n"
+    "set /clusters#cluster/databases#database/tables#O isreplicated true\n"
+    "set $PREV partitioncolumn null\n"
+    "set $PREV estimatedtuplecount 0\n"
+    "set $PREV materializer null\n"
+    "set $PREV signature \"O|ii\"\n"
+    "set $PREV tuplelimit 2147483647\n"
+    "set $PREV isDRed false\n"
+    "add /clusters#cluster/databases#database/tables#O columns ID\n"
+    "set /clusters#cluster/databases#database/tables#O/columns#ID index 0\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable false\n"
+    "set $PREV name \"ID\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#O columns K\n"
+    "set /clusters#cluster/databases#database/tables#O/columns#K index 1\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"K\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database tables I\n"
+    "set /clusters#cluster/databases#database/tables#I isreplicated true\n"
+    "set $PREV partitioncolumn null\n"
+    "set $PREV estimatedtuplecount 0\n"
+    "set $PREV materializer null\n"
+    "set $PREV signature \"I|iiv\"\n"
+    "set $PREV tuplelimit 2147483647\n"
+    "set $PREV isDRed false\n"
+    "add /clusters#cluster/databases#database/tables#I columns ID\n"
+    "set /clusters#cluster/databases#database/tables#I/columns#ID index 0\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable false\n"
+    "set $PREV name \"ID\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#I columns K\n"
+    "set /clusters#cluster/databases#database/tables#I/columns#K index 1\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"K\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#I columns PAYLOAD\n"
+    "set /clusters#cluster/databases#database/tables#I/columns#PAYLOAD index 2\n"
+    "set $PREV type 9\n"
+    "set $PREV size 500\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"PAYLOAD\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster deployment deployment\n"
+    "set /clusters#cluster/deployment#deployment kfactor 0\n"
+    "add /clusters#cluster/deployment#deployment systemsettings systemsettings\n"
+    "set /clusters#cluster/deployment#deployment/systemsettings#systemsettings temptablemaxsize 100\n"
+    "set $PREV snapshotpriority 6\n"
+    "set $PREV elasticduration 50\n"
+    "set $PREV elasticthroughput 2\n"
+    "set $PREV querytimeout 300000\n"
+    "add /clusters#cluster logconfig log\n"
+    "set /clusters#cluster/logconfig#log enabled false\n"
+    "set $PREV synchronous false\n"
+    "set $PREV fsyncInterval 200\n"
+    "set $PREV maxTxns 2147483647\n"
+    "set $PREV logSize 1024";
+
+static std::string columnJson(const std::string& name, int valueType, int columnIndex) {
+    std::ostringstream oss;
+    oss << "{\"COLUMN_NAME\":\"" << name << "\",\"EXPRESSION\":{\"TYPE\":32,\"VALUE_TYPE\":"
+        << valueType << (valueType == 9 ? ",\"VALUE_SIZE\":500" : "")
+        << ",\"COLUMN_IDX\":" << columnIndex << "}}";
+    return oss.str();
+}
+
+/**
+ * The plan the planner produces with -DENABLE_HASH_JOIN=true for
+ *     SELECT * FROM O <joinType> JOIN I ON O.K = I.K;
+ * without its send node, so that the join's output is returned.
+ */
+static std::string hashJoinPlan(const std::string& joinType, bool isLargeQuery) {
+    std::ostringstream oss;
+    oss << "{\"PLAN_NODES\":["
+        << "{\"ID\":1,\"PLAN_NODE_TYPE\":\"HASHJOIN\",\"CHILDREN_IDS\":[2,4],"
+        << "\"OUTPUT_SCHEMA\":["
+        << columnJson("ID", 5, 0) << "," << columnJson("K", 5, 1) << ","
+        << columnJson("ID", 5, 2) << "," << columnJson("K", 5, 3) << ","
+        << columnJson("PAYLOAD", 9, 4) << "],"
+        << "\"JOIN_TYPE\":\"" << joinType << "\","
+        << "\"PRE_JOIN_PREDICATE\":null,"
+        << "\"JOIN_PREDICATE\":{\"TYPE\":10,\"VALUE_TYPE\":23,"
+        << "\"LEFT\":{\"TYPE\":32,\"VALUE_TYPE\":5,\"COLUMN_IDX\":1},"
+        << "\"RIGHT\":{\"TYPE\":32,\"VALUE_TYPE\":5,\"COLUMN_IDX\":1,\"TABLE_IDX\":1}},"
+        << "\"WHERE_PREDICATE\":null,"
+        << "\"OUTER_HASH_EXPRESSIONS\":[{\"TYPE\":32,\"VALUE_TYPE\":5,\"COLUMN_IDX\":1}],"
+        << "\"INNER_HASH_EXPRESSIONS\":[{\"TYPE\":32,\"VALUE_TYPE\":5,\"COLUMN_IDX\":1,\"TABLE_IDX\":1}]},"
+        << "{\"ID\":2,\"PLAN_NODE_TYPE\":\"SEQSCAN\","
+        << "\"INLINE_NODES\":[{\"ID\":3,\"PLAN_NODE_TYPE\":\"PROJECTION\",\"OUTPUT_SCHEMA\":["
+        << columnJson("ID", 5, 0) << "," << columnJson("K", 5, 1) << "]}],"
+        << "\"TARGET_TABLE_NAME\":\"O\",\"TARGET_TABLE_ALIAS\":\"O\"},"
+        << "{\"ID\":4,\"PLAN_NODE_TYPE\":\"SEQSCAN\","
+        << "\"INLINE_NODES\":[{\"ID\":5,\"PLAN_NODE_TYPE\":\"PROJECTION\",\"OUTPUT_SCHEMA\":["
+        << columnJson("ID", 5, 0) << "," << columnJson("K", 5, 1) << ","
+        << columnJson("PAYLOAD", 9, 2) << "]}],"
+        << "\"TARGET_TABLE_NAME\":\"I\",\"TARGET_TABLE_ALIAS\":\"I\"}"
+        << "],"
+        << "\"EXECUTE_LIST\":[2,4,1],"
+        << "\"IS_LARGE_QUERY\":" << (isLargeQuery ? "true" : "false")
+        << "}";
+    return oss.str();
+}
+
+/** How the rows of a join result break down */
+struct JoinCounts {
+    int matched = 0;
+    int outerOnly = 0;
+    int innerOnly = 0;
+};
+
+class HashJoinExecutorTest : public Test {
+public:
+    ~HashJoinExecutorTest() {
+        voltdb::globalDestroyOncePerProcess();
+    }
+
+protected:
+    static std::string payload(int id, int length) {
+        std::ostringstream oss;
+        oss << "payload " << id << " ";
+        return oss.str() + std::string(length, 'x');
+    }
+
+    /** Insert (ID, K) rows, where a negative K stands for NULL */
+    static void insertRows(VoltDBEngine* engine, const std::string& tableName,
+            const std::vector<std::pair<int, int>>& rows, int payloadLength) {
+        Table* table = engine->getTableByName(tableName);
+        StandAloneTupleStorage storage(table->schema());
+        TableTuple tuple = storage.tuple();
+
+        SynchronizedThreadLock::debugSimulateSingleThreadMode(true);
+        SynchronizedThreadLock::assumeMpMemoryContext();
+        for (auto const& row : rows) {
+            NValue key = row.second < 0 ? NValue::getNullValue(ValueType::tINTEGER) :
+                ValueFactory::getIntegerValue(row.second);
+            if (tuple.columnCount() == 2) {
+                Tools::setTupleValues(&tuple, row.first, key);
+            } else {
+                Tools::setTupleValues(&tuple, row.first, key, payload(row.first, payloadLength));
+            }
+            table->insertTuple(tuple);
+        }
+        SynchronizedThreadLock::assumeLowestSiteContext();
+        SynchronizedThreadLock::debugSimulateSingleThreadMode(false);
+    }
+
+    /**
+     * Run the join and check every output row: matched rows agree on the
+     * key and carry the payload of their inner row, padded rows are NULL
+     * on the side that did not match.
+     */
+    void runJoin(VoltDBEngine* engine, const std::string& joinType,
+            bool isLargeQuery, int payloadLength, JoinCounts& counts) {
+        auto ev = ExecutorVector::fromJsonPlan(engine, hashJoinPlan(joinType, isLargeQuery), 0);
+        UniqueTempTableResult result = engine->executePlanFragment(ev.get(), NULL);
+        ASSERT_NE(NULL, result.get());
+
+        counts = JoinCounts();
+        TableTuple tuple(result->schema());
+        TableIterator iter = result->iterator();
+        while (iter.next(tuple)) {
+            bool outerIsNull = tuple.getNValue(0).isNull();
+            bool innerIsNull = tuple.getNValue(2).isNull();
+            if (outerIsNull) {
+                ASSERT_FALSE(innerIsNull);
+                ASSERT_TRUE(tuple.getNValue(1).isNull());
+                ++counts.innerOnly;
+            } else if (innerIsNull) {
+                ASSERT_TRUE(tuple.getNValue(3).isNull());
+                ASSERT_TRUE(tuple.getNValue(4).isNull());
+                ++counts.outerOnly;
+            } else {
+                ASSERT_EQ(ValuePeeker::peekInteger(tuple.getNValue(1)),
+                          ValuePeeker::peekInteger(tuple.getNValue(3)));
+                int32_t length;
+                const char* data = ValuePeeker::peekObject_withoutNull(tuple.getNValue(4), &length);
+                int innerId = ValuePeeker::peekInteger(tuple.getNValue(2));
+                ASSERT_EQ(payload(innerId, payloadLength), std::string(data, length));
+                ++counts.matched;
+            }
+        }
+
+        // With the temp tables gone nothing stays charged to the
+        // limits, so the build side has been released too.
+        result.reset();
+        ExecutorContext::getExecutorContext()->cleanupAllExecutors();
+        ASSERT_EQ(0, ev->limits()->getAllocated());
+    }
+};
+
+// Outer keys 0..99 and inner keys 50..149, two inner rows per key,
+// plus a row with a NULL key on each side.
+TEST_F(HashJoinExecutorTest, InMemory) {
+    UniqueEngine engine = UniqueEngineBuilder().build();
+    ASSERT_TRUE(engine->loadCatalog(0, catalogPayload));
+
+    std::vector<std::pair<int, int>> outerRows;
+    for (int k = 0; k < 100; ++k) {
+        outerRows.emplace_back(k, k);
+    }
+    outerRows.emplace_back(1000, -1);
+    insertRows(engine.get(), "O", outerRows, 0);
+
+    std::vector<std::pair<int, int>> innerRows;
+    for (int k = 50; k < 150; ++k) {
+        innerRows.emplace_back(2 * k, k);
+        innerRows.emplace_back(2 * k + 1, k);
+    }
+    innerRows.emplace_back(2000, -1);
+    insertRows(engine.get(), "I", innerRows, 10);
+
+    JoinCounts counts;
+    runJoin(engine.get(), "INNER", false, 10, counts);
+    ASSERT_EQ(100, counts.matched);
+    ASSERT_EQ(0, counts.outerOnly);
+    ASSERT_EQ(0, counts.innerOnly);
+
+    // Unmatched outer rows, including the NULL key, are padded
+    runJoin(engine.get(), "LEFT", false, 10, counts);
+    ASSERT_EQ(100, counts.matched);
+    ASSERT_EQ(51, counts.outerOnly);
+    ASSERT_EQ(0, counts.innerOnly);
+
+    // and so are the unmatched inner rows
+    runJoin(engine.get(), "FULL", false, 10, counts);
+    ASSERT_EQ(100, counts.matched);
+    ASSERT_EQ(51, counts.outerOnly);
+    ASSERT_EQ(101, counts.innerOnly);
+}
+
+// An LTT block cache that holds three blocks.  The build side spills
+// once it passes half of this.
+static const int64_t TEMP_TABLE_MEMORY_LIMIT = 24 * 1024 * 1024;
+
+// A build side well past the spill threshold, though each of the two
+// partitions it is split into still fits under the limit.
+static const int SPILL_INNER_ROWS = 60000;
+static const int SPILL_PAYLOAD_LENGTH = 400;
+
+TEST_F(HashJoinExecutorTest, Spill) {
+    std::unique_ptr<Topend> topend{new LargeTempTableTopend()};
+    UniqueEngine engine = UniqueEngineBuilder()
+        .setTopend(std::move(topend))
+        .setTempTableMemoryLimit(TEMP_TABLE_MEMORY_LIMIT)
+        .build();
+    ASSERT_TRUE(engine->loadCatalog(0, catalogPayload));
+
+    // Every hundredth key has an outer row, past the last inner key too,
+    // plus an outer row with a NULL key.
+    std::vector<std::pair<int, int>> outerRows;
+    for (int k = 0; k < SPILL_INNER_ROWS + 20000; k += 100) {
+        outerRows.emplace_back(k, k);
+    }
+    outerRows.emplace_back(-1, -1);
+    insertRows(engine.get(), "O", outerRows, 0);
+
+    std::vector<std::pair<int, int>> innerRows;
+    for (int k = 0; k < SPILL_INNER_ROWS; ++k) {
+        innerRows.emplace_back(k, k);
+    }
+    insertRows(engine.get(), "I", innerRows, SPILL_PAYLOAD_LENGTH);
+
+    JoinCounts counts;
+    runJoin(engine.get(), "LEFT", true, SPILL_PAYLOAD_LENGTH, counts);
+    ASSERT_EQ(SPILL_INNER_ROWS / 100, counts.matched);
+    ASSERT_EQ(200 + 1, counts.outerOnly);
+    ASSERT_EQ(0, counts.innerOnly);
+
+    // The spill partitions are gone
+    ASSERT_EQ(0, ExecutorContext::getExecutorContext()->lttBlockCache().allocatedMemory());
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
@@ -0,0 +1,255 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include <arpa/inet.h>
+#include <limits>
+#include <string>
+#include <vector>
+
+#include "harness.h"
+
+#include "test_utils/Tools.hpp"
+#include "test_utils/UniqueEngine.hpp"
+
+#include "common/executorcontext.hpp"
+#include "common/SynchronizedThreadLock.h"
+#include "common/ValuePeeker.hpp"
+#include "common/tabletuple.h"
+#include "execution/ExecutorVector.h"
+#include "storage/AbstractTempTable.hpp"
+#include "storage/table.h"
+#include "storage/tableiterator.h"
+
+using namespace voltdb;
+
+class SlicedSeqScanTest : public Test {
+public:
+    ~SlicedSeqScanTest() {
+        voltdb::globalDestroyOncePerProcess();
+    }
+};
+
+// Catalog for the following DDL:
+//
+// CREATE TABLE R (
+//     ID INTEGER NOT NULL,
+//     V INTEGER
+// );
+static const std::string catalogPayload =
+    "add / clusters cluster\n"
+    "set /clusters#cluster localepoch 1199145600\n"
+    "set $PREV securityEnabled false\n"
+    "set $PREV httpdportno -1\n"
+    "set $PREV jsonapi true\n"
+    "set $PREV networkpartition false\n"
+    "set $PREV heartbeatTimeout 90\n"
+    "set $PREV useddlschema false\n"
+    "set $PREV drConsumerEnabled false\n"
+    "set $PREV drProducerEnabled true\n"
+    "set $PREV drRole \"master\"\n"
+    "set $PREV drClusterId 0\n"
+    "set $PREV drProducerPort 5555\n"
+    "set $PREV drMasterHost \"\"\n"
+    "set $PREV drFlushInterval 1000\n"
+    "set $PREV exportFlushInterval 4000\n"
+    "set $PREV preferredSource 0\n"
+    "add /clusters#cluster databases database\n"
+    "set /clusters#cluster/databases#database schema \"\"\n"
+    "set $PREV isActiveActiveDRed false\n"
+    "set $PREV securityprovider \"hash\"\n"
+    "add /clusters#cluster/databases#database tables R\n"
+    "set /clusters#cluster/databases#database/tables#R isreplicated true\n"
+    "set $PREV partitioncolumn null\n"
+    "set $PREV estimatedtuplecount 0\n"
+    "set $PREV materializer null\n"
+    "set $PREV signature \"R|ii\"\n"
+    "set $PREV tuplelimit 2147483647\n"
+    "set $PREV isDRed false\n"
+    "add /clusters#cluster/databases#database/tables#R columns ID\n"
+    "set /clusters#cluster/databases#database/tables#R/columns#ID index 0\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable false\n"
+    "set $PREV name \"ID\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#R columns V\n"
+    "set /clusters#cluster/databases#database/tables#R/columns#V index 1\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"V\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster deployment deployment\n"
+    "set /clusters#cluster/deployment#deployment kfactor 0\n"
+    "add /clusters#cluster/deployment#deployment systemsettings systemsettings\n"
+    "set /clusters#cluster/deployment#deployment/systemsettings#systemsettings temptablemaxsize 100\n"
+    "set $PREV snapshotpriority 6\n"
+    "set $PREV elasticduration 50\n"
+    "set $PREV elasticthroughput 2\n"
+    "set $PREV querytimeout 10000\n"
+    "add /clusters#cluster logconfig log\n"
+    "set /clusters#cluster/logconfig#log enabled false\n"
+    "set $PREV synchronous false\n"
+    "set $PREV fsyncInterval 200\n"
+    "set $PREV maxTxns 2147483647\n"
+    "set $PREV logSize 1024\n";
+
+// The collector fragment the planner produces with -DSLICE_REPLICATED_SCANS=true for
+//     SELECT ID, V FROM R WHERE V >= 0;
+// without its send node, so that the scan's output is returned.
+static const std::string jsonPlan =
+    "{\n"
+    "   \"PLAN_NODES\":[\n"
+    "      {\n"
+    "         \"ID\":2,\n"
+    "         \"PLAN_NODE_TYPE\":\"SEQSCAN\",\n"
+    "         \"INLINE_NODES\":[\n"
+    "            {\n"
+    "               \"ID\":3,\n"
+    "               \"PLAN_NODE_TYPE\":\"PROJECTION\",\n"
+    "               \"OUTPUT_SCHEMA\":[\n"
+    "                  {\n"
+    "                     \"COLUMN_NAME\":\"ID\",\n"
+    "                     \"EXPRESSION\":{\n"
+    "                        \"TYPE\":32,\n"
+    "                        \"VALUE_TYPE\":5,\n"
+    "                        \"COLUMN_IDX\":0\n"
+    "                     }\n"
+    "                  },\n"
+    "                  {\n"
+    "                     \"COLUMN_NAME\":\"V\",\n"
+    "                     \"EXPRESSION\":{\n"
+    "                        \"TYPE\":32,\n"
+    "                        \"VALUE_TYPE\":5,\n"
+    "                        \"COLUMN_IDX\":1\n"
+    "                     }\n"
+    "                  }\n"
+    "               ]\n"
+    "            }\n"
+    "         ],\n"
+    "         \"PREDICATE\":{\n"
+    "            \"TYPE\":15,\n"
+    "            \"VALUE_TYPE\":23,\n"
+    "            \"LEFT\":{\n"
+    "               \"TYPE\":32,\n"
+    "               \"VALUE_TYPE\":5,\n"
+    "               \"COLUMN_IDX\":1\n"
+    "            },\n"
+    "            \"RIGHT\":{\n"
+    "               \"TYPE\":30,\n"
+    "               \"VALUE_TYPE\":5,\n"
+    "               \"ISNULL\":false,\n"
+    "               \"VALUE\":0\n"
+    "            }\n"
+    "         },\n"
+    "         \"TARGET_TABLE_NAME\":\"R\",\n"
+    "         \"TARGET_TABLE_ALIAS\":\"R\",\n"
+    "         \"SLICE_COLUMN\":0\n"
+    "      }\n"
+    "   ],\n"
+    "   \"EXECUTE_LIST\":[\n"
+    "      2\n"
+    "   ]\n"
+    "}\n";
+
+static const int PARTITION_COUNT = 4;
+static const int ROW_COUNT = 1000;
+
+// Spread the hash ring evenly over PARTITION_COUNT partitions.
+static void setHashinator(VoltDBEngine* engine) {
+    std::vector<int32_t> config;
+    config.push_back(htonl(PARTITION_COUNT));
+    const int64_t step = (int64_t(std::numeric_limits<int32_t>::max()) -
+                          std::numeric_limits<int32_t>::min() + 1) / PARTITION_COUNT;
+    for (int p = 0; p < PARTITION_COUNT; ++p) {
+        config.push_back(htonl(static_cast<int32_t>(std::numeric_limits<int32_t>::min() + p * step)));
+        config.push_back(htonl(p));
+    }
+    engine->updateHashinator(reinterpret_cast<const char*>(config.data()), NULL, 0);
+}
+
+// Every partition holds the same copy of the replicated table, with V
+// negative for every tenth row so that the predicate is applied too.
+static void loadTable(VoltDBEngine* engine) {
+    Table* table = engine->getTableByName("R");
+    StandAloneTupleStorage storage(table->schema());
+    TableTuple tuple = storage.tuple();
+
+    SynchronizedThreadLock::debugSimulateSingleThreadMode(true);
+    SynchronizedThreadLock::assumeMpMemoryContext();
+    for (int i = 0; i < ROW_COUNT; ++i) {
+        Tools::setTupleValues(&tuple, i, i % 10 == 0 ? -1 : i);
+        table->insertTuple(tuple);
+    }
+    SynchronizedThreadLock::assumeLowestSiteContext();
+    SynchronizedThreadLock::debugSimulateSingleThreadMode(false);
+}
+
+TEST_F(SlicedSeqScanTest, SlicesCoverEveryRowOnce) {
+    std::vector<int> timesSeen(ROW_COUNT, 0);
+    for (int partition = 0; partition < PARTITION_COUNT; ++partition) {
+        UniqueEngine engine = UniqueEngineBuilder().setPartitionId(partition).build();
+        setHashinator(engine.get());
+        ASSERT_TRUE(engine->loadCatalog(0, catalogPayload));
+        loadTable(engine.get());
+
+        auto ev = ExecutorVector::fromJsonPlan(engine.get(), jsonPlan, 0);
+        ASSERT_NE(NULL, ev.get());
+        UniqueTempTableResult result = engine->executePlanFragment(ev.get(), NULL);
+        ASSERT_NE(NULL, result.get());
+
+        int rowsInSlice = 0;
+        TableTuple tuple(result->schema());
+        TableIterator iter = result->iterator();
+        while (iter.next(tuple)) {
+            int32_t id = ValuePeeker::peekInteger(tuple.getNValue(0));
+            ASSERT_TRUE(id >= 0 && id < ROW_COUNT);
+            ASSERT_TRUE(engine->isLocalSite(tuple.getNValue(0)));
+            ++timesSeen[id];
+            ++rowsInSlice;
+        }
+        // With this many rows every partition gets a share
+        ASSERT_TRUE(rowsInSlice > 0);
+        ASSERT_TRUE(rowsInSlice < ROW_COUNT);
+        ExecutorContext::getExecutorContext()->cleanupAllExecutors();
+    }
+
+    // Rows the predicate rejects are not produced by any slice, the others by exactly one
+    for (int i = 0; i < ROW_COUNT; ++i) {
+        ASSERT_EQ(i % 10 == 0 ? 0 : 1, timesSeen[i]);
+    }
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
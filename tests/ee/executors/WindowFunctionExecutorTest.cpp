@@ -0,0 +1,458 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include <iomanip>
+#include <sstream>
+#include <string>
+#include <vector>
+
+#include "harness.h"
+
+#include "test_utils/LargeTempTableTopend.hpp"
+#include "test_utils/Tools.hpp"
+#include "test_utils/UniqueEngine.hpp"
+
+#include "common/executorcontext.hpp"
+#include "common/NValue.hpp"
+#include "common/SynchronizedThreadLock.h"
+#include "common/ValuePeeker.hpp"
+#include "common/tabletuple.h"
+#include "execution/ExecutorVector.h"
+#include "storage/AbstractTempTable.hpp"
+#include "storage/TempTableLimits.h"
+#include "storage/table.h"
+#include "storage/tableiterator.h"
+
+using namespace voltdb;
+
+/**
+ * Catalog for a database with one table:
+ *  create table t (id integer not null,
+ *                  g  integer,
+ *                  k  integer,
+ *                  s  varchar(15),
+ *                  v  varchar(500));
+ * S is stored inline in the tuple and V is not.
+ */
+static const std::string catalogPayload =
+    "add / clusters cluster\n"
+    "set /clusters#cluster localepoch 1199145600\n"
+    "set $PREV securityEnabled false\n"
+    "set $PREV httpdportno -1\n"
+    "set $PREV jsonapi true\n"
+    "set $PREV networkpartition false\n"
+    "set $PREV heartbeatTimeout 90\n"
+    "set $PREV useddlschema false\n"
+    "set $PREV drConsumerEnabled false\n"
+    "set $PREV drProducerEnabled true\n"
+    "set $PREV drRole \"master\"\n"
+    "set $PREV drClusterId 0\n"
+    "set $PREV drProducerPort 5555\n"
+    "set $PREV drMasterHost \"\"\n"
+    "set $PREV drFlushInterval 1000\n"
+    "set $PREV exportFlushInterval 4000\n"
+    "set $PREV preferredSource 0\n"
+    "add /clusters#cluster databases database\n"
+    "set /clusters#cluster/databases#database schema \"\"\n"
+    "set $PREV isActiveActiveDRed false\n"
+    "set $PREV securityprovider \"hash\"\n"
+    "add /clusters#cluster/databases#database tables T\n"
+    "set /clusters#cluster/databases#database/tables#T isreplicated true\n"
+    "set $PREV partitioncolumn null\n"
+    "set $PREV estimatedtuplecount 0\n"
+    "set $PREV materializer null\n"
+    "set $PREV signature \"T|iiivv\"\n"
+    "set $PREV tuplelimit 2147483647\n"
+    "set $PREV isDRed false\n"
+    "add /clusters#cluster/databases#database/tables#T columns ID\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#ID index 0\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable false\n"
+    "set $PREV name \"ID\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#T columns G\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#G index 1\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"G\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#T columns K\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#K index 2\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"K\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#T columns S\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#S index 3\n"
+    "set $PREV type 9\n"
+    "set $PREV size 15\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"S\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#T columns V\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#V index 4\n"
+    "set $PREV type 9\n"
+    "set $PREV size 500\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"V\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster deployment deployment\n"
+    "set /clusters#cluster/deployment#deployment kfactor 0\n"
+    "add /clusters#cluster/deployment#deployment systemsettings systemsettings\n"
+    "set /clusters#cluster/deployment#deployment/systemsettings#systemsettings temptablemaxsize 100\n"
+    "set $PREV snapshotpriority 6\n"
+    "set $PREV elasticduration 50\n"
+    "set $PREV elasticthroughput 2\n"
+    "set $PREV querytimeout 300000\n"
+    "add /clusters#cluster logconfig log\n"
+    "set /clusters#cluster/logconfig#log enabled false\n"
+    "set $PREV synchronous false\n"
+    "set $PREV fsyncInterval 200\n"
+    "set $PREV maxTxns 2147483647\n"
+    "set $PREV logSize 1024";
+
+static const int ID_COLUMN = 0;
+static const int G_COLUMN = 1;
+static const int K_COLUMN = 2;
+static const int S_COLUMN = 3;
+static const int V_COLUMN = 4;
+
+static const int S_SIZE = 15;
+static const int V_SIZE = 500;
+
+static std::string tveJson(int valueType, int columnIndex, int valueSize = 0) {
+    std::ostringstream oss;
+    oss << "{\"TYPE\":32,\"VALUE_TYPE\":" << valueType;
+    if (valueSize > 0) {
+        oss << ",\"VALUE_SIZE\":" << valueSize;
+    }
+    oss << ",\"COLUMN_IDX\":" << columnIndex << "}";
+    return oss.str();
+}
+
+static std::string columnJson(const std::string& name, const std::string& expression) {
+    return "{\"COLUMN_NAME\":\"" + name + "\",\"EXPRESSION\":" + expression + "}";
+}
+
+/** A window function and the input column it is applied to, if any */
+struct WindowAggregateSpec {
+    std::string type;
+    int argumentColumn;
+    int valueType;
+    int valueSize;
+};
+
+/**
+ * The plan the planner produces for
+ *     SELECT <aggregates> OVER (PARTITION BY G ORDER BY K), ID, G, K FROM T;
+ * without its send node, so that the window function's output is returned.
+ * The planner puts each window function in its own plan node; the executor
+ * computes any number of them side by side.
+ */
+static std::string windowFunctionPlan(const std::vector<WindowAggregateSpec>& aggregates,
+        bool isLargeQuery) {
+    std::ostringstream oss;
+    oss << "{\"PLAN_NODES\":["
+        << "{\"ID\":1,\"PLAN_NODE_TYPE\":\"WINDOWFUNCTION\",\"CHILDREN_IDS\":[2],"
+        << "\"OUTPUT_SCHEMA\":[";
+    for (int ii = 0; ii < aggregates.size(); ++ii) {
+        oss << columnJson(aggregates[ii].type,
+                          tveJson(aggregates[ii].valueType, ii, aggregates[ii].valueSize)) << ",";
+    }
+    oss << columnJson("ID", tveJson(5, ID_COLUMN)) << ","
+        << columnJson("G", tveJson(5, G_COLUMN)) << ","
+        << columnJson("K", tveJson(5, K_COLUMN)) << "],"
+        << "\"AGGREGATE_COLUMNS\":[";
+    for (int ii = 0; ii < aggregates.size(); ++ii) {
+        const WindowAggregateSpec& agg = aggregates[ii];
+        oss << (ii == 0 ? "" : ",")
+            << "{\"AGGREGATE_TYPE\":\"" << agg.type << "\","
+            << "\"AGGREGATE_OUTPUT_COLUMN\":" << ii << ","
+            << "\"AGGREGATE_EXPRESSIONS\":[";
+        if (agg.argumentColumn >= 0) {
+            oss << tveJson(agg.valueType, agg.argumentColumn, agg.valueSize);
+        }
+        oss << "]}";
+    }
+    oss << "],"
+        << "\"PARTITIONBY_EXPRESSIONS\":[" << tveJson(5, G_COLUMN) << "],"
+        << "\"SORT_COLUMNS\":[{\"SORT_EXPRESSION\":" << tveJson(5, K_COLUMN) << "}]},"
+        << "{\"ID\":2,\"PLAN_NODE_TYPE\":\"ORDERBY\",\"CHILDREN_IDS\":[3],"
+        << "\"SORT_COLUMNS\":["
+        << "{\"SORT_EXPRESSION\":" << tveJson(5, G_COLUMN) << ",\"SORT_DIRECTION\":\"ASC\"},"
+        << "{\"SORT_EXPRESSION\":" << tveJson(5, K_COLUMN) << ",\"SORT_DIRECTION\":\"ASC\"}]},"
+        << "{\"ID\":3,\"PLAN_NODE_TYPE\":\"SEQSCAN\","
+        << "\"INLINE_NODES\":[{\"ID\":4,\"PLAN_NODE_TYPE\":\"PROJECTION\",\"OUTPUT_SCHEMA\":["
+        << columnJson("ID", tveJson(5, ID_COLUMN)) << ","
+        << columnJson("G", tveJson(5, G_COLUMN)) << ","
+        << columnJson("K", tveJson(5, K_COLUMN)) << ","
+        << columnJson("S", tveJson(9, S_COLUMN, S_SIZE)) << ","
+        << columnJson("V", tveJson(9, V_COLUMN, V_SIZE)) << "]}],"
+        << "\"TARGET_TABLE_NAME\":\"T\",\"TARGET_TABLE_ALIAS\":\"T\"}"
+        << "],"
+        << "\"EXECUTE_LIST\":[3,2,1],"
+        << "\"IS_LARGE_QUERY\":" << (isLargeQuery ? "true" : "false")
+        << "}";
+    return oss.str();
+}
+
+/** One row of T */
+struct InputRow {
+    int id;
+    int g;
+    int k;
+};
+
+class WindowFunctionExecutorTest : public Test {
+public:
+    ~WindowFunctionExecutorTest() {
+        voltdb::globalDestroyOncePerProcess();
+    }
+
+protected:
+    /** S sorts like the id it is made from */
+    static std::string shortString(int id) {
+        std::ostringstream oss;
+        oss << "s" << std::setw(8) << std::setfill('0') << id;
+        return oss.str();
+    }
+
+    /** and so does V */
+    static std::string longString(int id, int length) {
+        return shortString(id) + std::string(length, 'x');
+    }
+
+    static void insertRows(VoltDBEngine* engine, const std::vector<InputRow>& rows, int vLength) {
+        Table* table = engine->getTableByName("T");
+        StandAloneTupleStorage storage(table->schema());
+        TableTuple tuple = storage.tuple();
+
+        SynchronizedThreadLock::debugSimulateSingleThreadMode(true);
+        SynchronizedThreadLock::assumeMpMemoryContext();
+        for (auto const& row : rows) {
+            Tools::setTupleValues(&tuple, row.id, row.g, row.k,
+                                  shortString(row.id), longString(row.id, vLength));
+            table->insertTuple(tuple);
+        }
+        SynchronizedThreadLock::assumeLowestSiteContext();
+        SynchronizedThreadLock::debugSimulateSingleThreadMode(false);
+    }
+
+    /**
+     * Run the plan and hand each output row to the checker, in output order.
+     * Returns the number of output rows.
+     */
+    template <typename CHECKER>
+    int runWindowFunctions(VoltDBEngine* engine, const std::vector<WindowAggregateSpec>& aggregates,
+            bool isLargeQuery, CHECKER checker) {
+        auto ev = ExecutorVector::fromJsonPlan(engine, windowFunctionPlan(aggregates, isLargeQuery), 0);
+        UniqueTempTableResult result = engine->executePlanFragment(ev.get(), NULL);
+        EXPECT_NE(NULL, result.get());
+        if (result.get() == NULL) {
+            return 0;
+        }
+
+        int rowCount = 0;
+        TableTuple tuple(result->schema());
+        TableIterator iter = result->iterator();
+        while (iter.next(tuple)) {
+            checker(tuple);
+            ++rowCount;
+        }
+
+        // With the temp tables gone nothing stays charged to the limits.
+        result.reset();
+        ExecutorContext::getExecutorContext()->cleanupAllExecutors();
+        EXPECT_EQ(0, ev->limits()->getAllocated());
+        return rowCount;
+    }
+
+    static int outputInteger(const TableTuple& tuple, int aggregateCount, int inputColumn) {
+        return ValuePeeker::peekInteger(tuple.getNValue(aggregateCount + inputColumn));
+    }
+
+    std::string outputString(const TableTuple& tuple, int column) {
+        NValue value = tuple.getNValue(column);
+        EXPECT_FALSE(value.isNull());
+        int32_t length;
+        const char* data = ValuePeeker::peekObject_withoutNull(value, &length);
+        return std::string(data, length);
+    }
+
+    /**
+     * RANK, DENSE_RANK and ROW_NUMBER need no lookahead, so their rows
+     * stream straight through to the output without the peer group buffer.
+     * Each partition has rows with K = 0, 0, 0, 1, 1, 1, 2, 2, 2, 3.
+     */
+    void checkStreamingRanks(bool isLargeQuery) {
+        std::unique_ptr<Topend> topend{new LargeTempTableTopend()};
+        UniqueEngine engine = UniqueEngineBuilder()
+            .setTopend(std::move(topend))
+            .build();
+        ASSERT_TRUE(engine->loadCatalog(0, catalogPayload));
+
+        const int partitions = 3;
+        const int partitionSize = 10;
+        std::vector<InputRow> rows;
+        // Insert in reverse so that the plan's sort has work to do.
+        for (int id = partitions * partitionSize - 1; id >= 0; --id) {
+            rows.push_back(InputRow{id, id / partitionSize, (id % partitionSize) / 3});
+        }
+        insertRows(engine.get(), rows, 10);
+
+        const std::vector<WindowAggregateSpec> aggregates {
+            { "AGGREGATE_WINDOWED_RANK", -1, 6, 0 },
+            { "AGGREGATE_WINDOWED_DENSE_RANK", -1, 6, 0 },
+            { "AGGREGATE_WINDOWED_ROW_NUMBER", -1, 6, 0 }
+        };
+        const int aggCount = static_cast<int>(aggregates.size());
+        int lastG = -1;
+        int64_t lastRowNumber = 0;
+        int rowCount = runWindowFunctions(engine.get(), aggregates, isLargeQuery,
+                [&](const TableTuple& tuple) {
+            int g = outputInteger(tuple, aggCount, G_COLUMN);
+            int k = outputInteger(tuple, aggCount, K_COLUMN);
+            int id = outputInteger(tuple, aggCount, ID_COLUMN);
+            ASSERT_EQ(id / partitionSize, g);
+            ASSERT_EQ((id % partitionSize) / 3, k);
+            if (g != lastG) {
+                lastG = g;
+                lastRowNumber = 0;
+            }
+            // Three rows share each K, so the rank skips by three.
+            ASSERT_EQ(1 + 3 * k, ValuePeeker::peekAsBigInt(tuple.getNValue(0)));
+            ASSERT_EQ(1 + k, ValuePeeker::peekAsBigInt(tuple.getNValue(1)));
+            ASSERT_EQ(lastRowNumber + 1, ValuePeeker::peekAsBigInt(tuple.getNValue(2)));
+            lastRowNumber = ValuePeeker::peekAsBigInt(tuple.getNValue(2));
+        });
+        ASSERT_EQ(partitions * partitionSize, rowCount);
+        ASSERT_EQ(partitions - 1, lastG);
+        ASSERT_EQ(partitionSize, lastRowNumber);
+    }
+};
+
+TEST_F(WindowFunctionExecutorTest, StreamingRanks) {
+    checkStreamingRanks(false);
+}
+
+TEST_F(WindowFunctionExecutorTest, StreamingRanksLargeQuery) {
+    checkStreamingRanks(true);
+}
+
+// An LTT block cache that holds six blocks, enough for the sort's
+// merges and for the blocks the window function keeps pinned: the
+// input, the peer group buffer and the output.
+static const int64_t TEMP_TABLE_MEMORY_LIMIT = 48 * 1024 * 1024;
+
+// Two partitions of two peer groups each.  Every peer group takes
+// most of an 8MB block, so each one straddles a block boundary of
+// the input and of the peer group buffer.
+static const int BUFFERED_PARTITIONS = 2;
+static const int BUFFERED_GROUPS = 2;
+static const int BUFFERED_GROUP_SIZE = 15000;
+static const int BUFFERED_V_LENGTH = 400;
+
+// COUNT, MIN and MAX need to see a whole peer group before its first
+// row is output, so its rows go through the peer group buffer.  The
+// smallest S of a partition is in its first row and the largest V of
+// each peer group is in its last, so MIN and MAX keep strings whose
+// input blocks have been deleted by the time the aggregates are output.
+TEST_F(WindowFunctionExecutorTest, BufferedPeerGroupsLargeQuery) {
+    std::unique_ptr<Topend> topend{new LargeTempTableTopend()};
+    UniqueEngine engine = UniqueEngineBuilder()
+        .setTopend(std::move(topend))
+        .setTempTableMemoryLimit(TEMP_TABLE_MEMORY_LIMIT)
+        .build();
+    ASSERT_TRUE(engine->loadCatalog(0, catalogPayload));
+
+    const int partitionSize = BUFFERED_GROUPS * BUFFERED_GROUP_SIZE;
+    std::vector<InputRow> rows;
+    for (int id = 0; id < BUFFERED_PARTITIONS * partitionSize; ++id) {
+        rows.push_back(InputRow{id, id / partitionSize, (id % partitionSize) / BUFFERED_GROUP_SIZE});
+    }
+    insertRows(engine.get(), rows, BUFFERED_V_LENGTH);
+
+    const std::vector<WindowAggregateSpec> aggregates {
+        { "AGGREGATE_WINDOWED_COUNT", ID_COLUMN, 6, 0 },
+        { "AGGREGATE_WINDOWED_MIN", S_COLUMN, 9, S_SIZE },
+        { "AGGREGATE_WINDOWED_MAX", V_COLUMN, 9, V_SIZE }
+    };
+    const int aggCount = static_cast<int>(aggregates.size());
+    std::vector<int> groupRows(BUFFERED_PARTITIONS * BUFFERED_GROUPS, 0);
+    int rowCount = runWindowFunctions(engine.get(), aggregates, true,
+            [&](const TableTuple& tuple) {
+        int g = outputInteger(tuple, aggCount, G_COLUMN);
+        int k = outputInteger(tuple, aggCount, K_COLUMN);
+        int id = outputInteger(tuple, aggCount, ID_COLUMN);
+        ASSERT_EQ(id / partitionSize, g);
+        ASSERT_EQ((id % partitionSize) / BUFFERED_GROUP_SIZE, k);
+        ++groupRows[g * BUFFERED_GROUPS + k];
+
+        // The frame runs from the start of the partition to the end
+        // of the row's peer group.
+        int firstId = g * partitionSize;
+        int lastId = firstId + (k + 1) * BUFFERED_GROUP_SIZE - 1;
+        ASSERT_EQ((k + 1) * BUFFERED_GROUP_SIZE, ValuePeeker::peekAsBigInt(tuple.getNValue(0)));
+        ASSERT_EQ(shortString(firstId), outputString(tuple, 1));
+        ASSERT_EQ(longString(lastId, BUFFERED_V_LENGTH), outputString(tuple, 2));
+    });
+    ASSERT_EQ(BUFFERED_PARTITIONS * partitionSize, rowCount);
+    for (int count : groupRows) {
+        ASSERT_EQ(BUFFERED_GROUP_SIZE, count);
+    }
+
+    // The input, the peer group buffer and the output are all gone
+    ASSERT_EQ(0, ExecutorContext::getExecutorContext()->lttBlockCache().allocatedMemory());
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
@@ -0,0 +1,239 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This file contains original code and/or modifications of original code.
+ * Any modifications made by VoltDB Inc. are licensed under the following
+ * terms and conditions:
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Copyright (C) 2008 by H-Store Project
+ * Brown University
+ * Massachusetts Institute of Technology
+ * Yale University
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include "harness.h"
+
+#include "test_utils/ScanExpressionTest.hpp"
+
+#include "common/common.h"
+#include "common/ValueFactory.hpp"
+#include "common/ValuePeeker.hpp"
+#include "common/tabletuple.h"
+#include "expressions/batchexpression.h"
+#include "storage/tableiterator.h"
+#include "boost/scoped_ptr.hpp"
+
+using namespace voltdb;
+
+/*
+ * Checks that batch evaluation of expressions gives exactly the results
+ * of the scalar expressions.  See ExpressionBenchmark for how the two
+ * compare for speed.
+ */
+class BatchExpressionTest : public ScanExpressionTest {
+public:
+    /**
+     * Evaluate the predicate over the table in batches, both ways, and
+     * compare.  Returns the number of matching rows, or -1 if any batch
+     * needed the scalar fallback.
+     */
+    int checkPredicate(Table* table, AbstractExpression* predicate) {
+        boost::scoped_ptr<BatchExpression> batchPredicate(
+                BatchExpression::compile(predicate, table->schema()));
+        EXPECT_TRUE(batchPredicate.get() != NULL);
+        if (batchPredicate.get() == NULL) {
+            return -1;
+        }
+        EXPECT_TRUE(batchPredicate->isPredicate());
+        EXPECT_TRUE(batchPredicate->bind());
+
+        TupleBatch batch;
+        uint16_t selection[TupleBatch::CAPACITY];
+        TableTuple tuple(table->schema());
+        TableIterator iter = table->iterator();
+        int matches = 0;
+        bool fellBack = false;
+        bool more = true;
+        while (more) {
+            batch.clear();
+            while (!batch.isFull() && (more = iter.next(tuple))) {
+                batch.add(tuple);
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            int selected = batchPredicate->select(batch, selection);
+            if (selected < 0) {
+                fellBack = true;
+                continue;
+            }
+            int next = 0;
+            for (int row = 0; row < batch.size(); row++) {
+                tuple.move(batch.addressAt(row));
+                bool expected = predicate->eval(&tuple, NULL).isTrue();
+                bool actual = next < selected && selection[next] == row;
+                EXPECT_EQ(expected, actual);
+                if (actual) {
+                    next++;
+                }
+            }
+            EXPECT_EQ(selected, next);
+            matches += selected;
+        }
+        return fellBack ? -1 : matches;
+    }
+
+    void checkProjection(Table* table, AbstractExpression* expr) {
+        boost::scoped_ptr<BatchExpression> batchExpr(BatchExpression::compile(expr, table->schema()));
+        ASSERT_TRUE(batchExpr.get() != NULL);
+        EXPECT_FALSE(batchExpr->isPredicate());
+        ASSERT_TRUE(batchExpr->bind());
+
+        TupleBatch batch;
+        TableTuple tuple(table->schema());
+        TableIterator iter = table->iterator();
+        while (!batch.isFull() && iter.next(tuple)) {
+            batch.add(tuple);
+        }
+        ASSERT_TRUE(batchExpr->evaluate(batch));
+        for (int row = 0; row < batch.size(); row++) {
+            tuple.move(batch.addressAt(row));
+            NValue expected = expr->eval(&tuple, NULL);
+            NValue actual = batchExpr->valueAt(row);
+            EXPECT_EQ(expected.isNull(), actual.isNull());
+            EXPECT_TRUE(ValuePeeker::peekValueType(expected) == ValuePeeker::peekValueType(actual));
+            if (!expected.isNull()) {
+                EXPECT_EQ(0, expected.compare(actual));
+            }
+        }
+    }
+};
+
+TEST_F(BatchExpressionTest, Comparisons) {
+    auto table = initTable(3000);
+    const ExpressionType types[] = {
+        EXPRESSION_TYPE_COMPARE_EQUAL,
+        EXPRESSION_TYPE_COMPARE_NOTEQUAL,
+        EXPRESSION_TYPE_COMPARE_LESSTHAN,
+        EXPRESSION_TYPE_COMPARE_GREATERTHAN,
+        EXPRESSION_TYPE_COMPARE_LESSTHANOREQUALTO,
+        EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO
+    };
+    for (int t = 0; t < sizeof(types) / sizeof(types[0]); t++) {
+        // i <op> 50
+        boost::scoped_ptr<AbstractExpression> intPredicate(
+                compare(types[t], column(INT_COL), bigint(50)));
+        EXPECT_TRUE(checkPredicate(table.get(), intPredicate.get()) >= 0);
+        // d <op> i, comparing as doubles
+        boost::scoped_ptr<AbstractExpression> mixedPredicate(
+                compare(types[t], column(DOUBLE_COL), column(INT_COL)));
+        EXPECT_TRUE(checkPredicate(table.get(), mixedPredicate.get()) >= 0);
+    }
+}
+
+TEST_F(BatchExpressionTest, ThreeValuedLogic) {
+    auto table = initTable(3000);
+    // (i < 50 OR d > 100.0) AND NOT (b IS NULL)
+    AbstractExpression* left = ExpressionUtil::conjunctionFactory(EXPRESSION_TYPE_CONJUNCTION_OR,
+            compare(EXPRESSION_TYPE_COMPARE_LESSTHAN, column(INT_COL), bigint(50)),
+            compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN, column(DOUBLE_COL),
+                    new ConstantValueExpression(ValueFactory::getDoubleValue(100.0))));
+    AbstractExpression* right = new OperatorNotExpression(ExpressionUtil::columnIsNull(0, BIGINT_COL));
+    boost::scoped_ptr<AbstractExpression> predicate(
+            ExpressionUtil::conjunctionFactory(EXPRESSION_TYPE_CONJUNCTION_AND, left, right));
+    EXPECT_TRUE(checkPredicate(table.get(), predicate.get()) > 0);
+
+    // NOT (i > 20 AND d < 500.0) -- NULLs on either side must stay NULL
+    boost::scoped_ptr<AbstractExpression> negated(new OperatorNotExpression(
+            ExpressionUtil::conjunctionFactory(EXPRESSION_TYPE_CONJUNCTION_AND,
+                    compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN, column(INT_COL), bigint(20)),
+                    compare(EXPRESSION_TYPE_COMPARE_LESSTHAN, column(DOUBLE_COL),
+                            new ConstantValueExpression(ValueFactory::getDoubleValue(500.0))))));
+    EXPECT_TRUE(checkPredicate(table.get(), negated.get()) > 0);
+}
+
+TEST_F(BatchExpressionTest, Parameters) {
+    auto table = initTable(2000);
+    NValue param = ValueFactory::getBigIntValue(42);
+    // i = ?
+    boost::scoped_ptr<AbstractExpression> predicate(
+            compare(EXPRESSION_TYPE_COMPARE_EQUAL, column(INT_COL), new ParameterValueExpression(0, &param)));
+    EXPECT_TRUE(checkPredicate(table.get(), predicate.get()) > 0);
+
+    // The same plan bound to a parameter of another type.
+    param = ValueFactory::getDoubleValue(42.0);
+    EXPECT_TRUE(checkPredicate(table.get(), predicate.get()) > 0);
+
+    // Strings have no batch form; bind() must refuse them.
+    boost::scoped_ptr<BatchExpression> batchPredicate(
+            BatchExpression::compile(predicate.get(), table->schema()));
+    ASSERT_TRUE(batchPredicate.get() != NULL);
+    param = ValueFactory::getTempStringValue("42");
+    EXPECT_FALSE(batchPredicate->bind());
+}
+
+TEST_F(BatchExpressionTest, Arithmetic) {
+    auto table = initTable(2000);
+    // b * 3 + i
+    boost::scoped_ptr<AbstractExpression> intExpr(ExpressionUtil::operatorFactory(EXPRESSION_TYPE_OPERATOR_PLUS,
+            ExpressionUtil::operatorFactory(EXPRESSION_TYPE_OPERATOR_MULTIPLY, column(BIGINT_COL), bigint(3)),
+            column(INT_COL)));
+    checkProjection(table.get(), intExpr.get());
+    // d - i
+    boost::scoped_ptr<AbstractExpression> doubleExpr(ExpressionUtil::operatorFactory(EXPRESSION_TYPE_OPERATOR_MINUS,
+            column(DOUBLE_COL), column(INT_COL)));
+    checkProjection(table.get(), doubleExpr.get());
+
+    // b * 2^62 overflows, which only the scalar path may report.
+    boost::scoped_ptr<AbstractExpression> overflow(compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN,
+            ExpressionUtil::operatorFactory(EXPRESSION_TYPE_OPERATOR_MULTIPLY,
+                    column(BIGINT_COL), bigint(INT64_C(1) << 62)),
+            bigint(0)));
+    EXPECT_EQ(-1, checkPredicate(table.get(), overflow.get()));
+}
+
+TEST_F(BatchExpressionTest, Unsupported) {
+    auto table = initTable(10);
+    // Division has no batch form.
+    boost::scoped_ptr<AbstractExpression> divide(compare(EXPRESSION_TYPE_COMPARE_EQUAL,
+            ExpressionUtil::operatorFactory(EXPRESSION_TYPE_OPERATOR_DIVIDE, column(BIGINT_COL), bigint(2)),
+            bigint(0)));
+    boost::scoped_ptr<BatchExpression> batchPredicate(BatchExpression::compile(divide.get(), table->schema()));
+    EXPECT_TRUE(batchPredicate.get() == NULL);
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
@@ -0,0 +1,205 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+#include <string>
+
+#include "harness.h"
+
+#include "test_utils/ScanExpressionTest.hpp"
+
+#include "common/SQLException.h"
+#include "common/ValueFactory.hpp"
+#include "common/ValuePeeker.hpp"
+#include "common/tabletuple.h"
+#include "expressions/compiledexpression.h"
+#include "storage/tableiterator.h"
+#include "boost/scoped_ptr.hpp"
+
+using namespace voltdb;
+
+/*
+ * Checks that compiled expressions give exactly the results (and raise
+ * exactly the errors) of the expression trees they are compiled from.
+ * The rows are also paired up as outer and inner tuples, since compiled
+ * programs read both, and the error and short-circuit behaviour is
+ * checked row by row.  See ExpressionBenchmark for how the two compare
+ * for speed.
+ */
+class CompiledExpressionTest : public ScanExpressionTest {
+public:
+    /** Evaluate expr, returning false (and the error message) if it throws */
+    bool tryEval(const AbstractExpression* expr, const TableTuple* tuple1, const TableTuple* tuple2,
+                 NValue& result, std::string& error) {
+        try {
+            result = expr->eval(tuple1, tuple2);
+            return true;
+        } catch (const SQLException& e) {
+            error = e.message();
+            return false;
+        }
+    }
+
+    /**
+     * Evaluate expr and its compiled form against every row of the table,
+     * as the outer tuple and, paired with the previous row, as the inner
+     * one.  Returns the number of rows for which expr was TRUE.
+     */
+    int check(Table* table, AbstractExpression* expr) {
+        boost::scoped_ptr<CompiledExpression> compiled(CompiledExpression::compile(expr));
+        EXPECT_TRUE(compiled.get() != NULL);
+        if (compiled.get() == NULL) {
+            return -1;
+        }
+        EXPECT_EQ(expr->getValueType(), compiled->getValueType());
+        EXPECT_EQ(expr->getExpressionType(), compiled->getExpressionType());
+
+        TableTuple tuple(table->schema());
+        TableTuple previous(table->schema());
+        TableIterator iter = table->iterator();
+        int matches = 0;
+        while (iter.next(tuple)) {
+            const TableTuple* inner = previous.isNullTuple() ? &tuple : &previous;
+            NValue expected;
+            NValue actual;
+            std::string expectedError;
+            std::string actualError;
+            bool expectedOk = tryEval(expr, &tuple, inner, expected, expectedError);
+            bool actualOk = tryEval(compiled.get(), &tuple, inner, actual, actualError);
+            EXPECT_EQ(expectedOk, actualOk);
+            EXPECT_EQ(expectedError, actualError);
+            if (expectedOk && actualOk) {
+                EXPECT_EQ(expected.isNull(), actual.isNull());
+                EXPECT_TRUE(ValuePeeker::peekValueType(expected) == ValuePeeker::peekValueType(actual));
+                if (!expected.isNull() && !actual.isNull()) {
+                    EXPECT_EQ(0, expected.compare(actual));
+                }
+                matches += expected.isTrue();
+            }
+            previous.move(tuple.address());
+        }
+        return matches;
+    }
+};
+
+TEST_F(CompiledExpressionTest, JoinComparisons) {
+    auto table = initTable(3000);
+    const ExpressionType types[] = {
+        EXPRESSION_TYPE_COMPARE_EQUAL,
+        EXPRESSION_TYPE_COMPARE_NOTEQUAL,
+        EXPRESSION_TYPE_COMPARE_LESSTHAN,
+        EXPRESSION_TYPE_COMPARE_GREATERTHAN,
+        EXPRESSION_TYPE_COMPARE_LESSTHANOREQUALTO,
+        EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO,
+        EXPRESSION_TYPE_COMPARE_NOTDISTINCT
+    };
+    for (int t = 0; t < sizeof(types) / sizeof(types[0]); t++) {
+        // outer.i <op> inner.i, both sides sometimes NULL
+        boost::scoped_ptr<AbstractExpression> joinPredicate(compare(types[t], column(INT_COL), column2(INT_COL)));
+        EXPECT_TRUE(check(table.get(), joinPredicate.get()) >= 0);
+        // outer.d <op> inner.b, comparing as doubles
+        boost::scoped_ptr<AbstractExpression> mixedPredicate(compare(types[t], column(DOUBLE_COL), column2(BIGINT_COL)));
+        EXPECT_TRUE(check(table.get(), mixedPredicate.get()) >= 0);
+    }
+}
+
+TEST_F(CompiledExpressionTest, ShortCircuit) {
+    auto table = initTable(3000);
+    // NOT (i > 20 AND d < 500.0) OR b = 5000 -- NULLs on either side must stay NULL
+    boost::scoped_ptr<AbstractExpression> negated(conjunction(EXPRESSION_TYPE_CONJUNCTION_OR,
+            new OperatorNotExpression(conjunction(EXPRESSION_TYPE_CONJUNCTION_AND,
+                    compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN, column(INT_COL), bigint(20)),
+                    compare(EXPRESSION_TYPE_COMPARE_LESSTHAN, column(DOUBLE_COL), floatValue(500.0)))),
+            compare(EXPRESSION_TYPE_COMPARE_EQUAL, column(BIGINT_COL), bigint(5000))));
+    EXPECT_TRUE(check(table.get(), negated.get()) > 0);
+
+    // i > 0 AND b / i > 100 never divides by zero: AND short-circuits the
+    // same way in both forms, and so does a NULL comparison operand.
+    boost::scoped_ptr<AbstractExpression> guarded(conjunction(EXPRESSION_TYPE_CONJUNCTION_AND,
+            compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN, column(INT_COL), bigint(0)),
+            compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN,
+                    arithmetic(EXPRESSION_TYPE_OPERATOR_DIVIDE, column(BIGINT_COL), column(INT_COL)),
+                    bigint(100))));
+    EXPECT_TRUE(check(table.get(), guarded.get()) > 0);
+}
+
+TEST_F(CompiledExpressionTest, Errors) {
+    auto table = initTable(2000);
+    // b / i divides by zero where i is 0 -- errors must match row by row
+    boost::scoped_ptr<AbstractExpression> divide(compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN,
+            arithmetic(EXPRESSION_TYPE_OPERATOR_DIVIDE, column(BIGINT_COL), column(INT_COL)),
+            bigint(100)));
+    check(table.get(), divide.get());
+
+    // b * 2^62 overflows on every row
+    boost::scoped_ptr<AbstractExpression> overflow(compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN,
+            arithmetic(EXPRESSION_TYPE_OPERATOR_MULTIPLY, column(BIGINT_COL), bigint(INT64_C(1) << 62)),
+            bigint(0)));
+    EXPECT_EQ(0, check(table.get(), overflow.get()));
+}
+
+TEST_F(CompiledExpressionTest, Parameters) {
+    auto table = initTable(2000);
+    NValue param = ValueFactory::getBigIntValue(42);
+    // i = ?
+    boost::scoped_ptr<AbstractExpression> predicate(compare(EXPRESSION_TYPE_COMPARE_EQUAL,
+            column(INT_COL), new ParameterValueExpression(0, &param)));
+    boost::scoped_ptr<CompiledExpression> compiled(CompiledExpression::compile(predicate.get()));
+    ASSERT_TRUE(compiled.get() != NULL);
+    EXPECT_TRUE(compiled->hasParameter());
+    EXPECT_EQ(0, compiled->getFallbackCount());
+    EXPECT_TRUE(check(table.get(), predicate.get()) > 0);
+
+    // The same program bound to parameters of other types.
+    param = ValueFactory::getDoubleValue(42.0);
+    EXPECT_TRUE(check(table.get(), predicate.get()) > 0);
+    param = NValue::getNullValue(ValueType::tBIGINT);
+    EXPECT_EQ(0, check(table.get(), predicate.get()));
+}
+
+TEST_F(CompiledExpressionTest, Fallback) {
+    auto table = initTable(1000);
+    // -i < -50 AND d > 10.0: unary minus has no instruction of its own
+    boost::scoped_ptr<AbstractExpression> predicate(conjunction(EXPRESSION_TYPE_CONJUNCTION_AND,
+            compare(EXPRESSION_TYPE_COMPARE_LESSTHAN,
+                    new OperatorUnaryMinusExpression(column(INT_COL)), bigint(-50)),
+            compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN, column(DOUBLE_COL), floatValue(10.0))));
+    boost::scoped_ptr<CompiledExpression> compiled(CompiledExpression::compile(predicate.get()));
+    ASSERT_TRUE(compiled.get() != NULL);
+    EXPECT_EQ(1, compiled->getFallbackCount());
+    EXPECT_TRUE(check(table.get(), predicate.get()) > 0);
+
+    // Leaves and unsupported roots are left to the caller.
+    boost::scoped_ptr<AbstractExpression> leaf(column(INT_COL));
+    EXPECT_TRUE(CompiledExpression::compile(leaf.get()) == NULL);
+    boost::scoped_ptr<AbstractExpression> minus(new OperatorUnaryMinusExpression(column(INT_COL)));
+    EXPECT_TRUE(CompiledExpression::compile(minus.get()) == NULL);
+
+    // Callers that need the tree structure can get back to it.
+    EXPECT_TRUE(CompiledExpression::source(compiled.get()) == predicate.get());
+    EXPECT_TRUE(CompiledExpression::source(predicate.get()) == predicate.get());
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
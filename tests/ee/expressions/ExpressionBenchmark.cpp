@@ -0,0 +1,201 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include <sys/time.h>
+#include <cstdio>
+#include <cstdlib>
+#include <algorithm>
+#include <cstring>
+
+#include "harness.h"
+
+#include "test_utils/ScanExpressionTest.hpp"
+
+#include "common/ValueFactory.hpp"
+#include "common/tabletuple.h"
+#include "expressions/batchexpression.h"
+#include "expressions/compiledexpression.h"
+#include "storage/tableiterator.h"
+#include "boost/scoped_ptr.hpp"
+
+using namespace voltdb;
+
+/*
+ * Micro-benchmarks of the ways a scan predicate can be evaluated, in
+ * rows per second.  Like CompactingMapBenchmark, nothing is run unless
+ * asked for on the command line, so the unit test run stays quiet.
+ */
+class ExpressionBenchmark : public ScanExpressionTest { };
+
+static int64_t getMicrosNow() {
+    timeval tv;
+    gettimeofday(&tv, NULL);
+    return tv.tv_sec * 1000000 + tv.tv_usec;
+}
+
+static void printRate(const char* name, int64_t rows, int64_t micros) {
+    printf("%-12s %lld rows/sec\n", name, (long long)(rows * 1000000 / std::max<int64_t>(micros, 1)));
+}
+
+/* A typical scan predicate, evaluated one tuple at a time and in batches. */
+static void benchmarkBatch(int rows, int runs) {
+    auto table = ExpressionBenchmark::initTable(rows);
+    // i > 20 AND b * 2 < 150000000 AND d >= 10.0
+    boost::scoped_ptr<AbstractExpression> predicate(ExpressionBenchmark::conjunction(EXPRESSION_TYPE_CONJUNCTION_AND,
+            ExpressionBenchmark::conjunction(EXPRESSION_TYPE_CONJUNCTION_AND,
+                    ExpressionBenchmark::compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN,
+                            ExpressionBenchmark::column(ExpressionBenchmark::INT_COL),
+                            ExpressionBenchmark::bigint(20)),
+                    ExpressionBenchmark::compare(EXPRESSION_TYPE_COMPARE_LESSTHAN,
+                            ExpressionBenchmark::arithmetic(EXPRESSION_TYPE_OPERATOR_MULTIPLY,
+                                    ExpressionBenchmark::column(ExpressionBenchmark::BIGINT_COL),
+                                    ExpressionBenchmark::bigint(2)),
+                            ExpressionBenchmark::bigint(150000000))),
+            ExpressionBenchmark::compare(EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO,
+                    ExpressionBenchmark::column(ExpressionBenchmark::DOUBLE_COL),
+                    ExpressionBenchmark::floatValue(10.0))));
+    boost::scoped_ptr<BatchExpression> batchPredicate(
+            BatchExpression::compile(predicate.get(), table->schema()));
+    if (batchPredicate.get() == NULL || ! batchPredicate->bind()) {
+        printf("The predicate has no batch form\n");
+        return;
+    }
+
+    TableTuple tuple(table->schema());
+    int64_t scalarMatches = 0;
+    int64_t start = getMicrosNow();
+    for (int run = 0; run < runs; run++) {
+        TableIterator iter = table->iterator();
+        while (iter.next(tuple)) {
+            scalarMatches += predicate->eval(&tuple, NULL).isTrue();
+        }
+    }
+    int64_t scalarMicros = getMicrosNow() - start;
+
+    TupleBatch batch;
+    uint16_t selection[TupleBatch::CAPACITY];
+    int64_t batchMatches = 0;
+    start = getMicrosNow();
+    for (int run = 0; run < runs; run++) {
+        TableIterator iter = table->iterator();
+        batch.clear();
+        while (iter.next(tuple)) {
+            batch.add(tuple);
+            if (batch.isFull()) {
+                batchMatches += batchPredicate->select(batch, selection);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchMatches += batchPredicate->select(batch, selection);
+        }
+    }
+    int64_t batchMicros = getMicrosNow() - start;
+
+    if (scalarMatches != batchMatches) {
+        printf("Result mismatch: scalar %lld, batch %lld\n",
+               (long long)scalarMatches, (long long)batchMatches);
+    }
+    printRate("scalar:", (int64_t)rows * runs, scalarMicros);
+    printRate("batch:", (int64_t)rows * runs, batchMicros);
+}
+
+/* A TPC-C style scan predicate, interpreted and compiled. */
+static void benchmarkCompiled(int rows, int runs) {
+    auto table = ExpressionBenchmark::initTable(rows);
+    NValue lowParam = ValueFactory::getBigIntValue(20);
+    NValue highParam = ValueFactory::getBigIntValue(150000000);
+    // i > ? AND b * 2 < ? AND (d >= 10.0 OR i IS NULL)
+    boost::scoped_ptr<AbstractExpression> predicate(ExpressionBenchmark::conjunction(EXPRESSION_TYPE_CONJUNCTION_AND,
+            ExpressionBenchmark::conjunction(EXPRESSION_TYPE_CONJUNCTION_AND,
+                    ExpressionBenchmark::compare(EXPRESSION_TYPE_COMPARE_GREATERTHAN,
+                            ExpressionBenchmark::column(ExpressionBenchmark::INT_COL),
+                            new ParameterValueExpression(0, &lowParam)),
+                    ExpressionBenchmark::compare(EXPRESSION_TYPE_COMPARE_LESSTHAN,
+                            ExpressionBenchmark::arithmetic(EXPRESSION_TYPE_OPERATOR_MULTIPLY,
+                                    ExpressionBenchmark::column(ExpressionBenchmark::BIGINT_COL),
+                                    ExpressionBenchmark::bigint(2)),
+                            new ParameterValueExpression(1, &highParam))),
+            ExpressionBenchmark::conjunction(EXPRESSION_TYPE_CONJUNCTION_OR,
+                    ExpressionBenchmark::compare(EXPRESSION_TYPE_COMPARE_GREATERTHANOREQUALTO,
+                            ExpressionBenchmark::column(ExpressionBenchmark::DOUBLE_COL),
+                            ExpressionBenchmark::floatValue(10.0)),
+                    ExpressionUtil::columnIsNull(0, ExpressionBenchmark::INT_COL))));
+    boost::scoped_ptr<CompiledExpression> compiled(CompiledExpression::compile(predicate.get()));
+    if (compiled.get() == NULL) {
+        printf("The predicate did not compile\n");
+        return;
+    }
+
+    TableTuple tuple(table->schema());
+    int64_t interpretedMatches = 0;
+    int64_t start = getMicrosNow();
+    for (int run = 0; run < runs; run++) {
+        TableIterator iter = table->iterator();
+        while (iter.next(tuple)) {
+            interpretedMatches += predicate->eval(&tuple, NULL).isTrue();
+        }
+    }
+    int64_t interpretedMicros = getMicrosNow() - start;
+
+    int64_t compiledMatches = 0;
+    start = getMicrosNow();
+    for (int run = 0; run < runs; run++) {
+        TableIterator iter = table->iterator();
+        while (iter.next(tuple)) {
+            compiledMatches += compiled->eval(&tuple, NULL).isTrue();
+        }
+    }
+    int64_t compiledMicros = getMicrosNow() - start;
+
+    if (interpretedMatches != compiledMatches) {
+        printf("Result mismatch: interpreted %lld, compiled %lld\n",
+               (long long)interpretedMatches, (long long)compiledMatches);
+    }
+    printRate("interpreted:", (int64_t)rows * runs, interpretedMicros);
+    printRate("compiled:", (int64_t)rows * runs, compiledMicros);
+}
+
+int main(int argc, char *argv[]) {
+    if (argc <= 2 || *argv[1] == '-') {
+        printf("To run the benchmarks, execute %s with command line arguments: "
+               "rows<int> runs<int> [batch] [compiled]\n", argv[0]);
+        return 0;
+    }
+    int rows = std::atoi(argv[1]);
+    int runs = std::atoi(argv[2]);
+    bool all = argc <= 3;
+    for (int i = 3; i < argc; i++) {
+        if (strcmp(argv[i], "batch") == 0) {
+            benchmarkBatch(rows, runs);
+        }
+        else if (strcmp(argv[i], "compiled") == 0) {
+            benchmarkCompiled(rows, runs);
+        }
+    }
+    if (all) {
+        benchmarkBatch(rows, runs);
+        benchmarkCompiled(rows, runs);
+    }
+    return 0;
+}
@@ -335,13 +335,7 @@ public:
 
         for (int64_t i = 1; i <= NUM_OF_TUPLES; ++i)
         {
-            TableTuple &tuple = table->tempTuple();
-            tuple.setNValue(0, ValueFactory::getBigIntValue(i));
-            tuple.setNValue(1, ValueFactory::getBigIntValue(i % 2));
-            tuple.setNValue(2, ValueFactory::getBigIntValue(i % 3));
-            tuple.setNValue(3, ValueFactory::getBigIntValue(i + 20));
-            tuple.setNValue(4, ValueFactory::getBigIntValue(i * 11));
-            vassert(table->insertTuple(tuple));
+            insertRow(i);
         }
     }
 
@@ -388,6 +382,90 @@ public:
                         .op_equals(tuple.getNValue(i)).isTrue());
     }
 
+    void insertRow(int64_t i)
+    {
+        TableTuple &tuple = table->tempTuple();
+        tuple.setNValue(0, ValueFactory::getBigIntValue(i));
+        tuple.setNValue(1, ValueFactory::getBigIntValue(i % 2));
+        tuple.setNValue(2, ValueFactory::getBigIntValue(i % 3));
+        tuple.setNValue(3, ValueFactory::getBigIntValue(i + 20));
+        tuple.setNValue(4, ValueFactory::getBigIntValue(i * 11));
+        EXPECT_TRUE(table->insertTuple(tuple));
+    }
+
+    /**
+     * Probe a unique index on (column04, column02) through its Bloom
+     * filter. The filter may only ever turn away keys that are absent,
+     * whether rows come and go before or after it is built.
+     */
+    void verifyBloomFilter(TableIndex* index)
+    {
+        EXPECT_FALSE(index->isBloomFilterEnabled());
+        int64_t memoryWithoutFilter = index->getMemoryEstimate();
+        index->setBloomFilterEnabled(true);
+        EXPECT_TRUE(index->isBloomFilterEnabled());
+        EXPECT_TRUE(index->getMemoryEstimate() > memoryWithoutFilter);
+
+        vector<ValueType> keyColumnTypes(2, ValueType::tBIGINT);
+        vector<int32_t> keyColumnLengths(2, NValue::getTupleStorageSize(ValueType::tBIGINT));
+        vector<bool> keyColumnAllowNull(2, true);
+        TupleSchema* keySchema =
+            TupleSchema::createTupleSchemaForTest(keyColumnTypes,
+                                                  keyColumnLengths,
+                                                  keyColumnAllowNull);
+        TableTuple searchkey(keySchema);
+        searchkey.move(new char[searchkey.tupleLength()]);
+        IndexCursor indexCursor(index->getTupleSchema());
+        auto probe = [&](int64_t col4, int64_t col2) {
+            searchkey.setNValue(0, ValueFactory::getBigIntValue(col4));
+            searchkey.setNValue(1, ValueFactory::getBigIntValue(col2));
+            return index->moveToKey(&searchkey, indexCursor);
+        };
+
+        for (int64_t i = 1; i <= NUM_OF_TUPLES; ++i) {
+            EXPECT_TRUE(probe(i * 11, i % 3));
+        }
+        EXPECT_EQ(NUM_OF_TUPLES, index->getBloomFilterHits());
+        EXPECT_EQ(0, index->getBloomFilterMisses());
+        EXPECT_EQ(0, index->getBloomFilterFalsePositives());
+
+        const int64_t absentProbes = 10 * NUM_OF_TUPLES;
+        for (int64_t i = 1; i <= absentProbes; ++i) {
+            EXPECT_FALSE(probe(i * 11 + 1, i % 3));
+        }
+        int64_t falsePositives = index->getBloomFilterFalsePositives();
+        EXPECT_EQ(absentProbes, index->getBloomFilterMisses() + falsePositives);
+        EXPECT_EQ(NUM_OF_TUPLES + falsePositives, index->getBloomFilterHits());
+        EXPECT_TRUE(falsePositives < absentProbes / 20);
+
+        // Deleted keys linger in the filter but are not found.
+        for (int64_t i = 2; i <= NUM_OF_TUPLES; i += 2) {
+            EXPECT_TRUE(probe(i * 11, i % 3));
+            TableTuple tuple = index->nextValueAtKey(indexCursor);
+            table->deleteTuple(tuple, true);
+        }
+        for (int64_t i = 1; i <= NUM_OF_TUPLES; ++i) {
+            EXPECT_EQ(i % 2 == 1, probe(i * 11, i % 3));
+        }
+
+        // Growing well past the size the filter was built for rebuilds it.
+        for (int64_t i = NUM_OF_TUPLES + 1; i <= 4 * NUM_OF_TUPLES; ++i) {
+            insertRow(i);
+        }
+        for (int64_t i = 1; i <= 4 * NUM_OF_TUPLES; ++i) {
+            EXPECT_EQ(i > NUM_OF_TUPLES || i % 2 == 1, probe(i * 11, i % 3));
+        }
+
+        index->setBloomFilterEnabled(false);
+        EXPECT_FALSE(index->isBloomFilterEnabled());
+        int64_t misses = index->getBloomFilterMisses();
+        EXPECT_FALSE(probe(1, 1));
+        EXPECT_EQ(misses, index->getBloomFilterMisses());
+
+        TupleSchema::freeTupleSchema(keySchema);
+        delete[] searchkey.address();
+    }
+
 protected:
     PersistentTable* table;
     char* m_exceptionBuffer;
@@ -1114,6 +1192,40 @@ TEST_F(IndexTest, ReentrantHashMultiple) {
     delete[] searchkey.address();
 }
 
+TEST_F(IndexTest, BloomFilterTreeUnique) {
+    vector<int> ixu_column_indices;
+    vector<ValueType> ixu_column_types;
+    ixu_column_indices.push_back(4);
+    ixu_column_indices.push_back(2);
+    ixu_column_types.push_back(ValueType::tBIGINT);
+    ixu_column_types.push_back(ValueType::tBIGINT);
+    init("ixbloom",
+         BALANCED_TREE_INDEX,
+         ixu_column_indices,
+         ixu_column_types,
+         true);
+    TableIndex* index = table->index("ixbloom");
+    EXPECT_TRUE(index != NULL);
+    verifyBloomFilter(index);
+}
+
+TEST_F(IndexTest, BloomFilterHashUnique) {
+    vector<int> ixu_column_indices;
+    vector<ValueType> ixu_column_types;
+    ixu_column_indices.push_back(4);
+    ixu_column_indices.push_back(2);
+    ixu_column_types.push_back(ValueType::tBIGINT);
+    ixu_column_types.push_back(ValueType::tBIGINT);
+    init("ixhbloom",
+         HASH_TABLE_INDEX,
+         ixu_column_indices,
+         ixu_column_types,
+         true);
+    TableIndex* index = table->index("ixhbloom");
+    EXPECT_TRUE(index != NULL);
+    verifyBloomFilter(index);
+}
+
 
 int main()
 {
@@ -146,6 +146,36 @@ const char *jsonStrings[] = {
     "        \"VALUE_TYPE\": 5\n"
     "    }}]\n"
     "}\n",
+    "{ \"AGGREGATE_COLUMNS\":\n"
+    "  [{ \"AGGREGATE_DISTINCT\": 0,\n"
+    "     \"AGGREGATE_EXPRESSIONS\": [],\n"
+    "     \"AGGREGATE_OUTPUT_COLUMN\": 0,\n"
+    "     \"AGGREGATE_TYPE\": \"AGGREGATE_WINDOWED_COUNT\" }\n"
+    "  ],\n"
+    "  \"CHILDREN_IDS\": [3],\n"
+    "  \"ID\": 2,\n"
+    "  \"OUTPUT_SCHEMA\": [\n"
+    "      { \"COLUMN_NAME\": \"C1\",\n"
+    "        \"EXPRESSION\": {\n"
+    "            \"COLUMN_IDX\": 0,\n"
+    "            \"TYPE\": 32,\n"
+    "            \"VALUE_TYPE\": 6 } },\n"
+    "      { \"COLUMN_NAME\": \"A\",\n"
+    "        \"EXPRESSION\": {\n"
+    "            \"COLUMN_IDX\": 0,\n"
+    "            \"TYPE\": 32,\n"
+    "            \"VALUE_TYPE\":5 } } ],\n"
+    "  \"PARTITIONBY_EXPRESSIONS\": [\n"
+    "      { \"COLUMN_IDX\": 0,\n"
+    "        \"TYPE\": 32,\n"
+    "        \"VALUE_TYPE\": 5 }],\n"
+    "  \"PLAN_NODE_TYPE\": \"WINDOWFUNCTION\",\n"
+    "  \"SORT_COLUMNS\": [\n"
+    "      {\"SORT_EXPRESSION\": {\n"
+    "          \"COLUMN_IDX\": 1,\n"
+    "          \"TYPE\": 32,\n"
+    "          \"VALUE_TYPE\": 5 }}]\n"
+    "}\n",
     (const char *)0
 };
 struct aggDescription {
@@ -186,6 +216,7 @@ struct jsonDescription {
     int                 nPartitionByExprs;
     int                 nOrderByExprs;
     int                 nOutputColumns;
+    bool                needsLookahead;
     OSchema             colDescriptions;
 } jsonDescrs[] = {
     {
@@ -194,6 +225,7 @@ struct jsonDescription {
         1, /* nPartitionByExprs */
         1, /* nOrderByExprs     */
         3, /* nOutputColumns    */
+        false, /* needsLookahead */
         OSchema(("C1"),
                 ("A"),
                 ("B"),
@@ -205,11 +237,23 @@ struct jsonDescription {
         1,  /* nPartitionByExprs */
         1,  /* nOrderByExprs     */
         4,  /* nOutputColumns    */
+        false, /* needsLookahead */
         OSchema(("R"),
                 ("A"),
                 ("B"),
                 ("C"),
                 NULL)
+    },
+    {
+        1, /* nAggs */
+        {EXPRESSION_TYPE_AGGREGATE_WINDOWED_COUNT, 0, 0, 0},
+        1, /* nPartitionByExprs */
+        1, /* nOrderByExprs     */
+        2, /* nOutputColumns    */
+        true, /* needsLookahead */
+        OSchema(("C1"),
+                ("A"),
+                NULL)
     }
 };
 
@@ -246,6 +290,7 @@ TEST_F(WindowFunctionPlanNodeTest, TestJSON)
         EXPECT_EQ(jsonDescr->nPartitionByExprs, pn->getPartitionByExpressions().size());
         EXPECT_EQ(jsonDescr->nOrderByExprs, pn->getOrderByExpressions().size());
         EXPECT_EQ(jsonDescr->nOutputColumns, pn->getOutputSchema().size());
+        EXPECT_EQ(jsonDescr->needsLookahead, pn->needsOrderByGroupLookahead());
         EXPECT_EQ(jsonDescr->nOutputColumns, jsonDescr->colDescriptions.getNumColumns());
         auto columns = jsonDescr->colDescriptions.getColumns();
         for (int ocIdx = 0; ocIdx < jsonDescr->nOutputColumns; ocIdx += 1) {
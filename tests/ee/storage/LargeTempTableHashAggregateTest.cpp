@@ -0,0 +1,374 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include <cstdio>
+#include <limits>
+#include <string>
+#include <vector>
+
+#include "harness.h"
+
+#include "test_utils/LargeTempTableTopend.hpp"
+#include "test_utils/Tools.hpp"
+#include "test_utils/UniqueEngine.hpp"
+
+#include "common/executorcontext.hpp"
+#include "common/SQLException.h"
+#include "common/SynchronizedThreadLock.h"
+#include "common/ValuePeeker.hpp"
+#include "common/tabletuple.h"
+#include "execution/ExecutorVector.h"
+#include "storage/AbstractTempTable.hpp"
+#include "storage/TempTableLimits.h"
+#include "storage/table.h"
+#include "storage/tableiterator.h"
+
+using namespace voltdb;
+
+/**
+ * Catalog for a database with just one table:
+ *  create table t (id integer not null,
+ *                  k  varchar(500),
+ *                  v  bigint);
+ */
+static const std::string catalogPayload =
+    "add / clusters cluster\n"
+    "set /clusters#cluster localepoch 1199145600\n"
+    "set $PREV securityEnabled false\n"
+    "set $PREV httpdportno -1\n"
+    "set $PREV jsonapi true\n"
+    "set $PREV networkpartition false\n"
+    "set $PREV heartbeatTimeout 90\n"
+    "set $PREV useddlschema false\n"
+    "set $PREV drConsumerEnabled false\n"
+    "set $PREV drProducerEnabled true\n"
+    "set $PREV drRole \"master\"\n"
+    "set $PREV drClusterId 0\n"
+    "set $PREV drProducerPort 5555\n"
+    "set $PREV drMasterHost \"\"\n"
+    "set $PREV drFlushInterval 1000\n"
+    "set $PREV exportFlushInterval 4000\n"
+    "set $PREV preferredSource 0\n"
+    "add /clusters#cluster databases database\n"
+    "set /clusters#cluster/databases#database schema \"\"\n"
+    "set $PREV isActiveActiveDRed false\n"
+    "set $PREV securityprovider \"hash\"\n"
+    "add /clusters#cluster/databases#database tables T\n"
+    "set /clusters#cluster/databases#database/tables#T isreplicated true\n"
+    "set $PREV partitioncolumn null\n"
+    "set $PREV estimatedtuplecount 0\n"
+    "set $PREV materializer null\n"
+    "set $PREV signature \"T|ivb\"\n"
+    "set $PREV tuplelimit 2147483647\n"
+    "set $PREV isDRed false\n"
+    "add /clusters#cluster/databases#database/tables#T columns ID\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#ID index 0\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable false\n"
+    "set $PREV name \"ID\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#T columns K\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#K index 1\n"
+    "set $PREV type 9\n"
+    "set $PREV size 500\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"K\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#T columns V\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#V index 2\n"
+    "set $PREV type 6\n"
+    "set $PREV size 8\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"V\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV matview null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster deployment deployment\n"
+    "set /clusters#cluster/deployment#deployment kfactor 0\n"
+    "add /clusters#cluster/deployment#deployment systemsettings systemsettings\n"
+    "set /clusters#cluster/deployment#deployment/systemsettings#systemsettings temptablemaxsize 100\n"
+    "set $PREV snapshotpriority 6\n"
+    "set $PREV elasticduration 50\n"
+    "set $PREV elasticthroughput 2\n"
+    "set $PREV querytimeout 300000\n"
+    "add /clusters#cluster logconfig log\n"
+    "set /clusters#cluster/logconfig#log enabled false\n"
+    "set $PREV synchronous false\n"
+    "set $PREV fsyncInterval 200\n"
+    "set $PREV maxTxns 2147483647\n"
+    "set $PREV logSize 1024";
+
+// A large query plan for
+//     select k, count(*), sum(v) from t group by k;
+// with a hash aggregate on top, without the send node so that the
+// aggregate's output is returned.
+static const std::string jsonPlan =
+    "{\n"
+    "   \"PLAN_NODES\":[\n"
+    "      {\n"
+    "         \"ID\":1,\n"
+    "         \"PLAN_NODE_TYPE\":\"HASHAGGREGATE\",\n"
+    "         \"CHILDREN_IDS\":[\n"
+    "            2\n"
+    "         ],\n"
+    "         \"OUTPUT_SCHEMA\":[\n"
+    "            {\n"
+    "               \"COLUMN_NAME\":\"K\",\n"
+    "               \"EXPRESSION\":{\n"
+    "                  \"TYPE\":32,\n"
+    "                  \"VALUE_TYPE\":9,\n"
+    "                  \"VALUE_SIZE\":500,\n"
+    "                  \"COLUMN_IDX\":1\n"
+    "               }\n"
+    "            },\n"
+    "            {\n"
+    "               \"COLUMN_NAME\":\"C2\",\n"
+    "               \"EXPRESSION\":{\n"
+    "                  \"TYPE\":32,\n"
+    "                  \"VALUE_TYPE\":6,\n"
+    "                  \"COLUMN_IDX\":1\n"
+    "               }\n"
+    "            },\n"
+    "            {\n"
+    "               \"COLUMN_NAME\":\"C3\",\n"
+    "               \"EXPRESSION\":{\n"
+    "                  \"TYPE\":32,\n"
+    "                  \"VALUE_TYPE\":6,\n"
+    "                  \"COLUMN_IDX\":2\n"
+    "               }\n"
+    "            }\n"
+    "         ],\n"
+    "         \"AGGREGATE_COLUMNS\":[\n"
+    "            {\n"
+    "               \"AGGREGATE_TYPE\":\"AGGREGATE_COUNT_STAR\",\n"
+    "               \"AGGREGATE_DISTINCT\":0,\n"
+    "               \"AGGREGATE_OUTPUT_COLUMN\":1\n"
+    "            },\n"
+    "            {\n"
+    "               \"AGGREGATE_TYPE\":\"AGGREGATE_SUM\",\n"
+    "               \"AGGREGATE_DISTINCT\":0,\n"
+    "               \"AGGREGATE_OUTPUT_COLUMN\":2,\n"
+    "               \"AGGREGATE_EXPRESSION\":{\n"
+    "                  \"TYPE\":32,\n"
+    "                  \"VALUE_TYPE\":6,\n"
+    "                  \"COLUMN_IDX\":2\n"
+    "               }\n"
+    "            }\n"
+    "         ],\n"
+    "         \"GROUPBY_EXPRESSIONS\":[\n"
+    "            {\n"
+    "               \"TYPE\":32,\n"
+    "               \"VALUE_TYPE\":9,\n"
+    "               \"VALUE_SIZE\":500,\n"
+    "               \"COLUMN_IDX\":1\n"
+    "            }\n"
+    "         ]\n"
+    "      },\n"
+    "      {\n"
+    "         \"ID\":2,\n"
+    "         \"PLAN_NODE_TYPE\":\"SEQSCAN\",\n"
+    "         \"INLINE_NODES\":[\n"
+    "            {\n"
+    "               \"ID\":3,\n"
+    "               \"PLAN_NODE_TYPE\":\"PROJECTION\",\n"
+    "               \"OUTPUT_SCHEMA\":[\n"
+    "                  {\n"
+    "                     \"COLUMN_NAME\":\"ID\",\n"
+    "                     \"EXPRESSION\":{\n"
+    "                        \"TYPE\":32,\n"
+    "                        \"VALUE_TYPE\":5,\n"
+    "                        \"COLUMN_IDX\":0\n"
+    "                     }\n"
+    "                  },\n"
+    "                  {\n"
+    "                     \"COLUMN_NAME\":\"K\",\n"
+    "                     \"EXPRESSION\":{\n"
+    "                        \"TYPE\":32,\n"
+    "                        \"VALUE_TYPE\":9,\n"
+    "                        \"VALUE_SIZE\":500,\n"
+    "                        \"COLUMN_IDX\":1\n"
+    "                     }\n"
+    "                  },\n"
+    "                  {\n"
+    "                     \"COLUMN_NAME\":\"V\",\n"
+    "                     \"EXPRESSION\":{\n"
+    "                        \"TYPE\":32,\n"
+    "                        \"VALUE_TYPE\":6,\n"
+    "                        \"COLUMN_IDX\":2\n"
+    "                     }\n"
+    "                  }\n"
+    "               ]\n"
+    "            }\n"
+    "         ],\n"
+    "         \"TARGET_TABLE_NAME\":\"T\",\n"
+    "         \"TARGET_TABLE_ALIAS\":\"T\"\n"
+    "      }\n"
+    "   ],\n"
+    "   \"EXECUTE_LIST\":[\n"
+    "      2,\n"
+    "      1\n"
+    "   ],\n"
+    "   \"IS_LARGE_QUERY\":true\n"
+    "}\n";
+
+// An LTT block cache that holds three blocks, so that the aggregate
+// spills to two partitions once its groups pass 12 MB.
+static const int64_t TEMP_TABLE_MEMORY_LIMIT = 24 * 1024 * 1024;
+
+// Each group holds two copies of its key (the group by key and the
+// pass-through tuple) in the executor's pool, so all the groups together
+// take well over TEMP_TABLE_MEMORY_LIMIT: the query only succeeds if the
+// aggregate spills.  What spills is under the limit for each partition.
+static const int GROUP_COUNT = 32000;
+static const int KEY_LENGTH = 400;
+
+class LargeTempTableHashAggregateTest : public Test {
+public:
+    ~LargeTempTableHashAggregateTest() {
+        voltdb::globalDestroyOncePerProcess();
+    }
+
+protected:
+    static UniqueEngine buildEngine() {
+        std::unique_ptr<Topend> topend{new LargeTempTableTopend()};
+        return UniqueEngineBuilder()
+            .setTopend(std::move(topend))
+            .setTempTableMemoryLimit(TEMP_TABLE_MEMORY_LIMIT)
+            .build();
+    }
+
+    /** A key that is not inlined, and tells which group it belongs to */
+    static std::string groupKey(int group) {
+        char prefix[16];
+        snprintf(prefix, sizeof(prefix), "%06d", group);
+        return std::string(prefix) + std::string(KEY_LENGTH - 6, 'x');
+    }
+
+    static int groupOf(const std::string& key) {
+        return std::stoi(key.substr(0, 6));
+    }
+
+    /**
+     * Insert every group twice, one pass after the other: by the second
+     * pass the aggregate is spilling, so rows of the groups that stayed
+     * in memory are aggregated there while the others are partitioned.
+     * Optionally a last row makes the SUM of the first group overflow.
+     */
+    static void loadTable(VoltDBEngine* engine, bool appendOverflowRow) {
+        Table* table = engine->getTableByName("T");
+        StandAloneTupleStorage storage(table->schema());
+        TableTuple tuple = storage.tuple();
+
+        SynchronizedThreadLock::debugSimulateSingleThreadMode(true);
+        SynchronizedThreadLock::assumeMpMemoryContext();
+        int id = 0;
+        for (int group = 0; group < GROUP_COUNT; ++group) {
+            Tools::setTupleValues(&tuple, id++, groupKey(group), int64_t(group));
+            table->insertTuple(tuple);
+        }
+        for (int group = 0; group < GROUP_COUNT; ++group) {
+            Tools::setTupleValues(&tuple, id++, groupKey(group), int64_t(1));
+            table->insertTuple(tuple);
+        }
+        if (appendOverflowRow) {
+            // The first group is in memory, and its SUM overflows here
+            Tools::setTupleValues(&tuple, id++, groupKey(0), std::numeric_limits<int64_t>::max());
+            table->insertTuple(tuple);
+        }
+        SynchronizedThreadLock::assumeLowestSiteContext();
+        SynchronizedThreadLock::debugSimulateSingleThreadMode(false);
+    }
+};
+
+TEST_F(LargeTempTableHashAggregateTest, SpillsNewGroups) {
+    UniqueEngine engine = buildEngine();
+    ASSERT_TRUE(engine->loadCatalog(0, catalogPayload));
+    loadTable(engine.get(), false);
+
+    auto ev = ExecutorVector::fromJsonPlan(engine.get(), jsonPlan, 0);
+    UniqueTempTableResult result = engine->executePlanFragment(ev.get(), NULL);
+    ASSERT_NE(NULL, result.get());
+    ASSERT_EQ(GROUP_COUNT, result->activeTupleCount());
+
+    // The input was deleted as it was scanned, so the keys must have
+    // been copied into the aggregate's pool to come out intact.
+    std::vector<bool> seen(GROUP_COUNT, false);
+    TableTuple tuple(result->schema());
+    TableIterator iter = result->iterator();
+    while (iter.next(tuple)) {
+        int32_t length;
+        const char* data = ValuePeeker::peekObject_withoutNull(tuple.getNValue(0), &length);
+        std::string key(data, length);
+        int group = groupOf(key);
+        ASSERT_TRUE(group >= 0 && group < GROUP_COUNT);
+        ASSERT_EQ(groupKey(group), key);
+        ASSERT_FALSE(seen[group]);
+        seen[group] = true;
+
+        ASSERT_EQ(2, ValuePeeker::peekBigInt(tuple.getNValue(1)));
+        ASSERT_EQ(group + 1, ValuePeeker::peekBigInt(tuple.getNValue(2)));
+    }
+
+    // Nothing stays charged, and the spill partitions are gone
+    ASSERT_EQ(0, ev->limits()->getAllocated());
+    result.reset();
+    ExecutorContext::getExecutorContext()->cleanupAllExecutors();
+    ASSERT_EQ(0, ExecutorContext::getExecutorContext()->lttBlockCache().allocatedMemory());
+}
+
+TEST_F(LargeTempTableHashAggregateTest, ReleasesChargeOnError) {
+    UniqueEngine engine = buildEngine();
+    ASSERT_TRUE(engine->loadCatalog(0, catalogPayload));
+    loadTable(engine.get(), true);
+
+    auto ev = ExecutorVector::fromJsonPlan(engine.get(), jsonPlan, 0);
+    bool caught = false;
+    try {
+        engine->executePlanFragment(ev.get(), NULL);
+    } catch (const SQLException&) {
+        caught = true;
+    }
+    ASSERT_TRUE(caught);
+
+    // The aggregate failed while spilling, with groups in memory
+    ASSERT_EQ(0, ev->limits()->getAllocated());
+    ASSERT_EQ(0, ExecutorContext::getExecutorContext()->lttBlockCache().allocatedMemory());
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
@@ -481,6 +481,59 @@ TEST_F(LargeTempTableSortTest, limitOffset) {
 }
 #endif /* not(defined(MEMCHECK)) */
 
+TEST_F(LargeTempTableSortTest, mergeSortedTables) {
+    UniqueEngineBuilder builder;
+    builder.setTopend(std::unique_ptr<LargeTempTableTopend>(new LargeTempTableTopend()));
+    UniqueEngine engine = builder.build();
+
+    TupleValueExpression tve{0, 0}; // table 0, field 0
+    std::vector<AbstractExpression*> keys{&tve};
+    std::vector<SortDirectionType> dirs{SORT_DIRECTION_TYPE_ASC};
+    AbstractExecutor::TupleComparer comparer{keys, dirs};
+
+    // Each partition's result is a sorted run; one partition has no rows.
+    std::vector<int> runBlocks{2, 0, 1, 3};
+
+    // limit, offset
+    std::vector<SortConfig> mergeConfigs{
+        SortConfig{-1, 0},
+        SortConfig{100, 0},
+        SortConfig{100, 50}
+    };
+
+    BOOST_FOREACH(SortConfig mergeConfig, mergeConfigs) {
+        int limit = std::get<0>(mergeConfig);
+        int offset = std::get<1>(mergeConfig);
+
+        std::vector<std::unique_ptr<LargeTempTable>> runs;
+        auto sortedRefTable = createAndFillLargeTempTable(63, 8192, 0);
+        BOOST_FOREACH(int numBlocks, runBlocks) {
+            auto inputTable = createAndFillLargeTempTable(63, 8192, numBlocks);
+            inputTable->sort(NULL, comparer, -1, 0);
+
+            std::unique_ptr<LargeTempTable> run{TableFactory::buildCopiedLargeTempTable("run", inputTable.get())};
+            TableIterator it = inputTable->iterator();
+            TableTuple tuple(inputTable->schema());
+            while (it.next(tuple)) {
+                run->insertTuple(tuple);
+                sortedRefTable->insertTuple(tuple);
+            }
+
+            run->finishInserts();
+            runs.push_back(std::move(run));
+        }
+
+        sortedRefTable->finishInserts();
+        sortedRefTable->sort(NULL, comparer, -1, 0);
+
+        auto mergedTable = makeUniqueTable(TableFactory::buildCopiedLargeTempTable("merged", sortedRefTable.get()));
+        mergedTable->mergeSortedTables(NULL, comparer, limit, offset, runs);
+
+        ASSERT_TRUE(runs.empty());
+        ASSERT_TRUE(validateSortWithLimitOffset(sortedRefTable.get(), mergedTable.get(), comparer, limit, offset));
+    }
+}
+
 int main(int argc, char* argv[]) {
     using namespace std::chrono;
     auto startTime = high_resolution_clock::now();
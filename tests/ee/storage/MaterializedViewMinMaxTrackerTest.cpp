@@ -0,0 +1,134 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+#include "harness.h"
+#include "common/Pool.hpp"
+#include "common/ValueFactory.hpp"
+#include "common/ValuePeeker.hpp"
+#include "storage/MaterializedViewMinMaxTracker.h"
+
+using namespace voltdb;
+
+class MaterializedViewMinMaxTrackerTest : public Test {
+protected:
+    static std::string key(int64_t groupBy) {
+        std::string groupKey;
+        MaterializedViewMinMaxTracker::appendToGroupKey(groupKey, ValueFactory::getBigIntValue(groupBy));
+        return groupKey;
+    }
+
+    static int64_t minOf(const MaterializedViewMinMaxTracker& tracker, const std::string& groupKey) {
+        return ValuePeeker::peekBigInt(tracker.extreme(groupKey, false, NValue::getNullValue(ValueType::tBIGINT)));
+    }
+
+    static int64_t maxOf(const MaterializedViewMinMaxTracker& tracker, const std::string& groupKey) {
+        return ValuePeeker::peekBigInt(tracker.extreme(groupKey, true, NValue::getNullValue(ValueType::tBIGINT)));
+    }
+};
+
+TEST_F(MaterializedViewMinMaxTrackerTest, CountsPerGroup) {
+    MaterializedViewMinMaxTracker tracker;
+    for (int64_t value = 1; value <= 5; ++value) {
+        tracker.add(key(1), ValueFactory::getBigIntValue(value));
+        tracker.add(key(2), ValueFactory::getBigIntValue(value * 10));
+    }
+    tracker.add(key(1), ValueFactory::getBigIntValue(5));
+    EXPECT_EQ(1, minOf(tracker, key(1)));
+    EXPECT_EQ(5, maxOf(tracker, key(1)));
+    EXPECT_EQ(10, minOf(tracker, key(2)));
+    EXPECT_EQ(50, maxOf(tracker, key(2)));
+    EXPECT_TRUE(tracker.memorySize() > 0);
+
+    // 5 was counted twice
+    EXPECT_TRUE(tracker.remove(key(1), ValueFactory::getBigIntValue(5)));
+    EXPECT_EQ(5, maxOf(tracker, key(1)));
+    EXPECT_TRUE(tracker.remove(key(1), ValueFactory::getBigIntValue(5)));
+    EXPECT_EQ(4, maxOf(tracker, key(1)));
+    EXPECT_TRUE(tracker.remove(key(1), ValueFactory::getBigIntValue(1)));
+    EXPECT_EQ(2, minOf(tracker, key(1)));
+    EXPECT_FALSE(tracker.remove(key(1), ValueFactory::getBigIntValue(1)));
+    EXPECT_FALSE(tracker.remove(key(3), ValueFactory::getBigIntValue(1)));
+
+    for (int64_t value = 2; value <= 4; ++value) {
+        EXPECT_TRUE(tracker.remove(key(1), ValueFactory::getBigIntValue(value)));
+    }
+    EXPECT_TRUE(tracker.extreme(key(1), false, NValue::getNullValue(ValueType::tBIGINT)).isNull());
+    for (int64_t value = 1; value <= 5; ++value) {
+        EXPECT_TRUE(tracker.remove(key(2), ValueFactory::getBigIntValue(value * 10)));
+    }
+    EXPECT_EQ(0, tracker.memorySize());
+}
+
+TEST_F(MaterializedViewMinMaxTrackerTest, GroupKeys) {
+    std::string positiveZero, negativeZero;
+    MaterializedViewMinMaxTracker::appendToGroupKey(positiveZero, ValueFactory::getDoubleValue(0.0));
+    MaterializedViewMinMaxTracker::appendToGroupKey(negativeZero, ValueFactory::getDoubleValue(-0.0));
+    EXPECT_EQ(positiveZero, negativeZero);
+
+    Pool pool;
+    std::string nullString, emptyString, ab, a_b;
+    MaterializedViewMinMaxTracker::appendToGroupKey(nullString, ValueFactory::getNullStringValue());
+    MaterializedViewMinMaxTracker::appendToGroupKey(emptyString, ValueFactory::getStringValue("", &pool));
+    EXPECT_NE(nullString, emptyString);
+    MaterializedViewMinMaxTracker::appendToGroupKey(ab, ValueFactory::getStringValue("ab", &pool));
+    MaterializedViewMinMaxTracker::appendToGroupKey(ab, ValueFactory::getStringValue("", &pool));
+    MaterializedViewMinMaxTracker::appendToGroupKey(a_b, ValueFactory::getStringValue("a", &pool));
+    MaterializedViewMinMaxTracker::appendToGroupKey(a_b, ValueFactory::getStringValue("b", &pool));
+    EXPECT_NE(ab, a_b);
+
+    EXPECT_TRUE(MaterializedViewMinMaxTracker::canTrack(ValueType::tTIMESTAMP));
+    EXPECT_TRUE(MaterializedViewMinMaxTracker::canTrack(ValueType::tDECIMAL));
+    EXPECT_FALSE(MaterializedViewMinMaxTracker::canTrack(ValueType::tVARCHAR));
+}
+
+TEST_F(MaterializedViewMinMaxTrackerTest, Undo) {
+    boost::shared_ptr<MaterializedViewMinMaxTracking> tracking(new MaterializedViewMinMaxTracking(1));
+    tracking->setValid();
+    MaterializedViewMinMaxTracker& tracker = tracking->tracker(0);
+    tracker.add(key(1), ValueFactory::getBigIntValue(7));
+    tracker.add(key(1), ValueFactory::getBigIntValue(3));
+    MaterializedViewMinMaxUndoAction undoAdd(tracking, 0, key(1), ValueFactory::getBigIntValue(3), true);
+    EXPECT_TRUE(tracker.remove(key(1), ValueFactory::getBigIntValue(7)));
+    MaterializedViewMinMaxUndoAction undoRemove(tracking, 0, key(1), ValueFactory::getBigIntValue(7), false);
+
+    // Undo in reverse order
+    undoRemove.undo();
+    EXPECT_EQ(3, minOf(tracker, key(1)));
+    EXPECT_EQ(7, maxOf(tracker, key(1)));
+    undoAdd.undo();
+    EXPECT_EQ(7, minOf(tracker, key(1)));
+
+    // Changes made before the counts were discarded are not undone
+    MaterializedViewMinMaxUndoAction staleUndo(tracking, 0, key(1), ValueFactory::getBigIntValue(7), true);
+    tracking->invalidate();
+    EXPECT_FALSE(tracking->isValid());
+    EXPECT_EQ(0, tracking->memorySize());
+    tracker.add(key(1), ValueFactory::getBigIntValue(7));
+    staleUndo.undo();
+    EXPECT_TRUE(tracker.remove(key(1), ValueFactory::getBigIntValue(7)));
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
@@ -0,0 +1,381 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include "harness.h"
+
+#include "common/executorcontext.hpp"
+#include "common/tabletuple.h"
+#include "common/ValueFactory.hpp"
+#include "common/ValuePeeker.hpp"
+#include "execution/VoltDBEngine.h"
+#include "storage/MaterializedViewTriggerForInsert.h"
+#include "storage/persistenttable.h"
+#include "storage/TableCatalogDelegate.hpp"
+#include "storage/tableiterator.h"
+
+#include "boost/scoped_ptr.hpp"
+
+using namespace voltdb;
+
+/**
+ * Catalog for a database with a table and a view on it that keeps
+ * per-group counts of its MIN/MAX values:
+ *  create table t (g integer not null,
+ *                  v integer);
+ *  partition table t on column g;
+ *  create view v_t (g, cnt, minv, maxv) as
+ *      select g, count(*), min(v), max(v) from t group by g;
+ */
+static const std::string catalogPayload =
+    "add / clusters cluster\n"
+    "set /clusters#cluster localepoch 1199145600\n"
+    "add /clusters#cluster databases database\n"
+    "set /clusters#cluster/databases#database schema \"\"\n"
+    "add /clusters#cluster/databases#database tables T\n"
+    "set /clusters#cluster/databases#database/tables#T isreplicated false\n"
+    "set $PREV partitioncolumn /clusters#cluster/databases#database/tables#T/columns#G\n"
+    "set $PREV estimatedtuplecount 0\n"
+    "set $PREV materializer null\n"
+    "set $PREV signature \"T|ii\"\n"
+    "set $PREV tuplelimit 2147483647\n"
+    "set $PREV isDRed false\n"
+    "add /clusters#cluster/databases#database/tables#T columns G\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#G index 0\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable false\n"
+    "set $PREV name \"G\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV matview null\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#T columns V\n"
+    "set /clusters#cluster/databases#database/tables#T/columns#V index 1\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"V\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV matview null\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database tables V_T\n"
+    "set /clusters#cluster/databases#database/tables#V_T isreplicated false\n"
+    "set $PREV partitioncolumn /clusters#cluster/databases#database/tables#V_T/columns#G\n"
+    "set $PREV estimatedtuplecount 0\n"
+    "set $PREV materializer /clusters#cluster/databases#database/tables#T\n"
+    "set $PREV signature \"V_T|ibii\"\n"
+    "set $PREV tuplelimit 2147483647\n"
+    "set $PREV isDRed false\n"
+    "add /clusters#cluster/databases#database/tables#V_T columns G\n"
+    "set /clusters#cluster/databases#database/tables#V_T/columns#G index 0\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable false\n"
+    "set $PREV name \"G\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV matview null\n"
+    "set $PREV aggregatetype 0\n"
+    "set $PREV matviewsource /clusters#cluster/databases#database/tables#T/columns#G\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#V_T columns CNT\n"
+    "set /clusters#cluster/databases#database/tables#V_T/columns#CNT index 1\n"
+    "set $PREV type 6\n"
+    "set $PREV size 8\n"
+    "set $PREV nullable false\n"
+    "set $PREV name \"CNT\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV matview null\n"
+    "set $PREV aggregatetype 41\n"
+    "set $PREV matviewsource null\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#V_T columns MINV\n"
+    "set /clusters#cluster/databases#database/tables#V_T/columns#MINV index 2\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"MINV\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV matview null\n"
+    "set $PREV aggregatetype 43\n"
+    "set $PREV matviewsource /clusters#cluster/databases#database/tables#T/columns#V\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#V_T columns MAXV\n"
+    "set /clusters#cluster/databases#database/tables#V_T/columns#MAXV index 3\n"
+    "set $PREV type 5\n"
+    "set $PREV size 4\n"
+    "set $PREV nullable true\n"
+    "set $PREV name \"MAXV\"\n"
+    "set $PREV defaultvalue null\n"
+    "set $PREV defaulttype 0\n"
+    "set $PREV matview null\n"
+    "set $PREV aggregatetype 44\n"
+    "set $PREV matviewsource /clusters#cluster/databases#database/tables#T/columns#V\n"
+    "set $PREV inbytes false\n"
+    "add /clusters#cluster/databases#database/tables#V_T indexes VOLTDB_AUTOGEN_IDX_PK_V_T_G\n"
+    "set /clusters#cluster/databases#database/tables#V_T/indexes#VOLTDB_AUTOGEN_IDX_PK_V_T_G unique true\n"
+    "set $PREV assumeUnique false\n"
+    "set $PREV countable true\n"
+    "set $PREV type 1\n"
+    "set $PREV expressionsjson \"\"\n"
+    "set $PREV predicatejson \"\"\n"
+    "add /clusters#cluster/databases#database/tables#V_T/indexes#VOLTDB_AUTOGEN_IDX_PK_V_T_G columns G\n"
+    "set /clusters#cluster/databases#database/tables#V_T/indexes#VOLTDB_AUTOGEN_IDX_PK_V_T_G/columns#G index 0\n"
+    "set $PREV column /clusters#cluster/databases#database/tables#V_T/columns#G\n"
+    "add /clusters#cluster/databases#database/tables#V_T constraints VOLTDB_AUTOGEN_IDX_PK_V_T_G\n"
+    "set /clusters#cluster/databases#database/tables#V_T/constraints#VOLTDB_AUTOGEN_IDX_PK_V_T_G type 4\n"
+    "set $PREV oncommit \"\"\n"
+    "set $PREV index /clusters#cluster/databases#database/tables#V_T/indexes#VOLTDB_AUTOGEN_IDX_PK_V_T_G\n"
+    "set $PREV foreignkeytable null\n"
+    "add /clusters#cluster/databases#database/tables#T views V_T\n"
+    "set /clusters#cluster/databases#database/tables#T/views#V_T dest /clusters#cluster/databases#database/tables#V_T\n"
+    "set $PREV predicate \"\"\n"
+    "set $PREV groupbyExpressionsJson \"\"\n"
+    "set $PREV aggregationExpressionsJson \"\"\n"
+    "set $PREV isSafeWithNonemptySources true\n"
+    "set $PREV trackMinMax true\n"
+    "add /clusters#cluster/databases#database/tables#T/views#V_T groupbycols G\n"
+    "set /clusters#cluster/databases#database/tables#T/views#V_T/groupbycols#G index 0\n"
+    "set $PREV column /clusters#cluster/databases#database/tables#T/columns#G\n"
+    "add /clusters#cluster/databases#database/tables#T/views#V_T indexForMinMax 0\n"
+    "set /clusters#cluster/databases#database/tables#T/views#V_T/indexForMinMax#0 name \"\"\n"
+    "add /clusters#cluster/databases#database/tables#T/views#V_T indexForMinMax 1\n"
+    "set /clusters#cluster/databases#database/tables#T/views#V_T/indexForMinMax#1 name \"\"\n"
+    "";
+
+/**
+ * The view has no fallback queries, so its MIN/MAX columns can only be
+ * maintained correctly on delete and update through the value counts.
+ */
+class MaterializedViewTriggerForWriteTest : public Test {
+public:
+    MaterializedViewTriggerForWriteTest() : m_undoToken(0), m_uniqueId(0) {
+        m_engine.reset(new VoltDBEngine());
+        m_engine->initialize(1,     // clusterIndex
+                             1,     // siteId
+                             0,     // partitionId
+                             1,     // sitesPerHost
+                             0,     // hostId
+                             "",    // hostname
+                             0,     // drClusterId
+                             1024,  // defaultDrBufferSize
+                             voltdb::DEFAULT_TEMP_TABLE_MEMORY,
+                             true,  // this is the lowest SiteId/PartitionId
+                             95);   // compaction threshold
+        m_engine->setUndoToken(m_undoToken);
+        m_engine->loadCatalog(0, catalogPayload);
+        m_table = m_engine->getTableDelegate("T")->getPersistentTable();
+        m_view = m_engine->getTableDelegate("V_T")->getPersistentTable();
+    }
+
+    ~MaterializedViewTriggerForWriteTest() {
+        m_engine.reset();
+        voltdb::globalDestroyOncePerProcess();
+    }
+
+protected:
+    void beginWork() {
+        ExecutorContext::getExecutorContext()->setupForPlanFragments(
+            m_engine->getCurrentUndoQuantum(), 0, 0, 0, m_uniqueId, false);
+        m_uniqueId += (1 << 14);
+    }
+
+    void commit() {
+        m_engine->releaseUndoToken(m_undoToken, false);
+        ++m_undoToken;
+        m_engine->setUndoToken(m_undoToken);
+    }
+
+    void rollback() {
+        m_engine->undoUndoToken(m_undoToken);
+        ++m_undoToken;
+        m_engine->setUndoToken(m_undoToken);
+    }
+
+    void insert(int32_t g, int32_t v) {
+        TableTuple& tuple = m_table->tempTuple();
+        tuple.setNValue(0, ValueFactory::getIntegerValue(g));
+        tuple.setNValue(1, ValueFactory::getIntegerValue(v));
+        m_table->insertTuple(tuple);
+    }
+
+    /** The first source row with the given values, or a null tuple */
+    TableTuple findRow(int32_t g, int32_t v) {
+        TableTuple tuple(m_table->schema());
+        TableIterator iterator = m_table->iterator();
+        while (iterator.next(tuple)) {
+            if (ValuePeeker::peekInteger(tuple.getNValue(0)) == g &&
+                ValuePeeker::peekInteger(tuple.getNValue(1)) == v) {
+                return tuple;
+            }
+        }
+        return TableTuple(m_table->schema());
+    }
+
+    void remove(int32_t g, int32_t v) {
+        TableTuple tuple = findRow(g, v);
+        ASSERT_FALSE(tuple.isNullTuple());
+        m_table->deleteTuple(tuple, true);
+    }
+
+    void update(int32_t g, int32_t v, int32_t newG, int32_t newV) {
+        TableTuple tuple = findRow(g, v);
+        ASSERT_FALSE(tuple.isNullTuple());
+        TableTuple& newTuple = m_table->copyIntoTempTuple(tuple);
+        newTuple.setNValue(0, ValueFactory::getIntegerValue(newG));
+        newTuple.setNValue(1, ValueFactory::getIntegerValue(newV));
+        m_table->updateTupleWithSpecificIndexes(tuple, newTuple, m_table->allIndexes());
+    }
+
+    /** The view row for the group, or a null tuple */
+    TableTuple viewRow(int32_t g) {
+        TableTuple tuple(m_view->schema());
+        TableIterator iterator = m_view->iterator();
+        while (iterator.next(tuple)) {
+            if (ValuePeeker::peekInteger(tuple.getNValue(0)) == g) {
+                return tuple;
+            }
+        }
+        return TableTuple(m_view->schema());
+    }
+
+    void expectGroup(int32_t g, int64_t count, int32_t minV, int32_t maxV) {
+        TableTuple row = viewRow(g);
+        ASSERT_FALSE(row.isNullTuple());
+        EXPECT_EQ(count, ValuePeeker::peekBigInt(row.getNValue(1)));
+        EXPECT_EQ(minV, ValuePeeker::peekInteger(row.getNValue(2)));
+        EXPECT_EQ(maxV, ValuePeeker::peekInteger(row.getNValue(3)));
+    }
+
+    int64_t trackingMemory() const {
+        return m_view->materializedViewTrigger()->minMaxTrackingMemory();
+    }
+
+    boost::scoped_ptr<VoltDBEngine> m_engine;
+    PersistentTable* m_table;
+    PersistentTable* m_view;
+    int64_t m_undoToken;
+    int64_t m_uniqueId;
+};
+
+TEST_F(MaterializedViewTriggerForWriteTest, Delete) {
+    // The counts are ready as soon as the view is, and follow the inserts.
+    EXPECT_EQ(0, trackingMemory());
+    beginWork();
+    insert(1, 5);
+    insert(1, 3);
+    insert(1, 9);
+    insert(1, 3);
+    insert(2, 4);
+    commit();
+    EXPECT_GT(trackingMemory(), 0);
+    expectGroup(1, 4, 3, 9);
+    expectGroup(2, 1, 4, 4);
+
+    beginWork();
+    // Another row still holds the minimum.
+    remove(1, 3);
+    expectGroup(1, 3, 3, 9);
+    remove(1, 3);
+    expectGroup(1, 2, 5, 9);
+    remove(1, 9);
+    expectGroup(1, 1, 5, 5);
+    commit();
+
+    beginWork();
+    remove(1, 5);
+    remove(2, 4);
+    commit();
+    EXPECT_TRUE(viewRow(1).isNullTuple());
+    EXPECT_TRUE(viewRow(2).isNullTuple());
+    EXPECT_EQ(0, trackingMemory());
+}
+
+TEST_F(MaterializedViewTriggerForWriteTest, Update) {
+    beginWork();
+    insert(1, 5);
+    insert(1, 3);
+    insert(1, 9);
+    insert(2, 4);
+    commit();
+
+    beginWork();
+    // Replace the maximum with a new minimum.
+    update(1, 9, 1, 1);
+    expectGroup(1, 3, 1, 5);
+    // Move the minimum to another group.
+    update(1, 1, 2, 7);
+    expectGroup(1, 2, 3, 5);
+    expectGroup(2, 2, 4, 7);
+    commit();
+    expectGroup(1, 2, 3, 5);
+    expectGroup(2, 2, 4, 7);
+}
+
+TEST_F(MaterializedViewTriggerForWriteTest, Rollback) {
+    beginWork();
+    insert(1, 5);
+    insert(1, 3);
+    insert(1, 9);
+    commit();
+
+    beginWork();
+    remove(1, 3);
+    insert(1, 1);
+    update(1, 9, 1, 6);
+    expectGroup(1, 3, 1, 6);
+    rollback();
+    expectGroup(1, 3, 3, 9);
+
+    // The rolled back changes are gone from the counts as well.
+    beginWork();
+    remove(1, 3);
+    expectGroup(1, 2, 5, 9);
+    remove(1, 9);
+    expectGroup(1, 1, 5, 5);
+    commit();
+
+    // So are rolled back inserts into a new group.
+    beginWork();
+    insert(2, 8);
+    insert(2, 2);
+    rollback();
+    EXPECT_TRUE(viewRow(2).isNullTuple());
+    beginWork();
+    insert(2, 6);
+    insert(2, 4);
+    remove(2, 4);
+    expectGroup(2, 1, 6, 6);
+    commit();
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
@@ -26,6 +26,7 @@
 #include "common/TupleSchema.h"
 #include "common/types.h"
 #include "common/ValueFactory.hpp"
+#include "common/ValuePeeker.hpp"
 #include "execution/VoltDBEngine.h"
 #include "indexes/tableindex.h"
 #include "indexes/tableindexfactory.h"
@@ -345,6 +346,82 @@ TEST_F(PersistentTableMemStatsTest, DeleteAndUndoTest) {
     //delete [] tuple.address();
 }
 
+TEST_F(PersistentTableMemStatsTest, StringDictionaryTest) {
+    initTable();
+    m_table->setStringDictionaryEnabled(true);
+
+    // Column 1 repeats one value, column 2 is different in every row.
+    string status(200, 's');
+    NValue statusValue = ValueFactory::getStringValue(status);
+    int64_t statusBytes = statusValue.getAllocationSizeForObjectInPersistentStorage();
+
+    m_engine->setUndoToken(INT64_MIN + 2);
+    m_engine->updateExecutorContextUndoQuantumForTest();
+    TableTuple tempTuple = m_table->tempTuple();
+    for (int i = 0; i < 10; ++i) {
+        NValue uniqueValue = ValueFactory::getStringValue(string(50, static_cast<char>('a' + i)));
+        tempTuple.setNValue(0, ValueFactory::getTinyIntValue(static_cast<int8_t>(i)));
+        tempTuple.setNValue(1, statusValue);
+        tempTuple.setNValue(2, uniqueValue);
+        m_table->insertTuple(tempTuple);
+        uniqueValue.free();
+    }
+    m_engine->releaseUndoToken(INT64_MIN + 2, false);
+
+    ASSERT_EQ(9 * statusBytes, m_table->stringDictionarySavedMemory());
+    ASSERT_TRUE(m_table->stringDictionaryMemory() > 0);
+
+    // Every row points at the same copy of the repeated value.
+    TableTuple first(m_tableSchema);
+    TableTuple tuple(m_tableSchema);
+    TableIterator it = m_table->iterator();
+    ASSERT_TRUE(it.next(first));
+    while (it.next(tuple)) {
+        ASSERT_EQ(ValuePeeker::peekObjectValue(first.getNValue(1)),
+                  ValuePeeker::peekObjectValue(tuple.getNValue(1)));
+        ASSERT_NE(ValuePeeker::peekObjectValue(first.getNValue(2)),
+                  ValuePeeker::peekObjectValue(tuple.getNValue(2)));
+    }
+
+    // The old value of an updated row stays referenced until the update is
+    // released, and rolling back drops the new one.
+    int64_t dictionaryMemory = m_table->stringDictionaryMemory();
+    m_engine->setUndoToken(INT64_MIN + 3);
+    m_engine->updateExecutorContextUndoQuantumForTest();
+    tempTuple.copy(first);
+    NValue otherValue = ValueFactory::getStringValue(string(100, 'o'));
+    tempTuple.setNValue(1, otherValue);
+    m_table->updateTuple(first, tempTuple);
+    ASSERT_EQ(9 * statusBytes, m_table->stringDictionarySavedMemory());
+    ASSERT_TRUE(m_table->stringDictionaryMemory() > dictionaryMemory);
+    m_engine->undoUndoToken(INT64_MIN + 3);
+    ASSERT_EQ(9 * statusBytes, m_table->stringDictionarySavedMemory());
+    ASSERT_EQ(dictionaryMemory, m_table->stringDictionaryMemory());
+    otherValue.free();
+
+    // Deleting rows gives back one reference each.
+    m_engine->setUndoToken(INT64_MIN + 4);
+    m_engine->updateExecutorContextUndoQuantumForTest();
+    m_table->deleteTuple(first, true);
+    m_engine->releaseUndoToken(INT64_MIN + 4, false);
+    ASSERT_EQ(8 * statusBytes, m_table->stringDictionarySavedMemory());
+
+    // Disabling stops sharing new values but keeps the existing ones.
+    m_table->setStringDictionaryEnabled(false);
+    m_engine->setUndoToken(INT64_MIN + 5);
+    m_engine->updateExecutorContextUndoQuantumForTest();
+    NValue uniqueValue = ValueFactory::getStringValue(string(50, 'z'));
+    tempTuple.setNValue(0, ValueFactory::getTinyIntValue(100));
+    tempTuple.setNValue(1, statusValue);
+    tempTuple.setNValue(2, uniqueValue);
+    m_table->insertTuple(tempTuple);
+    m_engine->releaseUndoToken(INT64_MIN + 5, false);
+    ASSERT_EQ(8 * statusBytes, m_table->stringDictionarySavedMemory());
+    uniqueValue.free();
+
+    statusValue.free();
+}
+
 int main() {
     return TestSuite::globalInstance()->runAll();
 }
@@ -0,0 +1,315 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+#include <iostream>
+#include <map>
+#include <vector>
+#include <algorithm>
+#include <cstdlib>
+#include <cstdio>
+#include "harness.h"
+#include "structures/CompactingBTree.h"
+#include "common/debuglog.h"
+
+using namespace voltdb;
+using namespace std;
+
+class StringComparator {
+public:
+    inline int operator()(const std::string &lhs, const std::string &rhs) const {
+        return lhs.compare(rhs);
+    }
+
+    int compareWithoutPointer(const std::string &lhs, const std::string &rhs) const {
+        return operator()(lhs, rhs);
+    }
+};
+
+class IntComparator {
+public:
+    inline int operator()(const int &lhs, const int &rhs) const {
+        if (lhs > rhs) return 1;
+        else if (lhs < rhs) return -1;
+        else return 0;
+    }
+
+    int compareWithoutPointer(const int &lhs, const int &rhs) const {
+        return operator()(lhs, rhs);
+    }
+};
+
+typedef voltdb::CompactingBTree<NormalKeyValuePair<int, int>, IntComparator, true> IntTree;
+typedef voltdb::CompactingBTree<NormalKeyValuePair<std::string, std::string>, StringComparator, true> StringTree;
+
+class CompactingBTreeTest : public Test {
+public:
+    CompactingBTreeTest() {
+    }
+
+    ~CompactingBTreeTest() {
+    }
+
+    std::string keyFromInt(int i) {
+        char buf[256];
+        snprintf(buf, 256, "%010d", i);
+        std::string val = buf;
+        return val;
+    }
+
+    // Collect the values of the entries in [first, last) of both containers.
+    void assertSameValues(std::multimap<std::string, std::string>::const_iterator stli,
+                          std::multimap<std::string, std::string>::const_iterator stlEnd,
+                          StringTree::iterator volti, const StringTree::iterator &voltEnd) {
+        std::vector<std::string> stlv;
+        std::vector<std::string> voltv;
+        for (; stli != stlEnd; ++stli) {
+            stlv.push_back(stli->second);
+        }
+        for (; !volti.equals(voltEnd); volti.moveNext()) {
+            voltv.push_back(volti.value());
+        }
+        ASSERT_EQ(stlv.size(), voltv.size());
+        std::sort(stlv.begin(), stlv.end());
+        std::sort(voltv.begin(), voltv.end());
+        for (int i = 0; i < stlv.size(); i++) {
+            ASSERT_EQ(stlv[i].compare(voltv[i]), 0);
+        }
+    }
+};
+
+TEST_F(CompactingBTreeTest, Trivial) {
+    IntTree m(true, IntComparator());
+    ASSERT_TRUE(m.begin().isEnd());
+    ASSERT_TRUE(m.rbegin().isEnd());
+    ASSERT_TRUE(m.insert(2, 2) == NULL);
+    ASSERT_TRUE(m.insert(1, 1) == NULL);
+    ASSERT_TRUE(m.insert(3, 3) == NULL);
+    const int *conflict = m.insert(2, 20);
+    ASSERT_TRUE(conflict != NULL);
+    ASSERT_EQ(*conflict, 2);
+    ASSERT_EQ(m.size(), 3);
+    ASSERT_TRUE(m.verify());
+
+    ASSERT_EQ(m.find(2).value(), 2);
+    ASSERT_TRUE(m.find(4).isEnd());
+    ASSERT_EQ(m.lowerBound(0).key(), 1);
+    ASSERT_EQ(m.upperBound(2).key(), 3);
+    ASSERT_TRUE(m.upperBound(3).isEnd());
+    ASSERT_EQ(m.rbegin().key(), 3);
+
+    ASSERT_TRUE(m.erase(2));
+    ASSERT_TRUE(!m.erase(2));
+    ASSERT_TRUE(m.erase(1));
+    ASSERT_TRUE(m.erase(3));
+    ASSERT_EQ(m.size(), 0);
+    ASSERT_TRUE(m.begin().isEnd());
+    ASSERT_EQ(m.bytesAllocated(), 0);
+    ASSERT_TRUE(m.verify());
+
+    IntTree m2(false, IntComparator());
+    for (int i = 0; i < 1000; i++) {
+        ASSERT_TRUE(m2.insert(1, i) == NULL);
+    }
+    ASSERT_TRUE(m2.verify());
+    ASSERT_TRUE(m2.verifyRank());
+    // duplicates keep their insertion order
+    int expected = 0;
+    for (IntTree::iterator iter = m2.begin(); !iter.isEnd(); iter.moveNext()) {
+        ASSERT_EQ(iter.value(), expected++);
+    }
+    ASSERT_EQ(m2.rankLower(1), 1);
+    ASSERT_EQ(m2.rankUpper(1), 1000);
+}
+
+TEST_F(CompactingBTreeTest, RandomUnique) {
+    const int ITERATIONS = 200000;
+    const int BIGGEST_VAL = 20000;
+
+    std::map<int, int> stl;
+    IntTree volt(true, IntComparator());
+
+    srand(0);
+    for (int i = 0; i < ITERATIONS; i++) {
+        if ((i % 20000) == 0) {
+            ASSERT_TRUE(volt.verify());
+            ASSERT_EQ(volt.size(), stl.size());
+        }
+
+        // bias towards inserts for the first half, deletes for the second
+        bool insert = (rand() % 10) < ((i < ITERATIONS / 2) ? 7 : 3);
+        int val = rand() % BIGGEST_VAL;
+        std::map<int, int>::const_iterator stli = stl.find(val);
+        IntTree::iterator volti = volt.find(val);
+        ASSERT_EQ(stli == stl.end(), volti.isEnd());
+        if (insert) {
+            const int *conflict = volt.insert(val, i);
+            if (stli == stl.end()) {
+                ASSERT_TRUE(conflict == NULL);
+                stl.insert(std::pair<int, int>(val, i));
+            }
+            else {
+                ASSERT_TRUE(conflict != NULL);
+                ASSERT_EQ(*conflict, stli->second);
+            }
+        }
+        else {
+            ASSERT_EQ(volt.erase(val), stli != stl.end());
+            stl.erase(val);
+        }
+
+        int probe = rand() % BIGGEST_VAL;
+        std::map<int, int>::const_iterator lower = stl.lower_bound(probe);
+        IntTree::iterator voltLower = volt.lowerBound(probe);
+        ASSERT_EQ(lower == stl.end(), voltLower.isEnd());
+        if (lower != stl.end()) {
+            ASSERT_EQ(lower->first, voltLower.key());
+        }
+        std::map<int, int>::const_iterator upper = stl.upper_bound(probe);
+        IntTree::iterator voltUpper = volt.upperBound(probe);
+        ASSERT_EQ(upper == stl.end(), voltUpper.isEnd());
+        if (upper != stl.end()) {
+            ASSERT_EQ(upper->first, voltUpper.key());
+        }
+    }
+
+    ASSERT_TRUE(volt.verify());
+    ASSERT_TRUE(volt.verifyRank());
+
+    // forward and backward scans match
+    std::map<int, int>::const_iterator stli = stl.begin();
+    for (IntTree::iterator volti = volt.begin(); !volti.isEnd(); volti.moveNext(), ++stli) {
+        ASSERT_EQ(stli->first, volti.key());
+        ASSERT_EQ(stli->second, volti.value());
+    }
+    ASSERT_TRUE(stli == stl.end());
+    std::map<int, int>::const_reverse_iterator rstli = stl.rbegin();
+    for (IntTree::iterator volti = volt.rbegin(); !volti.isEnd(); volti.movePrev(), ++rstli) {
+        ASSERT_EQ(rstli->first, volti.key());
+    }
+    ASSERT_TRUE(rstli == stl.rend());
+
+    // rank of every key matches its position
+    int64_t rank = 1;
+    for (stli = stl.begin(); stli != stl.end(); ++stli, ++rank) {
+        ASSERT_EQ(volt.rankLower(stli->first), rank);
+        ASSERT_EQ(volt.findRank(rank).key(), stli->first);
+    }
+    ASSERT_TRUE(volt.findRank(rank).isEnd());
+}
+
+TEST_F(CompactingBTreeTest, RandomMulti) {
+    const int ITERATIONS = 20000;
+    const int BIGGEST_VAL = 300;
+
+    std::multimap<std::string, std::string> stl;
+    StringTree volt(false, StringComparator());
+
+    srand(0);
+    for (int i = 0; i < ITERATIONS; i++) {
+        if ((i % 2000) == 0) {
+            ASSERT_TRUE(volt.verify());
+            ASSERT_TRUE(volt.verifyRank());
+            ASSERT_EQ(volt.size(), stl.size());
+        }
+
+        int op = rand() % 4;
+        std::string key = keyFromInt(rand() % BIGGEST_VAL);
+        if (op <= 1 || (i < ITERATIONS / 4)) {
+            std::string value = keyFromInt(i);
+            stl.insert(std::pair<std::string, std::string>(key, value));
+            ASSERT_TRUE(volt.insert(key, value) == NULL);
+        }
+        else if (op == 2) {
+            std::multimap<std::string, std::string>::iterator stli = stl.find(key);
+            StringTree::iterator volti = volt.find(key);
+            ASSERT_EQ(stli == stl.end(), volti.isEnd());
+            if (stli != stl.end()) {
+                // erase the first entry of the key through the iterator
+                std::pair<std::multimap<std::string, std::string>::iterator,
+                          std::multimap<std::string, std::string>::iterator> range = stl.equal_range(key);
+                ASSERT_EQ(range.first->second, volti.value());
+                stl.erase(range.first);
+                ASSERT_TRUE(volt.erase(volti));
+            }
+        }
+        else {
+            std::pair<std::multimap<std::string, std::string>::const_iterator,
+                      std::multimap<std::string, std::string>::const_iterator> range = stl.equal_range(key);
+            std::pair<StringTree::iterator, StringTree::iterator> voltRange = volt.equalRange(key);
+            assertSameValues(range.first, range.second, voltRange.first, voltRange.second);
+            if (range.first != range.second) {
+                int64_t before = std::distance(stl.cbegin(), range.first);
+                int64_t through = std::distance(stl.cbegin(), range.second);
+                ASSERT_EQ(volt.rankLower(key), before + 1);
+                ASSERT_EQ(volt.rankUpper(key), through);
+            }
+            else {
+                ASSERT_EQ(volt.rankLower(key), -1);
+            }
+        }
+    }
+    ASSERT_TRUE(volt.verify());
+    ASSERT_TRUE(volt.verifyRank());
+}
+
+TEST_F(CompactingBTreeTest, Compaction) {
+    const int SCALE = 100000;
+    voltdb::CompactingBTree<NormalKeyValuePair<int, int>, IntComparator> volt(true, IntComparator());
+
+    // ascending inserts keep the leaves full
+    for (int i = 0; i < SCALE; i++) {
+        ASSERT_TRUE(volt.insert(i, i) == NULL);
+    }
+    ASSERT_TRUE(volt.verify());
+    size_t full = volt.bytesAllocated();
+    // well under the three pointers per entry a red-black tree node carries
+    ASSERT_TRUE(full < SCALE * (sizeof(NormalKeyValuePair<int, int>) + 3 * sizeof(void*)) / 2);
+
+    // deleting most entries gives memory back
+    srand(0);
+    std::vector<int> order;
+    for (int i = 0; i < SCALE; i++) {
+        order.push_back(i);
+    }
+    std::random_shuffle(order.begin(), order.end());
+    for (int i = 0; i < SCALE - 100; i++) {
+        ASSERT_TRUE(volt.erase(order[i]));
+        if ((i % 10000) == 0) {
+            ASSERT_TRUE(volt.verify());
+        }
+    }
+    ASSERT_TRUE(volt.verify());
+    ASSERT_TRUE(volt.bytesAllocated() < full / 4);
+    for (int i = SCALE - 100; i < SCALE; i++) {
+        ASSERT_TRUE(volt.erase(order[i]));
+    }
+    ASSERT_EQ(volt.size(), 0);
+    ASSERT_EQ(volt.bytesAllocated(), 0);
+    ASSERT_TRUE(volt.hasCachedLastBuffer());
+    ASSERT_TRUE(volt.verify());
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
@@ -0,0 +1,132 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#ifndef TESTS_EE_TEST_UTILS_SCANEXPRESSIONTEST_HPP
+#define TESTS_EE_TEST_UTILS_SCANEXPRESSIONTEST_HPP
+
+#include <string>
+#include <vector>
+
+#include "harness.h"
+
+#include "test_utils/UniqueTable.hpp"
+
+#include "common/tabletuple.h"
+#include "common/ValueFactory.hpp"
+#include "expressions/expressions.h"
+#include "expressions/expressionutil.h"
+#include "storage/tablefactory.h"
+#include "storage/temptable.h"
+
+/**
+ * Base class for tests (and benchmarks) of the alternative ways of
+ * evaluating scan predicates and projections: a table of numeric rows
+ * with NULLs sprinkled through it, and shorthand for building the
+ * expression trees to evaluate over it.
+ */
+class ScanExpressionTest : public Test {
+public:
+    static const int ID_COL = 0;
+    static const int INT_COL = 1;
+    static const int BIGINT_COL = 2;
+    static const int DOUBLE_COL = 3;
+
+    /**
+     * id BIGINT, i INTEGER, b BIGINT, d FLOAT.  Every 7th i, 11th b
+     * and 13th d is NULL, and every 100th i is 0.
+     */
+    static UniqueTable<voltdb::TempTable> initTable(int rows) {
+        std::vector<std::string> columnNames;
+        columnNames.push_back("id");
+        columnNames.push_back("i");
+        columnNames.push_back("b");
+        columnNames.push_back("d");
+        std::vector<voltdb::ValueType> columnTypes;
+        columnTypes.push_back(voltdb::ValueType::tBIGINT);
+        columnTypes.push_back(voltdb::ValueType::tINTEGER);
+        columnTypes.push_back(voltdb::ValueType::tBIGINT);
+        columnTypes.push_back(voltdb::ValueType::tDOUBLE);
+        std::vector<int32_t> columnLengths;
+        std::vector<bool> columnAllowNull;
+        for (int ctr = 0; ctr < columnTypes.size(); ctr++) {
+            columnLengths.push_back(voltdb::NValue::getTupleStorageSize(columnTypes[ctr]));
+            columnAllowNull.push_back(ctr != ID_COL);
+        }
+        voltdb::TupleSchema *schema =
+                voltdb::TupleSchema::createTupleSchemaForTest(columnTypes, columnLengths, columnAllowNull);
+        auto table = makeUniqueTable(
+                voltdb::TableFactory::buildTempTable("test_table", schema, columnNames, NULL));
+
+        voltdb::TableTuple &tuple = table->tempTuple();
+        for (int64_t i = 1; i <= rows; ++i) {
+            tuple.setNValue(ID_COL, voltdb::ValueFactory::getBigIntValue(i));
+            tuple.setNValue(INT_COL, i % 7 == 0 ? voltdb::NValue::getNullValue(voltdb::ValueType::tINTEGER)
+                    : voltdb::ValueFactory::getIntegerValue(static_cast<int32_t>(i % 100)));
+            tuple.setNValue(BIGINT_COL, i % 11 == 0 ? voltdb::NValue::getNullValue(voltdb::ValueType::tBIGINT)
+                    : voltdb::ValueFactory::getBigIntValue(i * 1000));
+            tuple.setNValue(DOUBLE_COL, i % 13 == 0 ? voltdb::NValue::getNullValue(voltdb::ValueType::tDOUBLE)
+                    : voltdb::ValueFactory::getDoubleValue(static_cast<double>(i) / 4));
+            table->insertTuple(tuple);
+        }
+        return table;
+    }
+
+    static voltdb::PlannerDomValue emptyDom() {
+        return voltdb::PlannerDomRoot("{}")();
+    }
+
+    /** A column of the outer tuple */
+    static voltdb::AbstractExpression* column(int idx) {
+        return new voltdb::TupleValueExpression(0, idx);
+    }
+
+    /** A column of the inner tuple, as in a join predicate */
+    static voltdb::AbstractExpression* column2(int idx) {
+        return new voltdb::TupleValueExpression(1, idx);
+    }
+
+    static voltdb::AbstractExpression* bigint(int64_t value) {
+        return new voltdb::ConstantValueExpression(voltdb::ValueFactory::getBigIntValue(value));
+    }
+
+    static voltdb::AbstractExpression* floatValue(double value) {
+        return new voltdb::ConstantValueExpression(voltdb::ValueFactory::getDoubleValue(value));
+    }
+
+    static voltdb::AbstractExpression* compare(voltdb::ExpressionType type,
+            voltdb::AbstractExpression* left, voltdb::AbstractExpression* right) {
+        return voltdb::ExpressionUtil::comparisonFactory(emptyDom(), type, left, right);
+    }
+
+    static voltdb::AbstractExpression* conjunction(voltdb::ExpressionType type,
+            voltdb::AbstractExpression* left, voltdb::AbstractExpression* right) {
+        return voltdb::ExpressionUtil::conjunctionFactory(type, left, right);
+    }
+
+    static voltdb::AbstractExpression* arithmetic(voltdb::ExpressionType type,
+            voltdb::AbstractExpression* left, voltdb::AbstractExpression* right) {
+        return voltdb::ExpressionUtil::operatorFactory(type, left, right);
+    }
+};
+
+#endif // TESTS_EE_TEST_UTILS_SCANEXPRESSIONTEST_HPP
@@ -67,13 +67,14 @@ public:
 private:
 
     UniqueEngine(std::unique_ptr<voltdb::Topend> topend,
-                 int64_t tempTableMemoryLimitInBytes)
+                 int64_t tempTableMemoryLimitInBytes,
+                 int32_t partitionId)
         : m_topend(topend.release())
         , m_engine(new voltdb::VoltDBEngine(m_topend.get()))
     {
         m_engine->initialize(1,     // clusterIndex
                              1,     // siteId
-                             0,     // partitionId
+                             partitionId,
                              1,     // sitesPerHost
                              0,     // hostId
                              "",    // hostname
@@ -102,6 +103,7 @@ private:
  * Options:
  *   setTempTableMemoryLimit (default is same as product default, 50MB)
  *   setTopend               (DummyTopend is used by default)
+ *   setPartitionId          (default is 0)
  */
 class UniqueEngineBuilder {
 public:
@@ -109,6 +111,7 @@ public:
     UniqueEngineBuilder()
         : m_tempTableMemoryLimit(voltdb::DEFAULT_TEMP_TABLE_MEMORY)
         , m_topend(new voltdb::DummyTopend())
+        , m_partitionId(0)
     {
     }
 
@@ -124,15 +127,22 @@ public:
         return *this;
     }
 
+    /** Set the partition the engine belongs to */
+    UniqueEngineBuilder& setPartitionId(int32_t partitionId) {
+        m_partitionId = partitionId;
+        return *this;
+    }
+
     /** Create an engine */
     UniqueEngine build() {
         assert(m_topend.get() != NULL);
-        return UniqueEngine(std::move(m_topend), m_tempTableMemoryLimit);
+        return UniqueEngine(std::move(m_topend), m_tempTableMemoryLimit, m_partitionId);
     }
 
 private:
     int64_t m_tempTableMemoryLimit;
     std::unique_ptr<voltdb::Topend> m_topend;
+    int32_t m_partitionId;
 };
 
 #endif // EE_TESTS_TEST_UTILS_UNIQUEENGINE_HPP
@@ -163,14 +163,33 @@ public class TestNIOWriteStream extends TestCase {
 
         @Override
         public long write(ByteBuffer src[]) throws IOException {
+            return write(src, 0, src.length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // TODO Auto-generated method stub
+        }
+
+        @Override
+        public boolean isOpen() {
+            return m_open;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length)
+                throws IOException {
             if (!m_open) throw new IOException();
             if (closeAfter > 0 && ++writeCount >= closeAfter) {
                 m_open = false;
             }
 
             if (m_behavior == SINK) {
-                int remaining = src[0].remaining();
-                src[0].position(src[0].limit());
+                long remaining = 0;
+                for (int ii = offset; ii < offset + length; ii++) {
+                    remaining += srcs[ii].remaining();
+                    srcs[ii].position(srcs[ii].limit());
+                }
                 return remaining;
             }
             else if (m_behavior == FULL) {
@@ -182,30 +201,13 @@ public class TestNIOWriteStream extends TestCase {
                 } else {
                     wrotePartial = true;
                 }
-                ByteBuffer copy = ByteBuffer.allocate(src[0].remaining());
-                src[0].get(copy.array(), 0, src[0].remaining()/2);
-                return src[0].remaining();
+                ByteBuffer copy = ByteBuffer.allocate(srcs[offset].remaining());
+                srcs[offset].get(copy.array(), 0, srcs[offset].remaining()/2);
+                return srcs[offset].remaining();
             }
             assert(false);
             return -1;
         }
-
-        @Override
-        public void close() throws IOException {
-            // TODO Auto-generated method stub
-        }
-
-        @Override
-        public boolean isOpen() {
-            return m_open;
-        }
-
-        @Override
-        public long write(ByteBuffer[] srcs, int offset, int length)
-                throws IOException {
-            // TODO Auto-generated method stub
-            return 0;
-        }
     }
 
 
@@ -332,7 +334,7 @@ public class TestNIOWriteStream extends TestCase {
     }
 
     public void testClosedWithBackPressure() throws IOException {
-        MockChannel channel = new MockChannel(MockChannel.SINK, 1);
+        MockChannel channel = new MockChannel(MockChannel.PARTIAL, 1);
         MockPort port = new MockPort();
         AdmissionControlGroup acg = new AdmissionControlGroup(2, 1024);
         VoltNIOWriteStream wstream = new VoltNIOWriteStream(port, null, null, acg);
@@ -358,7 +360,7 @@ public class TestNIOWriteStream extends TestCase {
         boolean threwException = false;
         try {
             wstream.serializeQueuedWrites(pool);
-            //First write will succeed leaving 2 in first buffer and 4 in next
+            //First write will take half of the first buffer leaving 2 in it and 6 in the rest
             wstream.drainTo( channel);
         } catch (IOException e) {
             threwException = true;
@@ -366,7 +368,7 @@ public class TestNIOWriteStream extends TestCase {
         assertTrue(threwException);
         //Since ACG limit is 2 bytes we should be in backpressure.
         assertTrue(acg.hasBackPressure());
-        assertEquals(6, acg.getPendingBytes());
+        assertEquals(8, acg.getPendingBytes());
         wstream.shutdown();
         //We should be out of backpressure.
         assertFalse(acg.hasBackPressure());
@@ -196,4 +196,27 @@ public class TestPicoNetwork extends TestCase {
             rawChannel.read(buf);
         }
     }
+
+    @Test
+    public void testManySmallMessages() throws Exception {
+        // Enough small messages to span several pooled buffers in a single flush
+        final int count = 100000;
+        for (int ii = 0; ii < count; ii++) {
+            ByteBuffer buf = ByteBuffer.allocate(8);
+            buf.putInt(4);
+            buf.putInt(ii);
+            buf.flip();
+            pn.enqueue(buf);
+        }
+
+        ByteBuffer receipt = ByteBuffer.allocate(8 * count);
+        while (receipt.hasRemaining()) {
+            rawChannel.read(receipt);
+        }
+        receipt.flip();
+        for (int ii = 0; ii < count; ii++) {
+            assertEquals(4, receipt.getInt());
+            assertEquals(ii, receipt.getInt());
+        }
+    }
 }
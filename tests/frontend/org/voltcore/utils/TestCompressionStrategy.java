@@ -0,0 +1,137 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltcore.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.voltcore.utils.DBBPool.BBContainer;
+import org.voltdb.utils.CompressionService;
+
+import junit.framework.TestCase;
+
+public class TestCompressionStrategy extends TestCase {
+
+    private static final CompressionStrategy[] CODECS = {
+            CompressionStrategySnappy.INSTANCE,
+            CompressionStrategyLZ4.INSTANCE,
+            CompressionStrategyDeflate.INSTANCE
+    };
+
+    private static byte[] tableLikeData(int length) {
+        Random random = new Random(length);
+        ByteBuffer data = ByteBuffer.allocate(length);
+        while (data.remaining() >= 24) {
+            data.putLong(data.position() / 24);
+            data.putInt(random.nextInt(16));
+            data.put("region-0".getBytes(), 0, 8);
+            data.putInt(random.nextInt());
+        }
+        return data.array();
+    }
+
+    public void testLookup() throws IOException {
+        for (CompressionStrategy codec : CODECS) {
+            assertSame(codec, CompressionService.codecForId(codec.getId()));
+            assertSame(codec, CompressionService.codecForName(codec.getName().toLowerCase()));
+            assertTrue(codec.maxCompressedLength(4096) <= CompressionService.maxCompressedLength(4096));
+        }
+        try {
+            CompressionService.codecForId(15);
+            fail();
+        } catch (IOException expected) {}
+        try {
+            CompressionService.codecForName("bogus");
+            fail();
+        } catch (IllegalArgumentException expected) {}
+    }
+
+    public void testByteArrays() throws IOException {
+        for (CompressionStrategy codec : CODECS) {
+            for (int length : new int[] { 0, 1, 100, 1024 * 1024 }) {
+                byte data[] = tableLikeData(length);
+                byte compressed[] = codec.compress(data);
+                assertTrue(codec.getName(), compressed.length <= codec.maxCompressedLength(length));
+                assertTrue(codec.getName(), Arrays.equals(data, codec.uncompress(compressed)));
+            }
+        }
+    }
+
+    public void testDirectBuffers() throws IOException {
+        for (CompressionStrategy codec : CODECS) {
+            for (int length : new int[] { 0, 1, 100, 1024 * 1024 }) {
+                byte data[] = tableLikeData(length);
+                BBContainer input = DBBPool.allocateDirect(length + 8);
+                BBContainer compressed = DBBPool.allocateDirect(codec.maxCompressedLength(length) + 12);
+                BBContainer output = DBBPool.allocateDirect(length + 16);
+                try {
+                    // start away from 0 to check positions are honored
+                    input.b().position(8);
+                    input.b().put(data);
+                    input.b().position(8);
+                    compressed.b().position(12);
+                    output.b().position(16);
+
+                    int compressedSize = codec.compress(input.b(), compressed.b());
+                    assertEquals(codec.getName(), 8, input.b().position());
+                    assertEquals(codec.getName(), 12, compressed.b().position());
+                    assertEquals(codec.getName(), 12 + compressedSize, compressed.b().limit());
+                    assertEquals(codec.getName(), length, codec.uncompressedLength(compressed.b()));
+
+                    assertEquals(codec.getName(), length, codec.uncompress(compressed.b(), output.b()));
+                    assertEquals(codec.getName(), 16, output.b().position());
+                    assertEquals(codec.getName(), 16 + length, output.b().limit());
+                    byte result[] = new byte[length];
+                    output.b().get(result);
+                    assertTrue(codec.getName(), Arrays.equals(data, result));
+
+                    // blocks written through either API can be read by the other
+                    byte compressedBytes[] = new byte[compressedSize];
+                    compressed.b().get(compressedBytes);
+                    assertTrue(codec.getName(), Arrays.equals(data, codec.uncompress(compressedBytes)));
+                } finally {
+                    input.discard();
+                    compressed.discard();
+                    output.discard();
+                }
+            }
+        }
+    }
+
+    public void testCorruptionDetected() throws IOException {
+        byte data[] = tableLikeData(4096);
+        for (CompressionStrategy codec : new CompressionStrategy[] {
+                CompressionStrategyLZ4.INSTANCE, CompressionStrategyDeflate.INSTANCE }) {
+            byte compressed[] = codec.compress(data);
+            // claim a different uncompressed length
+            ByteBuffer.wrap(compressed).putInt(data.length + 1);
+            try {
+                codec.uncompress(compressed);
+                fail(codec.getName());
+            } catch (IOException expected) {}
+        }
+    }
+}
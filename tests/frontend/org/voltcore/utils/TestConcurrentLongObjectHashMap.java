@@ -0,0 +1,131 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltcore.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+public class TestConcurrentLongObjectHashMap extends TestCase {
+
+    public void testStripeCount() {
+        try {
+            new ConcurrentLongObjectHashMap<String>(0);
+            fail();
+        } catch (IllegalArgumentException expected) {}
+
+        // Any stripe count works, including ones that are rounded up to a power of two
+        for (int stripes : new int[] { 1, 3, 16, 17 }) {
+            ConcurrentLongObjectHashMap<String> map = new ConcurrentLongObjectHashMap<>(stripes);
+            for (long i = -100; i < 100; i++) {
+                assertNull(map.put(i, Long.toString(i)));
+            }
+            assertEquals(200, map.size());
+            for (long i = -100; i < 100; i++) {
+                assertEquals(Long.toString(i), map.get(i));
+            }
+        }
+    }
+
+    public void testBasicOperations() {
+        ConcurrentLongObjectHashMap<String> map = new ConcurrentLongObjectHashMap<>();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.keys().length);
+        assertNull(map.put(Long.MIN_VALUE, "min"));
+        assertNull(map.put(0, "zero"));
+        assertEquals("zero", map.put(0, "ZERO"));
+        assertTrue(map.containsKey(Long.MIN_VALUE));
+        assertFalse(map.containsKey(1));
+        assertFalse(map.isEmpty());
+        assertEquals(2, map.size());
+
+        long[] keys = map.keys();
+        Arrays.sort(keys);
+        assertTrue(Arrays.equals(new long[] { Long.MIN_VALUE, 0 }, keys));
+
+        assertEquals("ZERO", map.remove(0));
+        assertNull(map.remove(0));
+        assertEquals(1, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(Long.MIN_VALUE));
+    }
+
+    /*
+     * Keys added and removed concurrently with keys() never produce a key that was never
+     * added, and each writer sees its own mappings
+     */
+    public void testConcurrentWriters() throws Exception {
+        final int perThread = 50000;
+        final ConcurrentLongObjectHashMap<Long> map = new ConcurrentLongObjectHashMap<>(4);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long base = (long) t * perThread;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (long i = base; i < base + perThread; i++) {
+                            assertNull(map.put(i, i));
+                            assertEquals(i, map.get(i).longValue());
+                            if (i % 2 == 0) {
+                                assertEquals(i, map.remove(i).longValue());
+                            }
+                            if (i % 1000 == 0) {
+                                for (long key : map.keys()) {
+                                    assertTrue(key >= 0 && key < perThread * 4);
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        // Only the odd keys are left
+        assertEquals(perThread * 2, map.size());
+        long[] keys = map.keys();
+        assertEquals(perThread * 2, keys.length);
+        for (long key : keys) {
+            assertEquals(1, key % 2);
+            assertEquals(key, map.get(key).longValue());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltcore.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class TestLongObjectHashMap extends TestCase {
+
+    public void testBasicOperations() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(2);
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(-1, "minus one"));
+        assertNull(map.put(Long.MAX_VALUE, "max"));
+        assertEquals("zero", map.put(0, "ZERO"));
+        assertEquals(3, map.size());
+        assertEquals("ZERO", map.get(0));
+        assertEquals("minus one", map.get(-1));
+        assertEquals("max", map.get(Long.MAX_VALUE));
+        assertFalse(map.containsKey(1));
+
+        long[] keys = map.keys();
+        Arrays.sort(keys);
+        assertTrue(Arrays.equals(new long[] { -1, 0, Long.MAX_VALUE }, keys));
+
+        List<String> values = map.values();
+        Collections.sort(values);
+        assertEquals(Arrays.asList("ZERO", "max", "minus one"), values);
+
+        assertEquals("minus one", map.remove(-1));
+        assertNull(map.remove(-1));
+        assertEquals(2, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+
+        try {
+            map.put(1, null);
+            fail("null values must be rejected");
+        } catch (IllegalArgumentException expected) {}
+    }
+
+    /*
+     * Random puts and removes over a small key range keep the probe runs long, which
+     * exercises the backward shift on removal and the rehash
+     */
+    public void testAgainstHashMap() {
+        Random r = new Random(42);
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            long key = r.nextInt(2000) * 1024L;
+            if (r.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Long> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+        assertEquals(expected.size(), map.keys().length);
+    }
+
+    /*
+     * Threads racing to remove the same keys must hand each value out exactly once
+     */
+    public void testConcurrentRemoveClaimsOnce() throws Exception {
+        final int keys = 100000;
+        final ConcurrentLongObjectHashMap<Long> map = new ConcurrentLongObjectHashMap<>(4);
+        for (long i = 0; i < keys; i++) {
+            map.put(i, i);
+        }
+        assertEquals(keys, map.size());
+        assertEquals(keys, map.keys().length);
+
+        final AtomicInteger claimed = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (long i = 0; i < keys; i++) {
+                        Long value = map.remove(i);
+                        if (value != null) {
+                            assertEquals(i, value.longValue());
+                            claimed.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(keys, claimed.get());
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,102 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltcore.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.voltcore.utils.MpscChunkedQueue.WaitStrategy;
+
+import junit.framework.TestCase;
+
+public class TestMpscChunkedQueue extends TestCase {
+
+    public void testFifoAcrossChunks() {
+        MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>(4, WaitStrategy.PARK, 0, TimeUnit.NANOSECONDS);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+        }
+        assertEquals(10, queue.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), queue.peek());
+            assertEquals(Integer.valueOf(i), queue.poll());
+            assertEquals(9 - i, queue.size());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    public void testDrainTo() {
+        MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>(3, WaitStrategy.PARK, 0, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < 8; i++) {
+            queue.offer(i);
+        }
+        Integer[] batch = new Integer[5];
+        assertEquals(5, queue.drainTo(batch));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i), batch[i]);
+        }
+        assertEquals(3, queue.size());
+        assertEquals(3, queue.drainTo(batch));
+        assertEquals(Integer.valueOf(7), batch[2]);
+        assertEquals(0, queue.drainTo(batch));
+        assertTrue(queue.isEmpty());
+    }
+
+    public void testConcurrentProducers() throws Exception {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            final MpscChunkedQueue<long[]> queue =
+                    new MpscChunkedQueue<>(16, strategy, 10, TimeUnit.MICROSECONDS);
+            final int producers = 4;
+            final int perProducer = 100_000;
+            Thread[] threads = new Thread[producers];
+            for (int p = 0; p < producers; p++) {
+                final int producer = p;
+                threads[p] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < perProducer; i++) {
+                            queue.offer(new long[] { producer, i });
+                        }
+                    }
+                };
+                threads[p].start();
+            }
+            // Every producer's elements must come out complete and in order
+            long[] next = new long[producers];
+            for (int i = 0; i < producers * perProducer; i++) {
+                long[] element = queue.take();
+                int producer = (int) element[0];
+                assertEquals(next[producer]++, element[1]);
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertNull(queue.poll());
+            assertTrue(queue.isEmpty());
+        }
+    }
+}
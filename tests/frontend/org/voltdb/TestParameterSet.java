@@ -61,6 +61,7 @@ import junit.framework.TestCase;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.hadoop_voltpatches.util.PureJavaCrc32C;
 import org.json_voltpatches.JSONException;
+import org.voltdb.common.Constants;
 import org.voltdb.types.TimestampType;
 import org.voltdb.types.VoltDecimalHelper;
 
@@ -537,4 +538,59 @@ public class TestParameterSet extends TestCase {
 
         assertTrue(Arrays.deepEquals(pset1array, pset2array));
     }
+
+    private static ByteBuffer serialize(ParameterSet pset) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(pset.getSerializedSize());
+        pset.flattenToBuffer(buf);
+        buf.flip();
+        return buf;
+    }
+
+    public void testFromSerializedBuffer() throws IOException {
+        VoltType[] types = { VoltType.BIGINT, VoltType.FLOAT, VoltType.STRING,
+                             VoltType.VARBINARY, VoltType.TIMESTAMP };
+        Object[] values = { 5L, 1.5, "abc", new byte[] { 1, 2, 3 }, new TimestampType(1000) };
+        ByteBuffer buf = serialize(ParameterSet.fromArrayNoCopy(values));
+
+        ParameterSet pset = ParameterSet.fromSerializedBuffer(buf, types);
+        assertNotNull(pset);
+        assertTrue(pset.isSerialized());
+        assertEquals(buf.remaining(), pset.getSerializedSize());
+        assertEquals(values.length, pset.size());
+
+        // flattens to the client's bytes without decoding them
+        assertEquals(buf, serialize(pset));
+        assertTrue(pset.isSerialized());
+
+        // values are still there when asked for
+        assertTrue(Arrays.deepEquals(values, pset.toArray()));
+        assertFalse(pset.isSerialized());
+        assertEquals(buf, serialize(pset));
+        assertEquals(0, buf.position());
+    }
+
+    public void testFromSerializedBufferNeedsConversion() throws IOException {
+        VoltType[] types = { VoltType.BIGINT, VoltType.STRING };
+
+        // narrower integer type
+        ByteBuffer buf = serialize(ParameterSet.fromArrayNoCopy(5, "abc"));
+        assertNull(ParameterSet.fromSerializedBuffer(buf, types));
+        // nulls
+        buf = serialize(ParameterSet.fromArrayNoCopy(null, "abc"));
+        assertNull(ParameterSet.fromSerializedBuffer(buf, types));
+        buf = serialize(ParameterSet.fromArrayNoCopy(5L, VoltType.NULL_STRING_OR_VARBINARY));
+        assertNull(ParameterSet.fromSerializedBuffer(buf, types));
+        buf = serialize(ParameterSet.fromArrayNoCopy(5L, Constants.CSV_NULL));
+        assertNull(ParameterSet.fromSerializedBuffer(buf, types));
+        // wrong count
+        buf = serialize(ParameterSet.fromArrayNoCopy(5L));
+        assertNull(ParameterSet.fromSerializedBuffer(buf, types));
+        // arrays
+        buf = serialize(ParameterSet.fromArrayNoCopy(new long[] { 5L }, "abc"));
+        assertNull(ParameterSet.fromSerializedBuffer(buf, types));
+        // truncated
+        buf = serialize(ParameterSet.fromArrayNoCopy(5L, "abc"));
+        buf.limit(buf.limit() - 1);
+        assertNull(ParameterSet.fromSerializedBuffer(buf, types));
+    }
 }
@@ -31,6 +31,8 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -60,6 +62,9 @@ public class TestDistributer extends TestCase {
         volatile Semaphore invokedSubscribe = new Semaphore(0);
         volatile Semaphore invokedTopology = new Semaphore(0);
         volatile Semaphore invokedSystemInformation = new Semaphore(0);
+        // Last sequence number of the "Ordered" calls from each sender, messages are handled one at a time
+        final Map<Long, Long> lastSequence = new ConcurrentHashMap<>();
+        volatile boolean outOfOrder = false;
 
         @Override
         public int getMaxRead() {
@@ -78,6 +83,16 @@ public class TestDistributer extends TestCase {
                 if (proc.equals("@Ping"))
                     gotPing = true;
 
+                if (proc.equals("Ordered")) {
+                    Object[] params = spi.getParams().toArray();
+                    long sender = ((Number) params[0]).longValue();
+                    long sequence = ((Number) params[1]).longValue();
+                    Long last = lastSequence.put(sender, sequence);
+                    if (last != null && last >= sequence) {
+                        outOfOrder = true;
+                    }
+                }
+
                 if (sendResponses.get()) {
                     VoltTable vt[] = new VoltTable[0];
                     if (proc.equals("@Subscribe")) {
@@ -1115,5 +1130,149 @@ public class TestDistributer extends TestCase {
             volt0.shutdown();
         }
     }
-}
 
+    private static ClientStats batchStats(Client client) {
+        ClientStats total = null;
+        for (ClientStats stats : client.createStatsContext().fetch().getStatsByConnection().values()) {
+            if (total == null) {
+                total = stats;
+            } else {
+                total.add(stats);
+            }
+        }
+        return total;
+    }
+
+    public void testInvocationBatchingWindow() throws Exception {
+        // TODO: write a mock server that can grock ssl
+        if (ClientConfig.ENABLE_SSL_FOR_TEST) return;
+
+        MockVolt volt = new MockVolt(20000);
+        Client client = null;
+        try {
+            volt.start();
+
+            // Batches only go out when the window closes
+            ClientConfig config = new ClientConfig();
+            config.setInvocationBatching(20000, Integer.MAX_VALUE);
+            client = ClientFactory.createClient(config);
+            client.createConnection("localhost", 20000);
+
+            final AtomicInteger succeeded = new AtomicInteger();
+            for (int ii = 0; ii < 20; ii++) {
+                client.callProcedure(new ProcedureCallback() {
+                    @Override
+                    public void clientCallback(ClientResponse clientResponse) {
+                        if (clientResponse.getStatus() == ClientResponse.SUCCESS) {
+                            succeeded.incrementAndGet();
+                        }
+                    }
+                }, "Foo", ii);
+            }
+            client.drain();
+            assertEquals(20, succeeded.get());
+
+            ClientStats stats = batchStats(client);
+            assertTrue(stats.getBatchesSent() > 0);
+            assertTrue(stats.getAverageBatchSize() > 1);
+            // Every batch stayed open for the window
+            assertTrue(stats.getAverageBatchDelay() >= 10);
+            assertTrue(stats.toString().contains("batches sent/avg size/avg delay"));
+        }
+        finally {
+            if (client != null) client.close();
+            volt.shutdown();
+        }
+    }
+
+    public void testInvocationBatchingSizeThreshold() throws Exception {
+        // TODO: write a mock server that can grock ssl
+        if (ClientConfig.ENABLE_SSL_FOR_TEST) return;
+
+        MockVolt volt = new MockVolt(20000);
+        Client client = null;
+        try {
+            volt.start();
+
+            // A window far longer than the test, every invocation fills its batch
+            ClientConfig config = new ClientConfig();
+            config.setInvocationBatching((int) TimeUnit.SECONDS.toMicros(60), 1);
+            client = ClientFactory.createClient(config);
+            client.createConnection("localhost", 20000);
+
+            final long start = System.nanoTime();
+            for (int ii = 0; ii < 10; ii++) {
+                assertEquals(ClientResponse.SUCCESS, client.callProcedure("Foo", ii).getStatus());
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+
+            ClientStats stats = batchStats(client);
+            assertTrue(stats.getBatchesSent() >= 10);
+            assertEquals(1.0, stats.getAverageBatchSize(), 0.0);
+        }
+        finally {
+            if (client != null) client.close();
+            volt.shutdown();
+        }
+    }
+
+    public void testInvocationBatchingKeepsOrder() throws Exception {
+        // TODO: write a mock server that can grock ssl
+        if (ClientConfig.ENABLE_SSL_FOR_TEST) return;
+
+        MockVolt volt = new MockVolt(20000);
+        Client clientPtr = null;
+        try {
+            volt.start();
+
+            // Small batches and a short window so both the window flush and full batches race
+            ClientConfig config = new ClientConfig();
+            config.setInvocationBatching(200, 512);
+            final Client client = ClientFactory.createClient(config);
+            client.createConnection("localhost", 20000);
+            clientPtr = client;
+
+            final int senders = 4;
+            final int calls = 2000;
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicBoolean failed = new AtomicBoolean(false);
+            Thread[] threads = new Thread[senders];
+            for (int t = 0; t < senders; t++) {
+                final long sender = t;
+                threads[t] = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            for (long sequence = 0; sequence < calls; sequence++) {
+                                if (!client.callProcedure(new NullCallback(), "Ordered", sender, sequence)) {
+                                    failed.set(true);
+                                }
+                            }
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                            failed.set(true);
+                        }
+                    }
+                };
+                threads[t].start();
+            }
+            start.countDown();
+            for (Thread t : threads) {
+                t.join();
+            }
+            client.drain();
+
+            assertFalse(failed.get());
+            assertFalse(volt.handler.outOfOrder);
+            for (long sender = 0; sender < senders; sender++) {
+                assertEquals(Long.valueOf(calls - 1), volt.handler.lastSequence.get(sender));
+            }
+            assertTrue(batchStats(client).getBatchesSent() > 0);
+        }
+        finally {
+            if (clientPtr != null) clientPtr.close();
+            volt.shutdown();
+        }
+    }
+}
@@ -1424,6 +1424,38 @@ public class TestVoltCompiler extends TestCase {
         }
     }
 
+    public void testDDLCompilerBTreeIndexAllowed() {
+        for (int ii = 0; ii < column_types.length; ii++) {
+            String schema =
+                "create table t(id " + column_types[ii] + " not null, num integer not null);\n" +
+                "create index idx_t_id_btree on t(id);\n" +
+                "create unique index idx_t_idnum_btree on t(id,num);";
+            VoltCompiler c = compileSchemaForDDLTest(schema, can_be_tree[ii]);
+            assertFalse(c.hasErrors());
+            Table tbl = assertTableT(c);
+            Index idx = tbl.getIndexes().getIgnoreCase("idx_t_id_btree");
+            assertEquals(IndexType.BTREE.getValue(), idx.getType());
+            assertTrue(idx.getCountable());
+            assertEquals(IndexType.BTREE.getValue(),
+                    tbl.getIndexes().getIgnoreCase("idx_t_idnum_btree").getType());
+        }
+    }
+
+    public void testDDLCompilerBloomFilterIndex() {
+        String schema =
+            "create table t(id integer not null, num integer not null);\n" +
+            "create unique index idx_t_id_bloom on t(id);\n" +
+            "create index idx_t_num_bloom on t(num);\n" +
+            "create unique index idx_t_idnum on t(id,num);";
+        VoltCompiler c = compileSchemaForDDLTest(schema, true);
+        assertFalse(c.hasErrors());
+        Table tbl = assertTableT(c);
+        assertTrue(tbl.getIndexes().getIgnoreCase("idx_t_id_bloom").getBloomfilter());
+        // Only unique indexes get a Bloom filter.
+        assertFalse(tbl.getIndexes().getIgnoreCase("idx_t_num_bloom").getBloomfilter());
+        assertFalse(tbl.getIndexes().getIgnoreCase("idx_t_idnum").getBloomfilter());
+    }
+
     public void testUniqueIndexAllowed() {
         String schema =
                 "create table t(id integer not null, num integer not null);\n" +
@@ -3860,6 +3892,43 @@ public class TestVoltCompiler extends TestCase {
                 );
     }
 
+    public void testGoodDictionaryTable() throws Exception {
+        String schema = "create table e1 (id integer not null, status varchar(64));\n" +
+                        "create table e2 (id integer not null, status varchar(64));\n" +
+                        "partition table e1 on column id;";
+        Database db;
+
+        db = goodDDLAgainstSimpleSchema(
+                schema,
+                "dictionary table e1;"
+                );
+        assertTrue(db.getTables().getIgnoreCase("e1").getIsdictionaryencoded());
+        assertFalse(db.getTables().getIgnoreCase("e2").getIsdictionaryencoded());
+
+        db = goodDDLAgainstSimpleSchema(
+                schema,
+                "dictionary table e2;",
+                "DICTIONARY TABLE E2 DISABLE;"
+                );
+        assertFalse(db.getTables().getIgnoreCase("e2").getIsdictionaryencoded());
+    }
+
+    public void testBadDictionaryTable() throws Exception {
+        badDDLAgainstSimpleSchema(".+Invalid DICTIONARY statement: table non_existant does not exist.*",
+                "dictionary table non_existant;"
+                );
+
+        badDDLAgainstSimpleSchema(".+Invalid DICTIONARY statement: table v is a materialized view.*",
+                "create table t (id integer not null, status varchar(64));",
+                "create view v (status, c) as select status, count(*) from t group by status;",
+                "dictionary table v;"
+                );
+
+        badDDLAgainstSimpleSchema(".+Invalid DICTIONARY TABLE statement.*",
+                "dictionary table one, two;"
+                );
+    }
+
     public void testCompileFromDDL() {
         String schema1 =
                 "create table table1r_el " +
@@ -0,0 +1,172 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.iv2;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.voltdb.BackendTarget;
+import org.voltdb.CatalogContext;
+import org.voltdb.compiler.deploymentfile.DeploymentType;
+import org.voltdb.compiler.deploymentfile.SystemSettingsType;
+import org.voltdb.iv2.MpRoSitePoolStats.MpReadPool;
+
+import junit.framework.TestCase;
+
+public class TestMpRoSitePool extends TestCase {
+
+    // A pool whose sites are mocks, so no site threads are started
+    private static class MockSitePool extends MpRoSitePool {
+        MockSitePool(CatalogContext context) {
+            super(0, BackendTarget.NATIVE_EE_JNI, context, MpInitiator.MP_INIT_PID, null);
+        }
+
+        @Override
+        MpRoSiteContext newSiteContext() {
+            return mock(MpRoSiteContext.class);
+        }
+    }
+
+    private static CatalogContext catalogContext(Integer maxSize) {
+        DeploymentType deployment = new DeploymentType();
+        SystemSettingsType settings = new SystemSettingsType();
+        if (maxSize != null) {
+            SystemSettingsType.Mpreadpool pool = new SystemSettingsType.Mpreadpool();
+            pool.setMaxsize(maxSize);
+            settings.setMpreadpool(pool);
+        }
+        deployment.setSystemsettings(settings);
+        CatalogContext context = mock(CatalogContext.class);
+        when(context.getDeployment()).thenReturn(deployment);
+        return context;
+    }
+
+    public void testPoolCeiling() {
+        if (MpRoSitePool.MAX_POOL_SIZE_OVERRIDE > 0) {
+            assertEquals(MpRoSitePool.MAX_POOL_SIZE_OVERRIDE, MpRoSitePool.getPoolCeiling(catalogContext(8)));
+            return;
+        }
+        // No setting or 0 keeps the size of the old fixed pool
+        assertEquals(MpRoSitePool.DEFAULT_POOL_CEILING, MpRoSitePool.getPoolCeiling(catalogContext(null)));
+        assertEquals(MpRoSitePool.DEFAULT_POOL_CEILING, MpRoSitePool.getPoolCeiling(catalogContext(0)));
+        assertEquals(8, MpRoSitePool.getPoolCeiling(catalogContext(8)));
+    }
+
+    public void testResponseBudgetFollowsCeiling() {
+        // The default ceiling keeps the per site budget of the old fixed pool
+        MpRoSitePool pool = new MockSitePool(catalogContext(null));
+        assertEquals(MpTransactionState.MP_MAX_TOTAL_RESP_SIZE / pool.getCeiling(), pool.getMaxTotalMpResponseSize());
+        if (MpRoSitePool.MAX_POOL_SIZE_OVERRIDE > 0) {
+            return;
+        }
+        assertEquals(MpTransactionState.MP_MAX_TOTAL_RESP_SIZE / MpRoSitePool.DEFAULT_POOL_CEILING,
+                pool.getMaxTotalMpResponseSize());
+
+        // A full pool never holds more than the total budget
+        pool = new MockSitePool(catalogContext(256));
+        assertEquals(MpTransactionState.MP_MAX_TOTAL_RESP_SIZE / 256, pool.getMaxTotalMpResponseSize());
+        assertTrue(pool.getMaxTotalMpResponseSize() * pool.getCeiling() <= MpTransactionState.MP_MAX_TOTAL_RESP_SIZE);
+
+        // and the split follows a new ceiling
+        pool.updateSettings(catalogContext(8));
+        assertEquals(MpTransactionState.MP_MAX_TOTAL_RESP_SIZE / 8, pool.getMaxTotalMpResponseSize());
+    }
+
+    public void testGrowToCeilingAndCountSaturation() {
+        MpRoSitePool pool = new MockSitePool(catalogContext(null));
+        final int ceiling = pool.getCeiling();
+        assertEquals(1, pool.getSiteCount());
+
+        for (long txnId = 0; txnId < ceiling; txnId++) {
+            assertTrue(pool.doWork(txnId, null));
+        }
+        assertEquals(ceiling, pool.getSiteCount());
+        assertEquals(ceiling, pool.getBusyCount());
+        assertEquals(ceiling, pool.getSitesCreated());
+
+        // Repeated checks against a full pool are one saturation
+        assertFalse(pool.canAcceptWork());
+        assertFalse(pool.doWork(ceiling, null));
+        assertFalse(pool.canAcceptWork());
+        assertEquals(1, pool.getSaturatedCount());
+
+        // A completed read reuses its idle site instead of creating a new one
+        pool.completeWork(0);
+        assertEquals(ceiling - 1, pool.getBusyCount());
+        assertTrue(pool.doWork(ceiling, null));
+        assertEquals(ceiling, pool.getSitesCreated());
+        assertEquals(ceiling, pool.getPeakBusyCount());
+
+        // Filling up again is a new saturation
+        assertFalse(pool.canAcceptWork());
+        assertEquals(2, pool.getSaturatedCount());
+
+        for (long txnId = 1; txnId <= ceiling; txnId++) {
+            pool.completeWork(txnId);
+        }
+        assertEquals(0, pool.getBusyCount());
+        assertEquals(ceiling, pool.getCompletedCount());
+        assertEquals(ceiling, pool.getSiteCount());
+        assertEquals(0, pool.getSitesRetired());
+    }
+
+    public void testLoweredCeilingRetiresIdleSites() {
+        MpRoSitePool pool = new MockSitePool(catalogContext(4));
+        if (MpRoSitePool.MAX_POOL_SIZE_OVERRIDE > 0) {
+            return;
+        }
+        for (long txnId = 0; txnId < 4; txnId++) {
+            assertTrue(pool.doWork(txnId, null));
+        }
+        for (long txnId = 0; txnId < 4; txnId++) {
+            pool.completeWork(txnId);
+        }
+        assertEquals(4, pool.getSiteCount());
+
+        pool.updateSettings(catalogContext(2));
+        assertEquals(2, pool.getCeiling());
+        assertEquals(2, pool.getSiteCount());
+        assertEquals(2, pool.getSitesRetired());
+    }
+
+    public void testStats() {
+        MpRoSitePool pool = new MockSitePool(catalogContext(null));
+        MpRoSitePoolStats stats = new MpRoSitePoolStats(0, pool);
+        assertTrue(pool.doWork(1, null));
+        pool.completeWork(1);
+
+        Object[][] rows = stats.getStatsRows(false, System.currentTimeMillis());
+        assertEquals(1, rows.length);
+        Object[] row = rows[0];
+        int offset = stats.getStatsColumnIndex(MpReadPool.CEILING.name());
+        assertEquals(pool.getCeiling(), row[offset + MpReadPool.CEILING.ordinal()]);
+        assertEquals(1, row[offset + MpReadPool.CURRENT_SIZE.ordinal()]);
+        assertEquals(0, row[offset + MpReadPool.BUSY.ordinal()]);
+        assertEquals(1, row[offset + MpReadPool.PEAK_BUSY.ordinal()]);
+        assertEquals(1L, row[offset + MpReadPool.SITES_CREATED.ordinal()]);
+        assertEquals(0L, row[offset + MpReadPool.SATURATED_COUNT.ordinal()]);
+        assertEquals(1L, row[offset + MpReadPool.COMPLETED_COUNT.ordinal()]);
+        assertEquals(pool.getMaxTotalMpResponseSize(), row[offset + MpReadPool.RESPONSE_BUDGET_PER_SITE.ordinal()]);
+    }
+}
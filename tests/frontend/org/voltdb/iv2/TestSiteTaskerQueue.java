@@ -0,0 +1,192 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.iv2;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.voltdb.StarvationTracker;
+
+import junit.framework.TestCase;
+
+public class TestSiteTaskerQueue extends TestCase {
+
+    private static final int PRODUCERS = 4;
+    private static final int TASKS_PER_PRODUCER = 100_000;
+
+    private static class IdTask extends SiteTasker.SiteTaskerRunnable {
+        final int m_id;
+
+        IdTask(int id) {
+            m_id = id;
+        }
+
+        @Override
+        void run() {}
+    }
+
+    private static SiteTaskerQueue getSiteTaskerQueue() {
+        SiteTaskerQueue queue = new SiteTaskerQueue(0);
+        queue.setStarvationTracker(new StarvationTracker(0));
+        queue.setupQueueDepthTracker(0);
+        return queue;
+    }
+
+    private static Thread[] startProducers(SiteTaskerQueue queue, CountDownLatch start) {
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int base = p * TASKS_PER_PRODUCER;
+            producers[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < TASKS_PER_PRODUCER; i++) {
+                    queue.offer(new IdTask(base + i));
+                }
+            });
+            producers[p].start();
+        }
+        return producers;
+    }
+
+    // Peek from another thread the way the TickProducer does while the site thread polls
+    private static Thread startPeeker(SiteTaskerQueue queue, AtomicBoolean done,
+            AtomicReference<Throwable> failure) {
+        Thread peeker = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    SiteTasker task = queue.peek();
+                    if (task != null) {
+                        assertTrue(task.getQueueOfferTime() != 0);
+                    }
+                    queue.getOldestOfferTime();
+                    queue.size();
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        peeker.start();
+        return peeker;
+    }
+
+    public void testPeekWhileOfferAndPoll() throws Exception {
+        final SiteTaskerQueue queue = getSiteTaskerQueue();
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] producers = startProducers(queue, start);
+        Thread peeker = startPeeker(queue, done, failure);
+        start.countDown();
+
+        BitSet seen = new BitSet(PRODUCERS * TASKS_PER_PRODUCER);
+        int[] nextPerProducer = new int[PRODUCERS];
+        for (int received = 0; received < PRODUCERS * TASKS_PER_PRODUCER; received++) {
+            IdTask task = (IdTask) queue.take();
+            assertFalse("duplicate task " + task.m_id, seen.get(task.m_id));
+            seen.set(task.m_id);
+            // FIFO per producer
+            int producer = task.m_id / TASKS_PER_PRODUCER;
+            assertEquals(nextPerProducer[producer]++, task.m_id % TASKS_PER_PRODUCER);
+        }
+        done.set(true);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        peeker.join();
+        assertNull(failure.get());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.getOldestOfferTime());
+    }
+
+    public void testClearFromAnotherThread() throws Exception {
+        final SiteTaskerQueue queue = getSiteTaskerQueue();
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] producers = startProducers(queue, start);
+        Thread peeker = startPeeker(queue, done, failure);
+        Thread clearer = new Thread(() -> {
+            while (!done.get()) {
+                queue.clear();
+                Thread.yield();
+            }
+        });
+        clearer.start();
+        start.countDown();
+
+        BitSet seen = new BitSet(PRODUCERS * TASKS_PER_PRODUCER);
+        int[] lastPerProducer = new int[PRODUCERS];
+        Arrays.fill(lastPerProducer, -1);
+        boolean producing = true;
+        while (producing) {
+            SiteTasker polled = queue.poll();
+            if (polled == null) {
+                producing = false;
+                for (Thread producer : producers) {
+                    producing |= producer.isAlive();
+                }
+                continue;
+            }
+            IdTask task = (IdTask) polled;
+            assertFalse("duplicate task " + task.m_id, seen.get(task.m_id));
+            seen.set(task.m_id);
+            // Cleared tasks are skipped but the survivors stay in order
+            int producer = task.m_id / TASKS_PER_PRODUCER;
+            assertTrue(lastPerProducer[producer] < task.m_id % TASKS_PER_PRODUCER);
+            lastPerProducer[producer] = task.m_id % TASKS_PER_PRODUCER;
+        }
+        done.set(true);
+        clearer.join();
+        peeker.join();
+        assertNull(failure.get());
+        // Handles a clear the clearer may have left pending
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+
+        // A clear with tasks still queued drops all of them on the next poll
+        for (int i = 0; i < 10; i++) {
+            queue.offer(new IdTask(i));
+        }
+        assertNotNull(queue.poll());
+        queue.clear();
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+        assertNull(queue.peek());
+
+        // Tasks offered after the clear was handled are kept
+        IdTask task = new IdTask(1);
+        queue.offer(task);
+        assertSame(task, queue.peek());
+        assertSame(task, queue.take());
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -38,8 +39,10 @@ import org.voltcore.utils.DBBPool;
 import org.voltcore.utils.DBBPool.BBContainer;
 import org.voltcore.utils.Pair;
 import org.voltdb.ElasticHashinator;
+import org.voltdb.ParameterSet;
 import org.voltdb.PrivateVoltTableFactory;
 import org.voltdb.StatsSelector;
+import org.voltdb.StatsSource;
 import org.voltdb.TableStreamType;
 import org.voltdb.TheHashinator.HashinatorConfig;
 import org.voltdb.VoltDB;
@@ -47,6 +50,8 @@ import org.voltdb.VoltTable;
 import org.voltdb.VoltType;
 import org.voltdb.benchmark.tpcc.TPCCProjectBuilder;
 import org.voltdb.catalog.Catalog;
+import org.voltdb.catalog.PlanFragment;
+import org.voltdb.catalog.Statement;
 import org.voltdb.compiler.VoltProjectBuilder;
 import org.voltdb.exceptions.ConstraintFailureException;
 import org.voltdb.exceptions.EEException;
@@ -54,8 +59,13 @@ import org.voltdb.exceptions.ReplicatedTableException;
 import org.voltdb.exceptions.SQLException;
 import org.voltdb.expressions.HashRangeExpressionBuilder;
 import org.voltdb.jni.ExecutionEngine.LoadTableCaller;
+import org.voltdb.planner.ActivePlanRepository;
 import org.voltdb.sysprocs.saverestore.SnapshotPredicates;
 import org.voltdb.sysprocs.saverestore.HiddenColumnFilter;
+import org.voltdb.utils.CatalogUtil;
+import org.voltdb.utils.CompressionService;
+
+import com.google_voltpatches.common.primitives.Longs;
 
 import junit.framework.TestCase;
 
@@ -342,6 +352,58 @@ public class TestExecutionEngine extends TestCase {
         terminateSourceEngine();
     }
 
+    public void testWarmPlanCache() throws Exception {
+        // Planner stats sources are never deregistered; drop those of earlier engines on this site.
+        VoltDB.instance().getStatsAgent().deregisterStatsSourcesFor(StatsSelector.PLANNER, 0);
+        initializeSourceEngine(1);
+        sourceEngine.loadCatalog( 0, m_catalog.serialize());
+
+        Statement selectStmt = m_catalog.getClusters().get("cluster").getDatabases().get("database").
+                getProcedures().getIgnoreCase("FragmentUpdateTestProcedure").
+                getStatements().getIgnoreCase("warehouse_select");
+        ActivePlanRepository.clear();
+        List<Long> fragmentIds = new ArrayList<>();
+        for (PlanFragment frag : selectStmt.getFragments()) {
+            long fragmentId = CatalogUtil.getUniqueIdForFragment(frag);
+            ActivePlanRepository.addFragmentForTest(
+                    fragmentId,
+                    CompressionService.decodeBase64AndDecompressToBytes(frag.getPlannodetree()),
+                    selectStmt.getSqltext());
+            fragmentIds.add(fragmentId);
+        }
+        sourceEngine.warmPlanCache(Longs.toArray(fragmentIds));
+
+        // The first execution of a warmed fragment must not fetch its plan again.
+        sourceEngine.executePlanFragments(
+                1,
+                new long[] { fragmentIds.get(fragmentIds.size() - 1) },
+                null,
+                new ParameterSet[] { ParameterSet.emptyParameterSet() },
+                null,
+                new String[] { selectStmt.getSqltext() },
+                null,
+                null,
+                3, 3, 2, 42, Long.MAX_VALUE, false);
+
+        Set<StatsSource> sources = VoltDB.instance().getStatsAgent().lookupStatsSource(StatsSelector.PLANNER, 0);
+        assertEquals(1, sources.size());
+        StatsSource plannerStats = sources.iterator().next();
+        Object[][] rows = plannerStats.getStatsRows(false, System.currentTimeMillis());
+        assertEquals(1, rows.length);
+        long plansWarmed = (Long) rows[0][plannerStats.getStatsColumnIndex("PLANS_WARMED")];
+        assertTrue(plansWarmed > 0);
+        assertEquals(fragmentIds.size(), plansWarmed);
+        assertTrue((Long) rows[0][plannerStats.getStatsColumnIndex("PLAN_WARM_TIME")] > 0);
+        assertEquals(1L, rows[0][plannerStats.getStatsColumnIndex("CACHE1_HITS")]);
+        assertEquals(0L, rows[0][plannerStats.getStatsColumnIndex("CACHE_MISSES")]);
+
+        // A second warming finds every plan cached and loads nothing.
+        sourceEngine.warmPlanCache(Longs.toArray(fragmentIds));
+        rows = plannerStats.getStatsRows(false, System.currentTimeMillis());
+        assertEquals(plansWarmed, rows[0][plannerStats.getStatsColumnIndex("PLANS_WARMED")]);
+        terminateSourceEngine();
+    }
+
     public void testStreamIndex() throws Exception {
         // Each EE needs its own thread for correct initialization.
         final AtomicReference<ExecutionEngine> destinationEngine = new AtomicReference<ExecutionEngine>();
@@ -0,0 +1,100 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.jni;
+
+import org.voltcore.utils.DBBPool.BBContainer;
+
+import junit.framework.TestCase;
+
+public class TestResultBufferPool extends TestCase {
+
+    public void testTakeIsBounded() {
+        ResultBufferPool pool = new ResultBufferPool(1024, 2);
+        try {
+            BBContainer first = pool.take();
+            BBContainer second = pool.take();
+            assertNotNull(first);
+            assertNotNull(second);
+            assertNotSame(first, second);
+            assertNull(pool.take());
+
+            pool.giveBack(first);
+            assertSame(first, pool.take());
+            assertNull(pool.take());
+        } finally {
+            pool.discard();
+        }
+    }
+
+    public void testLastReleaseReturnsBuffers() {
+        ResultBufferPool pool = new ResultBufferPool(1024, 2);
+        try {
+            BBContainer first = pool.take();
+            BBContainer second = pool.take();
+            ResultBufferPool.Reference ref = pool.detach(first, second).retain();
+            assertNull(pool.take());
+
+            ref.release();
+            assertNull(pool.take());
+            ref.release();
+            BBContainer a = pool.take();
+            BBContainer b = pool.take();
+            assertTrue((a == first && b == second) || (a == second && b == first));
+        } finally {
+            pool.discard();
+        }
+    }
+
+    public void testDiscardLeavesDetachedBuffers() {
+        ResultBufferPool pool = new ResultBufferPool(1024, 3);
+        BBContainer engine = pool.take();
+        BBContainer detached = pool.take();
+        BBContainer spare = pool.take();
+        pool.giveBack(spare);
+        detached.b().putLong(0, 42);
+        ResultBufferPool.Reference ref = pool.detach(detached);
+
+        // The engine goes away while a response still holds its result
+        pool.discard();
+        assertNotNull(engine);
+        assertEquals(42, detached.b().getLong(0));
+
+        // The last release discards the buffer, a second discard would fail the memory check
+        ref.release();
+    }
+
+    public void testContains() {
+        ResultBufferPool pool = new ResultBufferPool(1024, 2);
+        try {
+            BBContainer first = pool.take();
+            BBContainer second = pool.take();
+            first.b().position(100);
+            assertTrue(ResultBufferPool.contains(first, first.b().slice()));
+            assertFalse(ResultBufferPool.contains(second, first.b().slice()));
+            assertFalse(ResultBufferPool.contains(first, java.nio.ByteBuffer.allocate(16)));
+        } finally {
+            pool.discard();
+        }
+    }
+}
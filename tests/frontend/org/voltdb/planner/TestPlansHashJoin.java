@@ -0,0 +1,166 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.planner;
+
+import org.json_voltpatches.JSONArray;
+import org.json_voltpatches.JSONObject;
+import org.voltdb.plannodes.AbstractPlanNode;
+import org.voltdb.plannodes.HashJoinPlanNode;
+import org.voltdb.types.JoinType;
+import org.voltdb.types.PlanNodeType;
+
+public class TestPlansHashJoin extends PlannerTestCase {
+
+    public void testEquiJoinUsesHashJoin() throws Exception {
+        AbstractPlanNode pn = compileToTopDownTree(
+                "SELECT * FROM R1 JOIN R2 ON R1.A = R2.A", 5,
+                PlanNodeType.SEND,
+                PlanNodeType.HASHJOIN,
+                PlanNodeType.SEQSCAN,
+                PlanNodeType.SEQSCAN);
+        HashJoinPlanNode hjpn = (HashJoinPlanNode) pn.getChild(0);
+        assertEquals(JoinType.INNER, hjpn.getJoinType());
+
+        // Each side gets its own key expressions
+        JSONObject json = new JSONObject(hjpn.toJSONString());
+        JSONArray outerKeys = json.getJSONArray(HashJoinPlanNode.Members.OUTER_HASH_EXPRESSIONS.name());
+        JSONArray innerKeys = json.getJSONArray(HashJoinPlanNode.Members.INNER_HASH_EXPRESSIONS.name());
+        assertEquals(1, outerKeys.length());
+        assertEquals(1, innerKeys.length());
+        assertEquals(0, outerKeys.getJSONObject(0).optInt("TABLE_IDX", 0));
+        assertEquals(1, innerKeys.getJSONObject(0).getInt("TABLE_IDX"));
+
+        // Only the equalities become keys, the rest stays a residual predicate
+        pn = compile("SELECT * FROM R1 JOIN R2 ON R1.A = R2.A AND R1.C = R2.C AND R1.D > R2.C");
+        hjpn = (HashJoinPlanNode) pn.getChild(0);
+        json = new JSONObject(hjpn.toJSONString());
+        assertEquals(2, json.getJSONArray(HashJoinPlanNode.Members.OUTER_HASH_EXPRESSIONS.name()).length());
+        assertEquals(2, json.getJSONArray(HashJoinPlanNode.Members.INNER_HASH_EXPRESSIONS.name()).length());
+        assertNotNull(hjpn.getJoinPredicate());
+    }
+
+    public void testOuterJoins() {
+        AbstractPlanNode pn = compileToTopDownTree(
+                "SELECT * FROM R1 LEFT JOIN R2 ON R1.A = R2.A", 5,
+                PlanNodeType.SEND,
+                PlanNodeType.HASHJOIN,
+                PlanNodeType.SEQSCAN,
+                PlanNodeType.SEQSCAN);
+        assertEquals(JoinType.LEFT, ((HashJoinPlanNode) pn.getChild(0)).getJoinType());
+
+        pn = compileToTopDownTree(
+                "SELECT * FROM R1 FULL JOIN R2 ON R1.A = R2.A", 5,
+                PlanNodeType.SEND,
+                PlanNodeType.HASHJOIN,
+                PlanNodeType.SEQSCAN,
+                PlanNodeType.SEQSCAN);
+        assertEquals(JoinType.FULL, ((HashJoinPlanNode) pn.getChild(0)).getJoinType());
+    }
+
+    public void testNonEquiJoinUsesNestLoop() {
+        compileToTopDownTree(
+                "SELECT * FROM R1 JOIN R2 ON R1.A > R2.A", 5,
+                PlanNodeType.SEND,
+                PlanNodeType.NESTLOOP,
+                PlanNodeType.SEQSCAN,
+                PlanNodeType.SEQSCAN);
+    }
+
+    public void testIndexedInnerUsesNestLoopIndex() {
+        compileToTopDownTree(
+                "SELECT * FROM R1 JOIN R3 ON R1.A = R3.A", 5,
+                PlanNodeType.SEND,
+                PlanNodeType.NESTLOOPINDEX,
+                PlanNodeType.SEQSCAN);
+    }
+
+    public void testSmallOuterUsesNestLoop() {
+        // A single outer row scans the inner table once either way,
+        // so building a hash table over it is wasted work.
+        compileToTopDownTree(
+                "SELECT * FROM R5 LEFT JOIN R2 ON R5.B = R2.A WHERE R5.A = ?", 6,
+                PlanNodeType.SEND,
+                PlanNodeType.NESTLOOP,
+                PlanNodeType.INDEXSCAN,
+                PlanNodeType.SEQSCAN);
+
+        // Many outer rows make the hash join worth it
+        compileToTopDownTree(
+                "SELECT * FROM R5 LEFT JOIN R2 ON R5.B = R2.A WHERE R5.A > ?", 6,
+                PlanNodeType.SEND,
+                PlanNodeType.HASHJOIN,
+                PlanNodeType.INDEXSCAN,
+                PlanNodeType.SEQSCAN);
+    }
+
+    public void testHashJoinOutputIsNotOrdered() {
+        // The join can't provide the order, so it has to be sorted after the fact
+        compileToTopDownTree(
+                "SELECT * FROM R1 JOIN R2 ON R1.A = R2.A ORDER BY R1.A", 5,
+                PlanNodeType.SEND,
+                PlanNodeType.ORDERBY,
+                PlanNodeType.HASHJOIN,
+                PlanNodeType.SEQSCAN,
+                PlanNodeType.SEQSCAN);
+    }
+
+    public void testDisabled() {
+        System.clearProperty("ENABLE_HASH_JOIN");
+        compileToTopDownTree(
+                "SELECT * FROM R1 JOIN R2 ON R1.A = R2.A", 5,
+                PlanNodeType.SEND,
+                PlanNodeType.NESTLOOP,
+                PlanNodeType.SEQSCAN,
+                PlanNodeType.SEQSCAN);
+    }
+
+    public void testEnabledByDeployment() {
+        System.clearProperty("ENABLE_HASH_JOIN");
+        HashJoinPlanNode.setEnabled(true);
+        try {
+            compileToTopDownTree(
+                    "SELECT * FROM R1 JOIN R2 ON R1.A = R2.A", 5,
+                    PlanNodeType.SEND,
+                    PlanNodeType.HASHJOIN,
+                    PlanNodeType.SEQSCAN,
+                    PlanNodeType.SEQSCAN);
+        }
+        finally {
+            HashJoinPlanNode.setEnabled(false);
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        System.setProperty("ENABLE_HASH_JOIN", "true");
+        setupSchema(TestPlansHashJoin.class.getResource("testplans-join-ddl.sql"),
+                "testplanshashjoin", false);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        System.clearProperty("ENABLE_HASH_JOIN");
+        super.tearDown();
+    }
+}
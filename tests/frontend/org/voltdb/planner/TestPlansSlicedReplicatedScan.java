@@ -0,0 +1,133 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.planner;
+
+import java.util.List;
+
+import org.json_voltpatches.JSONObject;
+import org.voltdb.compiler.DeterminismMode;
+import org.voltdb.plannodes.AbstractPlanNode;
+import org.voltdb.plannodes.AbstractReceivePlanNode;
+import org.voltdb.plannodes.IndexScanPlanNode;
+import org.voltdb.plannodes.SeqScanPlanNode;
+
+public class TestPlansSlicedReplicatedScan extends PlannerTestCase {
+
+    private static SeqScanPlanNode findSeqScan(AbstractPlanNode fragment) {
+        List<AbstractPlanNode> scans = fragment.findAllNodesOfClass(SeqScanPlanNode.class);
+        assertEquals(1, scans.size());
+        return (SeqScanPlanNode) scans.get(0);
+    }
+
+    private static void assertNotSliced(List<AbstractPlanNode> fragments) {
+        assertEquals(1, fragments.size());
+        for (AbstractPlanNode scan : fragments.get(0).findAllNodesOfClass(SeqScanPlanNode.class)) {
+            assertFalse(((SeqScanPlanNode) scan).isSlicedScan());
+        }
+    }
+
+    public void testSlicedScanIsTwoFragments() throws Exception {
+        List<AbstractPlanNode> fragments = compileToFragments("SELECT A, C FROM R1 WHERE D > 5");
+        assertEquals(2, fragments.size());
+        assertEquals(1, fragments.get(0).findAllNodesOfClass(AbstractReceivePlanNode.class).size());
+        assertTrue(fragments.get(0).findAllNodesOfClass(SeqScanPlanNode.class).isEmpty());
+
+        // The collector fragment scans the slice of its partition
+        SeqScanPlanNode scan = findSeqScan(fragments.get(1));
+        assertTrue(scan.isSlicedScan());
+        assertEquals(0, scan.getSliceColumnIndex());
+        JSONObject json = new JSONObject(scan.toJSONString());
+        assertEquals(0, json.getInt("SLICE_COLUMN"));
+        assertTrue(scan.toExplainPlanString().contains("partition slice"));
+    }
+
+    public void testSliceColumnPrefersPrimaryKey() {
+        // R7's first column could be sliced on, but its primary key spreads the rows more evenly
+        List<AbstractPlanNode> fragments = compileToFragments("SELECT COUNT(*) FROM R7");
+        assertEquals(2, fragments.size());
+        assertEquals(1, findSeqScan(fragments.get(1)).getSliceColumnIndex());
+    }
+
+    public void testNoSliceColumnIsNotSliced() {
+        // Neither a float nor a nullable column hashes to exactly one partition
+        assertNotSliced(compileToFragments("SELECT * FROM R8"));
+    }
+
+    public void testAggregateIsMergedByCoordinator() {
+        List<AbstractPlanNode> fragments = compileToFragments("SELECT C, SUM(D) FROM R1 GROUP BY C");
+        assertEquals(2, fragments.size());
+        assertTrue(findSeqScan(fragments.get(1)).isSlicedScan());
+    }
+
+    public void testIndexScanIsNotSliced() {
+        List<AbstractPlanNode> fragments = compileToFragments("SELECT * FROM R3 WHERE A = ?");
+        assertEquals(1, fragments.size());
+        assertEquals(1, fragments.get(0).findAllNodesOfClass(IndexScanPlanNode.class).size());
+        assertNotSliced(fragments);
+    }
+
+    public void testSubqueriesAreNotSliced() {
+        assertNotSliced(compileToFragments("SELECT * FROM R1 WHERE A IN (SELECT A FROM R2)"));
+        assertNotSliced(compileToFragments("SELECT * FROM R1 WHERE EXISTS (SELECT 1 FROM R2 WHERE R2.C = R1.A)"));
+        assertNotSliced(compileToFragments("SELECT * FROM (SELECT A, C FROM R1) T WHERE T.C > 1"));
+    }
+
+    public void testWindowFunctionsAreNotSliced() {
+        assertNotSliced(compileToFragments("SELECT A, RANK() OVER (ORDER BY C) FROM R1"));
+    }
+
+    public void testJoinsAreNotSliced() {
+        assertNotSliced(compileToFragments("SELECT * FROM R1 JOIN R2 ON R1.A = R2.C"));
+    }
+
+    public void testPartitionedTableIsNotSliced() {
+        List<AbstractPlanNode> fragments = compileToFragments("SELECT A, C FROM P1 WHERE C > 5");
+        assertEquals(2, fragments.size());
+        assertFalse(findSeqScan(fragments.get(1)).isSlicedScan());
+    }
+
+    public void testSinglePartitionIsNotSliced() {
+        CompiledPlan plan = compileAdHocPlan("SELECT A, C FROM R1 WHERE D > 5", false, true, DeterminismMode.SAFER);
+        assertNull(plan.subPlanGraph);
+        assertFalse(findSeqScan(plan.rootPlanGraph).isSlicedScan());
+    }
+
+    public void testDisabled() {
+        System.clearProperty("SLICE_REPLICATED_SCANS");
+        assertNotSliced(compileToFragments("SELECT A, C FROM R1 WHERE D > 5"));
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        System.setProperty("SLICE_REPLICATED_SCANS", "true");
+        setupSchema(TestPlansSlicedReplicatedScan.class.getResource("testplans-sliced-scan-ddl.sql"),
+                "testplansslicedscan", false);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        System.clearProperty("SLICE_REPLICATED_SCANS");
+        super.tearDown();
+    }
+}
@@ -0,0 +1,34 @@
+CREATE TABLE R1 (
+	A INTEGER NOT NULL,
+	C INTEGER NOT NULL,
+	D INTEGER NOT NULL
+);
+
+CREATE TABLE R2 (
+	A INTEGER NOT NULL,
+	C INTEGER NOT NULL
+);
+
+CREATE TABLE R3 (
+	A INTEGER NOT NULL,
+	C INTEGER NOT NULL
+);
+CREATE INDEX IND1 ON R3 (A);
+
+CREATE TABLE R7 (
+	X INTEGER NOT NULL,
+	A INTEGER NOT NULL,
+	F FLOAT NOT NULL,
+	PRIMARY KEY (A)
+);
+
+CREATE TABLE R8 (
+	F FLOAT NOT NULL,
+	N INTEGER
+);
+
+CREATE TABLE P1 (
+	A INTEGER NOT NULL,
+	C INTEGER NOT NULL
+);
+PARTITION TABLE P1 ON COLUMN A;
@@ -54,7 +54,7 @@ public class TestEmptySchema extends RegressionSuite
 
         // Even running should be an improvement (ENG-4645), but do something just to be sure
         // Also, check to be sure we get a full schema for the table and index stats
-        ColumnInfo[] expectedSchema = new ColumnInfo[15];
+        ColumnInfo[] expectedSchema = new ColumnInfo[17];
         expectedSchema[0] = new ColumnInfo("TIMESTAMP", VoltType.BIGINT);
         expectedSchema[1] = new ColumnInfo("HOST_ID", VoltType.INTEGER);
         expectedSchema[2] = new ColumnInfo("HOSTNAME", VoltType.STRING);
@@ -70,6 +70,8 @@ public class TestEmptySchema extends RegressionSuite
         expectedSchema[12] = new ColumnInfo("PERCENT_FULL", VoltType.INTEGER);
         expectedSchema[13] = new ColumnInfo("DR", VoltType.STRING);
         expectedSchema[14] = new ColumnInfo("EXPORT", VoltType.STRING);
+        expectedSchema[15] = new ColumnInfo("DICTIONARY_MEMORY", VoltType.BIGINT);
+        expectedSchema[16] = new ColumnInfo("DICTIONARY_SAVED_MEMORY", VoltType.BIGINT);
         VoltTable expectedTable = new VoltTable(expectedSchema);
 
         VoltTable[] results = client.callProcedure("@Statistics", "TABLE", 0).getResults();
@@ -78,7 +80,7 @@ public class TestEmptySchema extends RegressionSuite
         assertEquals(expectedSchema.length, results[0].getColumnCount());
         validateSchema(results[0], expectedTable);
 
-        expectedSchema = new ColumnInfo[12];
+        expectedSchema = new ColumnInfo[15];
         expectedSchema[0] = new ColumnInfo("TIMESTAMP", VoltType.BIGINT);
         expectedSchema[1] = new ColumnInfo("HOST_ID", VoltType.INTEGER);
         expectedSchema[2] = new ColumnInfo("HOSTNAME", VoltType.STRING);
@@ -91,6 +93,9 @@ public class TestEmptySchema extends RegressionSuite
         expectedSchema[9] = new ColumnInfo("IS_COUNTABLE", VoltType.TINYINT);
         expectedSchema[10] = new ColumnInfo("ENTRY_COUNT", VoltType.BIGINT);
         expectedSchema[11] = new ColumnInfo("MEMORY_ESTIMATE", VoltType.BIGINT);
+        expectedSchema[12] = new ColumnInfo("BLOOM_FILTER_HITS", VoltType.BIGINT);
+        expectedSchema[13] = new ColumnInfo("BLOOM_FILTER_MISSES", VoltType.BIGINT);
+        expectedSchema[14] = new ColumnInfo("BLOOM_FILTER_FALSE_POSITIVES", VoltType.BIGINT);
         expectedTable = new VoltTable(expectedSchema);
 
         results = client.callProcedure("@Statistics", "INDEX", 0).getResults();
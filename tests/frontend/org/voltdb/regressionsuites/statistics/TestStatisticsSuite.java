@@ -484,7 +484,7 @@ public class TestStatisticsSuite extends StatisticsTestSuiteBase {
         // Based on doc, not code
         // HOST_ID, SITE_ID, and PARTITION_ID all differ.  Fixed to match
         // reality so tests would pass, but, ugh.
-        ColumnInfo[] expectedSchema = new ColumnInfo[9];
+        ColumnInfo[] expectedSchema = new ColumnInfo[10];
         expectedSchema[0] = new ColumnInfo("TIMESTAMP", VoltType.BIGINT);
         expectedSchema[1] = new ColumnInfo("HOST_ID", VoltType.INTEGER);
         expectedSchema[2] = new ColumnInfo("HOSTNAME", VoltType.STRING);
@@ -494,6 +494,7 @@ public class TestStatisticsSuite extends StatisticsTestSuiteBase {
         expectedSchema[6] = new ColumnInfo("MESSAGES_READ", VoltType.BIGINT);
         expectedSchema[7] = new ColumnInfo("BYTES_WRITTEN", VoltType.BIGINT);
         expectedSchema[8] = new ColumnInfo("MESSAGES_WRITTEN", VoltType.BIGINT);
+        expectedSchema[9] = new ColumnInfo("WRITE_QUEUE_DEPTH", VoltType.BIGINT);
         VoltTable expectedTable = new VoltTable(expectedSchema);
 
         VoltTable[] results = null;
@@ -507,6 +508,63 @@ public class TestStatisticsSuite extends StatisticsTestSuiteBase {
         validateSchema(results[0], expectedTable);
     }
 
+    public void testCipherStatistics() throws Exception {
+        System.out.println("\n\nTESTING CIPHER STATS\n\n\n");
+        Client client  = getFullyConnectedClient();
+
+        ColumnInfo[] expectedSchema = new ColumnInfo[12];
+        expectedSchema[0] = new ColumnInfo("TIMESTAMP", VoltType.BIGINT);
+        expectedSchema[1] = new ColumnInfo("HOST_ID", VoltType.INTEGER);
+        expectedSchema[2] = new ColumnInfo("HOSTNAME", VoltType.STRING);
+        expectedSchema[3] = new ColumnInfo("CIPHER_SERVICE", VoltType.STRING);
+        expectedSchema[4] = new ColumnInfo("WORKER_ID", VoltType.INTEGER);
+        expectedSchema[5] = new ColumnInfo("CONNECTIONS", VoltType.BIGINT);
+        expectedSchema[6] = new ColumnInfo("ENCRYPTED_BYTES", VoltType.BIGINT);
+        expectedSchema[7] = new ColumnInfo("ENCRYPT_MB_PER_SEC", VoltType.FLOAT);
+        expectedSchema[8] = new ColumnInfo("DECRYPTED_BYTES", VoltType.BIGINT);
+        expectedSchema[9] = new ColumnInfo("DECRYPT_MB_PER_SEC", VoltType.FLOAT);
+        expectedSchema[10] = new ColumnInfo("TASKS", VoltType.BIGINT);
+        expectedSchema[11] = new ColumnInfo("AVG_QUEUE_LATENCY_US", VoltType.BIGINT);
+        VoltTable expectedTable = new VoltTable(expectedSchema);
+
+        VoltTable[] results = null;
+        //
+        // cipher
+        //
+        results = client.callProcedure("@Statistics", "cipher", 0).getResults();
+        System.out.println("Test cipher table: " + results[0].toString());
+        // one aggregate table returned
+        assertEquals(1, results.length);
+        validateSchema(results[0], expectedTable);
+    }
+
+    public void testPBDSyncStatistics() throws Exception {
+        System.out.println("\n\nTESTING PBDSYNC STATS\n\n\n");
+        Client client  = getFullyConnectedClient();
+
+        ColumnInfo[] expectedSchema = new ColumnInfo[7];
+        expectedSchema[0] = new ColumnInfo("TIMESTAMP", VoltType.BIGINT);
+        expectedSchema[1] = new ColumnInfo("HOST_ID", VoltType.INTEGER);
+        expectedSchema[2] = new ColumnInfo("HOSTNAME", VoltType.STRING);
+        expectedSchema[3] = new ColumnInfo("SYNCS", VoltType.BIGINT);
+        expectedSchema[4] = new ColumnInfo("SYNCED_BYTES", VoltType.BIGINT);
+        expectedSchema[5] = new ColumnInfo("AVG_BYTES_PER_SYNC", VoltType.BIGINT);
+        expectedSchema[6] = new ColumnInfo("AVG_SYNC_LATENCY_US", VoltType.BIGINT);
+        VoltTable expectedTable = new VoltTable(expectedSchema);
+
+        VoltTable[] results = null;
+        //
+        // pbdsync
+        //
+        results = client.callProcedure("@Statistics", "pbdsync", 0).getResults();
+        System.out.println("Test pbdsync table: " + results[0].toString());
+        // one aggregate table returned
+        assertEquals(1, results.length);
+        validateSchema(results[0], expectedTable);
+        // one row per host
+        assertEquals(HOSTS, results[0].getRowCount());
+    }
+
     public void testLatencyUncompressed() throws Exception {
         System.out.println("\n\nTESTING LATENCY_UNCOMPRESSED STATS\n\n\n");
         Client client  = getFullyConnectedClient();
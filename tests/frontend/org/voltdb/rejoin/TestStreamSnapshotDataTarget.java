@@ -47,7 +47,6 @@ import org.voltcore.utils.DBBPool;
 import org.voltdb.MockVoltDB;
 import org.voltdb.SnapshotTableInfo;
 import org.voltdb.VoltDB;
-import org.voltdb.utils.CompressionService;
 
 import com.google_voltpatches.common.primitives.Ints;
 import com.google_voltpatches.common.util.concurrent.Callables;
@@ -122,7 +121,7 @@ public class TestStreamSnapshotDataTarget {
     {
         assertEquals(targetId, msg.getTargetId());
 
-        ByteBuffer data = ByteBuffer.wrap(CompressionService.decompressBytes(msg.getData()));
+        ByteBuffer data = ByteBuffer.wrap(msg.getCodec().uncompress(msg.getData()));
         assertEquals(type.ordinal(), data.get(StreamSnapshotBase.typeOffset));
         assertEquals(blockIndex, data.getInt(StreamSnapshotBase.blockIndexOffset));
 
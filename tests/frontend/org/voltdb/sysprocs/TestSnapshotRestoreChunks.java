@@ -0,0 +1,124 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.sysprocs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayDeque;
+
+import org.junit.After;
+import org.voltcore.utils.DBBPool.BBContainer;
+import org.voltcore.utils.Pair;
+import org.voltdb.PrivateVoltTableFactory;
+import org.voltdb.VoltTable;
+import org.voltdb.sysprocs.saverestore.TableSaveFile;
+import org.voltdb.sysprocs.saverestore.TestTableSaveFile;
+import org.voltdb.sysprocs.saverestore.TestTableSaveFile.ChunkSignals;
+
+import junit.framework.TestCase;
+
+/**
+ * Test how {@link SnapshotRestore} pulls the chunks of a partitioned table out of several save files
+ */
+public class TestSnapshotRestoreChunks extends TestCase {
+    private static final int FILE_COUNT = 3;
+    private static final int ROWS_PER_FILE = 5000;
+    private static final int FILE_ROW_OFFSET = 100000;
+
+    static {
+        org.voltdb.NativeLibraryLoader.loadVoltDB();
+    }
+
+    private final ArrayDeque<TableSaveFile> m_saveFiles = new ArrayDeque<TableSaveFile>();
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        TableSaveFile f;
+        while ((f = m_saveFiles.poll()) != null) {
+            f.close();
+        }
+    }
+
+    public void testGetNextChunkRotatesFiles() throws Exception {
+        VoltTable tables[] = new VoltTable[FILE_COUNT];
+        ChunkSignals signals[] = new ChunkSignals[FILE_COUNT];
+        for (int ii = 0; ii < FILE_COUNT; ii++) {
+            Pair<VoltTable, File> generated = TestTableSaveFile.generateTestTable(ii * FILE_ROW_OFFSET, ROWS_PER_FILE);
+            tables[ii] = generated.getFirst();
+            TableSaveFile savefile = new TableSaveFile(new FileInputStream(generated.getSecond()), 2, null);
+            signals[ii] = new ChunkSignals();
+            savefile.setChunkListener(signals[ii]);
+            savefile.startReading();
+            m_saveFiles.offer(savefile);
+        }
+
+        // Wait until every file has its read ahead ready before switching to the restore listener
+        for (ChunkSignals signal : signals) {
+            signal.await(2);
+        }
+        for (TableSaveFile savefile : m_saveFiles) {
+            savefile.setChunkListener(SnapshotRestore.s_chunkListener);
+        }
+
+        // With chunks ready everywhere each file takes its turn
+        VoltTable reaggregated[] = new VoltTable[FILE_COUNT];
+        for (int ii = 0; ii < FILE_COUNT; ii++) {
+            BBContainer c = SnapshotRestore.getNextChunk(m_saveFiles);
+            assertNotNull(c);
+            assertEquals(ii, fileIndex(c));
+            reaggregated[ii] = TestTableSaveFile.addRows(reaggregated[ii], c);
+        }
+
+        BBContainer c;
+        while ((c = SnapshotRestore.getNextChunk(m_saveFiles)) != null) {
+            int ii = fileIndex(c);
+            reaggregated[ii] = TestTableSaveFile.addRows(reaggregated[ii], c);
+        }
+
+        // Exhausted files are closed and dropped
+        assertTrue(m_saveFiles.isEmpty());
+        for (int ii = 0; ii < FILE_COUNT; ii++) {
+            assertEquals(tables[ii], reaggregated[ii]);
+        }
+    }
+
+    public void testReadAheadChunksPerFile() {
+        // Four chunks per local site split between the files
+        assertEquals(32, SnapshotRestore.readAheadChunksPerFile(8, 1));
+        assertEquals(10, SnapshotRestore.readAheadChunksPerFile(8, 3));
+        assertEquals(8, SnapshotRestore.readAheadChunksPerFile(2, 0));
+        // But every file can always read ahead a little
+        assertEquals(2, SnapshotRestore.readAheadChunksPerFile(8, 100));
+    }
+
+    /**
+     * Which file a chunk came from, going by the first row id
+     */
+    private static int fileIndex(BBContainer c) {
+        VoltTable chunk = PrivateVoltTableFactory.createVoltTableFromBuffer(c.b().duplicate(), false);
+        assertTrue(chunk.advanceRow());
+        return (int) (chunk.getLong(0) / FILE_ROW_OFFSET);
+    }
+}
@@ -78,7 +78,7 @@ public class TestTableSaveFile extends TestCase {
         System.runFinalization();
     }
 
-    private void serializeChunk(VoltTable chunk,
+    private static void serializeChunk(VoltTable chunk,
             DefaultSnapshotDataTarget target,
             int partitionId) throws Exception {
         FastSerializer fs = new FastSerializer();
@@ -101,6 +101,15 @@ public class TestTableSaveFile extends TestCase {
 
     private Pair<VoltTable, File> generateTestTable(int numberOfItems)
             throws Exception {
+        return generateTestTable(0, numberOfItems);
+    }
+
+    /**
+     * Write a save file with rows {@code firstItem} to {@code firstItem + numberOfItems - 1},
+     * 1000 rows per chunk
+     */
+    public static Pair<VoltTable, File> generateTestTable(int firstItem, int numberOfItems)
+            throws Exception {
         VoltTable.ColumnInfo columnInfo[] = new VoltTable.ColumnInfo[] {
                 new ColumnInfo("RT_ID", VoltType.INTEGER),
                 new ColumnInfo("RT_NAME", VoltType.STRING),
@@ -123,8 +132,8 @@ public class TestTableSaveFile extends TestCase {
         VoltTable currentChunkTable = new VoltTable(columnInfo,
                 columnInfo.length);
         int partitionId = 0;
-        for (int i = 0; i < numberOfItems; i++) {
-            if (i % 1000 == 0 && i > 0) {
+        for (int i = firstItem; i < firstItem + numberOfItems; i++) {
+            if ((i - firstItem) % 1000 == 0 && i > firstItem) {
                 serializeChunk(currentChunkTable, dsdt, partitionId++);
                 currentChunkTable = new VoltTable(columnInfo, columnInfo.length);
             }
@@ -304,4 +313,130 @@ public class TestTableSaveFile extends TestCase {
             savefile.close();
         }
     }
+
+    public void testReadAheadBudget() throws Exception {
+        System.out.println("Running testReadAheadBudget");
+        Pair<VoltTable, File> generated = generateTestTable(10000);
+        VoltTable table = generated.getFirst();
+
+        savefile = new TableSaveFile(new FileInputStream(generated.getSecond()), 3, null);
+        ChunkSignals signals = new ChunkSignals();
+        savefile.setChunkListener(signals);
+        savefile.startReading();
+
+        // Nothing is consumed so the reader has to stop after three chunks
+        signals.await(3);
+        Thread.sleep(200);
+        assertEquals(3, signals.get());
+        assertTrue(savefile.hasMoreChunks());
+
+        // Handing out a chunk lets it read one more
+        BBContainer c = savefile.pollNextChunk();
+        assertNotNull(c);
+        VoltTable reaggregate_table = addRows(null, c);
+        signals.await(4);
+
+        while ((c = savefile.getNextChunk()) != null) {
+            reaggregate_table = addRows(reaggregate_table, c);
+        }
+        assertEquals(table, reaggregate_table);
+    }
+
+    public void testSeveralFiles() throws Exception {
+        System.out.println("Running testSeveralFiles");
+        final int fileCount = 3;
+        VoltTable tables[] = new VoltTable[fileCount];
+        TableSaveFile files[] = new TableSaveFile[fileCount];
+        ChunkSignals signals[] = new ChunkSignals[fileCount];
+        try {
+            for (int ii = 0; ii < fileCount; ii++) {
+                Pair<VoltTable, File> generated = generateTestTable(ii * 100000, (ii + 1) * 5000);
+                tables[ii] = generated.getFirst();
+                files[ii] = new TableSaveFile(new FileInputStream(generated.getSecond()), 2, null);
+                signals[ii] = new ChunkSignals();
+                files[ii].setChunkListener(signals[ii]);
+            }
+            for (TableSaveFile file : files) {
+                file.startReading();
+            }
+
+            // All of the files are read at the same time
+            for (ChunkSignals signal : signals) {
+                signal.await(2);
+            }
+
+            // Drain the files together, waiting on the listeners when nothing is ready
+            VoltTable reaggregated[] = new VoltTable[fileCount];
+            boolean hasMoreChunks = true;
+            while (hasMoreChunks) {
+                hasMoreChunks = false;
+                for (int ii = 0; ii < fileCount; ii++) {
+                    final int before = signals[ii].get();
+                    BBContainer c = files[ii].pollNextChunk();
+                    if (c != null) {
+                        reaggregated[ii] = addRows(reaggregated[ii], c);
+                        hasMoreChunks = true;
+                    } else if (files[ii].hasMoreChunks()) {
+                        signals[ii].await(before + 1);
+                        hasMoreChunks = true;
+                    }
+                }
+            }
+
+            for (int ii = 0; ii < fileCount; ii++) {
+                assertEquals(tables[ii], reaggregated[ii]);
+                assertNull(files[ii].pollNextChunk());
+            }
+        } finally {
+            for (TableSaveFile file : files) {
+                if (file != null) {
+                    file.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the rows of chunk {@code c} to {@code reaggregate_table}, which is created if null, and discard it
+     */
+    public static VoltTable addRows(VoltTable reaggregate_table, BBContainer c) {
+        try {
+            VoltTable test_table = PrivateVoltTableFactory.createVoltTableFromBuffer(c.b(), false);
+            if (reaggregate_table == null) {
+                reaggregate_table = test_table.clone(10000);
+            }
+            while (test_table.advanceRow()) {
+                reaggregate_table.add(test_table);
+            }
+            return reaggregate_table;
+        } finally {
+            c.discard();
+        }
+    }
+
+    /**
+     * Chunk listener counting how many times it has been signalled
+     */
+    public static class ChunkSignals implements Runnable {
+        private int m_signals = 0;
+
+        @Override
+        public synchronized void run() {
+            m_signals++;
+            notifyAll();
+        }
+
+        public synchronized int get() {
+            return m_signals;
+        }
+
+        public synchronized void await(int signals) throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + 60000;
+            while (m_signals < signals) {
+                final long remaining = deadline - System.currentTimeMillis();
+                assertTrue("Timed out waiting for " + signals + " chunk signals", remaining > 0);
+                wait(remaining);
+            }
+        }
+    }
 }
@@ -0,0 +1,191 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.voltdb.utils.TestPersistentBinaryDeque.getFilledSmallBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.voltcore.logging.VoltLogger;
+import org.voltcore.utils.DBBPool;
+import org.voltdb.test.utils.RandomTestRule;
+import org.voltdb.utils.TestPersistentBinaryDeque.ExtraHeaderMetadata;
+
+/**
+ * Test how {@link PBDRegularSegment} writes entries to its file and how syncs are accounted for
+ */
+public class TestPBDRegularSegmentWrites {
+    private static final VoltLogger LOG = new VoltLogger("TEST");
+    private static final String TEST_NONCE = "pbd_nonce";
+    private static final String CURSOR_ID = "TestPBDRegularSegmentWrites";
+    private static final int ENTRY_COUNT = 10;
+    private static final int ENTRY_SIZE = getFilledSmallBuffer(0).remaining();
+
+    @Rule
+    public final TemporaryFolder testDir = new TemporaryFolder();
+
+    @Rule
+    public final RandomTestRule random = new RandomTestRule();
+
+    private ExtraHeaderMetadata m_extraHeader;
+    private PersistentBinaryDeque<ExtraHeaderMetadata> m_pbd;
+
+    // Counters updated by every segment channel
+    private int m_vectoredWrites;
+    private int m_singleWrites;
+    // When > 0 each write only writes up to this many bytes
+    private int m_maxBytesPerWrite;
+
+    @Before
+    public void setup() throws IOException {
+        m_extraHeader = new ExtraHeaderMetadata(random);
+        m_pbd = PersistentBinaryDeque.builder(TEST_NONCE, testDir.getRoot(), LOG)
+                .initialExtraHeader(m_extraHeader, TestPersistentBinaryDeque.SERIALIZER)
+                .pbdSegmentFactory(CountingPBDSegment::new).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (m_pbd != null) {
+            m_pbd.close();
+        }
+    }
+
+    /**
+     * Each entry and its header should go out with a single gathering write
+     */
+    @Test
+    public void testOneWritePerEntry() throws Exception {
+        // Let the first offer take care of any segment setup
+        m_pbd.offer(DBBPool.wrapBB(getFilledSmallBuffer(0)));
+
+        for (int i = 1; i < ENTRY_COUNT; ++i) {
+            int vectoredWrites = m_vectoredWrites;
+            int singleWrites = m_singleWrites;
+            m_pbd.offer(DBBPool.wrapBB(getFilledSmallBuffer(i)));
+            assertEquals(vectoredWrites + 1, m_vectoredWrites);
+            assertEquals(singleWrites, m_singleWrites);
+        }
+
+        verifyEntries();
+    }
+
+    /**
+     * Short writes which stop part way through the entry header or entry must be resumed
+     */
+    @Test
+    public void testShortWrites() throws Exception {
+        m_maxBytesPerWrite = 3;
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            int vectoredWrites = m_vectoredWrites;
+            m_pbd.offer(DBBPool.wrapBB(getFilledSmallBuffer(i)));
+            assertTrue(m_vectoredWrites - vectoredWrites > (PBDSegment.ENTRY_HEADER_BYTES + ENTRY_SIZE) / 3);
+        }
+        m_maxBytesPerWrite = 0;
+
+        verifyEntries();
+    }
+
+    @Test
+    public void testSyncStats() throws Exception {
+        // Make sure anything written while creating the segment has been synced
+        m_pbd.sync();
+
+        long[] before = PBDSegment.getSyncStats();
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            m_pbd.offer(DBBPool.wrapBB(getFilledSmallBuffer(i)));
+        }
+        m_pbd.sync();
+
+        long[] after = PBDSegment.getSyncStats();
+        assertEquals(before[0] + 1, after[0]);
+        assertEquals(before[1] + ENTRY_COUNT * (PBDSegment.ENTRY_HEADER_BYTES + ENTRY_SIZE), after[1]);
+        assertTrue(after[2] >= before[2]);
+
+        // Nothing written since the last sync so nothing is recorded
+        m_pbd.sync();
+        assertEquals(after[0], PBDSegment.getSyncStats()[0]);
+        assertEquals(after[1], PBDSegment.getSyncStats()[1]);
+
+        verifyEntries();
+    }
+
+    private void verifyEntries() throws IOException {
+        BinaryDequeReader<ExtraHeaderMetadata> reader = m_pbd.openForRead(CURSOR_ID);
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            TestPersistentBinaryDeque.pollOnceAndVerify(reader, getFilledSmallBuffer(i), m_extraHeader);
+        }
+        TestPersistentBinaryDeque.pollOnceAndVerify(reader, null, null);
+    }
+
+    private class CountingPBDSegment<M> extends PBDRegularSegment<M> {
+        CountingPBDSegment(long id, File file, VoltLogger usageSpecificLog,
+                BinaryDequeSerializer<M> extraHeaderSerializer) {
+            super(id, file, usageSpecificLog, extraHeaderSerializer);
+        }
+
+        @Override
+        FileChannelWrapper openFile(File file, boolean forWrite) throws IOException {
+            return new PBDRegularSegment.FileChannelWrapper(file, forWrite) {
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    ++m_singleWrites;
+                    return super.write(src);
+                }
+
+                @Override
+                public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+                    ++m_vectoredWrites;
+                    if (m_maxBytesPerWrite <= 0) {
+                        return super.write(srcs, offset, length);
+                    }
+
+                    // Only write part of the first buffer which still has data
+                    for (int i = offset; i < offset + length; ++i) {
+                        ByteBuffer src = srcs[i];
+                        if (src.hasRemaining()) {
+                            int limit = src.limit();
+                            src.limit(src.position() + Math.min(src.remaining(), m_maxBytesPerWrite));
+                            try {
+                                return super.write(srcs, i, 1);
+                            } finally {
+                                src.limit(limit);
+                            }
+                        }
+                    }
+                    return 0;
+                }
+            };
+        }
+    }
+}